@@ -0,0 +1,105 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_benchmark.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.samysadi.acs.core.Config;
+
+/**
+ * Measures {@link Config} lookups from a context nested at a given depth.
+ *
+ * <p>Recursive lookups find their value in the root context, so they walk all
+ * the parent contexts. Local lookups find their value in the nested context itself.
+ * Class lookups are the ones made by factories each time an entity is created.
+ *
+ * @since 1.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ConfigBenchmark {
+	@Param({"1", "4", "16"})
+	public int depth;
+
+	private Config config;
+
+	@Setup
+	public void setup() {
+		final Config root = new Config();
+		root.setString("Root", "value");
+		root.setString("Benchmark_Class", ConfigBenchmark.class.getName());
+
+		Config c = root;
+		for (int i = 0; i < this.depth; i++)
+			c = c.addContext("Context", i);
+		c.setString("Local", "value");
+		c.setInt("Count", Integer.valueOf(16));
+
+		this.config = c;
+	}
+
+	@Benchmark
+	public String getRecursive() {
+		return this.config.getString("Root", null, true);
+	}
+
+	@Benchmark
+	public String getLocal() {
+		return this.config.getString("Local", null, false);
+	}
+
+	@Benchmark
+	public String getMissing() {
+		return this.config.getString("Missing", null, true);
+	}
+
+	@Benchmark
+	public Integer getInt() {
+		return this.config.getInt("Count", null, false);
+	}
+
+	@Benchmark
+	public Class<?> getClassFromConfig() {
+		return this.config.getClassFromConfig("Benchmark_Class", null, true);
+	}
+}
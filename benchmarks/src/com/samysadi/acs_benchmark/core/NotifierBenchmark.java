@@ -0,0 +1,123 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_benchmark.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.samysadi.acs.core.Config;
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.notifications.NotificationListener;
+import com.samysadi.acs.core.notifications.Notifier;
+import com.samysadi.acs.core.notifications.NotifierImpl;
+
+/**
+ * Measures immediate and deferred notifications of a {@link NotifierImpl} depending
+ * on the number of listeners registered on it.
+ *
+ * <p>Deferred notifications are measured together with the simulator run that
+ * delivers them.
+ *
+ * @since 1.3
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class NotifierBenchmark {
+	private static final int NOTIFICATIONS = 1000;
+	private static final int CODE = 0x7FFF0001;
+
+	@Param({"0", "1", "10", "100"})
+	public int listeners;
+
+	private Simulator simulator;
+	private NotifierImpl notifier;
+	private Integer[] data;
+	private long received;
+
+	@Setup
+	public void setup() {
+		final Config config = new Config();
+		config.setString("Log.Level", "SEVERE");
+		config.setBoolean("Log.DisableConsole", true);
+		this.simulator = new Simulator(config);
+
+		this.notifier = new NotifierImpl();
+		for (int i = 0; i < this.listeners; i++)
+			this.notifier.addListener(CODE, new NotificationListener() {
+				@Override
+				protected void notificationPerformed(Notifier notifier,
+						int notification_code, Object data) {
+					NotifierBenchmark.this.received++;
+				}
+			});
+
+		//distinct data, so that deferred notifications are not merged
+		this.data = new Integer[NOTIFICATIONS];
+		for (int i = 0; i < NOTIFICATIONS; i++)
+			this.data[i] = Integer.valueOf(i);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.simulator.stop();
+		this.simulator.free();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NOTIFICATIONS)
+	public long notifyNow() {
+		for (int i = 0; i < NOTIFICATIONS; i++)
+			this.notifier.notifyNow(CODE, this.data[i]);
+		return this.received;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NOTIFICATIONS)
+	public long notifyDeferred() {
+		for (int i = 0; i < NOTIFICATIONS; i++)
+			this.notifier.notify(CODE, this.data[i]);
+		this.simulator.start();
+		return this.received;
+	}
+}
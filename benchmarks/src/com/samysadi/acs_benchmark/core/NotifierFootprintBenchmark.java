@@ -0,0 +1,95 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_benchmark.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.samysadi.acs.core.notifications.NotificationListener;
+import com.samysadi.acs.core.notifications.Notifier;
+import com.samysadi.acs.core.notifications.NotifierImpl;
+
+/**
+ * Measures the memory used to register listeners on a {@link NotifierImpl}.
+ *
+ * <p>Each invocation creates a notifier and registers the given number of listeners
+ * on each of the given number of notification codes. Listeners are shared between invocations,
+ * so run this benchmark with the gc profiler (<tt>-prof gc</tt>) and read <tt>gc.alloc.rate.norm</tt>
+ * to get the bytes allocated for each notifier (this includes arrays that are dropped while growing).
+ *
+ * @since 1.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class NotifierFootprintBenchmark {
+	private static final int FIRST_CODE = 0x7FFF0001;
+
+	@Param({"1", "4"})
+	public int codes;
+
+	@Param({"1", "2", "4", "16"})
+	public int listeners;
+
+	private NotificationListener[] shared;
+
+	@Setup
+	public void setup() {
+		this.shared = new NotificationListener[this.listeners];
+		for (int i = 0; i < this.listeners; i++)
+			this.shared[i] = new NotificationListener() {
+				@Override
+				protected void notificationPerformed(Notifier notifier,
+						int notification_code, Object data) {
+					//nothing
+				}
+			};
+	}
+
+	@Benchmark
+	public NotifierImpl register() {
+		final NotifierImpl notifier = new NotifierImpl();
+		for (int c = 0; c < this.codes; c++)
+			for (int i = 0; i < this.listeners; i++)
+				notifier.addListener(FIRST_CODE + c, this.shared[i]);
+		return notifier;
+	}
+}
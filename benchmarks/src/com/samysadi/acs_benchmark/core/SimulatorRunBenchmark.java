@@ -0,0 +1,106 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_benchmark.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.samysadi.acs.core.Config;
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.Event;
+import com.samysadi.acs.core.event.EventImpl;
+
+/**
+ * Measures how many events per second the simulator processes when nobody
+ * listens to its notifications.
+ *
+ * <p>Events do nothing and are reused between invocations, so that the measure only
+ * reflects the overhead of the simulator's main loop.
+ *
+ * @since 1.3
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulatorRunBenchmark {
+	private static final int EVENTS = 100000;
+
+	@Param({"1", "10", "1000"})
+	public int eventsPerTick;
+
+	private Simulator simulator;
+	private Event[] events;
+
+	private static final class EmptyEvent extends EventImpl {
+		@Override
+		public void process() {
+		}
+	}
+
+	@Setup
+	public void setup() {
+		final Config config = new Config();
+		config.setString("Log.Level", "SEVERE");
+		config.setBoolean("Log.DisableConsole", true);
+		this.simulator = new Simulator(config);
+
+		this.events = new Event[EVENTS];
+		for (int i = 0; i < EVENTS; i++)
+			this.events[i] = new EmptyEvent();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.simulator.stop();
+		this.simulator.free();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(EVENTS)
+	public long run() {
+		for (int i = 0; i < EVENTS; i++)
+			this.simulator.schedule(i / this.eventsPerTick, this.events[i]);
+		this.simulator.start();
+		return this.simulator.getTime();
+	}
+}
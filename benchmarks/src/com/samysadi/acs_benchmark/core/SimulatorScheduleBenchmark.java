@@ -0,0 +1,114 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_benchmark.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.samysadi.acs.core.Config;
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.Event;
+import com.samysadi.acs.core.event.EventImpl;
+
+/**
+ * Measures the cost of scheduling then cancelling an event while a given number
+ * of other events are already pending in the simulator.
+ *
+ * <p>This is the usual pattern of operations whose completion event is rescheduled
+ * each time their allocated resource changes.
+ *
+ * @since 1.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulatorScheduleBenchmark {
+	private static final int DELAYS = 1024;
+	private static final long MAX_DELAY = 1000 * Simulator.SECOND;
+
+	@Param({"1000", "100000", "1000000"})
+	public int pendingEvents;
+
+	private Simulator simulator;
+	private Event event;
+	private long[] delays;
+	private int next;
+
+	private static final class EmptyEvent extends EventImpl {
+		@Override
+		public void process() {
+		}
+	}
+
+	@Setup
+	public void setup() {
+		final Config config = new Config();
+		config.setString("Log.Level", "SEVERE");
+		config.setBoolean("Log.DisableConsole", true);
+		this.simulator = new Simulator(config);
+
+		final Random random = new Random(0);
+		for (int i = 0; i < this.pendingEvents; i++)
+			this.simulator.schedule((long) (random.nextDouble() * MAX_DELAY), new EmptyEvent());
+
+		this.delays = new long[DELAYS];
+		for (int i = 0; i < DELAYS; i++)
+			this.delays[i] = (long) (random.nextDouble() * MAX_DELAY);
+		this.next = 0;
+
+		this.event = new EmptyEvent();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.simulator.stop();
+		this.simulator.free();
+	}
+
+	@Benchmark
+	public void scheduleCancel() {
+		this.simulator.schedule(this.delays[this.next], this.event);
+		this.next = (this.next + 1) & (DELAYS - 1);
+		this.simulator.cancel(this.event);
+	}
+}
@@ -0,0 +1,139 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_benchmark.hardware.network;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.samysadi.acs.core.Config;
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.hardware.network.routingprotocol.RoutingProtocol.RouteInfo;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.utility.factory.FactoryUtils;
+import com.samysadi.acs.utility.factory.TopologyFactoryHierarchical;
+
+/**
+ * Measures route lookups between random pairs of hosts of a hierarchical topology
+ * (hosts, racks and one aggregation layer) containing a given number of hosts.
+ *
+ * <p>The routing protocol is given by its simple class name, and is looked up in the
+ * <tt>com.samysadi.acs.hardware.network.routingprotocol</tt> package.
+ *
+ * @since 1.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class RoutingBenchmark {
+	private static final int PAIRS = 1024;
+	private static final int HOSTS_PER_RACK = 16;
+	private static final int RACKS_PER_CLUSTER = 8;
+
+	@Param({"64", "512", "4096"})
+	public int hosts;
+
+	@Param({"RoutingProtocolDefault", "RoutingProtocolShortestPath"})
+	public String routingProtocol;
+
+	private Simulator simulator;
+	private Host[] sources;
+	private Host[] destinations;
+	private int next;
+
+	@Setup
+	public void setup() {
+		final Config config = new Config();
+		config.setString("Log.Level", "SEVERE");
+		config.setBoolean("Log.DisableConsole", true);
+		config.setInt("Trace.Count", 0);
+		config.setString("RoutingProtocol_Class",
+				"com.samysadi.acs.hardware.network.routingprotocol." + this.routingProtocol);
+		this.simulator = new Simulator(config);
+		final CloudProvider cloudProvider = Factory.getFactory(this.simulator).newCloudProvider(null, this.simulator);
+
+		final int racks = Math.max(1, this.hosts / HOSTS_PER_RACK);
+		final int clusters = Math.max(1, racks / RACKS_PER_CLUSTER);
+
+		final Config topology = config.addContext(FactoryUtils.Topology_CONTEXT);
+		//routes through powered off hosts are not found
+		topology.addContext(FactoryUtils.Host_CONTEXT, 0).setBoolean("PowerState", true);
+		addLayer(topology, 0, Math.min(this.hosts, HOSTS_PER_RACK), "NewRack");
+		addLayer(topology, 1, Math.min(racks, RACKS_PER_CLUSTER), "NewCluster");
+		addLayer(topology, 2, clusters, "NewDatacenter");
+		new TopologyFactoryHierarchical(topology, cloudProvider).generate();
+
+		final List<Host> l = cloudProvider.getHosts();
+		final Random random = new Random(0);
+		this.sources = new Host[PAIRS];
+		this.destinations = new Host[PAIRS];
+		for (int i = 0; i < PAIRS; i++) {
+			this.sources[i] = l.get(random.nextInt(l.size()));
+			this.destinations[i] = l.get(random.nextInt(l.size()));
+		}
+		this.next = 0;
+	}
+
+	private static void addLayer(Config topology, int index, int nodes, String newGroup) {
+		//the layer context is only seen when it is defined, like when it is loaded from a file
+		topology.setString(TopologyFactoryHierarchical.CONTEXT + Config.CONTEXT_ARRAY_SEPARATOR + index, "");
+		final Config layer = topology.addContext(TopologyFactoryHierarchical.CONTEXT, index);
+		layer.addContext("Nodes").setInt("Count", nodes);
+		layer.setBoolean(newGroup, true);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.simulator.stop();
+		this.simulator.free();
+	}
+
+	@Benchmark
+	public RouteInfo findRoute() {
+		final int i = this.next;
+		this.next = (i + 1) & (PAIRS - 1);
+		return this.sources[i].getRoutingProtocol().findRoute(this.destinations[i], null);
+	}
+}
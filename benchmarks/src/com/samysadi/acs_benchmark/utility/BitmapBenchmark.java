@@ -0,0 +1,113 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_benchmark.utility;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.samysadi.acs.utility.collections.Bitmap;
+
+/**
+ * Measures {@link Bitmap} mark and unmark operations on a bitmap that already
+ * contains a given number of marked zones.
+ *
+ * <p>Each invocation restores the bitmap, so the number of zones stays the same
+ * during the whole benchmark.
+ *
+ * @since 1.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class BitmapBenchmark {
+	private static final int RANGES = 1024;
+	private static final long ZONE_SPACING = 64;
+
+	@Param({"10", "1000", "100000"})
+	public int zones;
+
+	private Bitmap bitmap;
+	private long[] offsets;
+	private int next;
+
+	@Setup
+	public void setup() {
+		this.bitmap = new Bitmap();
+		//zones of 32 bits separated by holes of 32 bits
+		for (int i = 0; i < this.zones; i++)
+			this.bitmap.mark(i * ZONE_SPACING, ZONE_SPACING / 2);
+
+		this.offsets = new long[RANGES];
+		final Random random = new Random(0);
+		for (int i = 0; i < RANGES; i++)
+			this.offsets[i] = random.nextInt(this.zones) * ZONE_SPACING;
+		this.next = 0;
+	}
+
+	private long nextOffset() {
+		final int i = this.next;
+		this.next = (i + 1) & (RANGES - 1);
+		return this.offsets[i];
+	}
+
+	/**
+	 * Marks a range inside a hole, then unmarks it.
+	 */
+	@Benchmark
+	public Bitmap markUnmark() {
+		final long start = nextOffset() + ZONE_SPACING / 2 + ZONE_SPACING / 8;
+		this.bitmap.mark(start, ZONE_SPACING / 4);
+		this.bitmap.unmark(start, ZONE_SPACING / 4);
+		return this.bitmap;
+	}
+
+	/**
+	 * Unmarks a range inside a zone, splitting it, then marks it again.
+	 */
+	@Benchmark
+	public Bitmap unmarkMark() {
+		final long start = nextOffset() + ZONE_SPACING / 8;
+		this.bitmap.unmark(start, ZONE_SPACING / 4);
+		this.bitmap.mark(start, ZONE_SPACING / 4);
+		return this.bitmap;
+	}
+}
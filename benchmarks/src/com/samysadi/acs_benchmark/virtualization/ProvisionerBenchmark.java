@@ -0,0 +1,138 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_benchmark.virtualization;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.samysadi.acs.core.Config;
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.hardware.pu.ProcessingUnit;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.utility.factory.FactoryUtils;
+import com.samysadi.acs.virtualization.VirtualMachine;
+import com.samysadi.acs.virtualization.job.Job;
+
+/**
+ * Measures a simulation where a given number of computing operations share the same
+ * processing unit and complete one after the other.
+ *
+ * <p>Each operation start and completion makes the provisioner grant or revoke
+ * resources, and update the resources of all the other operations.
+ * The provisioner is given by its simple class name, and is looked up in the
+ * <tt>com.samysadi.acs.hardware.pu.operation.provisioner</tt> package, and its rebalancing
+ * is batched or not depending on the <tt>batched</tt> parameter.
+ *
+ * @since 1.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ProvisionerBenchmark {
+	private static final long MIPS_CAPACITY = 1000 * Simulator.MI;
+	private static final long LENGTH = 1000 * Simulator.MI;
+
+	@Param({"10", "100", "1000"})
+	public int operations;
+
+	@Param({"FairComputingProvisioner", "FastFairComputingProvisioner"})
+	public String provisioner;
+
+	@Param({"false", "true"})
+	public boolean batched;
+
+	private Simulator simulator;
+	private Job job;
+
+	@Setup(Level.Invocation)
+	public void setup() throws ClassNotFoundException {
+		final Config config = new Config();
+		config.setString("Log.Level", "SEVERE");
+		config.setBoolean("Log.DisableConsole", true);
+		config.setInt("Trace.Count", 0);
+		config.setBoolean("Provisioner.BatchRebalancing", this.batched);
+		this.simulator = new Simulator(config);
+		final CloudProvider cloudProvider = Factory.getFactory(this.simulator).newCloudProvider(null, this.simulator);
+
+		final Config hostConfig = config.addContext(FactoryUtils.Host_CONTEXT);
+		hostConfig.setBoolean("PowerState", true);
+		final Host host = FactoryUtils.generateHost(hostConfig, cloudProvider);
+
+		final VirtualMachine vm = FactoryUtils.generateVirtualMachine(host.getConfigRec(), null);
+		vm.setParent(host);
+		final ProcessingUnit pu = host.getProcessingUnits().get(0);
+		vm.setUsableProcessingUnits(Arrays.asList(pu));
+		vm.doStart();
+
+		Factory.getFactory(this.simulator).newComputingProvisioner(
+				Class.forName("com.samysadi.acs.hardware.pu.operation.provisioner." + this.provisioner),
+				pu, MIPS_CAPACITY);
+
+		this.job = Factory.getFactory(this.simulator).newJob(null, null);
+		this.job.setParent(vm);
+		this.job.doStart();
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() {
+		this.simulator.stop();
+		this.simulator.free();
+	}
+
+	@Benchmark
+	public long run() {
+		this.simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				for (int i = 0; i < ProvisionerBenchmark.this.operations; i++)
+					ProvisionerBenchmark.this.job.compute((i + 1) * LENGTH, null);
+			}
+		});
+		this.simulator.start();
+		return this.simulator.getTime();
+	}
+}
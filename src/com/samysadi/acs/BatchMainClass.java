@@ -0,0 +1,357 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.samysadi.acs.core.Config;
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.notifications.NotificationListener;
+import com.samysadi.acs.core.notifications.Notifier;
+import com.samysadi.acs.core.tracing.Probe;
+import com.samysadi.acs.utility.NotificationCodes;
+import com.samysadi.acs.utility.factory.FactoryUtils;
+
+/**
+ * Runs several independent simulations concurrently, for parameter sweeps and replications.
+ *
+ * <p>All simulations use the same configuration file. The batch is described in its
+ * <tt>Batch</tt> context:<ul>
+ * <li><tt>Threads</tt>: the number of simulations that run at the same time (default is the number of processors);
+ * <li><tt>Replications</tt>: how many times each set of parameters is simulated (default is 1).
+ * Replication <tt>r</tt> uses <tt>seed + r</tt> as its seed, so that all sets of parameters are simulated
+ * with the same random numbers;
+ * <li><tt>Parameter</tt> contexts (use <tt>AddParameter</tt>): each one gives the <tt>Name</tt> of a configuration
+ * (including its context, ie: <tt>Topology.Layer#0.Nodes.Count</tt>) and a comma separated list of <tt>Values</tt>.
+ * All combinations of values are simulated;
+ * <li><tt>Probes</tt>: a comma separated list of probe keys whose final values are written to the summary.
+ * Probes starting with <tt>Sim</tt> belong to the simulator, the others belong to the first cloud provider;
+ * <li><tt>Output</tt>: the summary file, relative to the var directory (default is <tt>summary.csv</tt>).
+ * </ul>
+ *
+ * <p>Each run uses its own sub-directory (<tt>run&lt;index&gt;</tt>) of the var directory for its traces and log file.
+ *
+ * @since 1.3
+ */
+public class BatchMainClass extends MainClass {
+	public static final String CONTEXT = "Batch";
+	public static final String Parameter_CONTEXT = "Parameter";
+
+	private final String configFilename;
+	private final List<String> parameterNames;
+	private final List<String[]> parameterValues;
+	private final int replications;
+	private final int threads;
+	private final String[] probes;
+	private final long seed;
+	private final File varDirectory;
+	private final File output;
+
+	public BatchMainClass(String configFilename) {
+		super();
+		this.configFilename = configFilename;
+
+		final Config config = new Config(configFilename);
+		final Config batchCfg = config.addContext(CONTEXT);
+
+		this.parameterNames = new ArrayList<String>();
+		this.parameterValues = new ArrayList<String[]>();
+		int i = 0;
+		while (batchCfg.hasContext(Parameter_CONTEXT, i)) {
+			final Config cfg = batchCfg.addContext(Parameter_CONTEXT, i);
+			final String name = cfg.getString("Name", null);
+			final String[] values = split(cfg.getString("Values", null));
+			if (name == null || values.length == 0)
+				throw new IllegalArgumentException("Batch parameter #" + i + " needs a name and at least one value");
+			this.parameterNames.add(name);
+			this.parameterValues.add(values);
+			i++;
+		}
+
+		this.replications = Math.max(1, batchCfg.getInt("Replications", 1));
+		this.threads = Math.max(1, batchCfg.getInt("Threads", Runtime.getRuntime().availableProcessors()));
+		this.probes = split(batchCfg.getString("Probes", null));
+
+		if ("auto".compareToIgnoreCase(config.getString("seed", "")) == 0)
+			this.seed = System.currentTimeMillis();
+		else
+			this.seed = config.getLong("seed", 0l);
+
+		File var = new File(config.getString("VarDirectory", "var"));
+		if (!var.isAbsolute()) {
+			final String baseDir = config.getString("ConfigDirectory", null);
+			if (baseDir != null)
+				var = new File(baseDir, var.getPath());
+		}
+		this.varDirectory = var.getAbsoluteFile();
+
+		File out = new File(batchCfg.getString("Output", "summary.csv"));
+		if (!out.isAbsolute())
+			out = new File(this.varDirectory, out.getPath());
+		this.output = out;
+	}
+
+	private static String[] split(String s) {
+		if (s == null || s.trim().isEmpty())
+			return new String[0];
+		final String[] r = s.split(",");
+		for (int i = 0; i < r.length; i++)
+			r[i] = r[i].trim();
+		return r;
+	}
+
+	protected static Logger getLogger() {
+		return Logger.getGlobal();
+	}
+
+	/**
+	 * Returns the number of simulations of this batch.
+	 *
+	 * @return the number of simulations of this batch
+	 */
+	public int getRunCount() {
+		int count = this.replications;
+		for (String[] values: this.parameterValues)
+			count *= values.length;
+		return count;
+	}
+
+	/**
+	 * Returns the index of the value of each parameter for the given run.
+	 */
+	private int[] getParameterIndexes(int run) {
+		final int[] r = new int[this.parameterValues.size()];
+		int c = run / this.replications;
+		for (int i = r.length - 1; i >= 0; i--) {
+			final int l = this.parameterValues.get(i).length;
+			r[i] = c % l;
+			c /= l;
+		}
+		return r;
+	}
+
+	/**
+	 * Returns the seed used for the given run.
+	 */
+	private long getSeed(int run) {
+		return this.seed + run % this.replications;
+	}
+
+	/**
+	 * Returns the configuration for the given run, using its own var directory and log file.
+	 *
+	 * @param run
+	 * @return the configuration for the given run
+	 */
+	protected Config getRunConfig(int run) {
+		final Config config = new Config(this.configFilename);
+
+		config.setLong("seed", getSeed(run));
+
+		final int[] indexes = getParameterIndexes(run);
+		for (int i = 0; i < indexes.length; i++)
+			config.setString(this.parameterNames.get(i), this.parameterValues.get(i)[indexes[i]]);
+
+		if (!"-".equals(config.getString("VarDirectory", null))) {
+			final File runDirectory = new File(this.varDirectory, "run" + run);
+			runDirectory.mkdirs();
+			config.setString("VarDirectory", runDirectory.getPath());
+
+			final String log = config.addContext("Log").getString("Output", null);
+			if (log != null && !log.isEmpty())
+				config.addContext("Log").setString("Output", new File(runDirectory, new File(log).getName()).getPath());
+		}
+
+		return config;
+	}
+
+	/**
+	 * Runs the given run in the current thread and returns the final value of each summarized probe.
+	 *
+	 * @param run
+	 * @return the final value of each summarized probe
+	 */
+	protected String[] run(int run) {
+		final Config config = getRunConfig(run);
+		try {
+			final Simulator simulator = FactoryUtils.generateSimulator(config);
+
+			//cloud providers are generated when the simulation starts
+			final Probe<?>[] p = new Probe<?>[this.probes.length];
+			simulator.addListener(NotificationCodes.FACTORY_SIMULATOR_GENERATED, new NotificationListener() {
+				@Override
+				protected void notificationPerformed(Notifier notifier,
+						int notification_code, Object data) {
+					this.discard();
+					simulator.removeListener(NotificationCodes.FACTORY_SIMULATOR_GENERATED, this);
+
+					for (int i = 0; i < p.length; i++) {
+						if (BatchMainClass.this.probes[i].startsWith("Sim"))
+							p[i] = simulator.getProbe(BatchMainClass.this.probes[i]);
+						else if (!simulator.getCloudProviders().isEmpty())
+							p[i] = simulator.getCloudProviders().get(0).getProbe(BatchMainClass.this.probes[i]);
+					}
+				}
+			});
+
+			simulator.start(Math.round(config.getDouble("MaximumRunTime", 0d) * Simulator.SECOND));
+
+			final String[] r = new String[p.length];
+			for (int i = 0; i < p.length; i++)
+				r[i] = p[i] == null ? "" : Simulator.probeValueToString(p[i], p[i].getValue(), false, false);
+			return r;
+		} finally {
+			final Simulator simulator = Simulator.getSimulator();
+			if (simulator != null) {
+				if (!simulator.isStopped())
+					simulator.stop();
+				simulator.free();
+			}
+		}
+	}
+
+	/**
+	 * Runs all the simulations of this batch and writes the summary.
+	 *
+	 * @throws IOException if the summary cannot be written
+	 * @throws InterruptedException
+	 */
+	public void run() throws IOException, InterruptedException {
+		final int count = getRunCount();
+		getLogger().log(Level.INFO, () -> "Running " + count + " simulations using " + this.threads + " threads (seed = " + this.seed + ").");
+
+		final ExecutorService executor = Executors.newFixedThreadPool(this.threads, new ThreadFactory() {
+			private int next = 0;
+			@Override
+			public synchronized Thread newThread(Runnable r) {
+				final Thread t = new Thread(r, "acs-batch-" + (this.next++));
+				t.setDaemon(true);
+				return t;
+			}
+		});
+
+		final String[][] results = new String[count][];
+		try {
+			final ExecutorCompletionService<Integer> completion = new ExecutorCompletionService<Integer>(executor);
+			for (int i = 0; i < count; i++) {
+				final int run = i;
+				completion.submit(new Runnable() {
+					@Override
+					public void run() {
+						results[run] = BatchMainClass.this.run(run);
+					}
+				}, Integer.valueOf(run));
+			}
+
+			for (int i = 0; i < count; i++) {
+				final Future<Integer> f = completion.take();
+				final int completed = i + 1;
+				try {
+					final Integer run = f.get();
+					getLogger().log(Level.INFO, () -> "Run " + run + " completed (" + completed + "/" + count + ").");
+				} catch (ExecutionException e) {
+					getLogger().log(Level.SEVERE, "A run failed.", e.getCause());
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		writeSummary(results);
+	}
+
+	private static void appendCsv(StringBuilder sb, String value) {
+		if (sb.length() > 0)
+			sb.append(',');
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			sb.append(value);
+			return;
+		}
+		sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+
+	private void writeSummary(String[][] results) throws IOException {
+		final File parent = this.output.getParentFile();
+		if (parent != null)
+			parent.mkdirs();
+
+		final BufferedWriter w = Files.newBufferedWriter(this.output.toPath(), StandardCharsets.UTF_8);
+		try {
+			StringBuilder sb = new StringBuilder();
+			appendCsv(sb, "Run");
+			appendCsv(sb, "Seed");
+			for (String name: this.parameterNames)
+				appendCsv(sb, name);
+			for (String probe: this.probes)
+				appendCsv(sb, probe);
+			w.write(sb.toString());
+			w.newLine();
+
+			for (int run = 0; run < results.length; run++) {
+				sb = new StringBuilder();
+				appendCsv(sb, String.valueOf(run));
+				appendCsv(sb, String.valueOf(getSeed(run)));
+				final int[] indexes = getParameterIndexes(run);
+				for (int i = 0; i < indexes.length; i++)
+					appendCsv(sb, this.parameterValues.get(i)[indexes[i]]);
+				for (int i = 0; i < this.probes.length; i++)
+					appendCsv(sb, results[run] == null ? "" : results[run][i]);
+				w.write(sb.toString());
+				w.newLine();
+			}
+		} finally {
+			w.close();
+		}
+
+		getLogger().log(Level.INFO, "Batch summary written to: {0}", this.output.getAbsolutePath());
+	}
+
+	/**
+	 * Usage: <tt>BatchMainClass [configFile]</tt>.
+	 *
+	 * @param args
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		final BatchMainClass batch = new BatchMainClass(args.length > 0 ? args[0] : Config.DEFAULT_CONFIG_FILENAME);
+		batch.run();
+	}
+}
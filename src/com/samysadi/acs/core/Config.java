@@ -69,6 +69,11 @@ import org.xml.sax.helpers.DefaultHandler;
  * set a recursive flag in order to look for a configuration value in parent contexts when
  * the configuration value is not present in current context.
  *
+ * <p>Each instance remembers the full keys (ie: the keys prefixed with the contexts) of the configuration names
+ * it was asked for, so repeated lookups do not build them again.
+ * Besides, values that are derived from the configuration can be cached using {@link Config#getSnapshot(SnapshotFactory)}.
+ * As a consequence, lookups update internal caches and instances should not be read concurrently from different threads.
+ *
  * <p><u><b>Configuration File Format:</b></u><br/>
  * The configuration can be read from a xml file where tags define configuration names (i.e. keys), and tag contents define the configuration values.
  * Each configuration can have an id attribute which is used to refer back to it (in order to remove for instance).<br/>
@@ -106,6 +111,24 @@ public class Config {
 	 */
 	private final String context;
 
+	/**
+	 * Counts modifications made to the configuration values. It is shared by all contexted instances.
+	 */
+	private static final class Modifications {
+		long count = 0l;
+	}
+
+	private final Modifications modifications;
+
+	/**
+	 * Keys are configuration names, and values are the keys to look for in the configuration map, starting
+	 * with the current context and ending with the root context.
+	 */
+	private HashMap<String, String[]> compiledKeys;
+
+	private HashMap<SnapshotFactory<?>, Object> snapshots;
+	private long snapshotsModifications;
+
 	private static String checkConfigFilename(String filename) {
 		if (filename != null && !filename.isEmpty()) {
 			try {
@@ -145,6 +168,7 @@ public class Config {
 		super();
 		this.config = config.config;
 		this.contextsCache = config.contextsCache;
+		this.modifications = config.modifications;
 		String c = trimContext(context);
 		this.context = c.isEmpty() ? "" : c + CONTEXT_SEPARATOR;
 	}
@@ -219,6 +243,8 @@ public class Config {
 
 		this.context = "";
 
+		this.modifications = new Modifications();
+
 		this.config = new HashMap<String, Object>();
 
 		if (filename != null && !filename.isEmpty()) {
@@ -331,26 +357,96 @@ public class Config {
 	 * if none is found
 	 */
 	protected Object getConfig(String configName, Object defaultValue, boolean recursive) {
-		Object value;
-		String context = this.context;
-		do {
-			value = this.config.get(context + configName);
+		final String[] keys = getCompiledKeys(configName);
+		final int count = recursive ? keys.length : 1;
+		for (int i = 0; i < count; i++) {
+			final Object value = this.config.get(keys[i]);
 			if (value != null)
 				return value;
-			if (!recursive)
-				break;
-			context = getParentContext(context);
-			if (context == null)
-				break;
-		} while (true);
+		}
 		return defaultValue;
 	}
 
+	/**
+	 * Returns the keys of the given configuration name in the current context and in all parent contexts,
+	 * starting with the current context.
+	 */
+	private String[] getCompiledKeys(String configName) {
+		if (this.compiledKeys == null)
+			this.compiledKeys = new HashMap<String, String[]>();
+		String[] keys = this.compiledKeys.get(configName);
+		if (keys == null) {
+			int count = 1;
+			for (int i = 0; i < this.context.length(); i++)
+				if (this.context.charAt(i) == CONTEXT_SEPARATOR)
+					count++;
+			keys = new String[count];
+			String context = this.context;
+			for (int i = 0; i < count; i++) {
+				keys[i] = context + configName;
+				context = getParentContext(context);
+			}
+			this.compiledKeys.put(configName, keys);
+		}
+		return keys;
+	}
+
 	protected void setConfig(String configName, Object value) {
 		if (value == null)
-			this.config.remove(this.context + configName);
+			this.config.remove(getCompiledKeys(configName)[0]);
 		else
-			this.config.put(this.context + configName, value);
+			this.config.put(getCompiledKeys(configName)[0], value);
+		modified();
+	}
+
+	private void modified() {
+		this.modifications.count++;
+	}
+
+	/**
+	 * Creates values that are derived from a {@link Config}.
+	 *
+	 * @param <T> the type of created values
+	 * @see Config#getSnapshot(SnapshotFactory)
+	 * @since 1.3
+	 */
+	public static interface SnapshotFactory<T> {
+		/**
+		 * Creates and returns a new value using the given <tt>config</tt>.
+		 *
+		 * <p>The returned value should be immutable, as it is shared by all callers of {@link Config#getSnapshot(SnapshotFactory)}.
+		 *
+		 * @param config
+		 * @return a new value
+		 */
+		public T newSnapshot(Config config);
+	}
+
+	/**
+	 * Returns the value created by the given <tt>factory</tt> for this config.
+	 *
+	 * <p>The value is created the first time this method is called, and is then cached in this instance
+	 * until a configuration value is modified (in any context).
+	 * Factories are compared by identity, so you should use one shared instance for each kind of snapshot.
+	 *
+	 * @param factory
+	 * @return the value created by the given <tt>factory</tt> for this config
+	 * @since 1.3
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getSnapshot(SnapshotFactory<T> factory) {
+		if (this.snapshots == null)
+			this.snapshots = new HashMap<SnapshotFactory<?>, Object>();
+		else if (this.snapshotsModifications != this.modifications.count)
+			this.snapshots.clear();
+		this.snapshotsModifications = this.modifications.count;
+
+		T snapshot = (T) this.snapshots.get(factory);
+		if (snapshot == null) {
+			snapshot = factory.newSnapshot(this);
+			this.snapshots.put(factory, snapshot);
+		}
+		return snapshot;
 	}
 
 //	private static String stripDecimal(String value) {
@@ -412,7 +508,7 @@ public class Config {
 			setConfig(configName, v);
 			return v;
 		} catch (NumberFormatException e) {
-			getLogger().log(Level.WARNING, "Config value is not a correct Boolean: " + this.context + configName);
+			getLogger().logf(Level.WARNING, "Config value is not a correct Boolean: {0}{1}", this.context, configName);
 			return defaultValue;
 		}
 	}
@@ -463,7 +559,7 @@ public class Config {
 			setConfig(configName, v);
 			return v;
 		} catch (NumberFormatException e) {
-			getLogger().log(Level.WARNING, "Config value is not a correct Byte: " + this.context + configName);
+			getLogger().logf(Level.WARNING, "Config value is not a correct Byte: {0}{1}", this.context, configName);
 			return defaultValue;
 		}
 	}
@@ -511,7 +607,7 @@ public class Config {
 			setConfig(configName, v);
 			return v;
 		} catch (NumberFormatException e) {
-			getLogger().log(Level.WARNING, "Config value is not a correct Short: " + this.context + configName);
+			getLogger().logf(Level.WARNING, "Config value is not a correct Short: {0}{1}", this.context, configName);
 			return defaultValue;
 		}
 	}
@@ -556,7 +652,7 @@ public class Config {
 			setConfig(configName, v);
 			return v;
 		} catch (NumberFormatException e) {
-			getLogger().log(Level.WARNING, "Config value is not a correct Integer: " + this.context + configName);
+			getLogger().logf(Level.WARNING, "Config value is not a correct Integer: {0}{1}", this.context, configName);
 			return defaultValue;
 		}
 	}
@@ -598,7 +694,7 @@ public class Config {
 			setConfig(configName, v);
 			return v;
 		} catch (NumberFormatException e) {
-			getLogger().log(Level.WARNING, "Config value is not a correct Long: " + this.context + configName);
+			getLogger().logf(Level.WARNING, "Config value is not a correct Long: {0}{1}", this.context, configName);
 			return defaultValue;
 		}
 	}
@@ -646,7 +742,7 @@ public class Config {
 			setConfig(configName, v);
 			return v;
 		} catch (NumberFormatException e) {
-			getLogger().log(Level.WARNING, "Config value is not a correct Double: " + this.context + configName);
+			getLogger().logf(Level.WARNING, "Config value is not a correct Double: {0}{1}", this.context, configName);
 			return defaultValue;
 		}
 	}
@@ -676,7 +772,7 @@ public class Config {
 			setConfig(configName, clazz);
 			return clazz;
 		} catch (ClassNotFoundException e) {
-			getLogger().log(Level.SEVERE, "Class " + s + " not found. This also may lead to performance issues.");
+			getLogger().logf(Level.SEVERE, "Class {0} not found. This also may lead to performance issues.", s);
 			return defaultValue;
 		}
 	}
@@ -706,7 +802,7 @@ public class Config {
 			setConfig(configName, v);
 			return v;
 		} catch (IllegalArgumentException e) {
-			getLogger().log(Level.WARNING, "Config value is not a correct Level: " + this.context + configName);
+			getLogger().logf(Level.WARNING, "Config value is not a correct Level: {0}{1}", this.context, configName);
 			return defaultValue;
 		}
 	}
@@ -756,8 +852,7 @@ public class Config {
 			try {
 				ff = ff.getCanonicalFile();
 			} catch (IOException e) {
-				Config.this.getLogger().log(Level.SEVERE, includeTrace.toString() +
-						"Configuration file not found: \"" + filename + "\".");
+				Config.this.getLogger().logf(Level.SEVERE, "{0}Configuration file not found: \"{1}\".", includeTrace, filename);
 				return false;
 			}
 			f = ff;
@@ -779,20 +874,17 @@ public class Config {
 					loaded = includeXMLConfigFile(br, newBaseDir, includeTrace, loadContext);
 				} else if ("config".equals(ext)) {
 					includeTrace.removeLast();
-					Config.this.getLogger().log(Level.SEVERE, includeTrace.toString() +
-							"Old .config files are not supported anymore. Please use XML format instead for file: \"" + f.getPath() + "\".");
+					Config.this.getLogger().logf(Level.SEVERE, "{0}Old .config files are not supported anymore. Please use XML format instead for file: \"{1}\".", includeTrace, f);
 					return false;
 				} else {
 					includeTrace.removeLast();
-					Config.this.getLogger().log(Level.SEVERE, includeTrace.toString() +
-							"Configuration file extension unknown: \"" + f.getPath() + "\".");
+					Config.this.getLogger().logf(Level.SEVERE, "{0}Configuration file extension unknown: \"{1}\".", includeTrace, f);
 					return false;
 				}
 
 				includeTrace.removeLast();
 				if (!loaded) {
-					Config.this.getLogger().log(Level.SEVERE, includeTrace.toString() +
-							"Error when loading configuration file: \"" + f.getPath() + "\".");
+					Config.this.getLogger().logf(Level.SEVERE, "{0}Error when loading configuration file: \"{1}\".", includeTrace, f);
 					return false;
 				}
 
@@ -800,12 +892,10 @@ public class Config {
 				br.close();
 			}
 		} catch (FileNotFoundException e) {
-			Config.this.getLogger().log(Level.SEVERE, includeTrace.toString() +
-					"Configuration file not found: \"" + f.getPath() + "\".");
+			Config.this.getLogger().logf(Level.SEVERE, "{0}Configuration file not found: \"{1}\".", includeTrace, f);
 			return false;
 		} catch (IOException e) {
-			Config.this.getLogger().log(Level.SEVERE, includeTrace.toString() +
-					"Configuration file cannot be opened: \"" + f.getPath() + "\".");
+			Config.this.getLogger().logf(Level.SEVERE, "{0}Configuration file cannot be opened: \"{1}\".", includeTrace, f);
 			return false;
 		}
 
@@ -845,7 +935,7 @@ public class Config {
 	public static final String DEFAULT_SAX_FACTORY = "com.sun.org.apache.xerces.internal.jaxp.SAXParserFactoryImpl";
 
 	private static HashMap<String, SAXParserFactory> parserFactories = new HashMap<String, SAXParserFactory>();
-	protected static SAXParserFactory getSAXParserFactory(String driver) {
+	protected static synchronized SAXParserFactory getSAXParserFactory(String driver) {
 		SAXParserFactory rtr = parserFactories.get(driver);
 		if (rtr == null) {
 			rtr = SAXParserFactory.newInstance(driver, null);
@@ -893,6 +983,7 @@ public class Config {
 			if (e.getKey().equals(key) || e.getKey().startsWith(key + CONTEXT_SEPARATOR))
 				it.remove();
 		}
+		modified();
 	}
 
 	private void _renameContext(String oldKey, String newKey) {
@@ -911,6 +1002,7 @@ public class Config {
 		}
 
 		Config.this.config.putAll(m);
+		modified();
 	}
 
 	/**
@@ -964,12 +1056,15 @@ public class Config {
 			String factoryDesc = factory == null ? "null" : factory.getClass().getName();
 
 			try {
-				rtr = getSAXParserFactory().newSAXParser().getXMLReader();
+				//factories are shared by configurations that may be loaded concurrently in different threads
+				synchronized (factory) {
+					rtr = factory.newSAXParser().getXMLReader();
+				}
 			} catch (SAXException e) {
-				Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "Error when initiating XML reader (using factory:" + factoryDesc + ").");
+				Config.this.getLogger().logf(Level.WARNING, "{0}Error when initiating XML reader (using factory:{1}).", includeTrace, factoryDesc);
 				return false;
 			} catch (ParserConfigurationException e) {
-				Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "Error when initiating XML reader (using factory:" + factoryDesc + ").");
+				Config.this.getLogger().logf(Level.WARNING, "{0}Error when initiating XML reader (using factory:{1}).", includeTrace, factoryDesc);
 				return false;
 			}
 		}
@@ -1069,7 +1164,7 @@ public class Config {
 					String qName, Attributes atts) throws SAXException {
 				String tag = localName;
 				if (childrenElementsForbidden) {
-					Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "Children elements not allowed For the element \"" + tag + "\".");
+					Config.this.getLogger().logf(Level.WARNING, "{0}Children elements not allowed For the element \"{1}\".", includeTrace, tag);
 					throw new SAXException("Malformed document");
 				}
 
@@ -1079,19 +1174,19 @@ public class Config {
 						in_root_tag = true;
 						return;
 					} else {
-						Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "Root tag of the document must be \"" + ROOT_TAG + "\".");
+						Config.this.getLogger().logf(Level.WARNING, "{0}Root tag of the document must be \"" + ROOT_TAG + "\".", includeTrace);
 						throw new SAXException("Malformed document");
 					}
 				}
 
 				if (tag.indexOf(CONTEXT_SEPARATOR) >= 0) {
-					Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "Element name (\"" + tag + "\") contains illegal character.");
+					Config.this.getLogger().logf(Level.WARNING, "{0}Element name (\"{1}\") contains illegal character.", includeTrace, tag);
 					throw new SAXException("Malformed document");
 				} else if (tag.equalsIgnoreCase(ROOT_TAG) || tag.equalsIgnoreCase(ID_ATTRIBUTE)) {
-					Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "Element name \"" + tag + "\" not allowed.");
+					Config.this.getLogger().logf(Level.WARNING, "{0}Element name \"{1}\" not allowed.", includeTrace, tag);
 					throw new SAXException("Malformed document");
 				} else if (Character.isDigit(tag.charAt(tag.length()-1))) {
-					Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "Element names ending with digits are reserved (\"" + tag + "\" not allowed).");
+					Config.this.getLogger().logf(Level.WARNING, "{0}Element names ending with digits are reserved (\"{1}\" not allowed).", includeTrace, tag);
 					throw new SAXException("Malformed document");
 				}
 
@@ -1107,13 +1202,13 @@ public class Config {
 					childrenElementsForbidden = true;
 
 					if (id == null || id.isEmpty()) {
-						Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "You need to specify the "+ ID_ATTRIBUTE +" of the element to remove. Or use \"" + WILDCARD_ID_ATTRIBUTE_VALUE + "\" to remove all elements in this context.");
+						Config.this.getLogger().logf(Level.WARNING, "{0}You need to specify the " + ID_ATTRIBUTE + " of the element to remove. Or use \"" + WILDCARD_ID_ATTRIBUTE_VALUE + "\" to remove all elements in this context.", includeTrace);
 						throw new SAXException("Malformed document");
 					}
 				} else if (isTagPrefixed(tag, ADD_TAG)) {
 					tag = extractTag(tag, ADD_TAG);
 					if (tag.isEmpty()) {
-						Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "The \"" + ADD_TAG + "\" element is a special tag which needs a suffix.");
+						Config.this.getLogger().logf(Level.WARNING, "{0}The \"" + ADD_TAG + "\" element is a special tag which needs a suffix.", includeTrace);
 						throw new SAXException("Malformed document");
 					}
 					ixcfa = IncludeXMLConfigFileAction.ADD;
@@ -1133,22 +1228,24 @@ public class Config {
 				} else if (isTagPrefixed(tag, EDIT_TAG)) {
 					tag = extractTag(tag, EDIT_TAG);
 					if (tag.isEmpty()) {
-						Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "The \"" + EDIT_TAG + "\" element is a special tag which needs a suffix.");
+						Config.this.getLogger().logf(Level.WARNING, "{0}The \"" + EDIT_TAG + "\" element is a special tag which needs a suffix.", includeTrace);
 						throw new SAXException("Malformed document");
 					}
 					ixcfa = IncludeXMLConfigFileAction.EDIT;
 
 					if (id == null || id.isEmpty()) {
-						Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "You need to specify the "+ ID_ATTRIBUTE +" when using the " + EDIT_TAG + " tag.");
+						Config.this.getLogger().logf(Level.WARNING, "{0}You need to specify the " + ID_ATTRIBUTE + " when using the " + EDIT_TAG + " tag.", includeTrace);
 						throw new SAXException("Malformed document");
 					} else if (WILDCARD_ID_ATTRIBUTE_VALUE.equals(id)) {
-						Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "The wildcard value is not allowed for the "+ ID_ATTRIBUTE +" when using the " + EDIT_TAG + " tag.");
+						Config.this.getLogger().logf(Level.WARNING, "{0}The wildcard value is not allowed for the " + ID_ATTRIBUTE + " when using the " + EDIT_TAG + " tag.", includeTrace);
 						throw new SAXException("Malformed document");
 					}
 
 					String editCtx = findEditContext(tag, id);
 					if (editCtx == null) {
-						Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "Cannot find the specified context (<" + (tag.isEmpty() ? "?" :  tag) + " id=\"" + id + "\">).");
+						final String editTag = tag.isEmpty() ? "?" : tag;
+						final String editId = id;
+						Config.this.getLogger().logLazily(Level.WARNING, () -> includeTrace + "Cannot find the specified context (<" + editTag + " id=\"" + editId + "\">).");
 						throw new SAXException("Malformed document");
 					}
 
@@ -1161,14 +1258,16 @@ public class Config {
 				if (ixcfa == IncludeXMLConfigFileAction.ADD || ixcfa == IncludeXMLConfigFileAction.DEFAULT) {
 					if (id != null) {
 						if (id.equals(WILDCARD_ID_ATTRIBUTE_VALUE)) {
-							Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "Wildcard id attribute not allowed for this element (\"" + tag + "\").");
+							Config.this.getLogger().logf(Level.WARNING, "{0}Wildcard id attribute not allowed for this element (\"{1}\").", includeTrace, tag);
 							throw new SAXException("Malformed document");
 						}
 
 						Config.this.config.put(trimContext(loadContext + ctx + ID_ATTRIBUTE), id);
+						modified();
 					}
 
 					Config.this.config.put(trimContext(loadContext + ctx), "");
+					modified();
 				}
 			}
 
@@ -1203,6 +1302,7 @@ public class Config {
 				case EDIT:
 				case DEFAULT:
 					Config.this.config.put(trimContext(loadContext + ctx), value);
+					modified();
 				case NONE:
 					ctx = getParentContext(ctx);
 					break;
@@ -1246,8 +1346,8 @@ public class Config {
 		try {
 			rtr.parse(new InputSource(br));
 		} catch (SAXException e) {
-			Config.this.getLogger().log(Level.WARNING, includeTrace.toString() + "Error when parsing XML file" +
-					(pexc[0] == null ? "" : "(" + pexc[0].getMessage() + ")") + ".");
+			Config.this.getLogger().logf(Level.WARNING, "{0}Error when parsing XML file{1}.", includeTrace,
+					pexc[0] == null ? "" : "(" + pexc[0].getMessage() + ")");
 			return false;
 		}
 
@@ -30,21 +30,38 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.SimpleFormatter;
 
 import com.samysadi.acs.core.entity.Entity;
 
 /**
+ * Logs messages prefixed with the current simulation time and with the entity that they concern.
+ *
+ * <p>Messages are only formatted if their level is loggable. Use the <tt>logf</tt> methods (whose message
+ * contains <tt>{0}</tt>, <tt>{1}</tt> placeholders) instead of concatenating strings, so that parameters are only
+ * converted to strings when needed. Messages that are expensive to build can be given as a {@link Supplier}
+ * to the <tt>logLazily</tt> methods.
  *
  * @since 1.0
  */
 public class Logger implements Closeable {
 	public static Level DEFAULT_LEVEL = Level.FINER;
 
+	/**
+	 * Default maximum number of records waiting to be written by asynchronous file handlers.
+	 *
+	 * @since 1.3
+	 */
+	public static final int DEFAULT_ASYNC_QUEUE_SIZE = 8192;
+
 	private java.util.logging.Logger logger = null;
 
 	public Logger(Level l) {
@@ -111,12 +128,127 @@ public class Logger implements Closeable {
 		}
 	}
 
+	/**
+	 * A handler that hands records to a background thread which writes them to a file.
+	 *
+	 * <p>Records are queued in a bounded queue. When the queue is full, the logging thread waits
+	 * until there is enough room.
+	 *
+	 * @since 1.3
+	 */
+	private static final class AsyncFileHandler extends Handler {
+		private static final LogRecord CLOSE = new LogRecord(Level.OFF, "");
+
+		private final MyFileHandler handler;
+		private final BlockingQueue<LogRecord> queue;
+		private final Thread thread;
+
+		public AsyncFileHandler(MyFileHandler handler, int queueSize) {
+			super();
+			this.handler = handler;
+			this.queue = new ArrayBlockingQueue<LogRecord>(queueSize);
+			this.thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						while (true) {
+							final LogRecord r = AsyncFileHandler.this.queue.take();
+							if (r == CLOSE)
+								break;
+							AsyncFileHandler.this.handler.publish(r);
+						}
+					} catch (InterruptedException e) {
+						//
+					}
+					AsyncFileHandler.this.handler.flush();
+				}
+			}, "Logger-" + handler.getPattern());
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+
+		public String getPattern() {
+			return this.handler.getPattern();
+		}
+
+		@Override
+		public void publish(LogRecord record) {
+			if (!isLoggable(record))
+				return;
+			try {
+				this.queue.put(record);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public void flush() {
+			this.handler.flush();
+		}
+
+		@Override
+		public void close() throws SecurityException {
+			try {
+				this.queue.put(CLOSE);
+				this.thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.handler.close();
+		}
+	}
+
+	private static String getPattern(Handler handler) {
+		if (handler instanceof MyFileHandler)
+			return ((MyFileHandler) handler).getPattern();
+		if (handler instanceof AsyncFileHandler)
+			return ((AsyncFileHandler) handler).getPattern();
+		return null;
+	}
+
 	public void enableOutputToFile(String filename) {
-		FileHandler handler;
+		enableOutputToFile(filename, false);
+	}
+
+	/**
+	 * Enables logging to the given file.
+	 *
+	 * <p>If <tt>async</tt> is <tt>true</tt>, then records are written by a background thread so that
+	 * the simulation does not wait for disk writes.
+	 *
+	 * @param filename
+	 * @param async
+	 *
+	 * @since 1.3
+	 */
+	public void enableOutputToFile(String filename, boolean async) {
+		enableOutputToFile(filename, async ? DEFAULT_ASYNC_QUEUE_SIZE : 0);
+	}
+
+	/**
+	 * Enables logging to the given file.
+	 *
+	 * <p>If <tt>asyncQueueSize</tt> is positive, then records are written by a background thread so that
+	 * the simulation does not wait for disk writes, and at most <tt>asyncQueueSize</tt> records
+	 * can wait to be written.
+	 *
+	 * @param filename
+	 * @param asyncQueueSize
+	 *
+	 * @since 1.3
+	 */
+	public void enableOutputToFile(String filename, int asyncQueueSize) {
+		MyFileHandler handler;
 		try {
 			handler = new MyFileHandler(filename);
 			handler.setFormatter(new SimpleFormatter());
-			logger.addHandler(handler);
+			if (asyncQueueSize > 0) {
+				AsyncFileHandler h = new AsyncFileHandler(handler, asyncQueueSize);
+				h.setLevel(handler.getLevel());
+				logger.addHandler(h);
+			} else
+				logger.addHandler(handler);
 		} catch (SecurityException e) {
 			System.err.println("Cannot enable logging to the file: " + filename);
 		} catch (IOException e) {
@@ -126,14 +258,14 @@ public class Logger implements Closeable {
 
 	public void disableOutputToFile(String filename) {
 		for (Handler handler: this.logger.getHandlers()) {
-			if (handler instanceof MyFileHandler) {
-				MyFileHandler fhandler = (MyFileHandler) handler;
-				if (fhandler.getPattern().equals(filename)) {
+			final String pattern = getPattern(handler);
+			if (pattern != null) {
+				if (pattern.equals(filename)) {
 					this.logger.removeHandler(handler);
 					continue;
 				}
 				File f1 = new File(filename);
-				File f2 = new File(fhandler.getPattern());
+				File f2 = new File(pattern);
 				try {
 					if (f1.getCanonicalPath().equals(f2.getCanonicalPath()))
 						this.logger.removeHandler(handler);
@@ -146,7 +278,7 @@ public class Logger implements Closeable {
 
 	public void disableOutputToFiles() {
 		for (Handler handler: this.logger.getHandlers()) {
-			if (handler instanceof MyFileHandler)
+			if (getPattern(handler) != null)
 				this.logger.removeHandler(handler);
 		}
 	}
@@ -154,7 +286,7 @@ public class Logger implements Closeable {
 	@Override
 	public void close() {
 		for (Handler handler: this.logger.getHandlers()) {
-			if (handler instanceof MyFileHandler) {
+			if (getPattern(handler) != null) {
 				this.logger.removeHandler(handler);
 				handler.close();
 			}
@@ -162,18 +294,120 @@ public class Logger implements Closeable {
 	}
 
 	public void log(Level logLevel, Entity entity, String message, Throwable thrown) {
-		String s = "";
+		if (!isLoggable(logLevel))
+			return;
+		final StringBuilder s = new StringBuilder();
 		if (Simulator.getSimulator() != null)
-			s = Simulator.formatTime(Simulator.getSimulator().getTime()) + " > ";
-		else
-			s = "";
+			s.append(Simulator.formatTime(Simulator.getSimulator().getTime())).append(" > ");
 		if (entity != null)
-			s+= entity + " > ";
-		s+= message;
-		if (thrown != null)
-			this.logger.log(logLevel, s, thrown);
-		else
-			this.logger.log(logLevel, s);
+			s.append(entity).append(" > ");
+		s.append(message);
+		//the source is given explicitly, so that it is not inferred from the stack
+		this.logger.logp(logLevel, null, null, s.toString(), thrown);
+	}
+
+	/**
+	 * Replaces the <tt>{0}</tt> and <tt>{1}</tt> placeholders in the given message.
+	 */
+	private static String format(String message, Object param1, Object param2) {
+		final StringBuilder s = new StringBuilder(message.length() + 16);
+		int last = 0;
+		int i;
+		while ((i = message.indexOf('{', last)) >= 0) {
+			if (i + 2 < message.length() && message.charAt(i + 2) == '}') {
+				final char c = message.charAt(i + 1);
+				if (c == '0' || c == '1') {
+					s.append(message, last, i);
+					s.append(String.valueOf(c == '0' ? param1 : param2));
+					last = i + 3;
+					continue;
+				}
+			}
+			s.append(message, last, i + 1);
+			last = i + 1;
+		}
+		s.append(message, last, message.length());
+		return s.toString();
+	}
+
+	/**
+	 * Logs the given message after replacing <tt>{0}</tt> with <tt>param1</tt> and <tt>{1}</tt> with <tt>param2</tt>.
+	 *
+	 * <p>Nothing is formatted if the given level is not loggable.
+	 *
+	 * @since 1.3
+	 */
+	public void logf(Level logLevel, Entity entity, String message, Object param1, Object param2, Throwable thrown) {
+		if (!isLoggable(logLevel))
+			return;
+		log(logLevel, entity, format(message, param1, param2), thrown);
+	}
+
+	/**
+	 * See {@link Logger#logf(Level, Entity, String, Object, Object, Throwable)}.
+	 *
+	 * @since 1.3
+	 */
+	public void logf(Level logLevel, Entity entity, String message, Object param1, Object param2) {
+		logf(logLevel, entity, message, param1, param2, null);
+	}
+
+	/**
+	 * See {@link Logger#logf(Level, Entity, String, Object, Object, Throwable)}.
+	 *
+	 * @since 1.3
+	 */
+	public void logf(Level logLevel, Entity entity, String message, Object param1) {
+		logf(logLevel, entity, message, param1, null);
+	}
+
+	/**
+	 * See {@link Logger#logf(Level, Entity, String, Object, Object, Throwable)}.
+	 *
+	 * @since 1.3
+	 */
+	public void logf(Level logLevel, String message, Object param1, Object param2) {
+		logf(logLevel, null, message, param1, param2);
+	}
+
+	/**
+	 * See {@link Logger#logf(Level, Entity, String, Object, Object, Throwable)}.
+	 *
+	 * @since 1.3
+	 */
+	public void logf(Level logLevel, String message, Object param1) {
+		logf(logLevel, null, message, param1, null);
+	}
+
+	/**
+	 * Logs the message returned by the given <tt>supplier</tt>.
+	 *
+	 * <p>The supplier is only called if the given level is loggable.
+	 *
+	 * @since 1.3
+	 */
+	public void logLazily(Level logLevel, Entity entity, Supplier<String> supplier, Throwable thrown) {
+		if (!isLoggable(logLevel))
+			return;
+		log(logLevel, entity, supplier.get(), thrown);
+	}
+
+	/**
+	 * See {@link Logger#logLazily(Level, Entity, Supplier, Throwable)}.
+	 *
+	 * @since 1.3
+	 */
+	public void logLazily(Level logLevel, Entity entity, Supplier<String> supplier) {
+		logLazily(logLevel, entity, supplier, null);
+	}
+
+	/**
+	 * See {@link Logger#logLazily(Level, Entity, Supplier, Throwable)}.
+	 *
+	 * @since 1.3
+	 */
+	public void logLazily(Level logLevel, Supplier<String> supplier) {
+		logLazily(logLevel, null, supplier, null);
 	}
 
 	public void log(Level logLevel, Entity entity, String message) {
@@ -201,7 +435,7 @@ public class Logger implements Closeable {
 	}
 
 	public void log(Level logLevel, String message) {
-		log(logLevel, message, null);
+		log(logLevel, message, (Throwable) null);
 	}
 
 	public void logInstantiationException(Class<?> clazz, Exception e) {
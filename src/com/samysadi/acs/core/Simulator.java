@@ -32,9 +32,7 @@ import java.text.NumberFormat;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Random;
-import java.util.TreeMap;
 import java.util.WeakHashMap;
 import java.util.logging.Level;
 
@@ -42,9 +40,13 @@ import com.samysadi.acs.core.entity.Entity;
 import com.samysadi.acs.core.entity.EntityImpl;
 import com.samysadi.acs.core.event.DispensableEvent;
 import com.samysadi.acs.core.event.Event;
+import com.samysadi.acs.core.event.EventQueue;
 import com.samysadi.acs.core.notifications.CoreNotificationCodes;
+import com.samysadi.acs.core.notifications.DeferredNotificationQueue;
+import com.samysadi.acs.core.notifications.Notifier;
 import com.samysadi.acs.core.tracing.FormattableProbe;
 import com.samysadi.acs.core.tracing.Probe;
+import com.samysadi.acs.core.tracing.TraceSampler;
 import com.samysadi.acs.core.tracing.probetypes.DataRateProbe;
 import com.samysadi.acs.core.tracing.probetypes.DataSizeProbe;
 import com.samysadi.acs.core.tracing.probetypes.EnergyProbe;
@@ -53,8 +55,10 @@ import com.samysadi.acs.core.tracing.probetypes.MipsProbe;
 import com.samysadi.acs.core.tracing.probetypes.PowerProbe;
 import com.samysadi.acs.core.tracing.probetypes.PriceProbe;
 import com.samysadi.acs.core.tracing.probetypes.TimeProbe;
+import com.samysadi.acs.hardware.misc.MetaData;
 import com.samysadi.acs.service.CloudProvider;
 import com.samysadi.acs.utility.collections.MultiListView;
+import com.samysadi.acs.utility.factory.Factory;
 
 /**
  * A simulator is an {@link Entity} that is the ancestor
@@ -189,12 +193,16 @@ public class Simulator extends EntityImpl {
 	private long systemTime = 0l;
 	private long time = 0l;
 	private long scheduledStop = 0l;
-	private final TreeMap<Long, LinkedList<Event>> nextEvents = new TreeMap<Long, LinkedList<Event>>();
-	// We could get rid of this next field, but it would imply not directly polling the
-	// entry from nextEvents during the simulation.
-	// We want to avoid this behavior to improve performances.
-	private Entry<Long, LinkedList<Event>> currentEntry = null;
+	private EventQueue nextEvents;
+	private DeferredNotificationQueue notificationQueue = null;
+	private TraceSampler traceSampler = null;
 	private int nonDispensableEventsCount = 0;
+	// Whether there are listeners for the notifications that are sent for each tick or event.
+	// These flags let us skip these notifications when nobody listens to them.
+	private boolean listenerFlagsOutdated = true;
+	private boolean hasTickListeners = false;
+	private boolean hasTickPassedListeners = false;
+	private boolean hasEventProcessedListeners = false;
 
 	private int lastMemoryCleanupCount = memoryCleanupCount;
 
@@ -205,6 +213,9 @@ public class Simulator extends EntityImpl {
 	private final WeakHashMap<Object, Random> randomsCache = new WeakHashMap<Object, Random>();
 	private final LinkedList<Random> randoms = new LinkedList<Random>();
 
+	private long lastEntityId = 0l;
+	private long lastDataId = 0l;
+
 	static {
 		initMemoryListener();
 	}
@@ -215,21 +226,34 @@ public class Simulator extends EntityImpl {
 		init();
 	}
 
-	private static final WeakHashMap<Thread, Simulator> simulators = new WeakHashMap<Thread, Simulator>();
+	/**
+	 * The simulator of each thread.
+	 * This is read without any locking, so that simulators running in different threads do not contend.
+	 */
+	private static final ThreadLocal<Simulator> current = new ThreadLocal<Simulator>();
 
+	/**
+	 * Returns the simulator that was created in the current thread, or <tt>null</tt> if there is none.
+	 *
+	 * <p>Entities keep a reference to the simulator that was current when they were created,
+	 * so they should rather use {@link EntityImpl#getEntitySimulator()}.
+	 *
+	 * @return the simulator of the current thread
+	 */
 	public static Simulator getSimulator() {
-		synchronized(simulators) {
-			return simulators.get(Thread.currentThread());
-		}
+		return current.get();
+	}
+
+	@Override
+	protected Simulator getEntitySimulator() {
+		return this;
 	}
 
 	private void init() {
-		synchronized(simulators) {
-			if (getSimulator() != null)
-				throw new IllegalArgumentException("Only one instance of Simulator can be created per Thread. You have to call free() on the current thread's instance before creating another.");
-			this.executionThread = Thread.currentThread();
-			simulators.put(this.executionThread, this);
-		}
+		if (getSimulator() != null)
+			throw new IllegalArgumentException("Only one instance of Simulator can be created per Thread. You have to call free() on the current thread's instance before creating another.");
+		this.executionThread = Thread.currentThread();
+		current.set(this);
 
 		{
 			final Config logCfg = getConfig().addContext("Log");
@@ -240,7 +264,8 @@ public class Simulator extends EntityImpl {
 
 			String file = logCfg.getString("Output", null);
 			if (file != null && !file.isEmpty())
-				getLogger().enableOutputToFile(file);
+				getLogger().enableOutputToFile(file, logCfg.getBoolean("AsyncOutput", false) ?
+						logCfg.getInt("AsyncQueueSize", Logger.DEFAULT_ASYNC_QUEUE_SIZE) : 0);
 		}
 
 		{
@@ -253,7 +278,7 @@ public class Simulator extends EntityImpl {
 			this.randomSeedsGenerator = new Random(this.random.nextLong());
 		}
 
-		//
+		this.nextEvents = Factory.getFactory(getConfig()).newEventQueue(null);
 	}
 
 	public void free() {
@@ -263,10 +288,8 @@ public class Simulator extends EntityImpl {
 		if (this.getLogger() != null)
 			this.getLogger().close();
 
-		synchronized(simulators) {
-			if (this == getSimulator())
-				simulators.remove(Thread.currentThread());
-		}
+		if (this == getSimulator())
+			current.remove();
 
 		this.executionThread = null;
 	}
@@ -338,6 +361,19 @@ public class Simulator extends EntityImpl {
 		throw new UnsupportedOperationException();
 	}
 
+	@Override
+	protected void notificationListenersChanged() {
+		super.notificationListenersChanged();
+		this.listenerFlagsOutdated = true;
+	}
+
+	private void updateListenerFlags() {
+		this.listenerFlagsOutdated = false;
+		this.hasTickListeners = hasListeners(CoreNotificationCodes.SIMULATOR_TICK);
+		this.hasTickPassedListeners = hasListeners(CoreNotificationCodes.SIMULATOR_TICK_PASSED);
+		this.hasEventProcessedListeners = hasListeners(CoreNotificationCodes.SIMULATOR_EVENT_PROCESSED);
+	}
+
 	/**
 	 * Returns the current simulation time.
 	 *
@@ -369,20 +405,11 @@ public class Simulator extends EntityImpl {
 	 * @throws IllegalArgumentException if the given event is not scheduled
 	 */
 	public void cancel(Event event) {
-		final Long t = event.getScheduledAt();
-		if (t == null)
+		if (!event.isScheduled())
 			throw new IllegalArgumentException("This event is not scheduled.");
-		final boolean isNotCurrent = this.currentEntry == null || !this.currentEntry.getKey().equals(t);
-		final LinkedList<Event> l;
-		if (isNotCurrent)
-			l = this.nextEvents.get(t);
-		else
-			l = this.currentEntry.getValue();
-		if (l != null && l.remove(event)) {
+		if (this.nextEvents.remove(event)) {
 			if (!(event instanceof DispensableEvent))
 				this.nonDispensableEventsCount--;
-			if (isNotCurrent && l.isEmpty())
-				this.nextEvents.remove(t);
 		}
 		event.scheduledAt(null);
 	}
@@ -412,22 +439,38 @@ public class Simulator extends EntityImpl {
 		delay = this.time + delay;
 		if (delay < this.time)
 			throw new IllegalArgumentException("The given time is in the past");
-		final Long t = Long.valueOf(delay);
-		LinkedList<Event> l = null;
-		if (this.currentEntry != null && this.currentEntry.getKey().equals(t)) {
-			l = this.currentEntry.getValue();
-		} else
-			l = nextEvents.get(t);
-		if (l == null) {
-			l = new LinkedList<Event>();
-			nextEvents.put(t, l);
-		}
-		l.add(event);
-		event.scheduledAt(t);
+		if (delay == this.time && this.notificationQueue != null)
+			this.notificationQueue.closeDelivery();
+		this.nextEvents.add(delay, event);
+		event.scheduledAt(Long.valueOf(delay));
 		if (!(event instanceof DispensableEvent))
 			this.nonDispensableEventsCount++;
 	}
 
+	/**
+	 * Returns the queue that keeps notifications sent using {@link Notifier#notify(int, Object)} until they are delivered.
+	 *
+	 * @return the deferred notifications queue of this simulator
+	 * @since 1.3
+	 */
+	public DeferredNotificationQueue getNotificationQueue() {
+		if (this.notificationQueue == null)
+			this.notificationQueue = new DeferredNotificationQueue(this);
+		return this.notificationQueue;
+	}
+
+	/**
+	 * Returns the sampler that records trace values once all events of the current simulation time are processed.
+	 *
+	 * @return the trace sampler of this simulator
+	 * @since 1.3
+	 */
+	public TraceSampler getTraceSampler() {
+		if (this.traceSampler == null)
+			this.traceSampler = new TraceSampler(this);
+		return this.traceSampler;
+	}
+
 	/**
 	 * Returns the maximum delay value that can be used when scheduling events using
 	 * {@link Simulator#schedule(long, Event)} method.
@@ -473,30 +516,28 @@ public class Simulator extends EntityImpl {
 			if (this.nonDispensableEventsCount == 0)
 				break; //nothing to process
 
-			// let's find the next valid (not discarded) event
-			this.currentEntry = this.nextEvents.pollFirstEntry();
-
-			// note: this.currentEntry should never be null
-			// because nonDispensableEventsCount >, 0 that means that this.nextEvents is not empty
-
-			if (this.currentEntry.getValue().isEmpty())
-				continue;
+			// note: this.nextEvents should never be empty
+			// because nonDispensableEventsCount > 0
 
 			//update time
-			this.time = this.currentEntry.getKey();
+			this.time = this.nextEvents.peekTime();
 			// notify that the simulation time progressed
-			notifyNow(CoreNotificationCodes.SIMULATOR_TICK, null);
+			if (this.listenerFlagsOutdated)
+				updateListenerFlags();
+			if (this.hasTickListeners)
+				notifyNow(CoreNotificationCodes.SIMULATOR_TICK, null);
 
 			// let's process next event
 			Event next = null;
-			while (null != (next = this.currentEntry.getValue().pollFirst())) {
+			while (this.nextEvents.peekTime() == this.time &&
+					null != (next = this.nextEvents.poll())) {
 				if (progress_level_loggable && (next_report-- == 0)) {
 					next_report = progress_accuracy;
 					long tt = System.nanoTime();
 					if (tt - tick2 > progress_delay) {
 						long h = added_report == 0 ? 0 : Math.round((1000000000d / (tt - tick2)) * (added_report+1));
 						tick2 = tt;
-						Logger.getGlobal().log(progress_level, "Simulation progress: remains " + this.nonDispensableEventsCount + " events and " + this.nextEvents.size() + " ticks (" + h + "e/s)");
+						Logger.getGlobal().log(progress_level, "Simulation progress: remains " + this.nonDispensableEventsCount + " events (" + this.nextEvents.size() + " in queue) (" + h + "e/s)");
 						Logger.getGlobal().log(progress_level, "Memory used: " + ((Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20) + "MiB");
 						added_report = 0;
 					}
@@ -504,7 +545,10 @@ public class Simulator extends EntityImpl {
 				}
 
 				next.process();
-				notifyNow(CoreNotificationCodes.SIMULATOR_EVENT_PROCESSED, next);
+				if (this.listenerFlagsOutdated)
+					updateListenerFlags();
+				if (this.hasEventProcessedListeners)
+					notifyNow(CoreNotificationCodes.SIMULATOR_EVENT_PROCESSED, next);
 				next.scheduledAt(null); //next is not scheduled anymore
 
 				if (!(next instanceof DispensableEvent))
@@ -515,18 +559,25 @@ public class Simulator extends EntityImpl {
 
 				if (lastMemoryCleanupCount != memoryCleanupCount) {
 					getLogger().log(Level.WARNING, "Memory is low, performing cleanup...");
-					memoryCleanupCount = lastMemoryCleanupCount;
+					lastMemoryCleanupCount = memoryCleanupCount;
+					notifyNow(CoreNotificationCodes.SIMULATOR_MEMORY_LOW, null);
 					performMemoryCleanup(this);
 					System.gc(); //gc must be called, so that cleaned memory is collected. Otherwise, performMemoryCleanup may not be called again
 				}
 			}
 
 			// notify that all events in current simulation time are processed
-			notifyNow(CoreNotificationCodes.SIMULATOR_TICK_PASSED, null);
-			if (this.nonDispensableEventsCount != 0 && !this.currentEntry.getValue().isEmpty())
+			if (this.listenerFlagsOutdated)
+				updateListenerFlags();
+			if (this.hasTickPassedListeners)
+				notifyNow(CoreNotificationCodes.SIMULATOR_TICK_PASSED, null);
+			if (this.traceSampler != null)
+				this.traceSampler.tickPassed();
+			if (this.nonDispensableEventsCount != 0 && this.nextEvents.peekTime() == this.time)
 				throw new IllegalStateException("Scheduling events at current time is not allowed under listeners of the " + CoreNotificationCodes.notificationCodeToString(CoreNotificationCodes.SIMULATOR_TICK_PASSED) + " notification code.");
 		}
-		this.currentEntry = null;
+		if (this.traceSampler != null)
+			this.traceSampler.simulationStopped();
 		notifyNow(CoreNotificationCodes.SIMULATOR_STOPPED, null);
 
 		this.systemTime += (System.nanoTime() - tick) / 1000000;
@@ -575,7 +626,8 @@ public class Simulator extends EntityImpl {
 
 	public static long MEMORY_CLEANUP_THRESHOLD = 50 * (1 << 20); //50 mebibytes
 
-	private static int memoryCleanupCount = 0;
+	//incremented by the memory listener thread, and read by all simulators
+	private static volatile int memoryCleanupCount = 0;
 	private static void initMemoryListener() {
 		if (MEMORY_CLEANUP_THRESHOLD <= 0)
 			return;
@@ -742,6 +794,41 @@ public class Simulator extends EntityImpl {
 			this.randoms.removeLast();
 	}
 
+	/**
+	 * Returns a new identifier for an entity of this simulation.
+	 *
+	 * <p>Identifiers are counted per simulator, so that simulations running
+	 * concurrently in other threads do not change them.
+	 *
+	 * @return a new entity identifier
+	 * @since 1.3
+	 */
+	public long newEntityId() {
+		return ++this.lastEntityId;
+	}
+
+	/**
+	 * Returns the last identifier returned by {@link Simulator#newEntityId()}.
+	 *
+	 * @return the last entity identifier
+	 * @since 1.3
+	 */
+	public long getLastEntityId() {
+		return this.lastEntityId;
+	}
+
+	/**
+	 * Returns a new data identifier for this simulation.
+	 *
+	 * <p>Data identifiers are counted per simulator, see {@link MetaData}.
+	 *
+	 * @return a new data identifier
+	 * @since 1.3
+	 */
+	public long newDataId() {
+		return ++this.lastDataId;
+	}
+
 	@Override
 	public Logger getLogger() {
 		return this.logger;
@@ -45,6 +45,7 @@ import com.samysadi.acs.utility.factory.Factory;
  * @since 1.0
  */
 public class EntityImpl extends ProbedImpl implements Entity {
+	//identifiers of entities created outside of any simulation
 	private static long idCounter = 0;
 	private static int MAX_PARENT_LOCKS = Integer.MAX_VALUE;
 
@@ -55,6 +56,7 @@ public class EntityImpl extends ProbedImpl implements Entity {
 	private String name;
 	private Config config;
 	private Map<Object, Object> properties;
+	private Simulator simulator;
 
 	public EntityImpl() {
 		super();
@@ -91,7 +93,8 @@ public class EntityImpl extends ProbedImpl implements Entity {
 	 * the entity is cloned on the newly created clone before its children are cloned.
 	 */
 	protected void initializeEntity() {
-		this.id = ++EntityImpl.idCounter;
+		this.simulator = Simulator.getSimulator();
+		this.id = newId(this.simulator);
 		this.parent = null;
 		this.parentLock = 0;
 		this.entities = null;
@@ -269,7 +272,7 @@ public class EntityImpl extends ProbedImpl implements Entity {
 			return this.config;
 		if (this.getParent() != null)
 			return this.getParent().getConfigRec();
-		return Simulator.getSimulator().getConfig();
+		return getEntitySimulator().getConfig();
 	}
 
 	@Override
@@ -337,8 +340,43 @@ public class EntityImpl extends ProbedImpl implements Entity {
 			this.properties = null;
 	}
 
+	/**
+	 * Returns the simulator that was running in the current thread when this entity was created
+	 * (or cloned). If there was none, then the current thread's simulator is returned.
+	 *
+	 * <p>Use this method instead of {@link Simulator#getSimulator()} in frequently called code,
+	 * as it only needs a field read.
+	 *
+	 * @return the simulator of this entity
+	 * @since 1.3
+	 */
+	protected Simulator getEntitySimulator() {
+		final Simulator simulator = this.simulator;
+		if (simulator != null)
+			return simulator;
+		return Simulator.getSimulator();
+	}
+
+	private static long newId(Simulator simulator) {
+		if (simulator != null)
+			return simulator.newEntityId();
+		synchronized (EntityImpl.class) {
+			return ++idCounter;
+		}
+	}
+
+	/**
+	 * Returns the identifier of the next entity that will be created in the current thread's simulation.
+	 *
+	 * @return the identifier of the next entity
+	 */
 	public static long getNextId() {
-		return idCounter+1;
+		final Simulator simulator = Simulator.getSimulator();
+		if (simulator != null)
+			return simulator.getLastEntityId() + 1;
+		synchronized (EntityImpl.class) {
+			return idCounter + 1;
+		}
 	}
 
 	protected final <C> ArrayList<C> newArrayList() {
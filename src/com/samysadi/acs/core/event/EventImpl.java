@@ -35,6 +35,8 @@ import com.samysadi.acs.core.Simulator;
 public abstract class EventImpl implements Event {
 	//use Long since a Long is anyhow instantiated by the Simulator
 	private Long scheduledAtTime = null;
+	//position of this event inside the EventQueue where it is scheduled, or -1
+	int queueSlot = -1;
 
 	public EventImpl() {
 		super();
@@ -50,6 +52,7 @@ public abstract class EventImpl implements Event {
 		}
 
 		clone.scheduledAtTime = null;
+		clone.queueSlot = -1;
 
 		return clone;
 	}
@@ -0,0 +1,96 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.event;
+
+import com.samysadi.acs.core.Simulator;
+
+/**
+ * An event queue holds the events scheduled in a {@link Simulator} and
+ * returns them ordered by their scheduled time.
+ *
+ * <p>Events that are scheduled at the same time are returned in the same order
+ * they were added to the queue (FIFO).
+ *
+ * <p>Implementations must define a public constructor that takes no arguments.
+ * The implementation that is used by the simulator is selected using the
+ * <tt>EventQueue_Class</tt> configuration.
+ *
+ * @since 1.3
+ */
+public interface EventQueue {
+
+	/**
+	 * Adds the given <tt>event</tt> to this queue so that it is returned at the given <tt>time</tt>.
+	 *
+	 * <p>This method does not update the event's scheduled time, it is the caller responsibility to do so.
+	 *
+	 * @param time the simulation time when the event is to be processed
+	 * @param event
+	 */
+	public void add(long time, Event event);
+
+	/**
+	 * Removes the given <tt>event</tt> from this queue.
+	 *
+	 * @param event
+	 * @return <tt>true</tt> if the event was found and removed
+	 */
+	public boolean remove(Event event);
+
+	/**
+	 * Removes and returns the next event in this queue, or returns <tt>null</tt> if this queue is empty.
+	 *
+	 * @return the next event in this queue or <tt>null</tt>
+	 */
+	public Event poll();
+
+	/**
+	 * Returns the time of the next event in this queue, or {@link Long#MAX_VALUE} if this queue is empty.
+	 *
+	 * @return the time of the next event in this queue or {@link Long#MAX_VALUE}
+	 */
+	public long peekTime();
+
+	/**
+	 * Returns <tt>true</tt> if this queue contains no events.
+	 *
+	 * @return <tt>true</tt> if this queue contains no events
+	 */
+	public boolean isEmpty();
+
+	/**
+	 * Returns the number of events in this queue.
+	 *
+	 * @return the number of events in this queue
+	 */
+	public int size();
+
+	/**
+	 * Removes all events from this queue.
+	 */
+	public void clear();
+}
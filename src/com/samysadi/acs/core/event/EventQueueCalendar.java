@@ -0,0 +1,381 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.event;
+
+import java.util.Arrays;
+
+/**
+ * An {@link EventQueue} implementing a calendar queue.
+ *
+ * <p>Events are hashed by their time into buckets (days) of a fixed width, and each
+ * bucket keeps its events sorted.
+ * When many events share the same or close times, adding and polling events are
+ * <i>O(1)</i> operations on average.
+ *
+ * <p>The number of buckets and their width are recomputed each time the number of
+ * events doubles or halves.
+ *
+ * <p>Each {@link EventImpl} keeps a reference to its node in the queue so that it
+ * can be removed in <i>O(1)</i>.
+ * Events that do not extend {@link EventImpl} are still supported but their
+ * removal needs a linear search.
+ *
+ * @since 1.3
+ */
+public class EventQueueCalendar implements EventQueue {
+	private static final int MIN_BUCKETS = 16;
+	private static final int INITIAL_NODES = 64;
+	//number of events used to compute a new bucket width
+	private static final int WIDTH_SAMPLE_SIZE = 64;
+
+	private static final long MAX_WIDTH = Long.MAX_VALUE >> 16;
+
+	private static final int NONE = -1;
+
+	//nodes of the doubly linked lists of each bucket
+	private long[] nodeTimes;
+	private long[] nodeSequences;
+	private Event[] nodeEvents;
+	private int[] nodeNexts;
+	private int[] nodePrevs;
+	private int freeNode;
+
+	private int[] bucketHeads;
+	private int[] bucketTails;
+	private int bucketMask;
+	private long width;
+
+	private int lastBucket;
+	private long lastTime;
+	private long bucketTop;
+
+	private int size;
+	private long nextSequence;
+
+	public EventQueueCalendar() {
+		super();
+
+		this.nodeTimes = new long[INITIAL_NODES];
+		this.nodeSequences = new long[INITIAL_NODES];
+		this.nodeEvents = new Event[INITIAL_NODES];
+		this.nodeNexts = new int[INITIAL_NODES];
+		this.nodePrevs = new int[INITIAL_NODES];
+		initFreeNodes(0);
+
+		this.size = 0;
+		this.nextSequence = 0l;
+
+		initBuckets(MIN_BUCKETS, 1l, 0l);
+	}
+
+	private void initFreeNodes(int from) {
+		for (int i = from; i < this.nodeNexts.length - 1; i++)
+			this.nodeNexts[i] = i + 1;
+		this.nodeNexts[this.nodeNexts.length - 1] = NONE;
+		this.freeNode = from;
+	}
+
+	private void initBuckets(int count, long width, long startTime) {
+		this.bucketHeads = new int[count];
+		this.bucketTails = new int[count];
+		Arrays.fill(this.bucketHeads, NONE);
+		Arrays.fill(this.bucketTails, NONE);
+		this.bucketMask = count - 1;
+		this.width = width;
+		moveCursor(startTime);
+	}
+
+	private void moveCursor(long time) {
+		this.lastTime = time;
+		this.lastBucket = bucketOf(time);
+		this.bucketTop = (time / this.width) * this.width + this.width;
+	}
+
+	private int bucketOf(long time) {
+		return (int) ((time / this.width) & this.bucketMask);
+	}
+
+	private int newNode() {
+		if (this.freeNode == NONE) {
+			final int old = this.nodeNexts.length;
+			final int capacity = old << 1;
+			this.nodeTimes = Arrays.copyOf(this.nodeTimes, capacity);
+			this.nodeSequences = Arrays.copyOf(this.nodeSequences, capacity);
+			this.nodeEvents = Arrays.copyOf(this.nodeEvents, capacity);
+			this.nodeNexts = Arrays.copyOf(this.nodeNexts, capacity);
+			this.nodePrevs = Arrays.copyOf(this.nodePrevs, capacity);
+			initFreeNodes(old);
+		}
+		final int node = this.freeNode;
+		this.freeNode = this.nodeNexts[node];
+		return node;
+	}
+
+	private void freeNode(int node) {
+		this.nodeEvents[node] = null;
+		this.nodeNexts[node] = this.freeNode;
+		this.freeNode = node;
+	}
+
+	private boolean isBefore(int node, long time, long sequence) {
+		final long t = this.nodeTimes[node];
+		if (t != time)
+			return t < time;
+		return this.nodeSequences[node] < sequence;
+	}
+
+	/**
+	 * Links the given node inside its bucket.
+	 * The bucket is searched from its tail, because most of the time new events are added after existing ones.
+	 */
+	private void link(int node) {
+		final long time = this.nodeTimes[node];
+		final long sequence = this.nodeSequences[node];
+		final int bucket = bucketOf(time);
+
+		int prev = this.bucketTails[bucket];
+		while (prev != NONE && !isBefore(prev, time, sequence))
+			prev = this.nodePrevs[prev];
+
+		final int next;
+		if (prev == NONE) {
+			next = this.bucketHeads[bucket];
+			this.bucketHeads[bucket] = node;
+		} else {
+			next = this.nodeNexts[prev];
+			this.nodeNexts[prev] = node;
+		}
+
+		if (next == NONE)
+			this.bucketTails[bucket] = node;
+		else
+			this.nodePrevs[next] = node;
+
+		this.nodePrevs[node] = prev;
+		this.nodeNexts[node] = next;
+
+		final Event event = this.nodeEvents[node];
+		if (event instanceof EventImpl)
+			((EventImpl) event).queueSlot = node;
+	}
+
+	private void unlink(int node) {
+		final int bucket = bucketOf(this.nodeTimes[node]);
+		final int prev = this.nodePrevs[node];
+		final int next = this.nodeNexts[node];
+
+		if (prev == NONE)
+			this.bucketHeads[bucket] = next;
+		else
+			this.nodeNexts[prev] = next;
+
+		if (next == NONE)
+			this.bucketTails[bucket] = prev;
+		else
+			this.nodePrevs[next] = prev;
+
+		final Event event = this.nodeEvents[node];
+		if (event instanceof EventImpl)
+			((EventImpl) event).queueSlot = NONE;
+	}
+
+	@Override
+	public void add(long time, Event event) {
+		final int node = newNode();
+		this.nodeTimes[node] = time;
+		this.nodeSequences[node] = this.nextSequence++;
+		this.nodeEvents[node] = event;
+
+		link(node);
+		this.size++;
+
+		if (time < this.lastTime)
+			moveCursor(time);
+
+		if (this.size > (this.bucketMask + 1) << 1)
+			resize((this.bucketMask + 1) << 1);
+	}
+
+	private int nodeOf(Event event) {
+		if (event instanceof EventImpl) {
+			final int node = ((EventImpl) event).queueSlot;
+			if (node >= 0 && node < this.nodeEvents.length && this.nodeEvents[node] == event)
+				return node;
+			return NONE;
+		}
+
+		for (int bucket = 0; bucket <= this.bucketMask; bucket++) {
+			int node = this.bucketHeads[bucket];
+			while (node != NONE) {
+				if (this.nodeEvents[node] == event)
+					return node;
+				node = this.nodeNexts[node];
+			}
+		}
+		return NONE;
+	}
+
+	private void removeNode(int node) {
+		unlink(node);
+		freeNode(node);
+		this.size--;
+
+		final int buckets = this.bucketMask + 1;
+		if (buckets > MIN_BUCKETS && this.size < buckets >> 1)
+			resize(buckets >> 1);
+	}
+
+	@Override
+	public boolean remove(Event event) {
+		final int node = nodeOf(event);
+		if (node == NONE)
+			return false;
+		removeNode(node);
+		return true;
+	}
+
+	/**
+	 * Returns the node holding the next event and moves the cursor to it.
+	 */
+	private int findFirst() {
+		if (this.size == 0)
+			return NONE;
+
+		int bucket = this.lastBucket;
+		long top = this.bucketTop;
+		for (int i = 0; i <= this.bucketMask; i++) {
+			final int node = this.bucketHeads[bucket];
+			if (node != NONE && this.nodeTimes[node] < top) {
+				this.lastBucket = bucket;
+				this.bucketTop = top;
+				this.lastTime = this.nodeTimes[node];
+				return node;
+			}
+			bucket = (bucket + 1) & this.bucketMask;
+			top += this.width;
+		}
+
+		//no event in the current year, let's make a direct search
+		int first = NONE;
+		for (bucket = 0; bucket <= this.bucketMask; bucket++) {
+			final int node = this.bucketHeads[bucket];
+			if (node != NONE && (first == NONE || isBefore(node, this.nodeTimes[first], this.nodeSequences[first])))
+				first = node;
+		}
+		moveCursor(this.nodeTimes[first]);
+		return first;
+	}
+
+	@Override
+	public Event poll() {
+		final int node = findFirst();
+		if (node == NONE)
+			return null;
+		final Event event = this.nodeEvents[node];
+		removeNode(node);
+		return event;
+	}
+
+	@Override
+	public long peekTime() {
+		final int node = findFirst();
+		if (node == NONE)
+			return Long.MAX_VALUE;
+		return this.nodeTimes[node];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Computes a bucket width based on the average separation between the distinct times of the
+	 * first events in the given sorted array.
+	 */
+	private static long computeWidth(long[] sortedTimes) {
+		double sum = 0d;
+		int count = 0;
+		for (int i = 1; i < sortedTimes.length && count < WIDTH_SAMPLE_SIZE; i++) {
+			final long d = sortedTimes[i] - sortedTimes[i - 1];
+			if (d > 0) {
+				sum += d;
+				count++;
+			}
+		}
+		if (count == 0)
+			return 1l;
+		final double w = 3 * sum / count;
+		if (w >= MAX_WIDTH)
+			return MAX_WIDTH;
+		return Math.max(1l, (long) w);
+	}
+
+	private void resize(int buckets) {
+		final int[] nodes = new int[this.size];
+		final long[] times = new long[this.size];
+		int c = 0;
+		for (int bucket = 0; bucket <= this.bucketMask; bucket++) {
+			int node = this.bucketHeads[bucket];
+			while (node != NONE) {
+				nodes[c] = node;
+				times[c] = this.nodeTimes[node];
+				c++;
+				node = this.nodeNexts[node];
+			}
+		}
+
+		Arrays.sort(times);
+
+		initBuckets(buckets, computeWidth(times), this.size == 0 ? this.lastTime : times[0]);
+
+		for (int node: nodes)
+			link(node);
+	}
+
+	@Override
+	public void clear() {
+		for (int bucket = 0; bucket <= this.bucketMask; bucket++) {
+			int node = this.bucketHeads[bucket];
+			while (node != NONE) {
+				final int next = this.nodeNexts[node];
+				final Event event = this.nodeEvents[node];
+				if (event instanceof EventImpl)
+					((EventImpl) event).queueSlot = NONE;
+				freeNode(node);
+				node = next;
+			}
+		}
+		this.size = 0;
+		initBuckets(MIN_BUCKETS, 1l, this.lastTime);
+	}
+}
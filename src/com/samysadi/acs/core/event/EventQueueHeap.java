@@ -0,0 +1,210 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.event;
+
+import java.util.Arrays;
+
+/**
+ * An {@link EventQueue} backed by an indexed binary heap.
+ *
+ * <p>Times are stored in primitive arrays, and each {@link EventImpl} keeps its
+ * position inside the heap so that it can be removed in <i>O(log n)</i>.
+ * Events that do not extend {@link EventImpl} are still supported but their
+ * removal needs a linear search.
+ *
+ * <p>Adding and polling events are <i>O(log n)</i> operations.
+ *
+ * @since 1.3
+ */
+public class EventQueueHeap implements EventQueue {
+	private static final int INITIAL_CAPACITY = 64;
+
+	private long[] times;
+	//insertion order, used to return events scheduled at the same time in FIFO order
+	private long[] sequences;
+	private Event[] events;
+	private int size;
+	private long nextSequence;
+
+	public EventQueueHeap() {
+		super();
+		this.times = new long[INITIAL_CAPACITY];
+		this.sequences = new long[INITIAL_CAPACITY];
+		this.events = new Event[INITIAL_CAPACITY];
+		this.size = 0;
+		this.nextSequence = 0l;
+	}
+
+	private boolean isBefore(int i, int j) {
+		if (this.times[i] != this.times[j])
+			return this.times[i] < this.times[j];
+		return this.sequences[i] < this.sequences[j];
+	}
+
+	private void set(int index, long time, long sequence, Event event) {
+		this.times[index] = time;
+		this.sequences[index] = sequence;
+		this.events[index] = event;
+		if (event instanceof EventImpl)
+			((EventImpl) event).queueSlot = index;
+	}
+
+	private void move(int from, int to) {
+		set(to, this.times[from], this.sequences[from], this.events[from]);
+	}
+
+	private void siftUp(int index) {
+		final long time = this.times[index];
+		final long sequence = this.sequences[index];
+		final Event event = this.events[index];
+
+		while (index > 0) {
+			final int parent = (index - 1) >>> 1;
+			final long ptime = this.times[parent];
+			if (ptime < time || (ptime == time && this.sequences[parent] < sequence))
+				break;
+			move(parent, index);
+			index = parent;
+		}
+
+		set(index, time, sequence, event);
+	}
+
+	private void siftDown(int index) {
+		final long time = this.times[index];
+		final long sequence = this.sequences[index];
+		final Event event = this.events[index];
+
+		final int half = this.size >>> 1;
+		while (index < half) {
+			int child = (index << 1) + 1;
+			final int right = child + 1;
+			if (right < this.size && isBefore(right, child))
+				child = right;
+			final long ctime = this.times[child];
+			if (time < ctime || (time == ctime && sequence < this.sequences[child]))
+				break;
+			move(child, index);
+			index = child;
+		}
+
+		set(index, time, sequence, event);
+	}
+
+	private void grow() {
+		final int capacity = this.events.length << 1;
+		this.times = Arrays.copyOf(this.times, capacity);
+		this.sequences = Arrays.copyOf(this.sequences, capacity);
+		this.events = Arrays.copyOf(this.events, capacity);
+	}
+
+	@Override
+	public void add(long time, Event event) {
+		if (this.size == this.events.length)
+			grow();
+
+		final int index = this.size++;
+		set(index, time, this.nextSequence++, event);
+		siftUp(index);
+	}
+
+	private int indexOf(Event event) {
+		if (event instanceof EventImpl) {
+			final int index = ((EventImpl) event).queueSlot;
+			if (index >= 0 && index < this.size && this.events[index] == event)
+				return index;
+			return -1;
+		}
+
+		for (int i = 0; i < this.size; i++)
+			if (this.events[i] == event)
+				return i;
+		return -1;
+	}
+
+	private Event removeAt(int index) {
+		final Event event = this.events[index];
+		if (event instanceof EventImpl)
+			((EventImpl) event).queueSlot = -1;
+
+		final int last = --this.size;
+		if (index != last) {
+			final Event moved = this.events[last];
+			move(last, index);
+			this.events[last] = null;
+			siftDown(index);
+			if (this.events[index] == moved)
+				siftUp(index);
+		} else
+			this.events[last] = null;
+
+		return event;
+	}
+
+	@Override
+	public boolean remove(Event event) {
+		final int index = indexOf(event);
+		if (index < 0)
+			return false;
+		removeAt(index);
+		return true;
+	}
+
+	@Override
+	public Event poll() {
+		if (this.size == 0)
+			return null;
+		return removeAt(0);
+	}
+
+	@Override
+	public long peekTime() {
+		if (this.size == 0)
+			return Long.MAX_VALUE;
+		return this.times[0];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			if (this.events[i] instanceof EventImpl)
+				((EventImpl) this.events[i]).queueSlot = -1;
+			this.events[i] = null;
+		}
+		this.size = 0;
+	}
+}
@@ -182,6 +182,16 @@ public class CoreNotificationCodes {
 	 */
 	public static final int SIMULATOR_STOPPED				= SIMULATOR_MASK | 0x01;
 
+	/**
+	 * <b>Description:</b> Thrown when the simulator detects that memory is low, before performing its cleanup.
+	 * Listeners should release any memory they can (for instance by writing buffered data to disk).<br/>
+	 * <b>Notifier:</b> {@link Simulator}<br/>
+	 * <b>Object:</b> <tt>null</tt>
+	 *
+	 * @since 1.3
+	 */
+	public static final int SIMULATOR_MEMORY_LOW			= SIMULATOR_MASK | 0x02;
+
 	/**
 	 * <b>Description:</b> Thrown when the simulation time advances and before events of the current simulation time are processed.<br/>
 	 * <b>Notifier:</b> {@link Simulator}<br/>
@@ -0,0 +1,270 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.notifications;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.EventImpl;
+
+/**
+ * Keeps the notifications that are sent using {@link Notifier#notify(int, Object)} until they are
+ * delivered at the current simulation time.
+ *
+ * <p>Pending notifications are kept in a ring buffer, and successive notifications are delivered by one
+ * single event. Each time another event is scheduled at the current time, next notifications
+ * are delivered by a new event. This way, notifications and events are still processed in the order
+ * they were sent or scheduled.
+ *
+ * <p>A notification is ignored if an equal notification (same listener, notifier and notification code, and equal data)
+ * is still pending.
+ *
+ * @since 1.3
+ */
+public final class DeferredNotificationQueue {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Simulator simulator;
+
+	//pending notifications, from the head sequence number (included) to the tail sequence number (excluded)
+	//cancelled notifications have a null listener
+	private NotificationListener[] listeners;
+	private NotifierImpl[] notifiers;
+	private int[] codes;
+	private Object[] data;
+	private int[] hashes;
+	private int head;
+	private int tail;
+
+	//open addressing table containing the ring slot + 1 of each pending notification (0 marks free entries)
+	private int[] table;
+
+	private Delivery openDelivery;
+
+	public DeferredNotificationQueue(Simulator simulator) {
+		super();
+		this.simulator = simulator;
+		allocate(INITIAL_CAPACITY);
+		this.head = 0;
+		this.tail = 0;
+		this.openDelivery = null;
+	}
+
+	private void allocate(int capacity) {
+		this.listeners = new NotificationListener[capacity];
+		this.notifiers = new NotifierImpl[capacity];
+		this.codes = new int[capacity];
+		this.data = new Object[capacity];
+		this.hashes = new int[capacity];
+		this.table = new int[capacity * 2];
+	}
+
+	/**
+	 * Returns the number of pending notifications, including cancelled notifications that were not yet dropped.
+	 *
+	 * @return the number of pending notifications
+	 */
+	public int size() {
+		return this.tail - this.head;
+	}
+
+	/**
+	 * Makes next notifications be delivered by a new event.
+	 *
+	 * <p>This method is called by the simulator each time an event is scheduled at the current simulation time.
+	 */
+	public void closeDelivery() {
+		if (this.openDelivery == null)
+			return;
+		this.openDelivery.end = this.tail;
+		this.openDelivery = null;
+	}
+
+	private static int hash(NotificationListener listener, NotifierImpl notifier, int notification_code, Object d) {
+		int h = System.identityHashCode(listener);
+		h = h * 31 + System.identityHashCode(notifier);
+		h = h * 31 + notification_code;
+		if (d != null)
+			h = h * 31 + d.hashCode();
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private boolean contains(NotificationListener listener, NotifierImpl notifier, int notification_code, Object d, int hash) {
+		final int mask = this.table.length - 1;
+		int i = hash & mask;
+		int v;
+		while ((v = this.table[i]) != 0) {
+			final int slot = v - 1;
+			if (this.hashes[slot] == hash && this.listeners[slot] == listener &&
+					this.notifiers[slot] == notifier && this.codes[slot] == notification_code &&
+					(d == null ? this.data[slot] == null : d.equals(this.data[slot])))
+				return true;
+			i = (i + 1) & mask;
+		}
+		return false;
+	}
+
+	private void tableAdd(int slot) {
+		final int mask = this.table.length - 1;
+		int i = this.hashes[slot] & mask;
+		while (this.table[i] != 0)
+			i = (i + 1) & mask;
+		this.table[i] = slot + 1;
+	}
+
+	private void tableRemove(int slot) {
+		final int[] t = this.table;
+		final int mask = t.length - 1;
+		int i = this.hashes[slot] & mask;
+		while (t[i] != slot + 1)
+			i = (i + 1) & mask;
+
+		//shift back next entries of the probe sequence
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			final int v = t[j];
+			if (v == 0)
+				break;
+			final int k = this.hashes[v - 1] & mask;
+			if (i <= j ? (i < k && k <= j) : (i < k || k <= j))
+				continue;
+			t[i] = v;
+			i = j;
+		}
+		t[i] = 0;
+	}
+
+	private void grow() {
+		final NotificationListener[] oldListeners = this.listeners;
+		final NotifierImpl[] oldNotifiers = this.notifiers;
+		final int[] oldCodes = this.codes;
+		final Object[] oldData = this.data;
+		final int[] oldHashes = this.hashes;
+		final int oldMask = oldListeners.length - 1;
+
+		allocate(oldListeners.length * 2);
+		final int mask = this.listeners.length - 1;
+		for (int s = this.head; s != this.tail; s++) {
+			final int o = s & oldMask;
+			final int n = s & mask;
+			this.listeners[n] = oldListeners[o];
+			this.notifiers[n] = oldNotifiers[o];
+			this.codes[n] = oldCodes[o];
+			this.data[n] = oldData[o];
+			this.hashes[n] = oldHashes[o];
+			if (this.listeners[n] != null)
+				tableAdd(n);
+		}
+	}
+
+	void add(NotificationListener listener, NotifierImpl notifier, int notification_code, Object d) {
+		final int hash = hash(listener, notifier, notification_code, d);
+		if (contains(listener, notifier, notification_code, d, hash))
+			return;
+
+		if (this.tail - this.head == this.listeners.length)
+			grow();
+
+		final int slot = this.tail & (this.listeners.length - 1);
+		this.listeners[slot] = listener;
+		this.notifiers[slot] = notifier;
+		this.codes[slot] = notification_code;
+		this.data[slot] = d;
+		this.hashes[slot] = hash;
+		tableAdd(slot);
+		this.tail++;
+		notifier.pendingNotifications++;
+
+		if (this.openDelivery == null) {
+			final Delivery delivery = new Delivery();
+			this.simulator.schedule(delivery);
+			this.openDelivery = delivery;
+		}
+	}
+
+	private void clear(int slot) {
+		this.listeners[slot] = null;
+		this.notifiers[slot] = null;
+		this.data[slot] = null;
+	}
+
+	private static void removeDiscarded(NotificationListener listener, NotifierImpl notifier, int notification_code) {
+		if (!listener.canBeNotified()) {
+			notifier.removeGlobalListener(listener);
+			notifier.removeListener(notification_code, listener);
+		}
+	}
+
+	/**
+	 * Cancels all pending notifications of the given <tt>notifier</tt>.
+	 */
+	void cancel(NotifierImpl notifier) {
+		final int mask = this.listeners.length - 1;
+		for (int s = this.head; s != this.tail && notifier.pendingNotifications > 0; s++) {
+			final int slot = s & mask;
+			final NotificationListener listener = this.listeners[slot];
+			if (listener == null || this.notifiers[slot] != notifier)
+				continue;
+			tableRemove(slot);
+			clear(slot);
+			notifier.pendingNotifications--;
+			removeDiscarded(listener, notifier, this.codes[slot]);
+		}
+	}
+
+	private void deliverHead() {
+		final int slot = this.head & (this.listeners.length - 1);
+		final NotificationListener listener = this.listeners[slot];
+		this.head++;
+		if (listener == null)
+			return;
+
+		final NotifierImpl notifier = this.notifiers[slot];
+		final int notification_code = this.codes[slot];
+		final Object d = this.data[slot];
+		//the notification is removed first, so that it can be sent again by the listener
+		tableRemove(slot);
+		clear(slot);
+		notifier.pendingNotifications--;
+
+		if (listener.canBeNotified())
+			listener.notificationPerformed0(notifier, notification_code, d);
+		removeDiscarded(listener, notifier, notification_code);
+	}
+
+	private final class Delivery extends EventImpl {
+		private int end;
+
+		@Override
+		public void process() {
+			if (DeferredNotificationQueue.this.openDelivery == this)
+				closeDelivery();
+			while (DeferredNotificationQueue.this.head - this.end < 0)
+				deliverHead();
+		}
+	}
+}
@@ -26,29 +26,28 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.core.notifications;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeMap;
+import java.util.IdentityHashMap;
 
 import com.samysadi.acs.core.Simulator;
-import com.samysadi.acs.core.event.EventImpl;
 
 /**
  *
  * @since 1.0
  */
 public class NotifierImpl implements Notifier, Cloneable {
-	private static final Integer GLOBAL_LISTENER_KEY = Integer.valueOf(0);
-	private Map<Integer, HashSet<NotificationListener>> notificationListeners = null;
+	private static final NotificationListener[] NO_LISTENERS = new NotificationListener[0];
+	private ListenerList globalListeners = null;
+	//open addressing map of notification codes to their listeners, 0 (which is not a valid code) marks free slots
+	private int[] listenerCodes = null;
+	private ListenerList[] listenerLists = null;
+	private int listenerCodesCount = 0;
 	private boolean notificationsDisabled = false;
-	//note: a same notification (same code and data) happens once, even after multiple call to notify(int, Object)
-	//this next Set keeps track of all scheduled notification events
-	private HashSet<NotifyEvent> notificationEvents = null;
+	//number of notifications of this notifier that are pending in the simulator's DeferredNotificationQueue
+	int pendingNotifications = 0;
 
 	@Override
 	public NotifierImpl clone() {
@@ -59,153 +58,267 @@ public class NotifierImpl implements Notifier, Cloneable {
 			throw new InternalError();
 		}
 
-		clone.notificationListeners = null;
-		clone.notificationEvents = null;
+		clone.globalListeners = null;
+		clone.listenerCodes = null;
+		clone.listenerLists = null;
+		clone.listenerCodesCount = 0;
+		clone.pendingNotifications = 0;
 
 		return clone;
 	}
 
-	private void addListener(Integer notification_code, NotificationListener listener) {
-		if (listener == null)
-			throw new NullPointerException();
+	private static void checkNotificationCode(int notification_code) {
+		if (notification_code == 0)
+			throw new IllegalArgumentException("Given notification_code(" + notification_code + ") is not allowed");
+	}
+
+	private static int codeSlot(int notification_code, int mask) {
+		final int h = notification_code * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	private ListenerList getListenerList(int notification_code) {
+		final int[] codes = this.listenerCodes;
+		if (codes == null)
+			return null;
+		final int mask = codes.length - 1;
+		int i = codeSlot(notification_code, mask);
+		int c;
+		while ((c = codes[i]) != 0) {
+			if (c == notification_code)
+				return this.listenerLists[i];
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	private void putListenerList(int notification_code, ListenerList list) {
+		final int mask = this.listenerCodes.length - 1;
+		int i = codeSlot(notification_code, mask);
+		while (this.listenerCodes[i] != 0)
+			i = (i + 1) & mask;
+		this.listenerCodes[i] = notification_code;
+		this.listenerLists[i] = list;
+	}
 
-		if (notificationListeners == null) {
-			//HashMap will give better performances, but needs more memory usage
-			//TreeMap will give worse performances, but needs less memory usage
-			notificationListeners = new TreeMap<Integer, HashSet<NotificationListener>>();
+	private ListenerList getOrCreateListenerList(int notification_code) {
+		ListenerList list = getListenerList(notification_code);
+		if (list != null)
+			return list;
+
+		if (this.listenerCodes == null) {
+			this.listenerCodes = new int[2];
+			this.listenerLists = new ListenerList[2];
+		} else if ((this.listenerCodesCount + 1) * 4 > this.listenerCodes.length * 3) {
+			final int[] codes = this.listenerCodes;
+			final ListenerList[] lists = this.listenerLists;
+			this.listenerCodes = new int[codes.length * 2];
+			this.listenerLists = new ListenerList[codes.length * 2];
+			for (int i = 0; i < codes.length; i++)
+				if (codes[i] != 0)
+					putListenerList(codes[i], lists[i]);
 		}
 
-		HashSet<NotificationListener> nlist = notificationListeners.get(notification_code);
-		if (nlist == null) {
-			//HashSet will give best performances, but needs more memory usage
-			//These next collections could be used.
-			//Warning: If you go with one of these next, please review all code (especially iterations) as current implementation is optimized for HashSet
-			//LinkedList will give worst performances, but needs less memory usage.
-			//TreeSet is a tradeoff solution, but we need to make NotificationListener implement Comparable
-			nlist = new HashSet<NotificationListener>();
-			notificationListeners.put(notification_code, nlist);
+		list = new ListenerList();
+		putListenerList(notification_code, list);
+		this.listenerCodesCount++;
+		return list;
+	}
+
+	private ListenerList removeListenerList(int notification_code) {
+		final int[] codes = this.listenerCodes;
+		if (codes == null)
+			return null;
+		final ListenerList[] lists = this.listenerLists;
+		final int mask = codes.length - 1;
+		int i = codeSlot(notification_code, mask);
+		while (codes[i] != notification_code) {
+			if (codes[i] == 0)
+				return null;
+			i = (i + 1) & mask;
+		}
+
+		final ListenerList r = lists[i];
+		if (--this.listenerCodesCount == 0) {
+			this.listenerCodes = null;
+			this.listenerLists = null;
+			return r;
+		}
+
+		//shift back next entries of the probe sequence, so that no tombstones are needed
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			final int c = codes[j];
+			if (c == 0)
+				break;
+			final int k = codeSlot(c, mask);
+			if (i <= j ? (i < k && k <= j) : (i < k || k <= j))
+				continue;
+			codes[i] = c;
+			lists[i] = lists[j];
+			i = j;
 		}
-//		if (!nlist.contains(listener)) //uncomment this line if nlist is not a Set
-		nlist.add(listener);
+		codes[i] = 0;
+		lists[i] = null;
+		return r;
 	}
 
 	@Override
 	public void addGlobalListener(NotificationListener listener) {
-		addListener(GLOBAL_LISTENER_KEY, listener);
+		if (listener == null)
+			throw new NullPointerException();
+
+		if (this.globalListeners == null)
+			this.globalListeners = new ListenerList();
+		if (this.globalListeners.add(listener))
+			notificationListenersChanged();
 	}
 
 	@Override
 	public void addListener(int notification_code, NotificationListener listener) {
-		if (notification_code == 0)
-			throw new IllegalArgumentException("Given notification_code(" + notification_code + ") is not allowed");
-		addListener(Integer.valueOf(notification_code), listener);
+		checkNotificationCode(notification_code);
+		if (listener == null)
+			throw new NullPointerException();
+
+		if (getOrCreateListenerList(notification_code).add(listener))
+			notificationListenersChanged();
 	}
 
-	private Collection<NotificationListener> getListeners(Integer notification_code) {
-		if (notificationListeners == null)
+	private static Collection<NotificationListener> toCollection(ListenerList list) {
+		if (list == null)
 			return Collections.emptyList();
-		Collection<NotificationListener> listeners = notificationListeners.get(notification_code);
-		if (listeners == null)
-			return Collections.emptyList();
-		return Collections.unmodifiableCollection(listeners);
+		return Collections.unmodifiableList(Arrays.asList(list.toArray()));
 	}
 
 	@Override
 	public Collection<NotificationListener> getGlobalListeners() {
-		return getListeners(GLOBAL_LISTENER_KEY);
+		return toCollection(this.globalListeners);
 	}
 
 	@Override
 	public Collection<NotificationListener> getListeners(int notification_code) {
-		if (notification_code == 0)
-			throw new IllegalArgumentException("Given notification_code(" + notification_code + ") is not allowed");
-		return getListeners(Integer.valueOf(notification_code));
+		checkNotificationCode(notification_code);
+		return toCollection(getListenerList(notification_code));
 	}
 
-	private Collection<NotificationListener> removeNotificationsList(Integer key) {
-		final Collection<NotificationListener> r = notificationListeners.remove(key);
-		if (notificationListeners.isEmpty())
-			notificationListeners = null;
-		return Collections.unmodifiableCollection(r);
-	}
-
-	private boolean removeListener(Integer notification_code, NotificationListener listener) {
-		if (notificationListeners == null)
-			return false;
-
-		Collection<NotificationListener> nlist = notificationListeners.get(notification_code);
-		if (nlist == null)
+	@Override
+	public boolean removeGlobalListener(NotificationListener listener) {
+		final ListenerList list = this.globalListeners;
+		if (list == null)
 			return false;
 
-		final boolean r = nlist.remove(listener);
-		if (nlist.isEmpty())
-			removeNotificationsList(notification_code);
+		final boolean r = list.remove(listener);
+		if (list.isEmpty())
+			this.globalListeners = null;
+		if (r)
+			notificationListenersChanged();
 		return r;
 	}
 
-	@Override
-	public boolean removeGlobalListener(NotificationListener listener) {
-		return removeListener(GLOBAL_LISTENER_KEY, listener);
-	}
-
 	@Override
 	public boolean removeListener(int notification_code, NotificationListener listener) {
-		if (notification_code == 0)
-			throw new IllegalArgumentException("Given notification_code(" + notification_code + ") is not allowed");
-		return removeListener(Integer.valueOf(notification_code), listener);
-	}
-
-	private Collection<NotificationListener> removeAllListeners(Integer notification_code) {
-		if (notificationListeners == null)
-			return Collections.emptyList();
+		checkNotificationCode(notification_code);
+		final ListenerList list = getListenerList(notification_code);
+		if (list == null)
+			return false;
 
-		return removeNotificationsList(notification_code);
+		final boolean r = list.remove(listener);
+		if (list.isEmpty())
+			removeListenerList(notification_code);
+		if (r)
+			notificationListenersChanged();
+		return r;
 	}
 
 	@Override
 	public Collection<NotificationListener> removeAllGlobalListeners() {
-		return removeAllListeners(GLOBAL_LISTENER_KEY);
+		final ListenerList list = this.globalListeners;
+		if (list == null)
+			return Collections.emptyList();
+		this.globalListeners = null;
+		notificationListenersChanged();
+		return toCollection(list);
 	}
 
 	@Override
 	public Collection<NotificationListener> removeAllListeners(int notification_code) {
-		if (notification_code == 0)
-			throw new IllegalArgumentException("Given notification_code(" + notification_code + ") is not allowed");
-		return removeAllListeners(Integer.valueOf(notification_code));
+		checkNotificationCode(notification_code);
+		final ListenerList list = removeListenerList(notification_code);
+		if (list == null)
+			return Collections.emptyList();
+		notificationListenersChanged();
+		return toCollection(list);
 	}
 
 	@Override
 	public Collection<NotificationListener> removeAllListeners() {
-		if (notificationListeners == null)
+		if (this.globalListeners == null && this.listenerCodes == null)
 			return Collections.emptyList();
 		Collection<NotificationListener> r = new HashSet<NotificationListener>();
-		for (Collection<NotificationListener> s: notificationListeners.values())
-			if (s != null)
-				r.addAll(s);
-		notificationListeners = null;
+		if (this.globalListeners != null)
+			this.globalListeners.addTo(r);
+		if (this.listenerLists != null)
+			for (ListenerList list: this.listenerLists)
+				if (list != null)
+					list.addTo(r);
+		this.globalListeners = null;
+		this.listenerCodes = null;
+		this.listenerLists = null;
+		this.listenerCodesCount = 0;
+		notificationListenersChanged();
 		return r;
 	}
 
 	@Override
 	public void cleanupListeners() {
-		if (notificationListeners == null)
-			return;
+		boolean changed = false;
+
+		if (this.globalListeners != null) {
+			changed |= this.globalListeners.removeDiscarded();
+			if (this.globalListeners.isEmpty())
+				this.globalListeners = null;
+		}
 
-		final Iterator<Entry<Integer, HashSet<NotificationListener>>> it = notificationListeners.entrySet().iterator();
-		while (it.hasNext()) {
-			Collection<NotificationListener> l = it.next().getValue();
-			final Iterator<NotificationListener> it2 = l.iterator();
-			while (it2.hasNext()) {
-				NotificationListener n = it2.next();
-				if (!n.canBeNotified())
-					it2.remove();
+		int i = 0;
+		while (this.listenerCodes != null && i < this.listenerCodes.length) {
+			final ListenerList list = this.listenerLists[i];
+			if (list != null) {
+				changed |= list.removeDiscarded();
+				if (list.isEmpty()) {
+					//next entries may be shifted back to this slot, so it is checked again
+					removeListenerList(this.listenerCodes[i]);
+					continue;
+				}
 			}
-			if (l.isEmpty())
-				it.remove();
+			i++;
 		}
 
-		if (notificationListeners.isEmpty())
-			notificationListeners = null;
+		if (changed)
+			notificationListenersChanged();
+	}
+
+	/**
+	 * Returns <tt>true</tt> if there is at least one listener (either global or not) registered for
+	 * the given <tt>notification_code</tt>.
+	 *
+	 * <p>Listeners that have been discarded but not yet removed are also taken into account.
+	 *
+	 * @param notification_code
+	 * @return <tt>true</tt> if there is at least one listener registered for the given <tt>notification_code</tt>
+	 */
+	protected final boolean hasListeners(int notification_code) {
+		return this.globalListeners != null || getListenerList(notification_code) != null;
+	}
+
+	/**
+	 * This method is called each time a listener is added to or removed from this notifier.
+	 *
+	 * <p>Subclasses can override this method if they cache information about registered listeners.
+	 * The default implementation does nothing.
+	 */
+	protected void notificationListenersChanged() {
+		//nothing
 	}
 
 	@Override
@@ -223,173 +336,256 @@ public class NotifierImpl implements Notifier, Cloneable {
 		this.notificationsDisabled = false;
 	}
 
-	private void notifyList(boolean allNow,
-			Integer listKey, int notification_code, Object data) {
-		if (notificationListeners == null)
+	private void notifyList(boolean allNow, boolean global, int notification_code, Object data) {
+		final ListenerList list = global ? this.globalListeners : getListenerList(notification_code);
+		if (list == null)
 			return;
 
-		HashSet<NotificationListener> olist = notificationListeners.get(listKey);
+		//listeners that are added while notifying are appended after this end, and are not notified
+		final int end = list.end();
+		boolean removed = false;
 
-		if (olist == null)
-			return;
-
-		ArrayList<NotificationListener> nowListeners;
-
-		if (allNow) {
-			nowListeners = new ArrayList<NotificationListener>(olist);
-		} else {
-			if (this.notificationEvents == null) {
-				this.notificationEvents = new HashSet<NotifyEvent>();
+		list.beginNotification();
+		try {
+			if (!allNow) {
+				DeferredNotificationQueue queue = null;
+				for (int i = 0; i < end; i++) {
+					final NotificationListener listener = list.get(i);
+					if (listener == null)
+						continue;
+					if (listener.canBeNotified()) {
+						if (!listener.isInstantNotification()) {
+							if (queue == null)
+								queue = Simulator.getSimulator().getNotificationQueue();
+							queue.add(listener, this, notification_code, data);
+						}
+					} else
+						removed |= list.remove(listener);
+				}
 			}
 
-			nowListeners = new ArrayList<NotificationListener>(olist.size());
-
-			Iterator<NotificationListener> it = olist.iterator();
-			while (it.hasNext()) {
-				NotificationListener listener = it.next();
-				if (listener.canBeNotified()) {
-					if (listener.isInstantNotification()) {
-						nowListeners.add(listener);
-					} else {
-						NotifyEvent e = new NotifyEvent(listener, this, notification_code, data);
-						if (this.notificationEvents.add(e))
-							Simulator.getSimulator().schedule(e);
-					}
-				} else
-					it.remove();
+			for (int i = 0; i < end; i++) {
+				final NotificationListener listener = list.get(i);
+				if (listener == null)
+					continue;
+				if (!allNow && !listener.isInstantNotification())
+					continue;
+				if (listener.canBeNotified()) //we need to re-test, because of: if (allNow) ..
+					listener.notificationPerformed0(this, notification_code, data);
+				if (!listener.canBeNotified())
+					removed |= list.remove(listener);
 			}
-
-			if (this.notificationEvents.isEmpty())
-				this.notificationEvents = null;
+		} finally {
+			list.endNotification();
 		}
 
-		for (NotificationListener listener: nowListeners) {
-			if (listener.canBeNotified()) //we need to re-test, because of: if (allNow) ..
-				listener.notificationPerformed0(this, notification_code, data);
-			if (!listener.canBeNotified())
-				olist.remove(listener); //this method is O(1) with HashSet, so no need to make another iteration to remove discarded listeners
+		if (list.isEmpty()) {
+			if (global) {
+				if (this.globalListeners == list) {
+					this.globalListeners = null;
+					notificationListenersChanged();
+					return;
+				}
+			} else if (getListenerList(notification_code) == list) {
+				removeListenerList(notification_code);
+				notificationListenersChanged();
+				return;
+			}
 		}
-
-		if (olist.isEmpty())
-			removeNotificationsList(listKey);
+		if (removed)
+			notificationListenersChanged();
 	}
 
 	@Override
 	final public void notifyNow(int notification_code, Object data) {
-		if (notification_code == 0)
-			throw new IllegalArgumentException("Given notification_code(" + notification_code + ") is not allowed");
+		checkNotificationCode(notification_code);
 
 		if (this.isNotificationsDisabled())
 			return;
 
-		notifyList(true, notification_code, notification_code, data);
-		notifyList(true, GLOBAL_LISTENER_KEY, notification_code, data);
+		notifyList(true, false, notification_code, data);
+		notifyList(true, true, notification_code, data);
 	}
 
 	@Override
 	public void notify(int notification_code, Object data) {
-		if (notification_code == 0)
-			throw new IllegalArgumentException("Given notification_code(" + notification_code + ") is not allowed");
+		checkNotificationCode(notification_code);
 
 		if (this.isNotificationsDisabled())
 			return;
 
-		notifyList(false, notification_code, notification_code, data);
-		notifyList(false, GLOBAL_LISTENER_KEY, notification_code, data);
+		notifyList(false, false, notification_code, data);
+		notifyList(false, true, notification_code, data);
 	}
 
 	@Override
 	public void cancelNotifications() {
-		if (this.notificationEvents == null)
+		if (this.pendingNotifications == 0)
 			return;
-		Iterator<NotifyEvent> it = this.notificationEvents.iterator();
-		while (it.hasNext()) {
-			NotifyEvent e = it.next();
-			e.cancel();
-		}
-		this.notificationEvents = null;
+		Simulator.getSimulator().getNotificationQueue().cancel(this);
 	}
 
-	public static class NotifyEvent extends EventImpl {
-		private NotificationListener listener;
-		private NotifierImpl notifier;
-		private int notification_code;
-		private Object data;
-
-		public NotifyEvent(
-				NotificationListener listener,
-				NotifierImpl notifier,
-				int notification_code, Object data) {
+	/**
+	 * The listeners of one notification code, kept in registration order in an array that is
+	 * only as large as needed (most notifiers have one or a few listeners per code).
+	 *
+	 * <p>Removed listeners leave a <tt>null</tt> slot behind, so that the slots of the other listeners
+	 * do not move while they are being notified. These slots are reclaimed once no notification is in progress
+	 * and they outnumber the listeners.
+	 * Lists with many listeners also keep an index of the slot of each listener.
+	 */
+	private static final class ListenerList {
+		private static final int INDEX_THRESHOLD = 8;
+
+		private NotificationListener[] items;
+		private int end;
+		private int size;
+		private int notifying;
+		private IdentityHashMap<NotificationListener, Integer> index;
+
+		public ListenerList() {
 			super();
-			this.listener = listener;
-			this.notifier = notifier;
-			this.notification_code = notification_code;
-			this.data = data;
+			this.items = new NotificationListener[1];
+			this.end = 0;
+			this.size = 0;
+			this.notifying = 0;
+			this.index = null;
 		}
 
-		@Override
-		public int hashCode() {
-			int hash;
-			hash = 23 + this.notification_code;
-			hash = hash * 31 + this.listener.hashCode();
-			if (this.data != null)
-				hash = hash * 31 + this.data.hashCode();
-			return hash;
+		public boolean isEmpty() {
+			return this.size == 0;
 		}
 
-		@Override
-		public boolean equals(Object obj) {
-			if (obj == this)
-				return true;
-			if (!(obj instanceof NotifyEvent))
-				return false;
-			NotifyEvent o = (NotifyEvent) obj;
-			if (o.listener != this.listener)
-				return false;
-			if (o.notifier != this.notifier)
+		/**
+		 * Returns the number of used slots, including the slots of removed listeners.
+		 */
+		public int end() {
+			return this.end;
+		}
+
+		/**
+		 * Returns the listener in the given slot, or <tt>null</tt> if it was removed.
+		 */
+		public NotificationListener get(int i) {
+			return this.items[i];
+		}
+
+		private int indexOf(Object listener) {
+			if (this.index != null) {
+				final Integer i = this.index.get(listener);
+				return i == null ? -1 : i.intValue();
+			}
+			for (int i = 0; i < this.end; i++)
+				if (this.items[i] == listener)
+					return i;
+			return -1;
+		}
+
+		public boolean add(NotificationListener listener) {
+			if (indexOf(listener) >= 0)
 				return false;
-			if (o.notification_code != this.notification_code)
+
+			if (this.end == this.items.length) {
+				if (this.notifying == 0 && this.size < this.end)
+					compact();
+				if (this.end == this.items.length)
+					this.items = Arrays.copyOf(this.items, this.items.length * 2);
+			}
+
+			this.items[this.end] = listener;
+			if (this.index != null)
+				this.index.put(listener, Integer.valueOf(this.end));
+			this.end++;
+			this.size++;
+			if (this.index == null && this.end > INDEX_THRESHOLD)
+				rebuildIndex();
+			return true;
+		}
+
+		public boolean remove(Object listener) {
+			final int i = indexOf(listener);
+			if (i < 0)
 				return false;
-			if (this.data == null)
-				return o.data == null;
-			return this.data.equals(o.data);
+
+			this.items[i] = null;
+			if (this.index != null)
+				this.index.remove(listener);
+			this.size--;
+			if (this.notifying == 0)
+				compactIfNeeded();
+			return true;
 		}
 
-		private void removeSelf() {
-			if (this.notifier.notificationEvents != null) {
-				this.notifier.notificationEvents.remove(this);
-				if (this.notifier.notificationEvents.isEmpty())
-					this.notifier.notificationEvents = null;
+		public boolean removeDiscarded() {
+			boolean r = false;
+			for (int i = 0; i < this.end; i++) {
+				final NotificationListener listener = this.items[i];
+				if (listener != null && !listener.canBeNotified()) {
+					this.items[i] = null;
+					if (this.index != null)
+						this.index.remove(listener);
+					this.size--;
+					r = true;
+				}
 			}
+			if (r && this.notifying == 0)
+				compactIfNeeded();
+			return r;
 		}
 
-		private void cleanup() {
-			if (!this.listener.canBeNotified()) {
-				this.notifier.removeGlobalListener(this.listener);
-				this.notifier.removeListener(this.notification_code, this.listener);
-			}
-			this.listener = null;
-			this.notifier = null;
-			this.data = null;
+		public void beginNotification() {
+			this.notifying++;
+		}
+
+		public void endNotification() {
+			if (--this.notifying == 0)
+				compactIfNeeded();
+		}
+
+		private void compactIfNeeded() {
+			if (this.end - this.size > this.size)
+				compact();
+		}
+
+		private void compact() {
+			int j = 0;
+			for (int i = 0; i < this.end; i++)
+				if (this.items[i] != null)
+					this.items[j++] = this.items[i];
+			Arrays.fill(this.items, j, this.end, null);
+			this.end = j;
+
+			if (this.items.length > 4 * this.end)
+				this.items = Arrays.copyOf(this.items, Math.max(1, 2 * this.end));
+
+			if (this.end <= INDEX_THRESHOLD)
+				this.index = null;
+			else
+				rebuildIndex();
 		}
 
-		protected void performNotification() {
-			if (this.listener.canBeNotified())
-				this.listener.notificationPerformed0(this.notifier, this.notification_code, this.data);
+		private void rebuildIndex() {
+			this.index = new IdentityHashMap<NotificationListener, Integer>(this.size);
+			for (int i = 0; i < this.end; i++)
+				if (this.items[i] != null)
+					this.index.put(this.items[i], Integer.valueOf(i));
 		}
 
-		@Override
-		public void cancel() {
-			removeSelf();
-			cleanup();
-			super.cancel();
+		public NotificationListener[] toArray() {
+			if (this.size == 0)
+				return NO_LISTENERS;
+			final NotificationListener[] r = new NotificationListener[this.size];
+			int j = 0;
+			for (int i = 0; i < this.end; i++)
+				if (this.items[i] != null)
+					r[j++] = this.items[i];
+			return r;
 		}
 
-		@Override
-		public void process() {
-			removeSelf(); //allow re-notification with same parameters
-			performNotification();
-			cleanup();
+		public void addTo(Collection<NotificationListener> c) {
+			for (int i = 0; i < this.end; i++)
+				if (this.items[i] != null)
+					c.add(this.items[i]);
 		}
 	}
 }
@@ -127,6 +127,28 @@ public interface Trace<T> {
 	 */
 	public void setDelay(long value);
 
+	/**
+	 * Returns the sampling interval of this trace, or <tt>0</tt> if this trace records value changes on its parent probe.
+	 *
+	 * <p><b>Default</b> is <tt>0</tt> if not specified otherwise.
+	 *
+	 * @return the sampling interval of this trace
+	 * @since 1.3
+	 */
+	public long getSamplingInterval();
+
+	/**
+	 * Updates the sampling interval of this trace.
+	 *
+	 * <p>When the interval is not <tt>0</tt>, the trace does not listen to value changes on its parent probe.
+	 * Instead, it records the value of the probe each time the simulation time reaches a multiple of the interval.
+	 *
+	 * @param interval
+	 * @throws IllegalArgumentException if you give a negative interval
+	 * @since 1.3
+	 */
+	public void setSamplingInterval(long interval);
+
 	/**
 	 * Returns an unmodifiable list containing {@link TraceItem}s ordered chronologically.
 	 *
@@ -0,0 +1,403 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.tracing;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.samysadi.acs.core.Simulator;
+
+/**
+ * Reads trace files written by a {@link TraceBinaryWriter}.
+ *
+ * <p>Traces are identified by their position in the file. Their items can be read, or exported
+ * to the text format used by the default trace factory or to CSV.
+ *
+ * <p>This class can also be run from the command line to list or export traces:
+ * <pre>
+ * TraceBinaryReader file [output_directory [--csv]]
+ * </pre>
+ *
+ * @since 1.3
+ */
+public class TraceBinaryReader implements Closeable {
+	private static final class TraceEntry {
+		private String name;
+		private String unit;
+		private byte format;
+		private long[] segments;
+		private int segmentsCount;
+
+		public TraceEntry() {
+			super();
+			this.segments = new long[4];
+			this.segmentsCount = 0;
+		}
+
+		public void addSegment(long offset, boolean snapshot) {
+			if (snapshot)
+				this.segmentsCount = 0;
+			if (this.segmentsCount == this.segments.length)
+				this.segments = Arrays.copyOf(this.segments, this.segmentsCount << 1);
+			this.segments[this.segmentsCount++] = offset;
+		}
+	}
+
+	private FileChannel channel;
+	private final List<TraceEntry> entries;
+
+	public TraceBinaryReader(File file) throws IOException {
+		super();
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.entries = new ArrayList<TraceEntry>();
+
+		try {
+			final ByteBuffer header = read(0l, TraceBinaryWriter.HEADER_SIZE);
+			final byte[] magic = new byte[TraceBinaryWriter.MAGIC.length];
+			header.get(magic);
+			if (!Arrays.equals(magic, TraceBinaryWriter.MAGIC))
+				throw new IOException("Not a trace file: " + file);
+			if (header.getInt() != TraceBinaryWriter.VERSION)
+				throw new IOException("Unsupported trace file version: " + file);
+			if (header.getLong() != Simulator.SECOND)
+				throw new IOException("The trace file was written using different simulator units: " + file);
+
+			if (!readIndex())
+				scan();
+		} catch (IOException e) {
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	private ByteBuffer read(long offset, int length) throws IOException {
+		final ByteBuffer b = ByteBuffer.allocate(length);
+		while (b.hasRemaining())
+			if (this.channel.read(b, offset + b.position()) < 0)
+				throw new IOException("Unexpected end of file");
+		b.flip();
+		return b;
+	}
+
+	/**
+	 * Returns the payload of the record at the given offset, and checks its type.
+	 */
+	private ByteBuffer readRecord(long offset, byte type) throws IOException {
+		final ByteBuffer h = read(offset, TraceBinaryWriter.RECORD_HEADER_SIZE);
+		final byte t = h.get();
+		if (t != type && !(type == TraceBinaryWriter.RECORD_SEGMENT && t == TraceBinaryWriter.RECORD_SNAPSHOT))
+			throw new IOException("Corrupted trace file");
+		return this.channel.map(FileChannel.MapMode.READ_ONLY, offset + TraceBinaryWriter.RECORD_HEADER_SIZE, h.getInt());
+	}
+
+	private boolean readIndex() throws IOException {
+		final long size = this.channel.size();
+		if (size < TraceBinaryWriter.HEADER_SIZE + TraceBinaryWriter.FOOTER_SIZE)
+			return false;
+		final ByteBuffer footer = read(size - TraceBinaryWriter.FOOTER_SIZE, TraceBinaryWriter.FOOTER_SIZE);
+		final long offset = footer.getLong();
+		final byte[] magic = new byte[TraceBinaryWriter.MAGIC.length];
+		footer.get(magic);
+		if (!Arrays.equals(magic, TraceBinaryWriter.MAGIC))
+			return false;
+
+		final ByteBuffer index = readRecord(offset, TraceBinaryWriter.RECORD_INDEX);
+		int count = (int) getVarLong(index);
+		while (count-- > 0) {
+			final TraceEntry entry = readTrace(readRecord(getVarLong(index), TraceBinaryWriter.RECORD_TRACE));
+			int segments = (int) getVarLong(index);
+			while (segments-- > 0)
+				entry.addSegment(getVarLong(index), false);
+		}
+		return true;
+	}
+
+	/**
+	 * Reads all records sequentially, this is used when the file has no index.
+	 */
+	private void scan() throws IOException {
+		final long size = this.channel.size();
+		long offset = TraceBinaryWriter.HEADER_SIZE;
+		while (offset + TraceBinaryWriter.RECORD_HEADER_SIZE <= size) {
+			final ByteBuffer h = read(offset, TraceBinaryWriter.RECORD_HEADER_SIZE);
+			final byte type = h.get();
+			final int length = h.getInt();
+			if (offset + TraceBinaryWriter.RECORD_HEADER_SIZE + length > size)
+				break; //truncated record
+
+			if (type == TraceBinaryWriter.RECORD_TRACE)
+				readTrace(readRecord(offset, type));
+			else if (type == TraceBinaryWriter.RECORD_SEGMENT || type == TraceBinaryWriter.RECORD_SNAPSHOT) {
+				final int id = (int) getVarLong(readRecord(offset, type));
+				this.entries.get(id).addSegment(offset, type == TraceBinaryWriter.RECORD_SNAPSHOT);
+			} else
+				break;
+
+			offset += TraceBinaryWriter.RECORD_HEADER_SIZE + length;
+		}
+	}
+
+	private TraceEntry readTrace(ByteBuffer b) throws IOException {
+		final int id = (int) getVarLong(b);
+		if (id != this.entries.size())
+			throw new IOException("Corrupted trace file");
+		final TraceEntry entry = new TraceEntry();
+		entry.name = getString(b);
+		entry.unit = getString(b);
+		entry.format = b.get();
+		this.entries.add(entry);
+		return entry;
+	}
+
+	private static long getVarLong(ByteBuffer b) {
+		long v = 0l;
+		int shift = 0;
+		while (true) {
+			final byte c = b.get();
+			v |= (long) (c & 0x7F) << shift;
+			if (c >= 0)
+				return v;
+			shift += 7;
+		}
+	}
+
+	private static long getZigZag(ByteBuffer b) {
+		final long v = getVarLong(b);
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	private static String getString(ByteBuffer b) {
+		final byte[] s = new byte[(int) getVarLong(b)];
+		b.get(s);
+		return new String(s, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the number of traces in the file.
+	 *
+	 * @return the number of traces in the file
+	 */
+	public int getTraceCount() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Returns the name of the trace at the given index.
+	 *
+	 * @param index
+	 * @return the name of the trace at the given index
+	 */
+	public String getTraceName(int index) {
+		return this.entries.get(index).name;
+	}
+
+	/**
+	 * Returns the unit of the values of the trace at the given index, or an empty string.
+	 *
+	 * @param index
+	 * @return the unit of the values of the trace at the given index
+	 */
+	public String getTraceUnit(int index) {
+		return this.entries.get(index).unit;
+	}
+
+	/**
+	 * Returns the items of the trace at the given index, ordered chronologically.
+	 *
+	 * <p>Values are {@link Long}s, {@link Double}s, {@link Boolean}s or, if the trace values have
+	 * any other type, their {@link String} representation.
+	 *
+	 * @param index
+	 * @return the items of the trace at the given index
+	 * @throws IOException
+	 */
+	public List<TraceItem<Object>> getItems(int index) throws IOException {
+		if (this.channel == null)
+			throw new IOException("This reader is closed");
+
+		final TraceEntry entry = this.entries.get(index);
+		final List<TraceItem<Object>> r = new ArrayList<TraceItem<Object>>();
+		for (int s = 0; s < entry.segmentsCount; s++) {
+			final ByteBuffer b = readRecord(entry.segments[s], TraceBinaryWriter.RECORD_SEGMENT);
+			getVarLong(b); //id
+			final int count = (int) getVarLong(b);
+			final byte type = b.get();
+
+			final long[] times = new long[count];
+			long last = 0l;
+			for (int i = 0; i < count; i++) {
+				last += getZigZag(b);
+				times[i] = last;
+			}
+
+			last = 0l;
+			for (int i = 0; i < count; i++) {
+				final Object v;
+				switch (type) {
+				case TraceBinaryWriter.VALUES_LONG:
+					last += getZigZag(b);
+					v = Long.valueOf(last);
+					break;
+				case TraceBinaryWriter.VALUES_DOUBLE:
+					last ^= getVarLong(b);
+					v = Double.valueOf(Double.longBitsToDouble(last));
+					break;
+				case TraceBinaryWriter.VALUES_BOOLEAN:
+					v = Boolean.valueOf((b.get(b.position() + (i >> 3)) & (1 << (i & 7))) != 0);
+					break;
+				case TraceBinaryWriter.VALUES_STRING:
+					v = getString(b);
+					break;
+				default:
+					throw new IOException("Corrupted trace file");
+				}
+				r.add(new TraceItem<Object>(times[i], v));
+			}
+			if (type == TraceBinaryWriter.VALUES_BOOLEAN)
+				b.position(b.position() + ((count + 7) >> 3));
+		}
+		return r;
+	}
+
+	private static String formatValue(byte format, Object value) {
+		if (!(value instanceof Long))
+			return value.toString();
+		final long v = ((Long) value).longValue();
+		switch (format) {
+		case TraceBinaryWriter.FORMAT_DATA_RATE:
+			return Simulator.formatDataRate(v, false, false);
+		case TraceBinaryWriter.FORMAT_DATA_SIZE:
+			return Simulator.formatSize(v, false, false);
+		case TraceBinaryWriter.FORMAT_ENERGY:
+			return Simulator.formatEnergy(v, false, false);
+		case TraceBinaryWriter.FORMAT_MI:
+			return Simulator.formatMi(v, false);
+		case TraceBinaryWriter.FORMAT_MIPS:
+			return Simulator.formatMips(v, false);
+		case TraceBinaryWriter.FORMAT_POWER:
+			return Simulator.formatPower(v, false, false);
+		case TraceBinaryWriter.FORMAT_PRICE:
+			return Simulator.formatPrice(v, false);
+		case TraceBinaryWriter.FORMAT_TIME:
+			return Simulator.formatTime(v, false, false);
+		default:
+			return value.toString();
+		}
+	}
+
+	private static String csvEscape(String s) {
+		if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0)
+			return s;
+		return '"' + s.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Writes the trace at the given index using the text format of the default trace factory, or using CSV.
+	 *
+	 * @param index
+	 * @param writer
+	 * @param csv
+	 * @throws IOException
+	 */
+	public void export(int index, Writer writer, boolean csv) throws IOException {
+		final TraceEntry entry = this.entries.get(index);
+		final List<TraceItem<Object>> items = getItems(index);
+
+		final String unit = entry.unit.isEmpty() ? "" : "_in_" + entry.unit;
+		if (csv)
+			writer.write(csvEscape("time_in_seconds") + "," + csvEscape("probe_value" + unit) + "\n");
+		else if (!items.isEmpty())
+			writer.write("# data format is: time_in_seconds\tprobe_value" + unit + "\n");
+
+		final char separator = csv ? ',' : '\t';
+		for (TraceItem<Object> item: items) {
+			writer.write(Simulator.formatTime(item.getTime(), false, false));
+			writer.write(separator);
+			final String v = formatValue(entry.format, item.getValue());
+			writer.write(csv ? csvEscape(v) : v);
+			writer.write('\n');
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.channel == null)
+			return;
+		this.channel.close();
+		this.channel = null;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 3 || (args.length == 3 && !args[2].equals("--csv"))) {
+			System.err.println("Usage: TraceBinaryReader file [output_directory [--csv]]");
+			System.exit(1);
+			return;
+		}
+
+		final TraceBinaryReader reader = new TraceBinaryReader(new File(args[0]));
+		try {
+			if (args.length == 1) {
+				for (int i = 0; i < reader.getTraceCount(); i++)
+					System.out.println(reader.getTraceName(i) + "\t" + reader.getItems(i).size() + " items");
+				return;
+			}
+
+			final boolean csv = args.length == 3;
+			final File dir = new File(args[1]);
+			dir.mkdirs();
+			for (int i = 0; i < reader.getTraceCount(); i++) {
+				File f;
+				int j = 0;
+				do {
+					f = new File(dir, reader.getTraceName(i) + "." + (j++) + (csv ? ".csv" : ".trace"));
+				} while (f.exists());
+
+				final Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(f.toPath()),
+						csv ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1));
+				try {
+					reader.export(i, writer, csv);
+				} finally {
+					writer.close();
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,396 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.tracing;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.tracing.probetypes.DataRateProbe;
+import com.samysadi.acs.core.tracing.probetypes.DataSizeProbe;
+import com.samysadi.acs.core.tracing.probetypes.EnergyProbe;
+import com.samysadi.acs.core.tracing.probetypes.MiProbe;
+import com.samysadi.acs.core.tracing.probetypes.MipsProbe;
+import com.samysadi.acs.core.tracing.probetypes.PowerProbe;
+import com.samysadi.acs.core.tracing.probetypes.PriceProbe;
+import com.samysadi.acs.core.tracing.probetypes.TimeProbe;
+
+/**
+ * Writes traces to a single binary file, using a compact columnar format.
+ *
+ * <p>The file contains a header followed by records:<ul>
+ * <li>a <i>trace</i> record declares a trace: its id, name, unit and how its values are formatted;
+ * <li>a <i>segment</i> record contains items of one trace. Times are stored first, delta-encoded, then values are stored
+ * using an encoding that depends on their type;
+ * <li>a <i>snapshot</i> record is a segment that replaces all previous segments of the same trace;
+ * <li>the <i>index</i> record is written when the writer is closed, and gives the offsets of the records of each trace.
+ * </ul>
+ * The file ends with the offset of the index.
+ * If the writer was not closed, the index is missing but the file can still be read sequentially.
+ *
+ * <p>Use {@link TraceBinaryReader} to read these files or to export them to text or CSV.
+ *
+ * @since 1.3
+ */
+public class TraceBinaryWriter implements Closeable {
+	static final byte[] MAGIC = "ACSTRACE".getBytes(StandardCharsets.US_ASCII);
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = MAGIC.length + 4 + 8;
+	static final int RECORD_HEADER_SIZE = 1 + 4;
+	static final int FOOTER_SIZE = 8 + MAGIC.length;
+
+	static final byte RECORD_TRACE = 1;
+	static final byte RECORD_SEGMENT = 2;
+	static final byte RECORD_SNAPSHOT = 3;
+	static final byte RECORD_INDEX = 4;
+
+	static final byte VALUES_LONG = 0;
+	static final byte VALUES_DOUBLE = 1;
+	static final byte VALUES_BOOLEAN = 2;
+	static final byte VALUES_STRING = 3;
+
+	static final byte FORMAT_NONE = 0;
+	static final byte FORMAT_DATA_RATE = 1;
+	static final byte FORMAT_DATA_SIZE = 2;
+	static final byte FORMAT_ENERGY = 3;
+	static final byte FORMAT_MI = 4;
+	static final byte FORMAT_MIPS = 5;
+	static final byte FORMAT_POWER = 6;
+	static final byte FORMAT_PRICE = 7;
+	static final byte FORMAT_TIME = 8;
+
+	private static final int FLUSH_THRESHOLD = 1 << 16;
+
+	private static final class TraceEntry {
+		private final int id;
+		private final long offset;
+		private long[] segments;
+		private int segmentsCount;
+
+		public TraceEntry(int id, long offset) {
+			super();
+			this.id = id;
+			this.offset = offset;
+			this.segments = new long[4];
+			this.segmentsCount = 0;
+		}
+
+		public void addSegment(long offset, boolean snapshot) {
+			if (snapshot)
+				this.segmentsCount = 0;
+			if (this.segmentsCount == this.segments.length)
+				this.segments = Arrays.copyOf(this.segments, this.segmentsCount << 1);
+			this.segments[this.segmentsCount++] = offset;
+		}
+	}
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	/**
+	 * Number of bytes written to the channel, not including bytes in the buffer
+	 */
+	private long written;
+	private final IdentityHashMap<Trace<?>, TraceEntry> traces;
+	private final List<TraceEntry> entries;
+
+	public TraceBinaryWriter(File file) throws IOException {
+		super();
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		this.buffer = ByteBuffer.allocate(FLUSH_THRESHOLD << 1);
+		this.written = 0l;
+		this.traces = new IdentityHashMap<Trace<?>, TraceEntry>();
+		this.entries = new ArrayList<TraceEntry>();
+
+		this.buffer.put(MAGIC);
+		this.buffer.putInt(VERSION);
+		this.buffer.putLong(Simulator.SECOND);
+	}
+
+	/**
+	 * Returns the format that is used to convert values of the given probe to strings,
+	 * or <tt>-1</tt> if the probe has its own formatter.
+	 */
+	static byte getValueFormat(Probe<?> p) {
+		if ((p instanceof FormattableProbe) && ((FormattableProbe) p).getProbeValueFormatter() != null)
+			return -1;
+		if (p instanceof DataRateProbe)
+			return FORMAT_DATA_RATE;
+		else if (p instanceof DataSizeProbe)
+			return FORMAT_DATA_SIZE;
+		else if (p instanceof EnergyProbe)
+			return FORMAT_ENERGY;
+		else if (p instanceof MiProbe)
+			return FORMAT_MI;
+		else if (p instanceof MipsProbe)
+			return FORMAT_MIPS;
+		else if (p instanceof PowerProbe)
+			return FORMAT_POWER;
+		else if (p instanceof PriceProbe)
+			return FORMAT_PRICE;
+		else if (p instanceof TimeProbe)
+			return FORMAT_TIME;
+		else
+			return FORMAT_NONE;
+	}
+
+	private static boolean isLong(Object v) {
+		return v instanceof Long || v instanceof Integer || v instanceof Short || v instanceof Byte;
+	}
+
+	private static byte getValuesType(Probe<?> p, List<? extends TraceItem<?>> items) {
+		if (getValueFormat(p) < 0)
+			return VALUES_STRING;
+
+		boolean isLong = true;
+		boolean isDouble = true;
+		boolean isBoolean = true;
+		for (TraceItem<?> item: items) {
+			final Object v = item.getValue();
+			isLong &= isLong(v);
+			isDouble &= v instanceof Double;
+			isBoolean &= v instanceof Boolean;
+		}
+		if (isLong)
+			return VALUES_LONG;
+		if (isDouble)
+			return VALUES_DOUBLE;
+		if (isBoolean)
+			return VALUES_BOOLEAN;
+		return VALUES_STRING;
+	}
+
+	private void ensureRemaining(int n) {
+		if (this.buffer.remaining() >= n)
+			return;
+		final ByteBuffer b = ByteBuffer.allocate(Math.max(this.buffer.capacity() << 1, this.buffer.position() + n));
+		this.buffer.flip();
+		b.put(this.buffer);
+		this.buffer = b;
+	}
+
+	private void putVarLong(long v) {
+		ensureRemaining(10);
+		while ((v & ~0x7Fl) != 0l) {
+			this.buffer.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		this.buffer.put((byte) v);
+	}
+
+	private void putZigZag(long v) {
+		putVarLong((v << 1) ^ (v >> 63));
+	}
+
+	private void putString(String s) {
+		final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		putVarLong(b.length);
+		ensureRemaining(b.length);
+		this.buffer.put(b);
+	}
+
+	private long position() {
+		return this.written + this.buffer.position();
+	}
+
+	private long beginRecord(byte type) {
+		ensureRemaining(RECORD_HEADER_SIZE);
+		final long offset = position();
+		this.buffer.put(type);
+		this.buffer.putInt(0);
+		return offset;
+	}
+
+	private void endRecord(long offset) throws IOException {
+		final int start = (int) (offset - this.written);
+		this.buffer.putInt(start + 1, this.buffer.position() - start - RECORD_HEADER_SIZE);
+		if (this.buffer.position() >= FLUSH_THRESHOLD)
+			writeBuffer();
+	}
+
+	private void writeBuffer() throws IOException {
+		this.buffer.flip();
+		while (this.buffer.hasRemaining())
+			this.written += this.channel.write(this.buffer);
+		this.buffer.clear();
+	}
+
+	private void checkOpen() throws IOException {
+		if (this.channel == null)
+			throw new IOException("This writer is closed");
+	}
+
+	private TraceEntry getEntry(Trace<?> trace) throws IOException {
+		TraceEntry entry = this.traces.get(trace);
+		if (entry != null)
+			return entry;
+
+		final int id = this.entries.size();
+		final long offset = beginRecord(RECORD_TRACE);
+		putVarLong(id);
+		putString(trace.toString());
+		putString(Simulator.probeValueUnit(trace.getParent()));
+		ensureRemaining(1);
+		this.buffer.put((byte) Math.max(FORMAT_NONE, getValueFormat(trace.getParent())));
+		endRecord(offset);
+
+		entry = new TraceEntry(id, offset);
+		this.traces.put(trace, entry);
+		this.entries.add(entry);
+		return entry;
+	}
+
+	private void writeSegment(Trace<?> trace, List<? extends TraceItem<?>> items, boolean snapshot) throws IOException {
+		checkOpen();
+		final TraceEntry entry = getEntry(trace);
+		final byte type = getValuesType(trace.getParent(), items);
+
+		final long offset = beginRecord(snapshot ? RECORD_SNAPSHOT : RECORD_SEGMENT);
+		putVarLong(entry.id);
+		putVarLong(items.size());
+		ensureRemaining(1);
+		this.buffer.put(type);
+
+		long last = 0l;
+		for (TraceItem<?> item: items) {
+			putZigZag(item.getTime() - last);
+			last = item.getTime();
+		}
+
+		switch (type) {
+		case VALUES_LONG:
+			last = 0l;
+			for (TraceItem<?> item: items) {
+				final long v = ((Number) item.getValue()).longValue();
+				putZigZag(v - last);
+				last = v;
+			}
+			break;
+		case VALUES_DOUBLE:
+			last = 0l;
+			for (TraceItem<?> item: items) {
+				final long v = Double.doubleToRawLongBits(((Double) item.getValue()).doubleValue());
+				putVarLong(v ^ last);
+				last = v;
+			}
+			break;
+		case VALUES_BOOLEAN:
+			ensureRemaining((items.size() + 7) >> 3);
+			int bits = 0;
+			int i = 0;
+			for (TraceItem<?> item: items) {
+				if (((Boolean) item.getValue()).booleanValue())
+					bits |= 1 << (i & 7);
+				if ((++i & 7) == 0) {
+					this.buffer.put((byte) bits);
+					bits = 0;
+				}
+			}
+			if ((i & 7) != 0)
+				this.buffer.put((byte) bits);
+			break;
+		default:
+			for (TraceItem<?> item: items)
+				putString(Simulator.probeValueToString(trace.getParent(), item.getValue(), false, false));
+			break;
+		}
+
+		endRecord(offset);
+		entry.addSegment(offset, snapshot);
+	}
+
+	/**
+	 * Appends the given items to the items already written for the given trace.
+	 *
+	 * @param trace
+	 * @param items items ordered chronologically
+	 * @throws IOException
+	 */
+	public void append(Trace<?> trace, List<? extends TraceItem<?>> items) throws IOException {
+		writeSegment(trace, items, false);
+	}
+
+	/**
+	 * Writes the given items, and discards all items previously written for the given trace.
+	 *
+	 * @param trace
+	 * @param items items ordered chronologically
+	 * @throws IOException
+	 */
+	public void write(Trace<?> trace, List<? extends TraceItem<?>> items) throws IOException {
+		writeSegment(trace, items, true);
+	}
+
+	/**
+	 * Writes buffered records to the file.
+	 *
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		checkOpen();
+		writeBuffer();
+	}
+
+	/**
+	 * Writes the index and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.channel == null)
+			return;
+
+		try {
+			final long offset = beginRecord(RECORD_INDEX);
+			putVarLong(this.entries.size());
+			for (TraceEntry entry: this.entries) {
+				putVarLong(entry.offset);
+				putVarLong(entry.segmentsCount);
+				for (int i = 0; i < entry.segmentsCount; i++)
+					putVarLong(entry.segments[i]);
+			}
+			endRecord(offset);
+
+			ensureRemaining(FOOTER_SIZE);
+			this.buffer.putLong(offset);
+			this.buffer.put(MAGIC);
+			writeBuffer();
+		} finally {
+			this.channel.close();
+			this.channel = null;
+			this.traces.clear();
+		}
+	}
+}
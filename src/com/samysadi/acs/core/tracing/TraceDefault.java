@@ -27,36 +27,24 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 package com.samysadi.acs.core.tracing;
 
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
-import com.samysadi.acs.core.Simulator;
-import com.samysadi.acs.core.notifications.CoreNotificationCodes;
-import com.samysadi.acs.core.notifications.NotificationListener;
-import com.samysadi.acs.core.notifications.Notifier;
-
 /**
+ * Default {@link Trace} implementation.
+ *
+ * <p>Items are kept in arrays, and numeric values are stored unboxed.
  *
  * @param <T>
  *
  * @since 1.0
  */
-public class TraceDefault<T> implements Trace<T> {
-	private Probe<T> parent;
-	private NotificationListener changeListener;
-	private NotificationListener tickListener;
+public class TraceDefault<T> extends TraceImpl<T> {
 	private int maxLength;
 	private long delay;
-	private LinkedList<TraceItem<T>> values;
+	private TraceValues<T> values;
 
 	public TraceDefault(Probe<T> parent) {
-		super();
-		if (parent == null)
-			throw new NullPointerException();
-		this.parent = parent;
-		this.changeListener = null;
-		this.tickListener = null;
+		super(parent);
 		this.maxLength = Trace.DEFAULT_MAXIMUM_LENGTH;
 		if (this.maxLength < 2)
 			throw new IllegalArgumentException("Maximum length cannot be smaller than 2");
@@ -64,51 +52,6 @@ public class TraceDefault<T> implements Trace<T> {
 		this.values = null;
 	}
 
-	@Override
-	public Probe<T> getParent() {
-		return this.parent;
-	}
-
-	@Override
-	public void discard() {
-		setEnabled(false);
-		this.parent = null;
-	}
-
-	@Override
-	public boolean isEnabled() {
-		return this.changeListener != null;
-	}
-
-	@Override
-	public void setEnabled(boolean v) {
-		if (v == isEnabled())
-			return;
-
-		if (!v) {
-			if (getParent() != null)
-				getParent().removeListener(CoreNotificationCodes.PROBE_VALUE_CHANGED, this.changeListener);
-			this.changeListener.discard();
-			this.changeListener = null;
-			if (this.tickListener != null) {
-				this.tickListener.discard();
-				this.tickListener = null;
-			}
-		} else {
-			if (getParent() == null)
-				throw new IllegalStateException("This trace has been discarded");
-			this.changeListener = new NotificationListener() {
-				@Override
-				protected void notificationPerformed(Notifier notifier,
-						int notification_code, Object data) {
-					TraceDefault.this.scheduleValueUpdate();
-				}
-			};
-			getParent().addListener(CoreNotificationCodes.PROBE_VALUE_CHANGED, this.changeListener);
-			scheduleValueUpdate();
-		}
-	}
-
 	/**
 	 * Removes values so that the trace contains a maximum of this.maxLength values
 	 */
@@ -141,22 +84,21 @@ public class TraceDefault<T> implements Trace<T> {
 
 		long min = delay;
 		long lastTime = -delay-1;
-		Iterator<TraceItem<T>> it = this.values.iterator();
-		boolean hasNext = it.hasNext();
-		while (hasNext) {
-			TraceItem<T> v = it.next();
-			hasNext = it.hasNext();
-			if (!hasNext)
-				break; //ignore last element
-			long d = v.getTime() - lastTime;
-			if (d < delay)
-				it.remove();
-			else {
-				lastTime = v.getTime();
+		final int size = this.values.size();
+		int retained = 0;
+		for (int i = 0; i < size; i++) {
+			if (i != size - 1) { //always retain last element
+				final long time = this.values.getTime(i);
+				long d = time - lastTime;
+				if (d < delay)
+					continue;
+				lastTime = time;
 				if (d < min)
 					min = d;
 			}
+			this.values.move(i, retained++);
 		}
+		this.values.truncate(retained);
 
 		return min;
 	}
@@ -211,37 +153,33 @@ public class TraceDefault<T> implements Trace<T> {
 	 * This methods adds the given <tt>value</tt> to the list of values returned by {@link Trace#getValues()}
 	 * and verifies that the {@link Trace} contract is respected.
 	 */
+	@Override
 	protected boolean addValue(long time, T value) {
-		TraceItem<T> item = new TraceItem<T>(time, value);
-
 		if (this.values == null) {
 			//add first item
-			this.values = new LinkedList<TraceItem<T>>();
-			this.values.add(item);
+			this.values = new TraceValues<T>();
+			this.values.add(time, value);
 			return true;
 		}
 
-		TraceItem<T> last = this.values.getLast();
-		long deltaTime = time - last.getTime();
+		final int last = this.values.size() - 1;
+		long deltaTime = time - this.values.getTime(last);
 
 		if (deltaTime == 0) {
 			//replace last item with the new one
-			this.values.removeLast();
-			this.values.add(item);
+			this.values.set(last, time, value);
 			return true;
 		}
 
-		if (value == last.getValue()
-				|| (value != null && value.equals(last.getValue()))) {
+		if (this.values.isSameValue(last, value)) {
 			//value has not changed since last time, no need to keep item
 			return false;
 		}
 
 		//check if last item must be retained or replaced
-		boolean dontRetain = this.values.size() != 1; //always retain first element
+		boolean dontRetain = last != 0; //always retain first element
 		if (dontRetain) {
-			TraceItem<T> beforeLast = this.values.get(this.values.size()-2);
-			long deltaTime2 = last.getTime() - beforeLast.getTime();
+			long deltaTime2 = this.values.getTime(last) - this.values.getTime(last - 1);
 			if (deltaTime2 >= this.delay) {
 				//if delay has passed then last item should be retained and not replaced
 				dontRetain = false;
@@ -251,32 +189,8 @@ public class TraceDefault<T> implements Trace<T> {
 		if (dontRetain)
 			this.values.removeLast();
 
-		this.values.add(item);
+		this.values.add(time, value);
 		shrink();
 		return true;
 	}
-
-	protected void scheduleValueUpdate() {
-		if (this.tickListener != null)
-			return;
-
-		this.tickListener = new NotificationListener() {
-			@Override
-			protected void notificationPerformed(Notifier notifier,
-					int notification_code, Object data) {
-				TraceDefault.this.addValue(Simulator.getSimulator().getTime(), TraceDefault.this.getParent().getValue());
-				this.discard();
-				TraceDefault.this.tickListener = null;
-			}
-		};
-		Simulator.getSimulator().addListener(CoreNotificationCodes.SIMULATOR_TICK_PASSED, this.tickListener);
-	}
-
-	@Override
-	public String toString() {
-		if (this.getParent() == null)
-			return "null#" + hashCode();
-		else
-			return this.getParent().toString();
-	}
 }
@@ -0,0 +1,225 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.tracing;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * A writer that appends UTF-8 text to a file, and that only keeps a few files open at the same time.
+ *
+ * <p>Written characters are kept in memory until {@link TraceFileWriter#flush()} is called or until
+ * {@link TraceFileWriter#BUFFER_SIZE} characters are pending. The file is then opened in append mode, and it is kept open
+ * so that next writes go directly to its buffered stream.<br/>
+ * At most {@link TraceFileWriter#MAX_OPEN_FILES} writers of the current thread keep their file open. When another file
+ * is opened, the least recently used file is closed, and it is opened again when needed. Files are also closed when
+ * {@link TraceFileWriter#releaseFiles()} is called (ie: when the simulation stops).<br/>
+ * This way, many traces can be written to their own files at the same time without exhausting file descriptors, and
+ * no buffer is kept for traces that have nothing to write.
+ *
+ * @since 1.3
+ */
+public class TraceFileWriter extends Writer {
+	/**
+	 * Number of pending characters after which they are written to the file
+	 */
+	public static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Maximum number of files that are kept open by the writers of a thread
+	 */
+	public static final int MAX_OPEN_FILES = 8;
+
+	/**
+	 * Writers of which file is open, the least recently used first.
+	 */
+	private static final ThreadLocal<LinkedHashMap<TraceFileWriter, Boolean>> openWriters =
+			new ThreadLocal<LinkedHashMap<TraceFileWriter, Boolean>>() {
+		@Override
+		protected LinkedHashMap<TraceFileWriter, Boolean> initialValue() {
+			return new LinkedHashMap<TraceFileWriter, Boolean>(16, 0.75f, true);
+		}
+	};
+
+	private final File file;
+	private StringBuilder pending;
+	private Writer out;
+	private IOException error;
+	private boolean closed;
+
+	/**
+	 * Creates a writer that appends to the given <tt>file</tt>.
+	 * The file is created if it does not exist.
+	 *
+	 * @param file
+	 * @throws IOException if the file cannot be created
+	 */
+	public TraceFileWriter(File file) throws IOException {
+		super();
+		this.file = file;
+		this.pending = null;
+		this.out = null;
+		this.error = null;
+		this.closed = false;
+		if (!file.exists())
+			Files.createFile(file.toPath());
+	}
+
+	public File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Closes the files of all the writers of the current thread.
+	 *
+	 * <p>Writers are not closed, and their files are opened again when needed.
+	 *
+	 * @throws IOException if a file cannot be closed
+	 */
+	public static void releaseFiles() throws IOException {
+		final LinkedHashMap<TraceFileWriter, Boolean> writers = openWriters.get();
+		if (writers.isEmpty())
+			return;
+		IOException error = null;
+		for (TraceFileWriter w: new ArrayList<TraceFileWriter>(writers.keySet())) {
+			try {
+				w.release();
+			} catch (IOException e) {
+				error = e;
+			}
+		}
+		if (error != null)
+			throw error;
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.closed)
+			throw new IOException("Writer closed");
+		if (this.error != null) {
+			final IOException e = this.error;
+			this.error = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens the file if needed, and writes pending characters to it.
+	 */
+	private void open() throws IOException {
+		final LinkedHashMap<TraceFileWriter, Boolean> writers = openWriters.get();
+		if (this.out == null) {
+			if (writers.size() >= MAX_OPEN_FILES) {
+				final TraceFileWriter eldest = writers.keySet().iterator().next();
+				try {
+					eldest.release();
+				} catch (IOException e) {
+					//reported on next use of the eldest writer
+					eldest.error = e;
+				}
+			}
+			this.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.file, true),
+					StandardCharsets.UTF_8), BUFFER_SIZE);
+			writers.put(this, Boolean.TRUE);
+		} else
+			writers.get(this); //most recently used
+
+		if (this.pending != null) {
+			final StringBuilder s = this.pending;
+			this.pending = null;
+			this.out.append(s);
+		}
+	}
+
+	/**
+	 * Writes buffered characters and closes the file. The file is opened again when needed.
+	 */
+	private void release() throws IOException {
+		if (this.out == null)
+			return;
+		openWriters.get().remove(this);
+		final Writer w = this.out;
+		this.out = null;
+		w.close();
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		ensureOpen();
+		if (this.out != null) {
+			this.out.write(cbuf, off, len);
+			return;
+		}
+		if (this.pending == null)
+			this.pending = new StringBuilder(Math.min(Math.max(len, 64), BUFFER_SIZE));
+		this.pending.append(cbuf, off, len);
+		if (this.pending.length() >= BUFFER_SIZE)
+			open();
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		ensureOpen();
+		if (this.out != null) {
+			this.out.write(str, off, len);
+			return;
+		}
+		if (this.pending == null)
+			this.pending = new StringBuilder(Math.min(Math.max(len, 64), BUFFER_SIZE));
+		this.pending.append(str, off, off + len);
+		if (this.pending.length() >= BUFFER_SIZE)
+			open();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		if (this.pending != null)
+			open();
+		if (this.out != null)
+			this.out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.closed)
+			return;
+		try {
+			flush();
+		} finally {
+			this.closed = true;
+			release();
+		}
+	}
+}
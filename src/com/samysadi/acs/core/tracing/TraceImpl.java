@@ -0,0 +1,178 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.tracing;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.notifications.CoreNotificationCodes;
+import com.samysadi.acs.core.notifications.NotificationListener;
+import com.samysadi.acs.core.notifications.Notifier;
+
+/**
+ * This abstract class implements the enabling and sampling logic of the
+ * {@link Trace} interface.
+ *
+ * <p>When the sampling interval is <tt>0</tt> (the default), the trace listens to value changes on its parent probe,
+ * and the new value is recorded once all events of the current simulation time are processed.<br/>
+ * Otherwise, the value of the parent probe is recorded every sampling interval, and value changes are not listened to.
+ *
+ * <p>In both cases, values are recorded by the {@link TraceSampler} of the simulator, which calls
+ * {@link TraceImpl#addValue(long, Object)}.
+ *
+ * @param <T>
+ *
+ * @since 1.3
+ */
+public abstract class TraceImpl<T> implements Trace<T> {
+	private Probe<T> parent;
+	private boolean enabled;
+	private NotificationListener changeListener;
+	private long samplingInterval;
+
+	/**
+	 * Whether this trace is in the dirty list of the {@link TraceSampler}
+	 */
+	boolean dirty;
+	/**
+	 * Next trace in the dirty list of the {@link TraceSampler}
+	 */
+	TraceImpl<?> nextDirty;
+
+	public TraceImpl(Probe<T> parent) {
+		super();
+		if (parent == null)
+			throw new NullPointerException();
+		this.parent = parent;
+		this.enabled = false;
+		this.changeListener = null;
+		this.samplingInterval = 0l;
+		this.dirty = false;
+		this.nextDirty = null;
+	}
+
+	@Override
+	public Probe<T> getParent() {
+		return this.parent;
+	}
+
+	@Override
+	public void discard() {
+		setEnabled(false);
+		this.parent = null;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean v) {
+		if (v == isEnabled())
+			return;
+
+		if (!v) {
+			this.enabled = false;
+			if (this.changeListener != null) {
+				if (getParent() != null)
+					getParent().removeListener(CoreNotificationCodes.PROBE_VALUE_CHANGED, this.changeListener);
+				this.changeListener.discard();
+				this.changeListener = null;
+			} else
+				Simulator.getSimulator().getTraceSampler().removeSampled(this);
+		} else {
+			if (getParent() == null)
+				throw new IllegalStateException("This trace has been discarded");
+			this.enabled = true;
+			if (this.samplingInterval == 0l) {
+				this.changeListener = new NotificationListener() {
+					@Override
+					protected void notificationPerformed(Notifier notifier,
+							int notification_code, Object data) {
+						TraceImpl.this.scheduleValueUpdate();
+					}
+				};
+				getParent().addListener(CoreNotificationCodes.PROBE_VALUE_CHANGED, this.changeListener);
+			} else
+				Simulator.getSimulator().getTraceSampler().addSampled(this);
+			scheduleValueUpdate();
+		}
+	}
+
+	@Override
+	public long getSamplingInterval() {
+		return this.samplingInterval;
+	}
+
+	@Override
+	public void setSamplingInterval(long interval) {
+		if (this.samplingInterval == interval)
+			return;
+		if (interval < 0)
+			throw new IllegalArgumentException("Sampling interval cannot be negative");
+
+		boolean wasEnabled = isEnabled();
+		if (isEnabled())
+			setEnabled(false);
+
+		this.samplingInterval = interval;
+
+		setEnabled(wasEnabled);
+	}
+
+	/**
+	 * Makes the current value of the parent probe be recorded once all events of the current
+	 * simulation time are processed.
+	 */
+	protected void scheduleValueUpdate() {
+		Simulator.getSimulator().getTraceSampler().markDirty(this);
+	}
+
+	/**
+	 * Records the current value of the parent probe, if this trace is still enabled.
+	 */
+	final void sample(long time) {
+		if (!isEnabled())
+			return;
+		addValue(time, getParent().getValue());
+	}
+
+	/**
+	 * This methods adds the given <tt>value</tt> to the trace
+	 * and verifies that the {@link Trace} contract is respected.
+	 *
+	 * @return <tt>true</tt> if the value was added
+	 */
+	protected abstract boolean addValue(long time, T value);
+
+	@Override
+	public String toString() {
+		if (this.getParent() == null)
+			return "null#" + hashCode();
+		else
+			return this.getParent().toString();
+	}
+}
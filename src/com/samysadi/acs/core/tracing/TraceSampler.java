@@ -0,0 +1,174 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.tracing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.DispensableEventImpl;
+import com.samysadi.acs.core.notifications.CoreNotificationCodes;
+
+/**
+ * Records trace values once all events of the current simulation time are processed.
+ *
+ * <p>Traces that need to record a value are kept in a list that is linked through the traces themselves,
+ * and that is emptied by the simulator just after the {@link CoreNotificationCodes#SIMULATOR_TICK_PASSED} notification.
+ * Each trace is recorded at most once per simulation time, in the order they were marked.
+ *
+ * <p>Traces that have a sampling interval are grouped by interval. A dispensable event marks all traces of a group
+ * each time the simulation time reaches a multiple of the interval. They are also recorded when the simulation stops.
+ *
+ * @since 1.3
+ */
+public final class TraceSampler {
+	private final Simulator simulator;
+
+	private TraceImpl<?> dirtyHead;
+	private TraceImpl<?> dirtyTail;
+
+	private HashMap<Long, SamplingGroup> groups;
+
+	public TraceSampler(Simulator simulator) {
+		super();
+		this.simulator = simulator;
+		this.dirtyHead = null;
+		this.dirtyTail = null;
+		this.groups = null;
+	}
+
+	/**
+	 * Makes the given <tt>trace</tt> record the value of its probe at the end of the current simulation time.
+	 *
+	 * <p>Nothing is done if the trace is already marked.
+	 *
+	 * @param trace
+	 */
+	public void markDirty(TraceImpl<?> trace) {
+		if (trace.dirty)
+			return;
+		trace.dirty = true;
+		if (this.dirtyTail == null)
+			this.dirtyHead = trace;
+		else
+			this.dirtyTail.nextDirty = trace;
+		this.dirtyTail = trace;
+	}
+
+	/**
+	 * Records the values of all marked traces and empties the list of marked traces.
+	 *
+	 * <p>This method is called by the simulator once all events of the current simulation time are processed.
+	 */
+	public void tickPassed() {
+		final long time = this.simulator.getTime();
+		while (this.dirtyHead != null) {
+			final TraceImpl<?> trace = this.dirtyHead;
+			this.dirtyHead = trace.nextDirty;
+			if (this.dirtyHead == null)
+				this.dirtyTail = null;
+			trace.nextDirty = null;
+			trace.dirty = false;
+			trace.sample(time);
+		}
+	}
+
+	/**
+	 * Records the values of all traces that have a sampling interval, and of all marked traces.
+	 *
+	 * <p>This method is called by the simulator when it stops, so that these traces contain the last value of their probe.
+	 */
+	public void simulationStopped() {
+		if (this.groups != null)
+			for (SamplingGroup g: this.groups.values())
+				for (TraceImpl<?> trace: g.traces)
+					markDirty(trace);
+		tickPassed();
+	}
+
+	void addSampled(TraceImpl<?> trace) {
+		if (this.groups == null)
+			this.groups = new HashMap<Long, SamplingGroup>();
+		final Long interval = Long.valueOf(trace.getSamplingInterval());
+		SamplingGroup g = this.groups.get(interval);
+		if (g == null) {
+			g = new SamplingGroup(interval.longValue());
+			this.groups.put(interval, g);
+			g.scheduleNext();
+		}
+		g.traces.add(trace);
+	}
+
+	void removeSampled(TraceImpl<?> trace) {
+		if (this.groups == null)
+			return;
+		final Long interval = Long.valueOf(trace.getSamplingInterval());
+		final SamplingGroup g = this.groups.get(interval);
+		if (g == null || !g.traces.remove(trace))
+			return;
+		if (g.traces.isEmpty()) {
+			if (g.event != null)
+				g.event.cancel();
+			this.groups.remove(interval);
+		}
+	}
+
+	private final class SamplingGroup {
+		private final long interval;
+		private final ArrayList<TraceImpl<?>> traces;
+		private SamplingEvent event;
+
+		public SamplingGroup(long interval) {
+			super();
+			this.interval = interval;
+			this.traces = new ArrayList<TraceImpl<?>>();
+			this.event = null;
+		}
+
+		public void scheduleNext() {
+			final long time = TraceSampler.this.simulator.getTime();
+			this.event = new SamplingEvent(this);
+			TraceSampler.this.simulator.schedule((time / this.interval + 1) * this.interval - time, this.event);
+		}
+	}
+
+	private final class SamplingEvent extends DispensableEventImpl {
+		private final SamplingGroup group;
+
+		public SamplingEvent(SamplingGroup group) {
+			super();
+			this.group = group;
+		}
+
+		@Override
+		public void process() {
+			for (TraceImpl<?> trace: this.group.traces)
+				markDirty(trace);
+			this.group.scheduleNext();
+		}
+	}
+}
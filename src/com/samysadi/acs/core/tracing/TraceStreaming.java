@@ -0,0 +1,311 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.tracing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+
+import com.samysadi.acs.core.Logger;
+import com.samysadi.acs.core.Simulator;
+
+/**
+ * A {@link Trace} that writes its items to an output as soon as they are final,
+ * instead of keeping all of them in memory until the simulation stops.
+ *
+ * <p>An item is final when a newer item has been retained after it.
+ * Only a bounded window of items is kept in memory. Its size is given by {@link Trace#getMaxLength()}.
+ * When the window is full, its final items are written to the output and removed from memory.
+ * The output is either a text writer (see {@link TraceStreaming#setOutput(Writer)}), or
+ * a binary file (see {@link TraceStreaming#setOutput(TraceBinaryWriter)}).
+ * If no output is set, then these items are lost.
+ *
+ * <p>Unlike {@link TraceDefault}, the delay of this trace is never increased, and {@link TraceStreaming#getValues()}
+ * only returns items that are still in memory.
+ *
+ * @param <T>
+ *
+ * @since 1.3
+ */
+public class TraceStreaming<T> extends TraceImpl<T> {
+	private int maxLength;
+	private long delay;
+
+	/**
+	 * Items that have not been written yet
+	 */
+	private ArrayDeque<TraceItem<T>> window;
+	/**
+	 * Last added item, it may have been written already
+	 */
+	private TraceItem<T> last;
+	/**
+	 * Time of the item added before {@link TraceStreaming#last}, or <tt>null</tt> if <tt>last</tt> is the first item
+	 */
+	private Long beforeLastTime;
+
+	private Writer output;
+	private TraceBinaryWriter binaryOutput;
+
+	public TraceStreaming(Probe<T> parent) {
+		super(parent);
+		this.maxLength = Trace.DEFAULT_MAXIMUM_LENGTH;
+		this.delay = Trace.DEFAULT_DELAY;
+		this.window = new ArrayDeque<TraceItem<T>>();
+		this.last = null;
+		this.beforeLastTime = null;
+		this.output = null;
+		this.binaryOutput = null;
+	}
+
+	/**
+	 * Returns the size of the in-memory window.
+	 *
+	 * @return the size of the in-memory window
+	 */
+	@Override
+	public int getMaxLength() {
+		return this.maxLength;
+	}
+
+	/**
+	 * Updates the size of the in-memory window.
+	 *
+	 * @param length
+	 * @throws IllegalArgumentException if you give a length smaller than 2
+	 */
+	@Override
+	public void setMaxLength(int length) {
+		if (length < 2)
+			throw new IllegalArgumentException("Maximum length cannot be smaller than 2");
+		this.maxLength = length;
+		if (this.window.size() > this.maxLength)
+			writeItems(false);
+	}
+
+	@Override
+	public long getDelay() {
+		return this.delay;
+	}
+
+	/**
+	 * Updates the minimum time delay before a probe value change is taken into account.
+	 *
+	 * <p>The new delay only applies to items added after this call.
+	 *
+	 * @param delay
+	 * @throws IllegalArgumentException if you give negative delay
+	 */
+	@Override
+	public void setDelay(long delay) {
+		if (delay < 0)
+			throw new IllegalArgumentException("Delay cannot be negative");
+		this.delay = delay;
+	}
+
+	/**
+	 * Returns an unmodifiable list containing the {@link TraceItem}s that are still in memory, ordered chronologically.
+	 *
+	 * @return an unmodifiable list containing the {@link TraceItem}s that are still in memory
+	 */
+	@Override
+	public List<TraceItem<T>> getValues() {
+		if (this.window.isEmpty())
+			return Collections.emptyList();
+		return Collections.unmodifiableList(new ArrayList<TraceItem<T>>(this.window));
+	}
+
+	/**
+	 * Returns the output where final items are written.
+	 *
+	 * @return the output where final items are written, or <tt>null</tt>
+	 */
+	public Writer getOutput() {
+		return this.output;
+	}
+
+	/**
+	 * Updates the output where final items are written, and writes the data format header to it.
+	 *
+	 * <p>The caller remains responsible for closing the output.
+	 *
+	 * @param output
+	 * @throws IOException
+	 */
+	public void setOutput(Writer output) throws IOException {
+		this.output = output;
+		this.binaryOutput = null;
+		if (output == null)
+			return;
+		String unit = Simulator.probeValueUnit(getParent());
+		if (!unit.isEmpty())
+			unit = "_in_" + unit;
+		output.write("# data format is: time_in_seconds\tprobe_value" + unit + "\n");
+	}
+
+	/**
+	 * Returns the binary file where final items are written.
+	 *
+	 * @return the binary file where final items are written, or <tt>null</tt>
+	 */
+	public TraceBinaryWriter getBinaryOutput() {
+		return this.binaryOutput;
+	}
+
+	/**
+	 * Updates the binary file where final items are written.
+	 * This replaces any text output.
+	 *
+	 * <p>The caller remains responsible for closing the output.
+	 *
+	 * @param output
+	 */
+	public void setOutput(TraceBinaryWriter output) {
+		this.binaryOutput = output;
+		this.output = null;
+	}
+
+	/**
+	 * Writes all final items to the output and flushes it.
+	 *
+	 * <p>The last item is kept in memory because it may still be replaced.
+	 */
+	public void flush() {
+		writeItems(false);
+		flushOutput();
+	}
+
+	/**
+	 * Writes all items, including the last one, to the output and flushes it.
+	 *
+	 * <p>This is called when the simulation stops. Written items cannot be replaced anymore,
+	 * so if the simulation is resumed, new items are appended after them.
+	 */
+	public void flushAll() {
+		writeItems(true);
+		flushOutput();
+	}
+
+	private void flushOutput() {
+		try {
+			if (this.output != null)
+				this.output.flush();
+			else if (this.binaryOutput != null)
+				this.binaryOutput.flush();
+		} catch (IOException e) {
+			outputFailed(e);
+		}
+	}
+
+	private void outputFailed(IOException e) {
+		Logger.getGlobal().log(Level.WARNING, "Cannot write trace " + toString() + ", next items will be lost.", e);
+		this.output = null;
+		this.binaryOutput = null;
+	}
+
+	private void writeItems(boolean includeLast) {
+		final int keep = includeLast || this.window.peekLast() != this.last ? 0 : 1;
+		if (this.binaryOutput != null) {
+			final List<TraceItem<T>> items = new ArrayList<TraceItem<T>>(this.window.size());
+			while (this.window.size() > keep)
+				items.add(this.window.pollFirst());
+			if (items.isEmpty())
+				return;
+			try {
+				this.binaryOutput.append(this, items);
+			} catch (IOException e) {
+				outputFailed(e);
+			}
+			return;
+		}
+
+		while (this.window.size() > keep) {
+			final TraceItem<T> item = this.window.pollFirst();
+			if (this.output == null)
+				continue;
+			try {
+				this.output.write(Simulator.formatTime(item.getTime(), false, false));
+				this.output.write('\t');
+				this.output.write(Simulator.probeValueToString(getParent(), item.getValue(), false, false));
+				this.output.write('\n');
+			} catch (IOException e) {
+				outputFailed(e);
+			}
+		}
+	}
+
+	/**
+	 * This methods adds the given <tt>value</tt> to the trace
+	 * and verifies that the {@link Trace} contract is respected.
+	 */
+	@Override
+	protected boolean addValue(long time, T value) {
+		TraceItem<T> item = new TraceItem<T>(time, value);
+
+		if (this.last == null) {
+			//add first item
+			this.window.add(item);
+			this.last = item;
+			return true;
+		}
+
+		final boolean lastWritten = this.window.peekLast() != this.last;
+		long deltaTime = time - this.last.getTime();
+
+		if (deltaTime == 0 && !lastWritten) {
+			//replace last item with the new one
+			this.window.pollLast();
+			this.window.add(item);
+			this.last = item;
+			return true;
+		}
+
+		if (value == this.last.getValue()
+				|| (value != null && value.equals(this.last.getValue()))) {
+			//value has not changed since last time, no need to keep item
+			return false;
+		}
+
+		//check if last item must be retained or replaced
+		if (!lastWritten && this.beforeLastTime != null
+				&& this.last.getTime() - this.beforeLastTime.longValue() < this.delay) {
+			this.window.pollLast();
+		} else
+			this.beforeLastTime = Long.valueOf(this.last.getTime());
+
+		this.window.add(item);
+		this.last = item;
+
+		if (this.window.size() > this.maxLength)
+			writeItems(false);
+		return true;
+	}
+}
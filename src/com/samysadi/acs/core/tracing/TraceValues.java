@@ -0,0 +1,184 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.core.tracing;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Array-backed storage for the items of a trace.
+ *
+ * <p>Times are kept in a <tt>long</tt> array.
+ * As long as all values are {@link Long}s (or all are {@link Double}s), they are kept unboxed in a
+ * primitive array. The storage switches to an <tt>Object</tt> array the first time another value is added.
+ *
+ * <p>{@link TraceItem}s are only created when items are read through the {@link java.util.List} interface.
+ *
+ * @param <T>
+ *
+ * @since 1.3
+ */
+final class TraceValues<T> extends AbstractList<TraceItem<T>> implements RandomAccess {
+	private static final int INITIAL_CAPACITY = 8;
+
+	private long[] times;
+	private long[] longValues;
+	private double[] doubleValues;
+	private Object[] values;
+	private int size;
+
+	public TraceValues() {
+		super();
+		this.times = new long[INITIAL_CAPACITY];
+		this.longValues = null;
+		this.doubleValues = null;
+		this.values = null;
+		this.size = 0;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public TraceItem<T> get(int index) {
+		if (index >= this.size)
+			throw new IndexOutOfBoundsException();
+		return new TraceItem<T>(this.times[index], getValue(index));
+	}
+
+	public long getTime(int index) {
+		return this.times[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	public T getValue(int index) {
+		if (this.longValues != null)
+			return (T) Long.valueOf(this.longValues[index]);
+		if (this.doubleValues != null)
+			return (T) Double.valueOf(this.doubleValues[index]);
+		return (T) this.values[index];
+	}
+
+	/**
+	 * Returns <tt>true</tt> if the value at the given index equals the given value.
+	 */
+	public boolean isSameValue(int index, T value) {
+		if (this.longValues != null)
+			return (value instanceof Long) && this.longValues[index] == ((Long) value).longValue();
+		if (this.doubleValues != null)
+			return (value instanceof Double) && Double.doubleToLongBits(this.doubleValues[index]) ==
+					Double.doubleToLongBits(((Double) value).doubleValue());
+		final Object v = this.values[index];
+		return value == v || (value != null && value.equals(v));
+	}
+
+	private void toObjects() {
+		final Object[] a = new Object[this.times.length];
+		for (int i = 0; i < this.size; i++)
+			a[i] = getValue(i);
+		this.values = a;
+		this.longValues = null;
+		this.doubleValues = null;
+	}
+
+	/**
+	 * Sets the item at the given index, which must be smaller than or equal to {@link TraceValues#size()}.
+	 */
+	public void set(int index, long time, T value) {
+		if (index == this.size && this.size == this.times.length) {
+			final int capacity = this.size << 1;
+			this.times = Arrays.copyOf(this.times, capacity);
+			if (this.longValues != null)
+				this.longValues = Arrays.copyOf(this.longValues, capacity);
+			if (this.doubleValues != null)
+				this.doubleValues = Arrays.copyOf(this.doubleValues, capacity);
+			if (this.values != null)
+				this.values = Arrays.copyOf(this.values, capacity);
+		}
+
+		if (this.size == 0 && this.values == null && this.longValues == null && this.doubleValues == null) {
+			if (value instanceof Long)
+				this.longValues = new long[this.times.length];
+			else if (value instanceof Double)
+				this.doubleValues = new double[this.times.length];
+			else
+				this.values = new Object[this.times.length];
+		}
+
+		this.times[index] = time;
+		if (this.longValues != null) {
+			if (value instanceof Long) {
+				this.longValues[index] = ((Long) value).longValue();
+				return;
+			}
+			toObjects();
+		} else if (this.doubleValues != null) {
+			if (value instanceof Double) {
+				this.doubleValues[index] = ((Double) value).doubleValue();
+				return;
+			}
+			toObjects();
+		}
+		this.values[index] = value;
+	}
+
+	public void add(long time, T value) {
+		set(this.size, time, value);
+		this.size++;
+	}
+
+	/**
+	 * Copies the item at index <tt>from</tt> to index <tt>to</tt>.
+	 */
+	public void move(int from, int to) {
+		if (from == to)
+			return;
+		this.times[to] = this.times[from];
+		if (this.longValues != null)
+			this.longValues[to] = this.longValues[from];
+		else if (this.doubleValues != null)
+			this.doubleValues[to] = this.doubleValues[from];
+		else
+			this.values[to] = this.values[from];
+	}
+
+	/**
+	 * Removes all items after the given size.
+	 */
+	public void truncate(int size) {
+		if (this.values != null)
+			Arrays.fill(this.values, size, this.size, null);
+		this.size = size;
+	}
+
+	public void removeLast() {
+		truncate(this.size - 1);
+	}
+}
@@ -26,6 +26,7 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.hardware.misc;
 
+import com.samysadi.acs.core.Simulator;
 import com.samysadi.acs.utility.collections.Bitmap;
 
 /**
@@ -41,6 +42,7 @@ import com.samysadi.acs.utility.collections.Bitmap;
  * @since 1.0
  */
 public class MetaData implements Cloneable {
+	//data identifiers of meta-data created outside of any simulation
 	private static long dataIdCounter = 0l;
 	private long dataId;
 	private long versionId;
@@ -88,8 +90,14 @@ public class MetaData implements Cloneable {
 	 * <p>Concretely, this means that this meta-data describes a totally different data.
 	 */
 	protected void newDataId() {
-		dataIdCounter++;
-		this.dataId = dataIdCounter;
+		final Simulator simulator = Simulator.getSimulator();
+		if (simulator != null)
+			this.dataId = simulator.newDataId();
+		else {
+			synchronized (MetaData.class) {
+				this.dataId = ++dataIdCounter;
+			}
+		}
 	}
 
 	/**
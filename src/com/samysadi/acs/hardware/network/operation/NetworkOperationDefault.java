@@ -203,7 +203,7 @@ public class NetworkOperationDefault extends SynchronizableLongOperationImpl<Net
 
 	@Override
 	protected boolean deactivate0() {
-		long delay = Simulator.getSimulator().getTime() - this.getLastActivated();
+		long delay = getEntitySimulator().getTime() - this.getLastActivated();
 		if (!super.deactivate0())
 			return false;
 
@@ -0,0 +1,412 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.hardware.network.operation.provisioner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.hardware.network.operation.NetworkOperation;
+import com.samysadi.acs.hardware.network.routingprotocol.Route;
+import com.samysadi.acs.utility.NotificationCodes;
+
+/**
+ * A network-wide flow-level bandwidth allocator used by {@link MaxMinNetworkProvisioner}s.
+ *
+ * <p>Each running {@link NetworkOperation} is seen as a flow crossing all the provisioners where it has
+ * granted resources.
+ * Rates are computed using progressive filling: the most constrained provisioner (the one offering the smallest
+ * fair share to its flows) is found, its flows are frozen at that share, its capacity is removed from the other
+ * provisioners crossed by those flows, and so on until all flows are frozen.
+ * The maximum resource of each operation (see {@link NetworkOperation#getResourceMax()}) is taken into account.
+ * The result is a max-min fair allocation across whole routes.
+ *
+ * <p>When a flow is granted or revoked, only the connected component of provisioners that share flows
+ * (directly or indirectly) with the modified provisioners is recomputed.
+ * This is done once per simulation time, after which only flows of which rate has changed are notified
+ * (see {@link NotificationCodes#OPERATION_RESOURCE_INVALIDATED}).
+ * Flows that need to use less bandwidth are notified first, so that the new rates can always be granted.
+ *
+ * <p>A notified flow may be granted less than its computed rate, when it is limited by a provisioner that is not a
+ * {@link MaxMinNetworkProvisioner} (or by a VM) on its route. Its rate is then capped to the granted bandwidth, and rates are
+ * computed again so that the bandwidth it does not use goes to the other flows. The cap is removed when the flow is
+ * granted resources again for another reason.
+ *
+ * <p>There is one allocator per simulator, see {@link MaxMinNetworkAllocator#getAllocator(Simulator)}.
+ *
+ * @since 1.3
+ */
+public class MaxMinNetworkAllocator {
+	private static final Object PROP_ALLOCATOR = new Object();
+
+	/**
+	 * Provisioners where each running flow has granted resources
+	 */
+	private final HashMap<NetworkOperation, ArrayList<MaxMinNetworkProvisioner>> flows;
+	/**
+	 * Last computed rates, only valid if ratesValid is <tt>true</tt>
+	 */
+	private final HashMap<NetworkOperation, Long> rates;
+	private boolean ratesValid;
+	/**
+	 * Bandwidth of flows that are limited by other provisioners
+	 */
+	private final HashMap<NetworkOperation, Long> caps;
+	private final LinkedHashSet<MaxMinNetworkProvisioner> modifiedProvisioners;
+	private EventImpl rebalancingEvent;
+	private NetworkOperation invalidatedOperation;
+
+	protected MaxMinNetworkAllocator() {
+		super();
+
+		this.flows = new HashMap<NetworkOperation, ArrayList<MaxMinNetworkProvisioner>>();
+		this.rates = new HashMap<NetworkOperation, Long>();
+		this.ratesValid = false;
+		this.caps = new HashMap<NetworkOperation, Long>();
+		this.modifiedProvisioners = new LinkedHashSet<MaxMinNetworkProvisioner>();
+		this.rebalancingEvent = null;
+		this.invalidatedOperation = null;
+	}
+
+	/**
+	 * Returns the allocator of the given <tt>simulator</tt>, and creates it if needed.
+	 *
+	 * @param simulator
+	 * @return the allocator of the given <tt>simulator</tt>
+	 */
+	public static MaxMinNetworkAllocator getAllocator(Simulator simulator) {
+		MaxMinNetworkAllocator allocator = (MaxMinNetworkAllocator) simulator.getProperty(PROP_ALLOCATOR);
+		if (allocator == null) {
+			allocator = new MaxMinNetworkAllocator();
+			simulator.setProperty(PROP_ALLOCATOR, allocator);
+		}
+		return allocator;
+	}
+
+	/**
+	 * Returns the rate that can be granted for the given <tt>operation</tt> in the given <tt>provisioner</tt>.
+	 *
+	 * <p>If the operation is not running, it is considered as a new flow crossing all the
+	 * {@link MaxMinNetworkProvisioner}s of its allocated route.
+	 *
+	 * @param provisioner
+	 * @param operation
+	 * @return the rate that can be granted for the given <tt>operation</tt>
+	 */
+	public long getRate(MaxMinNetworkProvisioner provisioner, NetworkOperation operation) {
+		if (this.ratesValid) {
+			final Long r = this.rates.get(operation);
+			if (r != null)
+				return r.longValue();
+		}
+
+		final ArrayList<MaxMinNetworkProvisioner> l = this.flows.get(operation);
+		if (l != null && l.contains(provisioner)) {
+			if (!this.ratesValid) {
+				this.rates.clear();
+				this.ratesValid = true;
+			}
+			compute(provisioner, null, null, this.rates);
+			return this.rates.get(operation).longValue();
+		}
+
+		//the operation may never be granted this rate, so the computed rates are not kept
+		final List<MaxMinNetworkProvisioner> operationProvisioners = getProvisioners(operation);
+		if (l != null)
+			for (MaxMinNetworkProvisioner p: l)
+				if (!operationProvisioners.contains(p))
+					operationProvisioners.add(p);
+		if (!operationProvisioners.contains(provisioner))
+			operationProvisioners.add(provisioner);
+
+		final HashMap<NetworkOperation, Long> r = new HashMap<NetworkOperation, Long>();
+		compute(provisioner, operation, operationProvisioners, r);
+		return r.get(operation).longValue();
+	}
+
+	private static List<MaxMinNetworkProvisioner> getProvisioners(NetworkOperation operation) {
+		final List<MaxMinNetworkProvisioner> l = new ArrayList<MaxMinNetworkProvisioner>();
+		final Route route = operation.getAllocatedRoute();
+		if (route == null)
+			return l;
+		for (NetworkProvisioner p: route.getNetworkProvisioners(operation))
+			if (p instanceof MaxMinNetworkProvisioner && !l.contains(p))
+				l.add((MaxMinNetworkProvisioner) p);
+		return l;
+	}
+
+	/**
+	 * Called by the given <tt>provisioner</tt> after it has granted resources for the given <tt>operation</tt>.
+	 *
+	 * @param provisioner
+	 * @param operation
+	 */
+	public void granted(MaxMinNetworkProvisioner provisioner, NetworkOperation operation) {
+		ArrayList<MaxMinNetworkProvisioner> l = this.flows.get(operation);
+		if (l == null) {
+			l = new ArrayList<MaxMinNetworkProvisioner>(4);
+			this.flows.put(operation, l);
+		}
+		l.add(provisioner);
+
+		modified(provisioner, operation);
+	}
+
+	/**
+	 * Called by the given <tt>provisioner</tt> after it has revoked resources of the given <tt>operation</tt>.
+	 *
+	 * @param provisioner
+	 * @param operation
+	 */
+	public void revoked(MaxMinNetworkProvisioner provisioner, NetworkOperation operation) {
+		final ArrayList<MaxMinNetworkProvisioner> l = this.flows.get(operation);
+		if (l != null) {
+			l.remove(provisioner);
+			if (l.isEmpty()) {
+				this.flows.remove(operation);
+				this.caps.remove(operation);
+			}
+		}
+
+		modified(provisioner, operation);
+	}
+
+	private void modified(MaxMinNetworkProvisioner provisioner, NetworkOperation operation) {
+		//the invalidated operation is re-granting the rate we computed for it
+		if (operation == this.invalidatedOperation)
+			return;
+
+		//the operation may not be limited by the same provisioners anymore
+		this.caps.remove(operation);
+
+		this.ratesValid = false;
+		this.modifiedProvisioners.add(provisioner);
+		scheduleRebalancing(provisioner);
+	}
+
+	private void scheduleRebalancing(MaxMinNetworkProvisioner provisioner) {
+		if (this.rebalancingEvent != null)
+			return;
+		this.rebalancingEvent = new EventImpl() {
+			@Override
+			public void process() {
+				MaxMinNetworkAllocator.this.rebalancingEvent = null;
+				MaxMinNetworkAllocator.this.rebalance();
+			}
+		};
+		provisioner.getEntitySimulator().schedule(this.rebalancingEvent);
+	}
+
+	/**
+	 * Recomputes rates of flows in the components of modified provisioners, and notifies
+	 * flows of which rate has changed.
+	 */
+	protected void rebalance() {
+		if (this.modifiedProvisioners.isEmpty())
+			return;
+
+		this.rates.clear();
+		this.ratesValid = true;
+
+		final List<NetworkOperation> computed = new ArrayList<NetworkOperation>();
+		for (MaxMinNetworkProvisioner p: this.modifiedProvisioners) {
+			if (p.getOperations().isEmpty())
+				continue;
+			if (this.rates.containsKey(p.getOperations().iterator().next()))
+				continue; //component already computed
+			computed.addAll(compute(p, null, null, this.rates));
+		}
+		this.modifiedProvisioners.clear();
+
+		final List<NetworkOperation> growing = new ArrayList<NetworkOperation>();
+		for (NetworkOperation operation: computed) {
+			if (operation.getAllocatedResource() == null)
+				continue;
+			final long current = operation.getAllocatedResource().getBw();
+			final long rate = this.rates.get(operation).longValue();
+			if (current > rate)
+				invalidate(operation);
+			else if (current < rate)
+				growing.add(operation);
+		}
+
+		for (NetworkOperation operation: growing)
+			invalidate(operation);
+	}
+
+	private void invalidate(NetworkOperation operation) {
+		final ArrayList<MaxMinNetworkProvisioner> l = this.flows.get(operation);
+		if (l == null)
+			return;
+		final MaxMinNetworkProvisioner[] provisioners = l.toArray(new MaxMinNetworkProvisioner[l.size()]);
+
+		final NetworkOperation old = this.invalidatedOperation;
+		this.invalidatedOperation = operation;
+		try {
+			operation.notifyNow(NotificationCodes.OPERATION_RESOURCE_INVALIDATED, null);
+		} finally {
+			this.invalidatedOperation = old;
+		}
+
+		//the operation has stopped (ex: it has failed), its bandwidth needs to be distributed
+		if (!this.flows.containsKey(operation)) {
+			this.ratesValid = false;
+			for (MaxMinNetworkProvisioner p: provisioners)
+				this.modifiedProvisioners.add(p);
+			scheduleRebalancing(provisioners[0]);
+			return;
+		}
+
+		//the operation was granted less than its rate (ie: it is limited by another provisioner),
+		//the bandwidth it does not use needs to be distributed
+		final long rate = this.rates.get(operation).longValue();
+		final long granted = operation.getAllocatedResource() == null ? 0l : operation.getAllocatedResource().getBw();
+		if (granted != rate) {
+			if (granted < rate)
+				this.caps.put(operation, Long.valueOf(granted));
+			this.ratesValid = false;
+			for (MaxMinNetworkProvisioner p: this.flows.get(operation))
+				this.modifiedProvisioners.add(p);
+			scheduleRebalancing(provisioners[0]);
+		}
+	}
+
+	/**
+	 * Computes rates of all flows in the component of the given <tt>provisioner</tt> using progressive filling,
+	 * and puts them in the rates map.
+	 *
+	 * <p>If <tt>operation</tt> is not <tt>null</tt>, it is included as a flow crossing the given <tt>operationProvisioners</tt>.
+	 *
+	 * @param result where the computed rates are put
+	 * @return flows of which rates were computed
+	 */
+	private List<NetworkOperation> compute(MaxMinNetworkProvisioner provisioner,
+			NetworkOperation operation, List<MaxMinNetworkProvisioner> operationProvisioners,
+			HashMap<NetworkOperation, Long> result) {
+		//find the component
+		final HashMap<MaxMinNetworkProvisioner, Integer> linkIndexes = new HashMap<MaxMinNetworkProvisioner, Integer>();
+		final ArrayList<MaxMinNetworkProvisioner> links = new ArrayList<MaxMinNetworkProvisioner>();
+		final HashMap<NetworkOperation, int[]> flowLinks = new HashMap<NetworkOperation, int[]>();
+		final ArrayList<NetworkOperation> flowList = new ArrayList<NetworkOperation>();
+
+		linkIndexes.put(provisioner, Integer.valueOf(0));
+		links.add(provisioner);
+		if (operation != null)
+			addFlow(operation, operationProvisioners, linkIndexes, links, flowLinks, flowList);
+
+		for (int i = 0; i < links.size(); i++)
+			for (NetworkOperation o: links.get(i).getOperations())
+				if (!flowLinks.containsKey(o))
+					addFlow(o, this.flows.get(o), linkIndexes, links, flowLinks, flowList);
+
+		//progressive filling
+		final int linkCount = links.size();
+		final int flowCount = flowList.size();
+		final long[] remaining = new long[linkCount];
+		final int[] unfrozen = new int[linkCount];
+		final long[] share = new long[linkCount];
+		for (int l = 0; l < linkCount; l++)
+			remaining[l] = links.get(l).getCapacity();
+
+		final int[][] fl = new int[flowCount][];
+		final long[] demand = new long[flowCount];
+		final long[] rate = new long[flowCount];
+		final boolean[] frozen = new boolean[flowCount];
+		for (int f = 0; f < flowCount; f++) {
+			fl[f] = flowLinks.get(flowList.get(f));
+			demand[f] = flowList.get(f).getResourceMax();
+			final Long cap = this.caps.get(flowList.get(f));
+			if (cap != null && cap.longValue() < demand[f])
+				demand[f] = cap.longValue();
+			for (int l: fl[f])
+				unfrozen[l]++;
+		}
+
+		int active = flowCount;
+		while (active > 0) {
+			long level = Long.MAX_VALUE;
+			for (int l = 0; l < linkCount; l++) {
+				if (unfrozen[l] == 0)
+					continue;
+				share[l] = remaining[l] / unfrozen[l];
+				if (share[l] < level)
+					level = share[l];
+			}
+			for (int f = 0; f < flowCount; f++)
+				if (!frozen[f] && demand[f] < level)
+					level = demand[f];
+
+			for (int f = 0; f < flowCount; f++) {
+				if (frozen[f])
+					continue;
+				boolean bottleneck = demand[f] <= level;
+				if (!bottleneck)
+					for (int l: fl[f])
+						if (share[l] == level) {
+							bottleneck = true;
+							break;
+						}
+				if (!bottleneck)
+					continue;
+
+				rate[f] = level;
+				frozen[f] = true;
+				active--;
+				for (int l: fl[f]) {
+					remaining[l] -= level;
+					unfrozen[l]--;
+				}
+			}
+		}
+
+		for (int f = 0; f < flowCount; f++)
+			result.put(flowList.get(f), Long.valueOf(rate[f]));
+
+		return flowList;
+	}
+
+	private static void addFlow(NetworkOperation operation, List<MaxMinNetworkProvisioner> provisioners,
+			HashMap<MaxMinNetworkProvisioner, Integer> linkIndexes, ArrayList<MaxMinNetworkProvisioner> links,
+			HashMap<NetworkOperation, int[]> flowLinks, ArrayList<NetworkOperation> flowList) {
+		final int[] indexes = new int[provisioners.size()];
+		int i = 0;
+		for (MaxMinNetworkProvisioner p: provisioners) {
+			Integer index = linkIndexes.get(p);
+			if (index == null) {
+				index = Integer.valueOf(links.size());
+				linkIndexes.put(p, index);
+				links.add(p);
+			}
+			indexes[i++] = index.intValue();
+		}
+		flowLinks.put(operation, indexes);
+		flowList.add(operation);
+	}
+}
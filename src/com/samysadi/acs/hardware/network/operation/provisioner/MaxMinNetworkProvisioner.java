@@ -0,0 +1,165 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.hardware.network.operation.provisioner;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.entity.Entity;
+import com.samysadi.acs.hardware.network.operation.NetworkOperation;
+import com.samysadi.acs.hardware.network.operation.NetworkResource;
+import com.samysadi.acs.virtualization.job.operation.provisioner.LongProvisionerImpl;
+
+/**
+ * This provisioner delegates bandwidth computation to the {@link MaxMinNetworkAllocator} of the
+ * current simulator.
+ *
+ * <p>Unlike per-link provisioners, the promised bandwidth takes into account all the provisioners (links)
+ * that are crossed by each operation, and results in a max-min fair allocation across whole routes.
+ * For accurate results, all links and VMs in the network should use this provisioner.
+ *
+ * @since 1.3
+ */
+public class MaxMinNetworkProvisioner extends LongProvisionerImpl<NetworkOperation, NetworkResource>
+	implements NetworkProvisioner {
+	private long capacity;
+	private long latency;
+	private double lossRate;
+
+	private HashSet<NetworkOperation> operations;
+
+	/**
+	 * Empty constructor that creates a provisioner with zero capacity, latency and lossRate.
+	 *
+	 * <p>This constructor is provided only to satisfy the {@link Entity} contract.<br/>
+	 * You should use {@link MaxMinNetworkProvisioner#MaxMinNetworkProvisioner(long, long, double)} though.
+	 */
+	public MaxMinNetworkProvisioner() {
+		this(0l, 0l, 0d);
+	}
+
+	public MaxMinNetworkProvisioner(long bwCapacity, long latency, double lossRate) {
+		super();
+		this.capacity = bwCapacity;
+		this.latency = latency;
+		this.lossRate = lossRate;
+	}
+
+	@Override
+	public MaxMinNetworkProvisioner clone() {
+		if (operations != null && !operations.isEmpty())
+			throw new IllegalStateException("Provisioner cannot be cloned when there is running operations.");
+		final MaxMinNetworkProvisioner clone = (MaxMinNetworkProvisioner) super.clone();
+		return clone;
+	}
+
+	@Override
+	protected void initializeEntity() {
+		super.initializeEntity();
+
+		this.operations = null;
+	}
+
+	@Override
+	protected Simulator getEntitySimulator() {
+		//makes it accessible to the allocator
+		return super.getEntitySimulator();
+	}
+
+	/**
+	 * Returns the allocator that computes bandwidth for this provisioner.
+	 *
+	 * @return the allocator that computes bandwidth for this provisioner
+	 */
+	protected MaxMinNetworkAllocator getAllocator() {
+		return MaxMinNetworkAllocator.getAllocator(getEntitySimulator());
+	}
+
+	/**
+	 * Returns the operations that were granted resources using this provisioner.
+	 */
+	Set<NetworkOperation> getOperations() {
+		if (operations == null)
+			return Collections.emptySet();
+		return operations;
+	}
+
+	@Override
+	public NetworkResource getResourcePromise(NetworkOperation operation) {
+		return makeResource(getAllocator().getRate(this, operation));
+	}
+
+	@Override
+	public void grantAllocatedResource(NetworkOperation operation) {
+		if (operation.getAllocatedResource() == null)
+			throw new NullPointerException();
+
+		if (operations == null)
+			operations = new HashSet<NetworkOperation>();
+
+		if (!operations.add(operation))
+			throw new IllegalArgumentException("The operation has already granted resources using this provisioner.");
+
+		getAllocator().granted(this, operation);
+	}
+
+	@Override
+	public void revokeAllocatedResource(NetworkOperation operation) {
+		if (operations == null)
+			return;
+
+		if (!operations.remove(operation))
+			return;
+
+		if (operation.getAllocatedResource() == null)
+			throw new NullPointerException();
+
+		getAllocator().revoked(this, operation);
+	}
+
+	@Override
+	public long getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public long getLatency() {
+		return latency;
+	}
+
+	@Override
+	public double getLossRate() {
+		return lossRate;
+	}
+
+	@Override
+	public NetworkResource makeResource(long bw) {
+		return new NetworkResource(bw, getLatency(), getLossRate());
+	}
+}
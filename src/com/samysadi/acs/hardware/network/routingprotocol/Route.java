@@ -26,8 +26,10 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.hardware.network.routingprotocol;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 
 import com.samysadi.acs.core.notifications.NotificationListener;
 import com.samysadi.acs.hardware.network.NetworkDevice;
@@ -35,6 +37,7 @@ import com.samysadi.acs.hardware.network.NetworkInterface;
 import com.samysadi.acs.hardware.network.NetworkLink;
 import com.samysadi.acs.hardware.network.operation.NetworkOperation;
 import com.samysadi.acs.hardware.network.operation.NetworkResource;
+import com.samysadi.acs.hardware.network.operation.provisioner.NetworkProvisioner;
 import com.samysadi.acs.utility.NotificationCodes;
 
 /**
@@ -201,6 +204,27 @@ public class Route implements Iterable<NetworkInterface> {
 		return new NetworkResource(bw, latency, lossRate);
 	}
 
+	/**
+	 * Returns a list containing all the provisioners that are used by the given <tt>operation</tt> through this route.
+	 *
+	 * <p>The list contains the provisioners of the source and destination VMs (if any), and the provisioners
+	 * of each upLink from the first interface to the last one.
+	 *
+	 * @param operation
+	 * @return a list containing all the provisioners that are used by the given <tt>operation</tt> through this route
+	 * @since 1.3
+	 */
+	public List<NetworkProvisioner> getNetworkProvisioners(NetworkOperation operation) {
+		final List<NetworkProvisioner> l = new ArrayList<NetworkProvisioner>(this.interfaces.size() + 2);
+		if (operation.getParent().getParent().getNetworkProvisioner() != null)
+			l.add(operation.getParent().getParent().getNetworkProvisioner());
+		if (operation.getDestinationJob().getParent().getNetworkProvisioner() != null)
+			l.add(operation.getDestinationJob().getParent().getNetworkProvisioner());
+		for (NetworkInterface next: this.interfaces)
+			l.add(next.getUpLink().getNetworkProvisioner());
+		return l;
+	}
+
 	/**
 	 * Grants the <tt>operation</tt> allocated resource through this route.
 	 *
@@ -26,18 +26,28 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.hardware.network.routingprotocol;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
+import com.samysadi.acs.core.Simulator;
 import com.samysadi.acs.core.entity.Entity;
 import com.samysadi.acs.core.entity.EntityImpl;
+import com.samysadi.acs.core.entity.FailureProneEntity;
 import com.samysadi.acs.core.entity.FailureProneEntity.FailureState;
+import com.samysadi.acs.core.entity.PoweredEntity;
 import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
 import com.samysadi.acs.core.notifications.NotificationListener;
 import com.samysadi.acs.core.notifications.Notifier;
+import com.samysadi.acs.core.tracing.IncrementableProbe;
+import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.hardware.network.NetworkDevice;
 import com.samysadi.acs.hardware.network.NetworkInterface;
+import com.samysadi.acs.tracing.sim.SimRouteCacheHitsCountProbe;
+import com.samysadi.acs.tracing.sim.SimRouteCacheMissesCountProbe;
 import com.samysadi.acs.utility.IpAddress;
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.utility.Pair;
@@ -45,14 +55,31 @@ import com.samysadi.acs.utility.collections.Bitmap;
 import com.samysadi.acs.utility.collections.ShuffledIterator;
 
 /**
+ * This implementation searches routes recursively using routing protocols of neighbor devices.
+ *
+ * <p>Routes that are found without constraints are cached by destination device (see
+ * {@link RoutingProtocolDefault#getRouteCacheCapacity()}). All the routes that have the best metric are cached, and one of them
+ * is chosen randomly for each lookup, as it is done when the cache is disabled. Caches of all devices are cleared
+ * each time a device or an interface that may offer new routes becomes available, or when
+ * routing hints are modified. Besides, cached routes are checked for failed or powered-off
+ * devices before being returned.<br/>
+ * Cache hits and misses are counted using {@link SimRouteCacheHitsCountProbe} and
+ * {@link SimRouteCacheMissesCountProbe}.
  *
  * @since 1.0
  */
 public class RoutingProtocolDefault extends EntityImpl implements RoutingProtocol {
+	private static final Object PROP_ROUTING_VERSION = new Object();
+	private static final RouteInfo[] NO_ROUTES = new RouteInfo[0];
+
 	private List<Pair<NetworkInterface, Bitmap>> routingHints;
 
 	private NotificationListener listenerForStopRouting;
 
+	private Map<NetworkDevice, RouteInfo[]> routeCache;
+	private Object routeCacheVersion;
+	private int routeCacheCapacity;
+
 	public RoutingProtocolDefault() {
 		super();
 	}
@@ -77,6 +104,9 @@ public class RoutingProtocolDefault extends EntityImpl implements RoutingProtoco
 
 		this.listenerForStopRouting = null;
 		this.routingHints = null;
+		this.routeCache = null;
+		this.routeCacheVersion = null;
+		this.routeCacheCapacity = -1;
 	}
 
 	@Override
@@ -94,6 +124,8 @@ public class RoutingProtocolDefault extends EntityImpl implements RoutingProtoco
 	@Override
 	protected void afterSetParent(Entity oldParent) {
 		super.afterSetParent(oldParent);
+		//the configuration may have changed
+		this.routeCacheCapacity = -1;
 		if (getParent() != null) {
 			registerListener();
 
@@ -102,16 +134,51 @@ public class RoutingProtocolDefault extends EntityImpl implements RoutingProtoco
 		} else {
 			unregisterListener();
 		}
+		routingUpdated(true);
+	}
+
+	/**
+	 * Throws a {@link NotificationCodes#RP_ROUTING_UPDATED} notification, and invalidates all route caches
+	 * if new routes may be available.
+	 *
+	 * <p>Routes that become unavailable do not need to invalidate caches, because cached routes are checked
+	 * before being used.
+	 */
+	private void routingUpdated(boolean newRoutes) {
+		if (newRoutes)
+			invalidateRouteCaches();
 		notify(NotificationCodes.RP_ROUTING_UPDATED, null);
 	}
 
+	/**
+	 * Invalidates cached routes of all routing protocols in the current simulator.
+	 *
+	 * @since 1.3
+	 */
+	protected static void invalidateRouteCaches() {
+		//a new object is used as the version, routes cached with another version are discarded
+		Simulator.getSimulator().setProperty(PROP_ROUTING_VERSION, new Object());
+	}
+
+	/**
+	 * Returns an object that changes each time route caches are invalidated.
+	 */
+	static Object getRoutingVersion() {
+		return Simulator.getSimulator().getProperty(PROP_ROUTING_VERSION);
+	}
+
 	protected void registerListener() {
 		unregisterListener();
 		listenerForStopRouting = new NotificationListener() {
 			@Override
 			public void notificationPerformed(Notifier notifier,
 					int notification_code, Object data) {
-				if (notification_code == NotificationCodes.ENTITY_ADDED || notification_code == NotificationCodes.ENTITY_REMOVED) {
+				boolean newRoutes = true;
+				if (notification_code == NotificationCodes.FAILURE_STATE_CHANGED)
+					newRoutes = ((FailureProneEntity) notifier).getFailureState() == FailureState.OK;
+				else if (notification_code == NotificationCodes.POWER_STATE_CHANGED)
+					newRoutes = ((PoweredEntity) notifier).getPowerState() == PowerState.ON;
+				else if (notification_code == NotificationCodes.ENTITY_ADDED || notification_code == NotificationCodes.ENTITY_REMOVED) {
 					if (!(data instanceof NetworkInterface))
 						return;
 					NetworkInterface ni = (NetworkInterface) data;
@@ -122,9 +189,10 @@ public class RoutingProtocolDefault extends EntityImpl implements RoutingProtoco
 						ni.removeListener(NotificationCodes.FAILURE_STATE_CHANGED, this);
 						ni.removeListener(NotificationCodes.NI_LINKING_UPDATED, this);
 						routingHintsCleanup();
+						newRoutes = false;
 					}
 				}
-				RoutingProtocolDefault.this.notify(NotificationCodes.RP_ROUTING_UPDATED, null);
+				RoutingProtocolDefault.this.routingUpdated(newRoutes);
 			}
 		};
 
@@ -179,11 +247,39 @@ public class RoutingProtocolDefault extends EntityImpl implements RoutingProtoco
 		}
 
 		m.mark(destinationIpStart.getValue(), destinationIpEnd.getValue() - destinationIpStart.getValue() + 1);
+
+		invalidateRouteCaches();
 	}
 
 	@Override
 	public void clearRoutingHints() {
 		this.routingHints = null;
+
+		invalidateRouteCaches();
+	}
+
+	/**
+	 * Returns the maximum number of destinations for which routes are cached by this routing protocol.
+	 * When this number is reached, the least recently used route is removed from the cache.
+	 *
+	 * <p>Returning <tt>0</tt> disables the cache.
+	 *
+	 * <p>The default implementation returns the value of the <tt>RoutingProtocol.RouteCacheCapacity</tt> configuration,
+	 * which is <tt>128</tt> if not set.
+	 *
+	 * @return the maximum number of destinations for which routes are cached
+	 * @since 1.3
+	 */
+	protected int getRouteCacheCapacity() {
+		if (this.routeCacheCapacity < 0)
+			this.routeCacheCapacity = Math.max(0, getConfigRec().getInt("RoutingProtocol.RouteCacheCapacity", 128, true).intValue());
+		return this.routeCacheCapacity;
+	}
+
+	private void incrementProbe(String probeKey) {
+		final Probe<?> p = getEntitySimulator().getProbe(probeKey, false);
+		if (p != null)
+			((IncrementableProbe<?>) p).increment();
 	}
 
 	private boolean isReady() {
@@ -228,6 +324,93 @@ public class RoutingProtocolDefault extends EntityImpl implements RoutingProtoco
 	 */
 	@Override
 	public RouteInfo findRoute(NetworkDevice destinationDevice, RouteConstraints constraints) {
+		if (constraints != null || getRouteCacheCapacity() <= 0 || getParent() == destinationDevice)
+			return findRoute0(destinationDevice, constraints, null);
+
+		final Object version = getEntitySimulator().getProperty(PROP_ROUTING_VERSION);
+		if (this.routeCache == null || this.routeCacheVersion != version) {
+			final int capacity = getRouteCacheCapacity();
+			this.routeCache = new LinkedHashMap<NetworkDevice, RouteInfo[]>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<NetworkDevice, RouteInfo[]> eldest) {
+					return size() > capacity;
+				}
+			};
+			this.routeCacheVersion = version;
+		}
+
+		RouteInfo[] candidates = this.routeCache.get(destinationDevice);
+		if (candidates == NO_ROUTES) {
+			incrementProbe(SimRouteCacheHitsCountProbe.KEY);
+			return null;
+		}
+		if (candidates != null) {
+			final RouteInfo r = chooseRoute(candidates);
+			if (isUsable(r.getRoute(), destinationDevice)) {
+				incrementProbe(SimRouteCacheHitsCountProbe.KEY);
+				return new RouteInfo(new Route(r.getRoute()), r.getMetric());
+			}
+		}
+
+		incrementProbe(SimRouteCacheMissesCountProbe.KEY);
+		final List<RouteInfo> l = new ArrayList<RouteInfo>(2);
+		findRoute0(destinationDevice, null, l);
+		if (l.isEmpty()) {
+			this.routeCache.put(destinationDevice, NO_ROUTES);
+			return null;
+		}
+		candidates = l.toArray(new RouteInfo[l.size()]);
+		this.routeCache.put(destinationDevice, candidates);
+		//the caller may modify the returned route, so return a copy
+		final RouteInfo r = chooseRoute(candidates);
+		return new RouteInfo(new Route(r.getRoute()), r.getMetric());
+	}
+
+	private RouteInfo chooseRoute(RouteInfo[] candidates) {
+		if (candidates.length == 1)
+			return candidates[0];
+		return candidates[getEntitySimulator().getRandomGenerator().nextInt(candidates.length)];
+	}
+
+	/**
+	 * Returns <tt>true</tt> if the given cached route can still be used.
+	 *
+	 * <p>Notifications about failed or powered-off devices may be processed later, so each
+	 * interface and device in the route are checked again.
+	 */
+	private static boolean isUsable(Route route, NetworkDevice destinationDevice) {
+		if (destinationDevice.getFailureState() != FailureState.OK ||
+				destinationDevice.getPowerState() != PowerState.ON)
+			return false;
+
+		NetworkDevice expected = null;
+		for (NetworkInterface ni: route) {
+			final NetworkDevice device = ni.getParent();
+			if (expected != null && device != expected)
+				return false; //linking has changed
+			if (device == null ||
+					device.getFailureState() != FailureState.OK ||
+					device.getPowerState() != PowerState.ON)
+				return false;
+			if (ni.getFailureState() != FailureState.OK)
+				return false;
+			final NetworkInterface remote = ni.getRemoteNetworkInterface();
+			if (remote == null || remote.getFailureState() != FailureState.OK)
+				return false;
+			expected = remote.getParent();
+			if (expected != destinationDevice && !expected.isRoutingEnabled())
+				return false;
+		}
+		return expected == null || expected == destinationDevice;
+	}
+
+	/**
+	 * Finds the best route, and puts all the routes that have the best metric in <tt>candidates</tt>
+	 * if it is not <tt>null</tt>.
+	 */
+	private RouteInfo findRoute0(NetworkDevice destinationDevice, RouteConstraints constraints, List<RouteInfo> candidates) {
 		if (!isReady())
 			return null;
 
@@ -319,8 +502,11 @@ public class RoutingProtocolDefault extends EntityImpl implements RoutingProtoco
 
 			if (remoteDevice != destinationDevice && !remoteDevice.isRoutingEnabled())
 				continue;
-			if (minimumMetric < Double.POSITIVE_INFINITY)
-				constraints.minimumMetric=minimumMetric - MC; //no need to create a new constraints object (this implementation does not modify this object).
+			if (minimumMetric < Double.POSITIVE_INFINITY) {
+				//no need to create a new constraints object (this implementation does not modify this object).
+				//when looking for candidates, next routing protocols also look for routes that have the same metric as the best route
+				constraints.minimumMetric = candidates == null ? minimumMetric - MC : Math.nextUp(minimumMetric - MC);
+			}
 			if (constraints.excludedDevices.contains(remoteDevice))
 				continue;
 			final RouteInfo ri = remoteDevice.getRoutingProtocol().findRoute(destinationDevice, nextConstraints);
@@ -333,10 +519,17 @@ public class RoutingProtocolDefault extends EntityImpl implements RoutingProtoco
 			final int metric_c = Double.compare(ri.getMetric(), minimumMetric);
 			//If new route has bigger or equal metric then continue.
 			//No need to make extra random selection when equal because we already are iterating starting from a random position
-			if (metric_c >= 0)
+			if (metric_c >= 0) {
+				if (metric_c == 0 && candidates != null)
+					candidates.add(ri);
 				continue;
+			}
 
 			best = ri;
+			if (candidates != null) {
+				candidates.clear();
+				candidates.add(ri);
+			}
 
 			minimumMetric = ri.getMetric();
 
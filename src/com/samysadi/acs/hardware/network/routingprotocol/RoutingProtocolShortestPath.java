@@ -0,0 +1,181 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.hardware.network.routingprotocol;
+
+import com.samysadi.acs.core.entity.FailureProneEntity.FailureState;
+import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
+import com.samysadi.acs.hardware.network.NetworkDevice;
+import com.samysadi.acs.hardware.network.NetworkInterface;
+
+/**
+ * A routing protocol that uses precomputed shortest-path tables instead of a recursive search.
+ *
+ * <p>For each destination device, the distance from each device to that destination is computed once
+ * using the metric costs of each device's routing protocol.
+ * Tables are shared between all routing protocols of this class.
+ * The interfaces that lead to a device that is closer to the destination (next hops) are recorded in the same table.
+ * A route is then built by following, from the parent device, the next hops of each device. When a device
+ * has many next hops (equal-cost multi-path), one of them is chosen randomly.
+ *
+ * <p>When an interface or a device in the path has failed (or is powered-off), the table of the destination
+ * is computed again. Other tables are not modified.
+ * All tables are discarded if a device or an interface becomes available.
+ *
+ * <p>If constraints are given when looking for a route, then this implementation behaves as {@link RoutingProtocolDefault}.
+ *
+ * <p>This implementation is well suited for big and static topologies such as those generated by the
+ * TopologyFactoryHierarchical.
+ *
+ * @since 1.3
+ */
+public class RoutingProtocolShortestPath extends RoutingProtocolDefault {
+	private static final RouteInfo OUTDATED = new RouteInfo(null);
+
+	public RoutingProtocolShortestPath() {
+		super();
+	}
+
+	@Override
+	public RoutingProtocolShortestPath clone() {
+		final RoutingProtocolShortestPath clone = (RoutingProtocolShortestPath) super.clone();
+		return clone;
+	}
+
+	/**
+	 * Routes are already computed using tables, so the cache is disabled.
+	 */
+	@Override
+	protected int getRouteCacheCapacity() {
+		return 0;
+	}
+
+	static float getMetricCost(NetworkDevice device) {
+		final RoutingProtocol rp = device.getRoutingProtocol();
+		if (rp instanceof RoutingProtocolDefault)
+			return (float) ((RoutingProtocolDefault) rp).getMetricCost();
+		return 1.0f;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if the given <tt>device</tt> can send data through the given <tt>networkInterface</tt>
+	 * when routing to the given <tt>destinationDevice</tt>.
+	 *
+	 * <p>The state of the remote device is not checked.
+	 */
+	static boolean isUsable(NetworkDevice device, NetworkInterface networkInterface,
+			NetworkDevice destinationDevice, RouteConstraints constraints) {
+		if (device.getFailureState() != FailureState.OK || device.getPowerState() != PowerState.ON)
+			return false;
+		final RoutingProtocol rp = device.getRoutingProtocol();
+		if (rp == null)
+			return false;
+		if (networkInterface.getFailureState() != FailureState.OK)
+			return false;
+		final NetworkInterface remote = networkInterface.getRemoteNetworkInterface();
+		if (remote == null || remote.getFailureState() != FailureState.OK)
+			return false;
+		if (rp instanceof RoutingProtocolDefault)
+			return ((RoutingProtocolDefault) rp).getNextConstraintsForInterface(destinationDevice, networkInterface, constraints) != null;
+		return true;
+	}
+
+	@Override
+	public RouteInfo findRoute(NetworkDevice destinationDevice, RouteConstraints constraints) {
+		if (constraints != null)
+			return super.findRoute(destinationDevice, constraints);
+
+		if (getParent() == null)
+			return null;
+
+		if (destinationDevice.getFailureState() != FailureState.OK)
+			return null;
+
+		if (destinationDevice.getPowerState() != PowerState.ON)
+			return null;
+
+		if (getParent() == destinationDevice)
+			return new RouteInfo();
+
+		if (getParent().getFailureState() != FailureState.OK)
+			return null;
+
+		if (getParent().getPowerState() != PowerState.ON)
+			return null;
+
+		RouteInfo r = findRoute0(destinationDevice, false);
+		if (r == OUTDATED)
+			r = findRoute0(destinationDevice, true);
+		if (r == OUTDATED)
+			return null;
+		return r;
+	}
+
+	private RouteInfo findRoute0(NetworkDevice destinationDevice, boolean recompute) {
+		final ShortestPathTables tables = ShortestPathTables.getTables();
+		final ShortestPathTables.Table t = tables.getTable(destinationDevice, recompute);
+
+		final float distance = t.getDistance(tables.indexOf(getParent()));
+		if (distance == Float.POSITIVE_INFINITY)
+			return null;
+
+		final Route route = new Route();
+
+		NetworkDevice device = getParent();
+		while (device != destinationDevice) {
+			final NetworkInterface[] hops = t.getNextHops(tables.indexOf(device));
+			if (hops.length == 0 || route.size() > t.size())
+				return OUTDATED;
+
+			final NetworkInterface selected = hops.length == 1 ? hops[0] :
+				hops[getEntitySimulator().getRandomGenerator().nextInt(hops.length)];
+
+			//tables are not discarded on failures, so make sure the next hop is still available
+			if (!isAvailable(device, selected, destinationDevice))
+				return OUTDATED;
+
+			route.add(selected);
+			device = selected.getRemoteNetworkInterface().getParent();
+		}
+
+		return new RouteInfo(route, distance);
+	}
+
+	private static boolean isAvailable(NetworkDevice device, NetworkInterface networkInterface,
+			NetworkDevice destinationDevice) {
+		if (device.getFailureState() != FailureState.OK || device.getPowerState() != PowerState.ON)
+			return false;
+		if (networkInterface.getFailureState() != FailureState.OK)
+			return false;
+		final NetworkInterface remote = networkInterface.getRemoteNetworkInterface();
+		if (remote == null || remote.getFailureState() != FailureState.OK)
+			return false;
+		final NetworkDevice remoteDevice = remote.getParent();
+		if (remoteDevice.getFailureState() != FailureState.OK || remoteDevice.getPowerState() != PowerState.ON)
+			return false;
+		return remoteDevice == destinationDevice || remoteDevice.isRoutingEnabled();
+	}
+}
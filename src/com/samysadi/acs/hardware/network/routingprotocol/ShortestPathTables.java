@@ -0,0 +1,263 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.hardware.network.routingprotocol;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.entity.FailureProneEntity.FailureState;
+import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
+import com.samysadi.acs.hardware.network.NetworkDevice;
+import com.samysadi.acs.hardware.network.NetworkInterface;
+import com.samysadi.acs.hardware.network.routingprotocol.RoutingProtocol.RouteConstraints;
+
+/**
+ * Shortest-path tables shared by all {@link RoutingProtocolShortestPath}s of a simulator.
+ *
+ * <p>Each network device is given an index, and for each destination device a table containing
+ * the distance (sum of metric costs) from each device to that destination is computed using Dijkstra's algorithm.
+ * The table also contains, for each device, the interfaces that lead to a device that is closer to the destination
+ * (next hops), so that routes can be built without looking at all the interfaces of each device.
+ *
+ * <p>Tables are computed when they are first needed, and at most {@link ShortestPathTables#MAX_TABLES}
+ * tables are kept (the least recently used table is removed first).
+ * All tables are discarded when route caches are invalidated (see {@link RoutingProtocolDefault#invalidateRouteCaches()}).
+ *
+ * @since 1.3
+ */
+final class ShortestPathTables {
+	private static final Object PROP_TABLES = new Object();
+
+	static final int MAX_TABLES = 1024;
+
+	private static final float EPSILON = 1e-3f;
+	private static final NetworkInterface[] NO_INTERFACES = new NetworkInterface[0];
+
+	/**
+	 * The distances and the next hops from each device to a destination device.
+	 */
+	static final class Table {
+		private float[] distances;
+		private NetworkInterface[][] nextHops;
+
+		private Table(int length) {
+			super();
+			this.distances = new float[length];
+			Arrays.fill(this.distances, Float.POSITIVE_INFINITY);
+			this.nextHops = new NetworkInterface[length][];
+		}
+
+		private void ensureCapacity(int index) {
+			if (index < this.distances.length)
+				return;
+			final int old = this.distances.length;
+			final int length = Math.max(index + 1, old << 1);
+			this.distances = Arrays.copyOf(this.distances, length);
+			Arrays.fill(this.distances, old, length, Float.POSITIVE_INFINITY);
+			this.nextHops = Arrays.copyOf(this.nextHops, length);
+		}
+
+		/**
+		 * Returns the number of devices in this table.
+		 */
+		int size() {
+			return this.distances.length;
+		}
+
+		/**
+		 * Returns the distance from the device at the given <tt>index</tt> to the destination,
+		 * or {@link Float#POSITIVE_INFINITY} if that device cannot reach the destination.
+		 */
+		float getDistance(int index) {
+			if (index < 0 || index >= this.distances.length)
+				return Float.POSITIVE_INFINITY;
+			return this.distances[index];
+		}
+
+		/**
+		 * Returns the interfaces that the device at the given <tt>index</tt> can use to send data to
+		 * a device that is closer to the destination.
+		 *
+		 * <p>The returned array must not be modified. It is empty if the device cannot reach the destination, or
+		 * if it is the destination.
+		 */
+		NetworkInterface[] getNextHops(int index) {
+			if (index < 0 || index >= this.nextHops.length || this.nextHops[index] == null)
+				return NO_INTERFACES;
+			return this.nextHops[index];
+		}
+	}
+
+	private final HashMap<NetworkDevice, Integer> indexes;
+	private final LinkedHashMap<NetworkDevice, Table> tables;
+	private Object version;
+
+	private ShortestPathTables() {
+		super();
+
+		this.indexes = new HashMap<NetworkDevice, Integer>();
+		this.tables = new LinkedHashMap<NetworkDevice, Table>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<NetworkDevice, Table> eldest) {
+				return size() > MAX_TABLES;
+			}
+		};
+		this.version = RoutingProtocolDefault.getRoutingVersion();
+	}
+
+	/**
+	 * Returns the tables of the current simulator.
+	 */
+	static ShortestPathTables getTables() {
+		ShortestPathTables tables = (ShortestPathTables) Simulator.getSimulator().getProperty(PROP_TABLES);
+		if (tables == null) {
+			tables = new ShortestPathTables();
+			Simulator.getSimulator().setProperty(PROP_TABLES, tables);
+		}
+		return tables;
+	}
+
+	/**
+	 * Returns the index of the given device, or <tt>-1</tt> if it has no index.
+	 */
+	int indexOf(NetworkDevice device) {
+		final Integer i = this.indexes.get(device);
+		if (i == null)
+			return -1;
+		return i.intValue();
+	}
+
+	private int getOrCreateIndex(NetworkDevice device) {
+		Integer i = this.indexes.get(device);
+		if (i == null) {
+			i = Integer.valueOf(this.indexes.size());
+			this.indexes.put(device, i);
+		}
+		return i.intValue();
+	}
+
+	/**
+	 * Returns the table of the given <tt>destinationDevice</tt>.
+	 *
+	 * <p>The returned table is indexed using {@link ShortestPathTables#indexOf(NetworkDevice)}.
+	 *
+	 * @param destinationDevice
+	 * @param recompute if <tt>true</tt>, then the table is computed again even if it exists
+	 * @return the table of the given <tt>destinationDevice</tt>
+	 */
+	Table getTable(NetworkDevice destinationDevice, boolean recompute) {
+		final Object v = RoutingProtocolDefault.getRoutingVersion();
+		if (v != this.version) {
+			this.tables.clear();
+			this.indexes.clear();
+			this.version = v;
+		}
+
+		Table t = recompute ? null : this.tables.get(destinationDevice);
+		if (t == null) {
+			t = compute(destinationDevice);
+			this.tables.put(destinationDevice, t);
+		}
+		return t;
+	}
+
+	private static final class Node implements Comparable<Node> {
+		private final NetworkDevice device;
+		private final float distance;
+
+		public Node(NetworkDevice device, float distance) {
+			super();
+			this.device = device;
+			this.distance = distance;
+		}
+
+		@Override
+		public int compareTo(Node o) {
+			return Float.compare(this.distance, o.distance);
+		}
+	}
+
+	private Table compute(NetworkDevice destinationDevice) {
+		final RouteConstraints constraints = new RouteConstraints();
+
+		final Table t = new Table(Math.max(16, this.indexes.size()));
+		final PriorityQueue<Node> queue = new PriorityQueue<Node>();
+
+		int index = getOrCreateIndex(destinationDevice);
+		t.ensureCapacity(index);
+		t.distances[index] = 0f;
+		queue.add(new Node(destinationDevice, 0f));
+
+		while (!queue.isEmpty()) {
+			final Node n = queue.poll();
+			final NetworkDevice v = n.device;
+			if (n.distance > t.distances[indexOf(v)])
+				continue; //already processed
+
+			if (v.getFailureState() != FailureState.OK || v.getPowerState() != PowerState.ON)
+				continue;
+			if (v != destinationDevice && !v.isRoutingEnabled())
+				continue;
+
+			//look for devices that can send to v
+			for (NetworkInterface vi: v.getInterfaces()) {
+				final NetworkInterface ui = vi.getRemoteNetworkInterface();
+				if (ui == null || ui.getParent() == null)
+					continue;
+				final NetworkDevice u = ui.getParent();
+				if (!RoutingProtocolShortestPath.isUsable(u, ui, destinationDevice, constraints))
+					continue;
+
+				final float nd = n.distance + RoutingProtocolShortestPath.getMetricCost(u);
+				index = getOrCreateIndex(u);
+				t.ensureCapacity(index);
+				final float od = t.distances[index];
+				if (nd < od - EPSILON) {
+					t.distances[index] = nd;
+					t.nextHops[index] = new NetworkInterface[] { ui };
+					queue.add(new Node(u, nd));
+				} else if (nd <= od + EPSILON) {
+					//equal-cost next hop
+					final NetworkInterface[] hops = t.nextHops[index];
+					if (hops != null) {
+						final NetworkInterface[] newHops = Arrays.copyOf(hops, hops.length + 1);
+						newHops[hops.length] = ui;
+						t.nextHops[index] = newHops;
+					}
+				}
+			}
+		}
+
+		return t;
+	}
+}
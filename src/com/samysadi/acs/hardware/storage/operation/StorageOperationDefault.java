@@ -29,18 +29,16 @@ package com.samysadi.acs.hardware.storage.operation;
 import com.samysadi.acs.core.Simulator;
 import com.samysadi.acs.core.entity.Entity;
 import com.samysadi.acs.core.event.DispensableEventImpl;
-import com.samysadi.acs.core.notifications.NotificationListener;
-import com.samysadi.acs.core.notifications.Notifier;
 import com.samysadi.acs.hardware.Host;
 import com.samysadi.acs.hardware.network.operation.NetworkOperation;
 import com.samysadi.acs.hardware.storage.StorageFile;
 import com.samysadi.acs.user.ThinClient;
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.virtualization.TemporaryVirtualMachinePool;
 import com.samysadi.acs.virtualization.VirtualMachine;
 import com.samysadi.acs.virtualization.job.Job;
 import com.samysadi.acs.virtualization.job.operation.LongOperationImpl;
-import com.samysadi.acs.virtualization.job.operation.Operation;
 import com.samysadi.acs.virtualization.job.operation.OperationSynchronizer;
 import com.samysadi.acs.virtualization.job.operation.SynchronizableLongOperationImpl;
 import com.samysadi.acs.virtualization.job.operation.SynchronizableOperation;
@@ -181,21 +179,10 @@ public class StorageOperationDefault extends SynchronizableLongOperationImpl<Sto
 		this.filePos = filePos;
 	}
 
-	private VirtualMachine newTemporaryVm(Host host) {
+	private VirtualMachine acquireRemoteVm(Host host) {
 		if (host instanceof ThinClient)
 			return ((ThinClient) host).getVirtualMachine();
-		final VirtualMachine remoteVm = Factory.getFactory(this).newTemporaryVirtualMachine(null);
-		remoteVm.setParent(host);
-		remoteVm.setUser(getParent().getParent().getUser());
-		return remoteVm;
-	}
-
-	private static void removeTemporaryVm(VirtualMachine vm) {
-		if (vm.getParent() instanceof ThinClient)
-			return;
-		vm.doTerminate();
-		vm.setUser(null);
-		vm.unplace();
+		return TemporaryVirtualMachinePool.acquire(this, host, getParent().getParent().getUser());
 	}
 
 	private String getCannotActivateReason() {
@@ -222,9 +209,12 @@ public class StorageOperationDefault extends SynchronizableLongOperationImpl<Sto
 		final Host localHost = getParent().getParent().getParent();
 		final Host remoteHost = getStorageFile().getParent().getParentHost();
 		if (localHost != remoteHost) {
-			final VirtualMachine vm = newTemporaryVm(remoteHost);
-			boolean ok = vm.isRunning() || vm.canStart();
-			removeTemporaryVm(vm);
+			final boolean ok;
+			if (remoteHost instanceof ThinClient) {
+				final VirtualMachine vm = ((ThinClient) remoteHost).getVirtualMachine();
+				ok = vm.isRunning() || vm.canStart();
+			} else
+				ok = TemporaryVirtualMachinePool.canAcquire(this, remoteHost, getParent().getParent().getUser());
 			if (!ok)
 				return "This operation (" + this + ") cannot be (re)started because data cannot be transferred to/from the remote host where the given file is located.";
 		}
@@ -315,13 +305,13 @@ public class StorageOperationDefault extends SynchronizableLongOperationImpl<Sto
 		op.getDestinationJob().doTerminate();
 
 		final Job pJob;
-		final VirtualMachine tempVm;
+		final Job remoteJob;
 		if (isSendingData()) {
 			pJob = op.getParent();
-			tempVm = op.getDestinationJob().getParent();
+			remoteJob = op.getDestinationJob();
 		} else {
 			pJob = op.getDestinationJob();
-			tempVm = op.getParent().getParent();
+			remoteJob = op.getParent();
 		}
 
 		op.unplace();
@@ -329,7 +319,8 @@ public class StorageOperationDefault extends SynchronizableLongOperationImpl<Sto
 		//schedule free resources.
 		//Don't free them right away, may provoke concurrent modification exceptions.
 		scheduleRemovePJob(pJob);
-		scheduleRemoveTemporaryVm(tempVm);
+		if (!(remoteJob.getParent() == null || remoteJob.getParent().getParent() instanceof ThinClient))
+			TemporaryVirtualMachinePool.scheduleReleaseJob(remoteJob);
 	}
 
 	private static void scheduleRemovePJob(final Job pJob) {
@@ -341,61 +332,6 @@ public class StorageOperationDefault extends SynchronizableLongOperationImpl<Sto
 		});
 	}
 
-	private static void scheduleRemoveTemporaryVm(final VirtualMachine vm) {
-		//make sure all listeners are invoked before discarding temporary vm
-		Simulator.getSimulator().schedule(1l, new DispensableEventImpl() {
-			@Override
-			public void process() {
-				if (vm.hasParentRec()) {
-					Operation<?> toWait = null;
-					for (Job j: vm.getJobs()) {
-						if (j.isTerminated())
-							continue;
-						for (Operation<?> o: j.getOperations())
-							if (!o.isTerminated()) {
-								toWait = o;
-								break;
-							}
-						if (toWait != null)
-							break;
-						for (Operation<?> o: j.getRemoteOperations())
-							if (!o.isTerminated()) {
-								toWait = o;
-								break;
-							}
-						if (toWait != null)
-							break;
-					}
-
-					if (toWait != null) {
-						scheduleRemoveTemporaryVm(vm, toWait);
-						return;
-					}
-				}
-
-				removeTemporaryVm(vm);
-			}
-		});
-	}
-
-	private static void scheduleRemoveTemporaryVm(final VirtualMachine vm, Operation<?> o) {
-		NotificationListener n = new NotificationListener() {
-			@Override
-			protected void notificationPerformed(Notifier notifier,
-					int notification_code, Object data) {
-				final NetworkOperation o = (NetworkOperation) notifier;
-				if (o.getParent() == null || o.isTerminated()) {
-					scheduleRemoveTemporaryVm(vm);
-					this.discard();
-				}
-			}
-		};
-		if (o != null) {
-			o.addListener(NotificationCodes.RUNNABLE_STATE_CHANGED, n);
-			o.addListener(NotificationCodes.ENTITY_PARENT_CHANGED, n);
-		}
-	}
-
 	private void prepareNetworkOperation() {
 		if (this.networkOperation != null)
 			return;
@@ -412,7 +348,7 @@ public class StorageOperationDefault extends SynchronizableLongOperationImpl<Sto
 
 			final VirtualMachine localVm = getParent().getParent();
 
-			final VirtualMachine remoteVm = newTemporaryVm(remoteHost);
+			final VirtualMachine remoteVm = acquireRemoteVm(remoteHost);
 			if (!remoteVm.isRunning())
 				remoteVm.doStart();
 
@@ -429,7 +365,7 @@ public class StorageOperationDefault extends SynchronizableLongOperationImpl<Sto
 
 
 			if (this.networkOperation instanceof SynchronizableOperation<?>)
-				Simulator.getSimulator().schedule(new DispensableEventImpl() {
+				getEntitySimulator().schedule(new DispensableEventImpl() {
 					@Override
 					public void process() {
 						if (StorageOperationDefault.this.networkOperation != null)
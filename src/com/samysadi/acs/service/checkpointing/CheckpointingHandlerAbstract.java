@@ -29,7 +29,6 @@ package com.samysadi.acs.service.checkpointing;
 import java.util.List;
 
 import com.samysadi.acs.core.Config;
-import com.samysadi.acs.core.Simulator;
 import com.samysadi.acs.core.entity.Entity;
 import com.samysadi.acs.core.entity.EntityImpl;
 import com.samysadi.acs.core.entity.FailureProneEntity;
@@ -541,7 +540,7 @@ public abstract class CheckpointingHandlerAbstract<E extends RunnableEntity, C e
 		};
 		entityData.setProcessInformation(event, null, null);
 
-		Simulator.getSimulator().schedule(delay, event);
+		getEntitySimulator().schedule(delay, event);
 	}
 
 	/**
@@ -731,7 +730,7 @@ public abstract class CheckpointingHandlerAbstract<E extends RunnableEntity, C e
 		entityData.setProcessInformation(event, null, null);
 
 		//schedule the event
-		Simulator.getSimulator().schedule(event);
+		getEntitySimulator().schedule(event);
 	}
 
 	/**
@@ -881,7 +880,7 @@ public abstract class CheckpointingHandlerAbstract<E extends RunnableEntity, C e
 				_deleteCheckpoint(c);
 			}
 		};
-		Simulator.getSimulator().schedule(e);
+		getEntitySimulator().schedule(e);
 	}
 
 	/*
@@ -47,7 +47,7 @@ public class VmCheckpointingHandlerDefault extends VmCheckpointingHandlerAbstrac
 		if (d != null)
 			v = Math.round(d.doubleValue() * Simulator.SECOND);
 
-		return Math.max(0, v - Simulator.getSimulator().getTime() + c.getCheckpointTime());
+		return Math.max(0, v - getEntitySimulator().getTime() + c.getCheckpointTime());
 	}
 
 	@Override
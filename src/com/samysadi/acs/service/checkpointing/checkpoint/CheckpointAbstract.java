@@ -340,7 +340,7 @@ public abstract class CheckpointAbstract<E extends RunnableEntity, P extends Ent
 			long checkpointTime = -1l;
 			if (!isLiveUpdateEnabled()) {
 				checkpointData = takeCheckpoint();
-				checkpointTime = Simulator.getSimulator().getTime();
+				checkpointTime = getEntitySimulator().getTime();
 			}
 			_updateSecondStep(CheckpointAbstract.this.getMemoryZone().getSize(), 0l, checkpointData, checkpointTime, job);
 		} else {
@@ -376,7 +376,7 @@ public abstract class CheckpointAbstract<E extends RunnableEntity, P extends Ent
 					long checkpointTime = -1l;
 					if (!isLiveUpdateEnabled()) {
 						checkpointData = takeCheckpoint();
-						checkpointTime = Simulator.getSimulator().getTime();
+						checkpointTime = getEntitySimulator().getTime();
 					}
 					CheckpointAbstract.this._updateSecondStep(CheckpointAbstract.this.getMemoryZone().getSize(), 0l, checkpointData, checkpointTime, job);
 				}
@@ -565,7 +565,7 @@ public abstract class CheckpointAbstract<E extends RunnableEntity, P extends Ent
 
 		if (checkpointData == null) {
 			checkpointData = takeCheckpoint();
-			checkpointTime = Simulator.getSimulator().getTime();
+			checkpointTime = getEntitySimulator().getTime();
 		}
 		updateCheckpoint(checkpointData);
 		this.setCheckpointTime(checkpointTime);
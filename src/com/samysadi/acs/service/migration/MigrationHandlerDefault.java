@@ -44,11 +44,11 @@ import com.samysadi.acs.hardware.storage.StorageFile;
 import com.samysadi.acs.hardware.storage.VirtualStorage;
 import com.samysadi.acs.hardware.storage.operation.StorageOperation;
 import com.samysadi.acs.service.CloudProvider;
-import com.samysadi.acs.user.User;
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.utility.NotificationCodes.MigrationRequest;
 import com.samysadi.acs.utility.NotificationCodes.MigrationResult;
 import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.virtualization.TemporaryVirtualMachinePool;
 import com.samysadi.acs.virtualization.VirtualMachine;
 import com.samysadi.acs.virtualization.job.Job;
 import com.samysadi.acs.virtualization.job.JobDefault;
@@ -97,36 +97,22 @@ public class MigrationHandlerDefault extends EntityImpl implements MigrationHand
 		return true;
 	}
 
-	private VirtualMachine newTemporaryVm(Host host, User user) {
-		final VirtualMachine remoteVm = Factory.getFactory(this).newTemporaryVirtualMachine(null);
-		remoteVm.setParent(host);
-		remoteVm.setUser(user);
-		return remoteVm;
-	}
-
-	private static void removeTemporaryVm(VirtualMachine vm) {
-		vm.doTerminate();
-		vm.setUser(null);
-		vm.unplace();
-	}
-
 	@Override
 	public void migrate(VirtualMachine vm, Host destinationHost) {
 		if (vm.getFlag(VirtualMachine.FLAG_IS_MIGRATING))
 			throw new IllegalArgumentException("The given vm is being migrated.");
 
 		//create the vm that will handle the migration job, in local host
-		final VirtualMachine migrationVm = newTemporaryVm(vm.getParent(), vm.getUser());
+		final VirtualMachine migrationVm = TemporaryVirtualMachinePool.acquire(this, vm.getParent(), vm.getUser());
 
 		//create the migration job
 		final MigrationJob job = new MigrationJob(new MigrationRequest(vm, destinationHost));
 		job.setParent(migrationVm);
 
-		if (!migrationVm.canStart()) {
+		if (!migrationVm.isRunning()) {
 			job.fail();
 			return;
 		}
-		migrationVm.doStart();
 
 		if (!job.isRunning()) {
 			if (!job.canStart()) {
@@ -198,7 +184,7 @@ public class MigrationHandlerDefault extends EntityImpl implements MigrationHand
 			//discard and reset everything, as runJob() will do the initialization
 
 			if (destinationJob != null) {
-				removeTemporaryVm(destinationJob.getParent());
+				TemporaryVirtualMachinePool.releaseJob(destinationJob);
 				destinationJob = null;
 			}
 
@@ -219,8 +205,11 @@ public class MigrationHandlerDefault extends EntityImpl implements MigrationHand
 					z.removeMemoryMap(MIGRATION_MAP);
 
 
-			if (getParent() != null && newParent != getParent())
-				removeTemporaryVm(getParent());
+			if (getParent() != null && newParent != getParent()) {
+				if (!isTerminated())
+					doCancel();
+				TemporaryVirtualMachinePool.release(getParent());
+			}
 
 			super.beforeSetParent(newParent);
 		}
@@ -272,17 +261,16 @@ public class MigrationHandlerDefault extends EntityImpl implements MigrationHand
 
 
 			//create the vm that will handle the migration job, in local host
-			final VirtualMachine migrationDestinationVm = newTemporaryVm(migrationRequest.getDestinationHost(), migrationRequest.getVm().getUser());
+			final VirtualMachine migrationDestinationVm = TemporaryVirtualMachinePool.acquire(this, migrationRequest.getDestinationHost(), migrationRequest.getVm().getUser());
 
 			destinationJob = Factory.getFactory(this).newJob(null, null);
 			destinationJob.setParent(migrationDestinationVm);
 
-			if (!migrationDestinationVm.canStart()) {
+			if (!migrationDestinationVm.isRunning()) {
 				getLogger().log(Level.FINEST, migrationRequest.getVm(), "Migration failed because the migration job cannot be started on destination host.");
 				MigrationJob.this.fail();
 				return;
 			}
-			migrationDestinationVm.doStart();
 
 			if (!destinationJob.isRunning()) {
 				if (!destinationJob.canStart()) {
@@ -468,24 +456,23 @@ public class MigrationHandlerDefault extends EntityImpl implements MigrationHand
 
 			//if we are reading data from a Storage then we need to create a read operation
 			if (mu instanceof VirtualStorage) {
-				VirtualMachine muVm = newTemporaryVm(mu.getParentHost(), migrationRequest.getVm().getUser());
+				VirtualMachine muVm = TemporaryVirtualMachinePool.acquire(this, mu.getParentHost(), migrationRequest.getVm().getUser());
 				final Job muJob = Factory.getFactory(this).newJob(null, null);
 				muJob.setParent(muVm);
 
-				if (!muVm.canStart()) {
+				if (!muVm.isRunning()) {
 					getLogger().log(Level.FINEST, this, "Migration failed because we cannot read/write from remote storage.");
-					removeTemporaryVm(muJob.getParent());
+					TemporaryVirtualMachinePool.releaseJob(muJob);
 					nextOperation.doPause();
 					nextOperation.unplace();
 					MigrationJob.this.fail();
 					return;
 				}
-				muVm.doStart();
 
 				if (!muJob.isRunning()) {
 					if (!muJob.canStart()) {
 						getLogger().log(Level.FINEST, this, "Migration failed because we cannot read from remote storage.");
-						removeTemporaryVm(muJob.getParent());
+						TemporaryVirtualMachinePool.releaseJob(muJob);
 						nextOperation.doPause();
 						nextOperation.unplace();
 						MigrationJob.this.fail();
@@ -538,7 +525,7 @@ public class MigrationHandlerDefault extends EntityImpl implements MigrationHand
 					} else
 						getLogger().log(Level.FINEST, this, "Migration failed because we cannot write to destination storage.");
 
-					removeTemporaryVm(muJob.getParent());
+					TemporaryVirtualMachinePool.releaseJob(muJob);
 					nextOperation.doPause();
 					nextOperation.unplace();
 					MigrationJob.this.fail();
@@ -550,18 +537,18 @@ public class MigrationHandlerDefault extends EntityImpl implements MigrationHand
 				os.addOperation((SynchronizableOperation<?>) read);
 				os.addOperation((SynchronizableOperation<?>) write);
 
-				write.addListener(NotificationCodes.RUNNABLE_STATE_CHANGED, new MyStaticRsc0(os, muVm));
+				write.addListener(NotificationCodes.RUNNABLE_STATE_CHANGED, new MyStaticRsc0(os, muJob));
 			}
 		}
 	}
 
 	private static final class MyStaticRsc0 extends NotificationListener {
 		private final OperationSynchronizer sync0;
-		private VirtualMachine tempVm;
+		private Job tempJob;
 
-		private MyStaticRsc0(OperationSynchronizer sync0, VirtualMachine tempVm) {
+		private MyStaticRsc0(OperationSynchronizer sync0, Job tempJob) {
 			this.sync0 = sync0;
-			this.tempVm = tempVm;
+			this.tempJob = tempJob;
 		}
 
 		@Override
@@ -577,7 +564,7 @@ public class MigrationHandlerDefault extends EntityImpl implements MigrationHand
 			((StorageOperation) sync0.getOperations().get(2)).unplace();
 
 			//discard the read vm (and thus read job and operation)
-			removeTemporaryVm(tempVm);
+			TemporaryVirtualMachinePool.releaseJob(tempJob);
 
 			sync0.removeAllOperations();
 		}
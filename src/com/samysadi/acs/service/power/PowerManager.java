@@ -49,6 +49,9 @@ public interface PowerManager extends Entity {
 	 * Returns a list of hosts that are powered on.
 	 * This list includes only hosts that were powered on using current {@link PowerManager}.
 	 *
+	 * <p>The returned list should offer a fast random access, as it is used by placement policies
+	 * to pick random hosts.
+	 *
 	 * @return a list of hosts that are powered on
 	 */
 	public List<Host> getPoweredOnHosts();
@@ -37,7 +37,7 @@ import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
 import com.samysadi.acs.core.event.EventImpl;
 import com.samysadi.acs.hardware.Host;
 import com.samysadi.acs.service.CloudProvider;
-import com.samysadi.acs.utility.collections.WeakLinkedList;
+import com.samysadi.acs.utility.collections.ArraySet;
 
 /**
  *
@@ -45,7 +45,7 @@ import com.samysadi.acs.utility.collections.WeakLinkedList;
  */
 public class PowerManagerDefault extends EntityImpl implements PowerManager {
 	private static final Object LOCK = new Object();
-	private WeakLinkedList<Host> onHosts;
+	private ArraySet<Host> onHosts;
 
 	public PowerManagerDefault() {
 		super();
@@ -61,7 +61,7 @@ public class PowerManagerDefault extends EntityImpl implements PowerManager {
 	protected void initializeEntity() {
 		super.initializeEntity();
 
-		this.onHosts = new WeakLinkedList<Host>();
+		this.onHosts = new ArraySet<Host>();
 	}
 
 	@Override
@@ -130,7 +130,7 @@ public class PowerManagerDefault extends EntityImpl implements PowerManager {
 			return; //nothing to do
 
 		host.setPowerState(PowerState.BOOTING);
-		Simulator.getSimulator().schedule(host.getConfig() != null ? host.getConfig().getLong("BootingDelay", 0l) * Simulator.SECOND : 0, new EventImpl() {
+		getEntitySimulator().schedule(host.getConfig() != null ? host.getConfig().getLong("BootingDelay", 0l) * Simulator.SECOND : 0, new EventImpl() {
 			@Override
 			public void process() {
 				if (host.getPowerState() == PowerState.BOOTING) {
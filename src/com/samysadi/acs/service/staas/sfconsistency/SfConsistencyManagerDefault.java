@@ -36,15 +36,14 @@ import com.samysadi.acs.core.entity.EntityImpl;
 import com.samysadi.acs.core.entity.RunnableEntity.RunnableState;
 import com.samysadi.acs.core.notifications.NotificationListener;
 import com.samysadi.acs.core.notifications.Notifier;
-import com.samysadi.acs.hardware.Host;
 import com.samysadi.acs.hardware.storage.StorageFile;
 import com.samysadi.acs.hardware.storage.operation.StorageOperation;
 import com.samysadi.acs.service.staas.Staas;
-import com.samysadi.acs.user.User;
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.utility.collections.Bitmap;
 import com.samysadi.acs.utility.collections.Bitmap.SubBitmap;
 import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.virtualization.TemporaryVirtualMachinePool;
 import com.samysadi.acs.virtualization.VirtualMachine;
 import com.samysadi.acs.virtualization.job.Job;
 import com.samysadi.acs.virtualization.job.operation.Operation;
@@ -84,19 +83,6 @@ public class SfConsistencyManagerDefault extends EntityImpl implements SfConsist
 		super.setParent(parent);
 	}
 
-	private VirtualMachine newTemporaryVm(Host host, User user) {
-		final VirtualMachine remoteVm = Factory.getFactory(this).newTemporaryVirtualMachine(null);
-		remoteVm.setParent(host);
-		remoteVm.setUser(user);
-		return remoteVm;
-	}
-
-	private static void removeTemporaryVm(VirtualMachine vm) {
-		vm.doTerminate();
-		vm.setUser(null);
-		vm.unplace();
-	}
-
 	private static final Object PROP_CONSIST_KEY = new Object();
 	private static final Object PROP_UPD_KEY = new Object();
 	private static final Object PROP_NEXTUPD_KEY = new Object();
@@ -147,22 +133,21 @@ public class SfConsistencyManagerDefault extends EntityImpl implements SfConsist
 
 		//read file from primary and write in replica
 
-		VirtualMachine tempVm = newTemporaryVm(replica.getParent().getParentHost(), primary.getUser());
+		VirtualMachine tempVm = TemporaryVirtualMachinePool.acquire(this, replica.getParent().getParentHost(), primary.getUser());
 
-		Job j = Factory.getFactory(this).newJob(null, null);
+		final Job j = Factory.getFactory(this).newJob(null, null);
 		j.setParent(tempVm);
 
-		if (!tempVm.canStart()) {
+		if (!tempVm.isRunning()) {
 			getLogger().log(Level.FINEST, replica, "Consistency update failed, because we cannot start job on parent host.");
-			removeTemporaryVm(tempVm);
+			TemporaryVirtualMachinePool.releaseJob(j);
 			return;
 		}
-		tempVm.doStart();
 
 		if (!j.isRunning()) {
 			if (!j.canStart()) {
 				getLogger().log(Level.FINEST, replica, "Consistency update failed, because we cannot start job on parent host.");
-				removeTemporaryVm(tempVm);
+				TemporaryVirtualMachinePool.releaseJob(j);
 				return;
 			}
 			j.doStart();
@@ -183,8 +168,7 @@ public class SfConsistencyManagerDefault extends EntityImpl implements SfConsist
 		final StorageOperation read = j.readFile(primary, pos, size, n_read);
 		if (read == null) {
 			getLogger().log(Level.FINEST, replica, "Consistency update failed, because we cannot read primary file.");
-			j.doCancel();
-			j.unplace();
+			TemporaryVirtualMachinePool.releaseJob(j);
 			return;
 		}
 
@@ -203,8 +187,7 @@ public class SfConsistencyManagerDefault extends EntityImpl implements SfConsist
 		final StorageOperation write = j.writeFile(replica, pos, size, n_write);
 		if (write == null) {
 			getLogger().log(Level.FINEST, replica, "Consistency update failed, because we cannot write replica file.");
-			j.doCancel();
-			removeTemporaryVm(tempVm);
+			TemporaryVirtualMachinePool.releaseJob(j);
 			return;
 		}
 
@@ -223,12 +206,12 @@ public class SfConsistencyManagerDefault extends EntityImpl implements SfConsist
 
 				if (read.getRunnableState() != RunnableState.COMPLETED) {
 					getLogger().log(Level.FINEST, replica, "Consistency update failed, because we read/write operations failed.");
-					removeTemporaryVm(read.getParent().getParent());
+					TemporaryVirtualMachinePool.releaseJob(j);
 					((SynchronizableOperation<?>)read).cancelSynchronization();
 					return;
 				}
 
-				removeTemporaryVm(read.getParent().getParent());
+				TemporaryVirtualMachinePool.releaseJob(j);
 				((SynchronizableOperation<?>)read).cancelSynchronization();
 
 				//ok
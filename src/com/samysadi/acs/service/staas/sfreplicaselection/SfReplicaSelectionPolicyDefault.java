@@ -34,7 +34,7 @@ import com.samysadi.acs.hardware.Host;
 import com.samysadi.acs.hardware.storage.StorageFile;
 import com.samysadi.acs.hardware.storage.operation.StorageOperation.StorageOperationType;
 import com.samysadi.acs.service.staas.Staas;
-import com.samysadi.acs.utility.collections.ShuffledIterator;
+import com.samysadi.acs.utility.collections.Sampling;
 
 /**
  *
@@ -83,8 +83,6 @@ public class SfReplicaSelectionPolicyDefault extends EntityImpl implements SfRep
 		if (operationType != StorageOperationType.READ)
 			return r.get(0); //if modification operation, then return primary
 
-		ShuffledIterator<StorageFile> it = new ShuffledIterator<StorageFile>(r);
-
-		return it.next();
+		return Sampling.randomElement(r);
 	}
 }
@@ -0,0 +1,293 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.service.vmplacement;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+import com.samysadi.acs.core.entity.FailureProneEntity.FailureState;
+import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
+import com.samysadi.acs.core.notifications.NotificationListener;
+import com.samysadi.acs.core.notifications.Notifier;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.hardware.ram.Ram;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.utility.NotificationCodes;
+
+/**
+ * Keeps the powered on and not failed hosts of a {@link CloudProvider} sorted by their free ram capacity.
+ *
+ * <p>The index is updated each time a host is added or removed, or each time its power state, its failure state
+ * or its ram free capacity changes. So, looking for hosts that have at least a given free ram capacity needs
+ * <i>O(log n)</i> time, where <i>n</i> is the number of indexed hosts.
+ *
+ * <p>Other resources (processing units, storages and network interfaces) are not indexed, and the
+ * returned hosts should still be checked (using {@link VmPlacementPolicyAbstract#computeHostScore(com.samysadi.acs.virtualization.VirtualMachine, VmPlacementPolicyAbstract.VmRequirements, Host) computeHostScore}
+ * for instance) before being used.
+ *
+ * <p>Call {@link HostCapacityIndex#discard()} when the index is not needed anymore.
+ *
+ * @since 1.3
+ */
+public class HostCapacityIndex {
+	private static final class Slot implements Comparable<Slot> {
+		private final long freeRam;
+		private final long id;
+		private final Host host;
+
+		private Slot(long freeRam, long id, Host host) {
+			this.freeRam = freeRam;
+			this.id = id;
+			this.host = host;
+		}
+
+		@Override
+		public int compareTo(Slot o) {
+			if (this.freeRam != o.freeRam)
+				return this.freeRam < o.freeRam ? -1 : 1;
+			if (this.id != o.id)
+				return this.id < o.id ? -1 : 1;
+			return 0;
+		}
+	}
+
+	private final CloudProvider cloudProvider;
+	private final TreeSet<Slot> slots;
+	private final HashMap<Host, Slot> hostSlots;
+	/**
+	 * The rams on which the ram listener is registered, by host.
+	 */
+	private final HashMap<Host, Ram> rams;
+	private final NotificationListener hostListener;
+	private final NotificationListener ramListener;
+	private final NotificationListener cloudProviderListener;
+
+	public HostCapacityIndex(CloudProvider cloudProvider) {
+		super();
+
+		this.cloudProvider = cloudProvider;
+		this.slots = new TreeSet<Slot>();
+		this.hostSlots = new HashMap<Host, Slot>();
+		this.rams = new HashMap<Host, Ram>();
+
+		this.ramListener = new NotificationListener() {
+			@Override
+			public boolean isInstantNotification() {
+				return true;
+			}
+
+			@Override
+			protected void notificationPerformed(Notifier notifier,
+					int notification_code, Object data) {
+				final Ram ram = (Ram) notifier;
+				if (ram.getParent() instanceof Host)
+					update((Host) ram.getParent());
+			}
+		};
+
+		this.hostListener = new NotificationListener() {
+			@Override
+			public boolean isInstantNotification() {
+				return true;
+			}
+
+			@Override
+			protected void notificationPerformed(Notifier notifier,
+					int notification_code, Object data) {
+				update((Host) notifier);
+			}
+		};
+
+		this.cloudProviderListener = new NotificationListener() {
+			@Override
+			public boolean isInstantNotification() {
+				return true;
+			}
+
+			@Override
+			protected void notificationPerformed(Notifier notifier,
+					int notification_code, Object data) {
+				if (!(data instanceof Host))
+					return;
+				if (notification_code == NotificationCodes.ENTITY_ADDED)
+					register((Host) data);
+				else
+					unregister((Host) data);
+			}
+		};
+
+		cloudProvider.addListener(NotificationCodes.ENTITY_ADDED, this.cloudProviderListener);
+		cloudProvider.addListener(NotificationCodes.ENTITY_REMOVED, this.cloudProviderListener);
+		for (Host h: cloudProvider.getHosts())
+			register(h);
+	}
+
+	/**
+	 * Returns the {@link CloudProvider} whose hosts are indexed.
+	 *
+	 * @return the {@link CloudProvider} whose hosts are indexed
+	 */
+	public CloudProvider getCloudProvider() {
+		return this.cloudProvider;
+	}
+
+	private void register(Host h) {
+		if (this.rams.containsKey(h))
+			return;
+		h.addListener(NotificationCodes.POWER_STATE_CHANGED, this.hostListener);
+		h.addListener(NotificationCodes.FAILURE_STATE_CHANGED, this.hostListener);
+		//the ram may be set after the host is added
+		h.addListener(NotificationCodes.ENTITY_ADDED, this.hostListener);
+		this.rams.put(h, null);
+		update(h);
+	}
+
+	private void unregister(Host h) {
+		if (!this.rams.containsKey(h))
+			return;
+		h.removeListener(NotificationCodes.POWER_STATE_CHANGED, this.hostListener);
+		h.removeListener(NotificationCodes.FAILURE_STATE_CHANGED, this.hostListener);
+		h.removeListener(NotificationCodes.ENTITY_ADDED, this.hostListener);
+		final Ram ram = this.rams.remove(h);
+		if (ram != null) {
+			ram.removeListener(NotificationCodes.MU_FREE_CAPACITY_CHANGED, this.ramListener);
+			ram.removeListener(NotificationCodes.MU_CAPACITY_CHANGED, this.ramListener);
+		}
+		final Slot slot = this.hostSlots.remove(h);
+		if (slot != null)
+			this.slots.remove(slot);
+	}
+
+	private void update(Host h) {
+		if (!this.rams.containsKey(h))
+			return;
+
+		final Ram ram = h.getRam();
+		final Ram oldRam = this.rams.get(h);
+		if (ram != oldRam) {
+			if (oldRam != null) {
+				oldRam.removeListener(NotificationCodes.MU_FREE_CAPACITY_CHANGED, this.ramListener);
+				oldRam.removeListener(NotificationCodes.MU_CAPACITY_CHANGED, this.ramListener);
+			}
+			if (ram != null) {
+				ram.addListener(NotificationCodes.MU_FREE_CAPACITY_CHANGED, this.ramListener);
+				ram.addListener(NotificationCodes.MU_CAPACITY_CHANGED, this.ramListener);
+			}
+			this.rams.put(h, ram);
+		}
+
+		final Slot old = this.hostSlots.get(h);
+		final boolean indexed = ram != null && h.getPowerState() == PowerState.ON &&
+				h.getFailureState() == FailureState.OK;
+		if (old != null) {
+			if (indexed && old.freeRam == ram.getFreeCapacity())
+				return;
+			this.slots.remove(old);
+			this.hostSlots.remove(h);
+		}
+		if (indexed) {
+			final Slot slot = new Slot(ram.getFreeCapacity(), h.getId(), h);
+			this.slots.add(slot);
+			this.hostSlots.put(h, slot);
+		}
+	}
+
+	/**
+	 * Returns the number of indexed hosts (ie: powered on and not failed hosts).
+	 *
+	 * @return the number of indexed hosts
+	 */
+	public int size() {
+		return this.slots.size();
+	}
+
+	/**
+	 * Returns an iterator over indexed hosts that have at least <tt>minFreeRam</tt> of free ram capacity, from the host
+	 * with the least free ram capacity to the host with the most free ram capacity.
+	 *
+	 * <p>The returned iterator is not valid anymore once the index is updated.
+	 *
+	 * @param minFreeRam
+	 * @return an iterator over indexed hosts sorted by increasing free ram capacity
+	 */
+	public Iterator<Host> ascendingIterator(long minFreeRam) {
+		return new HostIterator(this.slots.tailSet(new Slot(minFreeRam, Long.MIN_VALUE, null), true).iterator());
+	}
+
+	/**
+	 * Returns an iterator over indexed hosts that have at least <tt>minFreeRam</tt> of free ram capacity, from the host
+	 * with the most free ram capacity to the host with the least free ram capacity.
+	 *
+	 * <p>The returned iterator is not valid anymore once the index is updated.
+	 *
+	 * @param minFreeRam
+	 * @return an iterator over indexed hosts sorted by decreasing free ram capacity
+	 */
+	public Iterator<Host> descendingIterator(long minFreeRam) {
+		return new HostIterator(this.slots.tailSet(new Slot(minFreeRam, Long.MIN_VALUE, null), true).descendingIterator());
+	}
+
+	private static final class HostIterator implements Iterator<Host> {
+		private final Iterator<Slot> it;
+
+		private HostIterator(Iterator<Slot> it) {
+			this.it = it;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.it.hasNext();
+		}
+
+		@Override
+		public Host next() {
+			if (!this.it.hasNext())
+				throw new NoSuchElementException();
+			return this.it.next().host;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Unregisters all the listeners of this index. This index cannot be used anymore after calling this method.
+	 */
+	public void discard() {
+		this.cloudProvider.removeListener(NotificationCodes.ENTITY_ADDED, this.cloudProviderListener);
+		this.cloudProvider.removeListener(NotificationCodes.ENTITY_REMOVED, this.cloudProviderListener);
+		for (Host h: this.rams.keySet().toArray(new Host[this.rams.size()]))
+			unregister(h);
+		this.hostListener.discard();
+		this.ramListener.discard();
+		this.cloudProviderListener.discard();
+	}
+}
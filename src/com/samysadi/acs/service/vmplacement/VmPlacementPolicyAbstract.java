@@ -78,6 +78,104 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 		super.setParent(parent);
 	}
 
+	/**
+	 * The resources asked by a virtual machine, as read from its configuration.
+	 *
+	 * <p>Instances are immutable and are cached by the vm's {@link Config} (see {@link VmPlacementPolicyAbstract#getVmRequirements(VirtualMachine)}),
+	 * so the configuration is not read again for each placement or for each candidate host.
+	 *
+	 * @since 1.3
+	 */
+	protected static class VmRequirements {
+		private static final Config.SnapshotFactory<VmRequirements> FACTORY = new Config.SnapshotFactory<VmRequirements>() {
+			@Override
+			public VmRequirements newSnapshot(Config config) {
+				return new VmRequirements(config);
+			}
+		};
+
+		private static final VmRequirements DEFAULT = new VmRequirements(new Config());
+
+		private final long ramCapacity;
+		private final int puCount;
+		private final long puMips;
+		private final long storageCapacity;
+		private final long downBw;
+		private final long upBw;
+
+		public VmRequirements(Config vmConfig) {
+			super();
+
+			this.ramCapacity = vmConfig.getLong("Ram_Capacity", 1024l) * Simulator.MEBIBYTE;
+			this.puCount = vmConfig.getInt("Pu_Count", 1);
+			this.puMips = vmConfig.getLong("Pu_Mips", 1000l) * Simulator.MI;
+			this.storageCapacity = vmConfig.getLong("Storage_Capacity", 10000l) * Simulator.MEBIBYTE;
+			this.downBw = vmConfig.getLong("Network_DownloadBw", 0l) * Simulator.MEBIBYTE;
+			this.upBw = vmConfig.getLong("Network_UploadBw", 0l) * Simulator.MEBIBYTE;
+		}
+
+		public long getRamCapacity() {
+			return this.ramCapacity;
+		}
+
+		public int getPuCount() {
+			return this.puCount;
+		}
+
+		public long getPuMips() {
+			return this.puMips;
+		}
+
+		public long getStorageCapacity() {
+			return this.storageCapacity;
+		}
+
+		public long getDownBw() {
+			return this.downBw;
+		}
+
+		public long getUpBw() {
+			return this.upBw;
+		}
+	}
+
+	/**
+	 * Returns the requirements of the given vm.
+	 *
+	 * @param vm
+	 * @return the requirements of the given vm
+	 * @since 1.3
+	 */
+	protected static VmRequirements getVmRequirements(VirtualMachine vm) {
+		final Config vmConfig = vm.getConfig();
+		if (vmConfig == null)
+			return VmRequirements.DEFAULT;
+		return vmConfig.getSnapshot(VmRequirements.FACTORY);
+	}
+
+	/**
+	 * Returns the ram capacity that a host must have free in order to place the given vm.
+	 *
+	 * @param vm
+	 * @param requirements the requirements of the given <tt>vm</tt>
+	 * @return the ram capacity that a host must have free in order to place the given vm
+	 * @since 1.3
+	 */
+	protected static long getNeededRamCapacity(VirtualMachine vm, VmRequirements requirements) {
+		long neededSize = requirements.getRamCapacity();
+		if (vm.getVirtualRam() != null && neededSize < vm.getVirtualRam().getCapacity())
+			neededSize = vm.getVirtualRam().getCapacity();
+		return neededSize;
+	}
+
+	/**
+	 * This method is an alias for {@link VmPlacementPolicyAbstract#computeHostScore(VirtualMachine, VmRequirements, Host)
+	 * computeHostScore(vm, getVmRequirements(vm), host)}.
+	 */
+	protected final double computeHostScore(VirtualMachine vm, Host host) {
+		return computeHostScore(vm, getVmRequirements(vm), host);
+	}
+
 	/**
 	 * Computes and returns a score indicating the level of compliancy of the given <tt>host</tt>
 	 * towards the vm's constraints.
@@ -92,26 +190,22 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 	 * <p>This method <b>does not</b> take care of the {@link PowerState} of the host.
 	 *
 	 * @param vm
+	 * @param requirements the requirements of the given <tt>vm</tt>
 	 * @param host
 	 * @return computed score for placing the given vm on the given host
+	 * @since 1.3
 	 */
-	protected double computeHostScore(VirtualMachine vm, Host host) {
+	protected double computeHostScore(VirtualMachine vm, VmRequirements requirements, Host host) {
 		if (host.getFailureState() != FailureState.OK)
 			return 0.0d;
 
 		double score = 0.0d;
 
-		Config vmConfig = vm.getConfig();
-		if (vmConfig == null)
-			vmConfig = new Config();
-
 		//VirtualRam
 		{
-			final long slaRamCapacity = vmConfig.getLong("Ram_Capacity", 1024l) * Simulator.MEBIBYTE;
+			final long slaRamCapacity = requirements.getRamCapacity();
 
-			long neededSize = slaRamCapacity;
-			if (vm.getVirtualRam() != null && neededSize < vm.getVirtualRam().getCapacity())
-				neededSize = vm.getVirtualRam().getCapacity();
+			final long neededSize = getNeededRamCapacity(vm, requirements);
 			if (host.getRam().getFreeCapacity() < neededSize)
 				return 0.0d;
 			score+= (double) host.getRam().getFreeCapacity() / slaRamCapacity;
@@ -119,8 +213,8 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 
 		//ProcessingUnit
 		{
-			final int slaPuCount = vmConfig.getInt("Pu_Count", 1);
-			final long slaPuMips = vmConfig.getLong("Pu_Mips", 1000l) * Simulator.MI;
+			final int slaPuCount = requirements.getPuCount();
+			final long slaPuMips = requirements.getPuMips();
 
 			int totalAllocated = 0;
 			int totalOk = 0;
@@ -142,7 +236,7 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 
 		//VirtualStorage
 		{
-			final long slaStorageCapacity = vmConfig.getLong("Storage_Capacity", 10000l) * Simulator.MEBIBYTE;
+			final long slaStorageCapacity = requirements.getStorageCapacity();
 
 			long neededSize = slaStorageCapacity;
 			if (vm.getVirtualStorage() != null) {
@@ -172,8 +266,8 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 
 		//Network
 		{
-			final long slaDownBw = vmConfig.getLong("Network_DownloadBw", 0l) * Simulator.MEBIBYTE;
-			final long slaUpBw = vmConfig.getLong("Network_UploadBw", 0l) * Simulator.MEBIBYTE;
+			final long slaDownBw = requirements.getDownBw();
+			final long slaUpBw = requirements.getUpBw();
 
 			if ((slaUpBw != 0l) || (slaDownBw != 0l)) {
 				long sumUpBw = 0l;
@@ -216,6 +310,7 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 	 * @return the selected host
 	 */
 	protected Host _selectHostAlternative(VirtualMachine vm, List<Host> hosts, List<Host> excludedHosts) {
+		final VmRequirements requirements = getVmRequirements(vm);
 		Iterator<Host> it = new ShuffledIterator<Host>(hosts);
 		while (it.hasNext()) {
 			final Host candidate = it.next();
@@ -223,7 +318,7 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 				continue;
 			if (candidate.getPowerState() == PowerState.ON ||
 					candidate.getCloudProvider().getPowerManager().canPowerOn(candidate)) {
-				final double s = computeHostScore(vm, candidate);
+				final double s = computeHostScore(vm, requirements, candidate);
 				if (s > 0)
 					return candidate;
 			}
@@ -307,13 +402,11 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 		if (host.getFailureState() != FailureState.OK)
 			throw new IllegalArgumentException("Cannot place the vm on the given host: host is failed");
 
-		Config vmConfig = vm.getConfig();
-		if (vmConfig == null)
-			vmConfig = new Config();
+		final VmRequirements requirements = getVmRequirements(vm);
 
 		//VirtualRam
 		{
-			final long slaRamCapacity = vmConfig.getLong("Ram_Capacity", 1024l) * Simulator.MEBIBYTE;
+			final long slaRamCapacity = requirements.getRamCapacity();
 
 			if (host.getRam().getFreeCapacity() < slaRamCapacity)
 				throw new IllegalArgumentException("Cannot place the vm on the given host: not enough Ram");
@@ -334,8 +427,8 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 
 		//ProcessingUnit
 		{
-			final int slaPuCount = vmConfig.getInt("Pu_Count", 1);
-			final long slaPuMips = vmConfig.getLong("Pu_Mips", 1000l) * Simulator.MI;
+			final int slaPuCount = requirements.getPuCount();
+			final long slaPuMips = requirements.getPuMips();
 
 			ArrayList<ProcessingUnit> pus = newArrayList();
 			for (ProcessingUnit pu:host.getProcessingUnits()) {
@@ -355,7 +448,7 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 
 		//VirtualStorage
 		{
-			final long slaStorageCapacity = vmConfig.getLong("Storage_Capacity", 10000l) * Simulator.MEBIBYTE;
+			final long slaStorageCapacity = requirements.getStorageCapacity();
 
 			long neededSize = slaStorageCapacity;
 			if (vm.getVirtualStorage() != null) {
@@ -395,8 +488,8 @@ public abstract class VmPlacementPolicyAbstract extends EntityImpl implements Vm
 
 		//Network
 		{
-			final long slaDownBw = vmConfig.getLong("Network_DownloadBw", 0l) * Simulator.MEBIBYTE;
-			final long slaUpBw = vmConfig.getLong("Network_UploadBw", 0l) * Simulator.MEBIBYTE;
+			final long slaDownBw = requirements.getDownBw();
+			final long slaUpBw = requirements.getUpBw();
 
 			if ((slaUpBw != 0l) || (slaDownBw != 0l)) {
 				long sumUpBw = 0l;
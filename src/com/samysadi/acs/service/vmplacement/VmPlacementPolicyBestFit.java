@@ -56,6 +56,7 @@ public class VmPlacementPolicyBestFit extends VmPlacementPolicyAbstract {
 	protected Host _selectHost(VirtualMachine vm, List<Host> poweredOnHosts, List<Host> excludedHosts) {
 		final int HOST_SEARCH_THRESHOLD = getConfigRec().getInt("VmPlacement.SearchThreshold", 20);
 
+		final VmRequirements requirements = getVmRequirements(vm);
 		int seenCount = 0;
 		Host bestHost = null;
 		double bestScore = 0.0d;
@@ -66,7 +67,7 @@ public class VmPlacementPolicyBestFit extends VmPlacementPolicyAbstract {
 			if (excludedHosts != null && excludedHosts.contains(candidate))
 				continue;
 			if (candidate.getPowerState() == PowerState.ON) {
-				final double s = computeHostScore(vm, candidate);
+				final double s = computeHostScore(vm, requirements, candidate);
 				if (isHostScoreBetter(s, bestScore)) {
 					bestHost = candidate;
 					bestScore = s;
@@ -0,0 +1,123 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.service.vmplacement;
+
+import java.util.Iterator;
+import java.util.List;
+
+import com.samysadi.acs.core.entity.Entity;
+import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.virtualization.VirtualMachine;
+
+/**
+ * A placement policy that chooses the host that has enough resources for the virtual machine
+ * among all available and powered on hosts.<br/>
+ * The host is chosen according to the best fit method: the host with the least free ram
+ * capacity that can hold the virtual machine is selected.<br/>
+ * If none is found then a new host is powered on.
+ *
+ * <p>Unlike {@link VmPlacementPolicyBestFit}, this policy does not sample hosts at random. Instead, it uses
+ * a {@link HostCapacityIndex} to only look at hosts that have enough free ram, in the order of their free ram capacity.
+ * So the selected host is the exact best fit, and it is found in logarithmic time
+ * as long as most of these hosts also have enough processing units, storage and bandwidth.
+ *
+ * @since 1.3
+ */
+public class VmPlacementPolicyIndexedBestFit extends VmPlacementPolicyAbstract {
+	private HostCapacityIndex index;
+
+	public VmPlacementPolicyIndexedBestFit() {
+		super();
+	}
+
+	@Override
+	public VmPlacementPolicyIndexedBestFit clone() {
+		final VmPlacementPolicyIndexedBestFit clone = (VmPlacementPolicyIndexedBestFit) super.clone();
+		return clone;
+	}
+
+	@Override
+	protected void initializeEntity() {
+		super.initializeEntity();
+
+		this.index = null;
+	}
+
+	@Override
+	public void setParent(Entity parent) {
+		if (parent == getParent())
+			return;
+		super.setParent(parent);
+		if (this.index != null) {
+			this.index.discard();
+			this.index = null;
+		}
+	}
+
+	/**
+	 * Returns the index of the hosts of the parent cloud provider, and creates it if needed.
+	 *
+	 * @return the index of the hosts of the parent cloud provider
+	 */
+	protected HostCapacityIndex getHostCapacityIndex() {
+		if (this.index == null)
+			this.index = new HostCapacityIndex(getParent());
+		return this.index;
+	}
+
+	/**
+	 * Returns an iterator over candidate hosts that have at least the given free ram capacity, in the order they
+	 * should be tried.
+	 *
+	 * @param index
+	 * @param neededRamCapacity
+	 * @return an iterator over candidate hosts
+	 */
+	protected Iterator<Host> getCandidatesIterator(HostCapacityIndex index, long neededRamCapacity) {
+		return index.ascendingIterator(neededRamCapacity);
+	}
+
+	@Override
+	protected Host _selectHost(VirtualMachine vm, List<Host> poweredOnHosts, List<Host> excludedHosts) {
+		if (poweredOnHosts.isEmpty())
+			return null;
+
+		final VmRequirements requirements = getVmRequirements(vm);
+		Iterator<Host> it = getCandidatesIterator(getHostCapacityIndex(), getNeededRamCapacity(vm, requirements));
+		while (it.hasNext()) {
+			final Host candidate = it.next();
+			if (excludedHosts != null && excludedHosts.contains(candidate))
+				continue;
+			if (candidate.getPowerState() != PowerState.ON || !poweredOnHosts.contains(candidate))
+				continue;
+			if (computeHostScore(vm, requirements, candidate) > 0)
+				return candidate;
+		}
+		return null;
+	}
+}
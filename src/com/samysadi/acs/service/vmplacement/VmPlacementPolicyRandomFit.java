@@ -49,13 +49,14 @@ public class VmPlacementPolicyRandomFit extends VmPlacementPolicyAbstract {
 
 	@Override
 	protected Host _selectHost(VirtualMachine vm, List<Host> poweredOnHosts, List<Host> excludedHosts) {
+		final VmRequirements requirements = getVmRequirements(vm);
 		Iterator<Host> it = new ShuffledIterator<Host>(poweredOnHosts);
 		while (it.hasNext()) {
 			final Host candidate = it.next();
 			if (excludedHosts != null && excludedHosts.contains(candidate))
 				continue;
 			if (candidate.getPowerState() == PowerState.ON) {
-				final double s = computeHostScore(vm, candidate);
+				final double s = computeHostScore(vm, requirements, candidate);
 				if (s>0)
 					return candidate;
 			}
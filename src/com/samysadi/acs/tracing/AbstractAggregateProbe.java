@@ -0,0 +1,296 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.tracing;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.samysadi.acs.core.notifications.NotificationListener;
+import com.samysadi.acs.core.notifications.Notifier;
+import com.samysadi.acs.core.tracing.Probe;
+import com.samysadi.acs.core.tracing.Probed;
+import com.samysadi.acs.utility.NotificationCodes;
+
+/**
+ * A probe whose value is an aggregation (sum, max or count) of the values of
+ * probes of its parent's children.
+ *
+ * <p>Subclasses only declare how children are found: which notifications are thrown by the parent when a
+ * child is added or removed, which entities are children of the parent, and which probe is aggregated.
+ *
+ * <p>The aggregated value is updated incrementally. Each child is tracked by its own listener which remembers
+ * the last value that was accounted for that child, so that a change in a child probe's value is propagated
+ * by applying its delta (in constant time for sums and counts, and in logarithmic time for maximums).
+ * When aggregate probes are chained (for instance operations, jobs, vms and hosts), a change is thus
+ * propagated in a time proportional to the depth of the chain.
+ *
+ * <p>Additionally, each change of this probe's value can be added to a {@link #getRollupProbe() rollup probe}.
+ *
+ * @since 1.3
+ */
+public abstract class AbstractAggregateProbe extends AbstractProbe<Long> {
+	/**
+	 * Defines how child probe values are aggregated.
+	 */
+	public enum Aggregation {
+		/**
+		 * The sum of child probe values
+		 */
+		SUM,
+		/**
+		 * The maximum of child probe values, or 0 if there are no children
+		 */
+		MAX,
+		/**
+		 * The number of children. Child probes are not used.
+		 */
+		COUNT
+	}
+
+	private Map<Object, ChildListener> children;
+	/**
+	 * Counts of each child value, used only for {@link Aggregation#MAX}.
+	 */
+	private TreeMap<Long, int[]> childValues;
+	private long sum;
+
+	@Override
+	public void setup(Probed parent) {
+		super.setup(parent);
+
+		this.children = new HashMap<Object, ChildListener>();
+		this.childValues = getAggregation() == Aggregation.MAX ? new TreeMap<Long, int[]>() : null;
+		this.sum = 0l;
+
+		//register listeners
+		{
+			NotificationListener l = new NotificationListener() {
+				@Override
+				protected void notificationPerformed(Notifier notifier,
+						int notification_code, Object data) {
+					if (AbstractAggregateProbe.this.children == null)
+						return;
+					//notifications are checked against the current state, as they may be delivered after
+					//the child was removed (or added) again
+					if (isChild(data)) {
+						if (!AbstractAggregateProbe.this.children.containsKey(data))
+							AbstractAggregateProbe.this.addChild((Probed) data);
+					} else if (AbstractAggregateProbe.this.children.containsKey(data))
+						AbstractAggregateProbe.this.removeChild(data);
+				}
+			};
+
+			registeredListener(l);
+
+			((Notifier) getParent()).addListener(getChildAddedNotificationCode(), l);
+			((Notifier) getParent()).addListener(getChildRemovedNotificationCode(), l);
+		}
+
+		for (Probed child: getChildren())
+			if (isChild(child) && !this.children.containsKey(child))
+				addChild0(child);
+
+		setValue(Long.valueOf(computeValue()));
+	}
+
+	/**
+	 * Returns the key of the children's probes whose values are aggregated.
+	 *
+	 * <p>This method is not used for {@link Aggregation#COUNT} aggregations.
+	 *
+	 * @return the key of the aggregated children's probes
+	 */
+	protected abstract String getChildProbeKey();
+
+	/**
+	 * Returns the notification code that is thrown by the parent when a child is added.
+	 *
+	 * @return the notification code that is thrown by the parent when a child is added
+	 */
+	protected abstract int getChildAddedNotificationCode();
+
+	/**
+	 * Returns the notification code that is thrown by the parent when a child is removed.
+	 *
+	 * @return the notification code that is thrown by the parent when a child is removed
+	 */
+	protected abstract int getChildRemovedNotificationCode();
+
+	/**
+	 * Returns <tt>true</tt> if the given <tt>entity</tt> is currently a child that is aggregated by this probe.
+	 *
+	 * <p>This method is also called with the data of the add and remove notifications, and must return <tt>true</tt>
+	 * for exactly the aggregated entities that are returned by {@link #getChildren()}.
+	 *
+	 * @param entity
+	 * @return <tt>true</tt> if the given <tt>entity</tt> is aggregated by this probe
+	 */
+	protected abstract boolean isChild(Object entity);
+
+	/**
+	 * Returns the current children of the parent.
+	 *
+	 * <p>Only children for which {@link #isChild(Object)} returns <tt>true</tt> are aggregated.
+	 *
+	 * @return the current children of the parent
+	 */
+	protected abstract Iterable<? extends Probed> getChildren();
+
+	/**
+	 * Returns how child probe values are aggregated.
+	 *
+	 * <p>Default implementation returns {@link Aggregation#SUM}.
+	 *
+	 * @return how child probe values are aggregated
+	 */
+	protected Aggregation getAggregation() {
+		return Aggregation.SUM;
+	}
+
+	/**
+	 * Returns the probe to which each change of this probe's value is added, or <tt>null</tt>.
+	 *
+	 * <p>The returned probe is only updated if it is a {@link com.samysadi.acs.core.tracing.ModifiableProbe ModifiableProbe}.
+	 *
+	 * <p>Default implementation returns <tt>null</tt>.
+	 *
+	 * @return the probe to which each change of this probe's value is added, or <tt>null</tt>
+	 */
+	protected Probe<?> getRollupProbe() {
+		return null;
+	}
+
+	private long getChildValue(ChildListener c) {
+		if (c.probe == null)
+			return 1l;
+		final Object v = c.probe.getValue();
+		return v == null ? 0l : ((Number) v).longValue();
+	}
+
+	private void addChild0(Probed child) {
+		final ChildListener c = new ChildListener(this,
+				getAggregation() == Aggregation.COUNT ? null : child.getProbe(getChildProbeKey()));
+		this.children.put(child, c);
+		c.value = getChildValue(c);
+		account(c.value, 1);
+		if (c.probe != null)
+			c.probe.addListener(NotificationCodes.PROBE_VALUE_CHANGED, c);
+	}
+
+	private void addChild(Probed child) {
+		addChild0(child);
+		setValue(Long.valueOf(computeValue()));
+	}
+
+	private void removeChild(Object child) {
+		final ChildListener c = this.children.remove(child);
+		c.discard();
+		account(c.value, -1);
+		setValue(Long.valueOf(computeValue()));
+	}
+
+	private void childValueChanged(ChildListener c) {
+		final long v = getChildValue(c);
+		if (v == c.value)
+			return;
+		account(c.value, -1);
+		c.value = v;
+		account(v, 1);
+		setValue(Long.valueOf(computeValue()));
+	}
+
+	private void account(long value, int count) {
+		this.sum+= value * count;
+		if (this.childValues != null) {
+			final Long key = Long.valueOf(value);
+			final int[] n = this.childValues.get(key);
+			if (n == null)
+				this.childValues.put(key, new int[] { count });
+			else if ((n[0]+= count) == 0)
+				this.childValues.remove(key);
+		}
+	}
+
+	private long computeValue() {
+		if (this.childValues != null)
+			return this.childValues.isEmpty() ? 0l : this.childValues.lastKey().longValue();
+		return this.sum;
+	}
+
+	@Override
+	protected void setValue(Long value) {
+		if (value == null) {
+			super.setValue(null);
+			return;
+		}
+
+		final Probe<?> rollup = getRollupProbe();
+		if (rollup == null) {
+			super.setValue(value);
+			return;
+		}
+
+		if (value.longValue() < 0l)
+			throw new IllegalStateException("Negative value");
+
+		final long delta = value.longValue() - (getValue() == null ? 0l : getValue().longValue());
+
+		super.setValue(value);
+
+		addToProbe(rollup, delta);
+	}
+
+	@Override
+	public void discard() {
+		super.discard();
+		if (this.children != null) {
+			for (ChildListener c: this.children.values())
+				c.discard();
+			this.children = null;
+		}
+		this.childValues = null;
+	}
+
+	private static final class ChildListener extends NotificationListener {
+		private final AbstractAggregateProbe aggregate;
+		private final Probe<?> probe;
+		private long value;
+
+		public ChildListener(AbstractAggregateProbe aggregate, Probe<?> probe) {
+			super();
+			this.aggregate = aggregate;
+			this.probe = probe;
+		}
+
+		@Override
+		protected void notificationPerformed(Notifier notifier,
+				int notification_code, Object data) {
+			this.aggregate.childValueChanged(this);
+		}
+	}
+}
@@ -42,12 +42,20 @@ import com.samysadi.acs.utility.NotificationCodes;
  * the value of this probe is:<br/>
  * <math><mi>F</mi><mo>(</mo><mi>t</mi><mo>)</mo><mo>=</mo><mo>&int;</mo><mi>f</mi><mo>(</mo><mi>t</mi><mo>)</mo><mo>&dd;</mo><mi>t</mi></math>
  *
+ * <p>The integral is computed lazily from the last watched value and the time when it was set.
+ * It is updated when the watched value changes, and when {@link AbstractLongIntegratorProbe#getValue()} or
+ * {@link AbstractLongIntegratorProbe#getValueAt(long)} are called.<br/>
+ * Value change notifications are thrown on each simulation tick only while this probe has
+ * listeners for them (ie: it is traced) and while the watched value is not zero.
+ * Otherwise, this probe does not listen to simulation ticks.
+ *
  * @since 1.0
  */
 public abstract class AbstractLongIntegratorProbe extends AbstractProbe<Long> {
 	private double value;
 	private long lastValue;
 	private long lastTime;
+	private NotificationListener tickListener;
 
 	@Override
 	public void setup(Probed parent) {
@@ -59,32 +67,97 @@ public abstract class AbstractLongIntegratorProbe extends AbstractProbe<Long> {
 			this.value = 0d;
 			this.lastValue = 0l;
 			this.lastTime = Simulator.getSimulator().getTime();
+			this.tickListener = null;
 
 			NotificationListener l = new NotificationListener() {
 				@Override
 				protected void notificationPerformed(Notifier notifier,
 						int notification_code, Object data) {
-					Probe<?> p = getWatchedProbe();
-
-					long newTime = Simulator.getSimulator().getTime();
-					double total = ((double) (newTime - AbstractLongIntegratorProbe.this.lastTime) *
-							AbstractLongIntegratorProbe.this.lastValue / getUnitOfTime());
-					AbstractLongIntegratorProbe.this.lastTime = newTime;
-					AbstractLongIntegratorProbe.this.lastValue = ((Long)p.getValue()).longValue();
-
-					AbstractLongIntegratorProbe.this.value += total;
-					setValue(Long.valueOf(
-								(long) AbstractLongIntegratorProbe.this.value
-							));
+					AbstractLongIntegratorProbe.this.update();
 				}
 			};
 
 			getWatchedProbe().addListener(NotificationCodes.PROBE_VALUE_CHANGED, l);
-			Simulator.getSimulator().addListener(NotificationCodes.SIMULATOR_TICK, l);
 			registeredListener(l);
+
+			update();
+		}
+	}
+
+	/**
+	 * Integrates the last watched value up to the current time, reads the new watched value and
+	 * starts or stops listening to simulation ticks accordingly.
+	 */
+	private void update() {
+		final long newTime = Simulator.getSimulator().getTime();
+		this.value += ((double) (newTime - this.lastTime) *
+				this.lastValue / getUnitOfTime());
+		this.lastTime = newTime;
+		this.lastValue = ((Long)getWatchedProbe().getValue()).longValue();
+
+		setValue(Long.valueOf((long) this.value));
+		updateTickListener();
+	}
+
+	private void updateTickListener() {
+		final boolean needed = !isDiscarded() && this.lastValue != 0l &&
+				hasListeners(NotificationCodes.PROBE_VALUE_CHANGED);
+		if (needed == (this.tickListener != null))
+			return;
+
+		if (needed) {
+			this.tickListener = new NotificationListener() {
+				@Override
+				protected void notificationPerformed(Notifier notifier,
+						int notification_code, Object data) {
+					AbstractLongIntegratorProbe.this.update();
+				}
+			};
+			Simulator.getSimulator().addListener(NotificationCodes.SIMULATOR_TICK, this.tickListener);
+		} else {
+			this.tickListener.discard();
+			this.tickListener = null;
 		}
 	}
 
+	@Override
+	protected void notificationListenersChanged() {
+		super.notificationListenersChanged();
+		updateTickListener();
+	}
+
+	/**
+	 * Returns the value of this probe at the given <tt>time</tt>, assuming that the watched value
+	 * does not change until then.
+	 *
+	 * <p>This method does not update this probe and does not throw any notification.
+	 *
+	 * @param time the simulation time, which cannot be smaller than the time of the last watched value change
+	 * @return the value of this probe at the given <tt>time</tt>
+	 * @throws IllegalStateException if the probe is discarded
+	 * @throws IllegalArgumentException if the given <tt>time</tt> is before the last watched value change
+	 * @since 1.3
+	 */
+	public long getValueAt(long time) {
+		if (this.isDiscarded())
+			throw new IllegalStateException("This probe is discarded");
+		if (time < this.lastTime)
+			throw new IllegalArgumentException("The given time is before the last watched value change");
+		return (long) (this.value + ((double) (time - this.lastTime) *
+				this.lastValue / getUnitOfTime()));
+	}
+
+	@Override
+	public Long getValue() {
+		return Long.valueOf(getValueAt(Simulator.getSimulator().getTime()));
+	}
+
+	@Override
+	public void discard() {
+		super.discard();
+		updateTickListener();
+	}
+
 	protected abstract Probe<?> getWatchedProbe();
 
 	protected long getUnitOfTime() {
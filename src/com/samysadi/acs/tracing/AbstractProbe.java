@@ -30,6 +30,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.samysadi.acs.core.notifications.NotificationListener;
+import com.samysadi.acs.core.tracing.ModifiableProbe;
+import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.ProbeImpl;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.utility.NotificationCodes;
@@ -156,6 +158,22 @@ public abstract class AbstractProbe<ValueType> extends ProbeImpl<ValueType> {
 		notify(NotificationCodes.PROBE_VALUE_CHANGED, null);
 	}
 
+	/**
+	 * Adds the given <tt>delta</tt> to the value of the given <tt>probe</tt>, if it is a
+	 * {@link ModifiableProbe} of {@link Long} values.
+	 *
+	 * @param probe the probe to update, may be <tt>null</tt>
+	 * @param delta the value to add
+	 * @since 1.3
+	 */
+	@SuppressWarnings("unchecked")
+	protected static void addToProbe(Probe<?> probe, long delta) {
+		if (!(probe instanceof ModifiableProbe<?>))
+			return;
+		final ModifiableProbe<Long> p = (ModifiableProbe<Long>) probe;
+		p.setValue(p.getValue() + delta);
+	}
+
 	@Override
 	public void discard() {
 		super.discard();
@@ -0,0 +1,154 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.tracing;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.samysadi.acs.core.tracing.Probe;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.tracing.AbstractAggregateProbe.Aggregation;
+import com.samysadi.acs.tracing.cp.CpHostRollupProbe;
+import com.samysadi.acs.tracing.cp.CpHostRollupProbe.Scope;
+import com.samysadi.acs.utility.collections.infrastructure.Cluster;
+import com.samysadi.acs.utility.collections.infrastructure.Datacenter;
+import com.samysadi.acs.utility.collections.infrastructure.Rack;
+
+/**
+ * Sums the values of a host probe over the racks, clusters and data-centers of a cloud provider.
+ *
+ * <p>Racks, clusters and data-centers are not probed entities, so this class
+ * offers rack, cluster and data-center level rollups of any host probe (for instance {@link com.samysadi.acs.tracing.host.HostMipsProbe HostMipsProbe}
+ * or {@link com.samysadi.acs.tracing.host.HostPowerProbe HostPowerProbe}).
+ *
+ * <p>Values are read from the {@link CpHostRollupProbe}s of the cloud provider, which are created when a rack, cluster
+ * or data-center is first queried. These probes are updated incrementally, and they can also be traced
+ * (or used for maximums and counts) using their key.
+ *
+ * <p>Call {@link #discard()} when the aggregated values are no longer needed.
+ *
+ * @since 1.3
+ */
+public class HostProbeAggregator {
+	private final CloudProvider cloudProvider;
+	private final String hostProbeKey;
+	/**
+	 * Probes of racks, clusters and data-centers. These are lists which are compared by identity.
+	 */
+	private Map<Object, Probe<?>> probes;
+
+	/**
+	 * Creates a new aggregator for the probes with the given key of all hosts
+	 * of the given cloud provider.
+	 *
+	 * @param cloudProvider the cloud provider whose hosts are aggregated
+	 * @param hostProbeKey the key of the aggregated host probes
+	 */
+	public HostProbeAggregator(CloudProvider cloudProvider, String hostProbeKey) {
+		super();
+		if (cloudProvider == null || hostProbeKey == null)
+			throw new NullPointerException();
+		this.cloudProvider = cloudProvider;
+		this.hostProbeKey = hostProbeKey;
+		this.probes = new IdentityHashMap<Object, Probe<?>>();
+	}
+
+	/**
+	 * Returns the cloud provider whose hosts are aggregated.
+	 *
+	 * @return the cloud provider whose hosts are aggregated
+	 */
+	public CloudProvider getCloudProvider() {
+		return this.cloudProvider;
+	}
+
+	/**
+	 * Returns the key of the aggregated host probes.
+	 *
+	 * @return the key of the aggregated host probes
+	 */
+	public String getHostProbeKey() {
+		return this.hostProbeKey;
+	}
+
+	private long get(Object o, Scope scope, List<?> l) {
+		if (this.probes == null)
+			throw new IllegalStateException("This aggregator is discarded");
+		Probe<?> probe = this.probes.get(o);
+		if (probe == null) {
+			int index = l.size() - 1;
+			while (index >= 0 && l.get(index) != o)
+				index--;
+			if (index < 0)
+				return 0l;
+			probe = this.cloudProvider.getProbe(CpHostRollupProbe.getKey(Aggregation.SUM, scope, index, this.hostProbeKey));
+			this.probes.put(o, probe);
+		}
+		final Object v = probe.getValue();
+		return v == null ? 0l : ((Number) v).longValue();
+	}
+
+	/**
+	 * Returns the sum of the probe values of the hosts in the given rack.
+	 *
+	 * @param rack
+	 * @return the sum of the probe values of the hosts in the given rack
+	 */
+	public long getValue(Rack rack) {
+		return get(rack, Scope.RACK, this.cloudProvider.getCloud().getRacks());
+	}
+
+	/**
+	 * Returns the sum of the probe values of the hosts in the given cluster.
+	 *
+	 * @param cluster
+	 * @return the sum of the probe values of the hosts in the given cluster
+	 */
+	public long getValue(Cluster cluster) {
+		return get(cluster, Scope.CLUSTER, this.cloudProvider.getCloud().getClusters());
+	}
+
+	/**
+	 * Returns the sum of the probe values of the hosts in the given data-center.
+	 *
+	 * @param datacenter
+	 * @return the sum of the probe values of the hosts in the given data-center
+	 */
+	public long getValue(Datacenter datacenter) {
+		return get(datacenter, Scope.DATACENTER, this.cloudProvider.getCloud().getDatacenters());
+	}
+
+	/**
+	 * Releases the probes used by this aggregator.
+	 *
+	 * <p>Probes remain available in the cloud provider, as they may be used by other entities (for instance traces).
+	 */
+	public void discard() {
+		this.probes = null;
+	}
+}
@@ -26,6 +26,8 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.tracing.cp;
 
+import java.util.HashMap;
+
 import com.samysadi.acs.core.entity.FailureProneEntity.FailureState;
 import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
 import com.samysadi.acs.core.notifications.NotificationListener;
@@ -42,18 +44,35 @@ import com.samysadi.acs.utility.NotificationCodes;
  * Probe for number of active (not powered off and not failed) hosts
  * in the Cloud.
  *
+ * <p>This probe also computes the values of {@link CpFailedHostsCountProbe}, {@link CpBootingHostsCountProbe},
+ * {@link CpPoweredOffHostsCountProbe} and {@link CpShuttingDownHostsCountProbe}.
+ * Counts are updated incrementally each time the state of a host changes.
+ *
  * @since 1.0
  */
 public class CpActiveHostsCountProbe extends AbstractProbe<Long> {
 	public static final String KEY = CpActiveHostsCountProbe.class.getSimpleName().substring(0,
 									CpActiveHostsCountProbe.class.getSimpleName().length() - 5);
 
+	private static final int ACTIVE = 0;
+	private static final int FAILED = 1;
+	private static final int BOOTING = 2;
+	private static final int OFF = 3;
+	private static final int SHUTTING_DOWN = 4;
+	private static final int OTHER = 5;
+
+	private long[] counts;
+	private HashMap<Host, Integer> states;
+
 	@Override
 	public void setup(Probed parent) {
 		if (!(parent instanceof CloudProvider))
 			throw new IllegalArgumentException("Illegal Parent");
 		super.setup(parent);
 
+		this.counts = new long[OTHER + 1];
+		this.states = new HashMap<Host, Integer>();
+
 		setValue(0l);
 		//register listeners
 		{
@@ -61,7 +80,8 @@ public class CpActiveHostsCountProbe extends AbstractProbe<Long> {
 				@Override
 				protected void notificationPerformed(Notifier notifier,
 						int notification_code, Object data) {
-					recomputeValue();
+					updateHost((Host) notifier);
+					updateValues();
 				}
 			};
 
@@ -75,7 +95,7 @@ public class CpActiveHostsCountProbe extends AbstractProbe<Long> {
 						} else {
 							unregisterHost((Host)data, l);
 						}
-						recomputeValue();
+						updateValues();
 					}
 				}
 			};
@@ -85,42 +105,81 @@ public class CpActiveHostsCountProbe extends AbstractProbe<Long> {
 
 			for (Host h: ((CloudProvider)getParent()).getHosts())
 				registerHost(h, l);
-			recomputeValue();
+			updateValues();
 
 			registeredListener(l_added);
 			registeredListener(l);
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	private void recomputeValue() {
-		int s_active = 0;
-		int s_failed = 0;
-		for (Host h: ((CloudProvider)getParent()).getHosts()) {
-			if (h.getFailureState() != FailureState.OK) {
-				s_failed++;
-				continue;
-			}
-			if (h.getPowerState() != PowerState.ON) {
-				continue;
-			}
-			s_active++;
-		}
-		setValue(Long.valueOf(s_active));
+	private static int stateOf(Host h) {
+		if (h.getFailureState() != FailureState.OK)
+			return FAILED;
+		final PowerState s = h.getPowerState();
+		if (s == PowerState.ON)
+			return ACTIVE;
+		if (s == PowerState.BOOTING)
+			return BOOTING;
+		if (s == PowerState.OFF)
+			return OFF;
+		if (s == PowerState.SHUTTING_DOWN)
+			return SHUTTING_DOWN;
+		return OTHER;
+	}
 
-		Probe<?> _p = (getParent().getProbe(CpFailedHostsCountProbe.KEY));
+	private void updateHost(Host h) {
+		final Integer old = this.states.get(h);
+		if (old == null)
+			return;
+		final int state = stateOf(h);
+		if (state == old.intValue())
+			return;
+		this.counts[old.intValue()]--;
+		this.counts[state]++;
+		this.states.put(h, Integer.valueOf(state));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void setProbeValue(String probeKey, boolean create, long value) {
+		Probe<?> _p = getParent().getProbe(probeKey, create);
 		if (_p instanceof ModifiableProbe)
-			((ModifiableProbe<Long>) _p).setValue(Long.valueOf(s_failed));
+			((ModifiableProbe<Long>) _p).setValue(Long.valueOf(value));
+	}
+
+	/**
+	 * Updates the value of this probe and of the dependent probes.
+	 */
+	void updateValues() {
+		setValue(Long.valueOf(this.counts[ACTIVE]));
+
+		setProbeValue(CpFailedHostsCountProbe.KEY, true, this.counts[FAILED]);
+		setProbeValue(CpBootingHostsCountProbe.KEY, false, this.counts[BOOTING]);
+		setProbeValue(CpPoweredOffHostsCountProbe.KEY, false, this.counts[OFF]);
+		setProbeValue(CpShuttingDownHostsCountProbe.KEY, false, this.counts[SHUTTING_DOWN]);
 	}
 
-	private static void registerHost(Host h, NotificationListener l) {
+	private void registerHost(Host h, NotificationListener l) {
+		if (this.states.containsKey(h))
+			return;
 		h.addListener(NotificationCodes.POWER_STATE_CHANGED, l);
 		h.addListener(NotificationCodes.FAILURE_STATE_CHANGED, l);
+		final int state = stateOf(h);
+		this.counts[state]++;
+		this.states.put(h, Integer.valueOf(state));
 	}
 
-	private static void unregisterHost(Host h, NotificationListener l) {
+	private void unregisterHost(Host h, NotificationListener l) {
 		h.removeListener(NotificationCodes.POWER_STATE_CHANGED, l);
 		h.removeListener(NotificationCodes.FAILURE_STATE_CHANGED, l);
+		final Integer state = this.states.remove(h);
+		if (state != null)
+			this.counts[state.intValue()]--;
+	}
+
+	@Override
+	public void discard() {
+		super.discard();
+		this.states = null;
 	}
 
 	@Override
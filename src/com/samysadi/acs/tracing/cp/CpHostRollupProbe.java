@@ -0,0 +1,251 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+
+package com.samysadi.acs.tracing.cp;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.samysadi.acs.core.tracing.Probed;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.tracing.AbstractAggregateProbe;
+import com.samysadi.acs.utility.NotificationCodes;
+import com.samysadi.acs.utility.collections.infrastructure.Cloud;
+import com.samysadi.acs.utility.collections.infrastructure.Cluster;
+import com.samysadi.acs.utility.collections.infrastructure.Datacenter;
+import com.samysadi.acs.utility.collections.infrastructure.Rack;
+
+/**
+ * Probe for the sum, the maximum or the count of a host probe over the hosts of a rack, a cluster
+ * or a data-center of the cloud provider.
+ *
+ * <p>Racks, clusters and data-centers are not probed entities, so these probes belong to the cloud provider
+ * and their key tells which hosts and which host probe are aggregated:
+ * <tt>CpHostRollup-&lt;Aggregation&gt;-&lt;Scope&gt;&lt;Index&gt;-&lt;HostProbeKey&gt;</tt>, where:<ul>
+ * <li><tt>Aggregation</tt> is one of <tt>Sum</tt>, <tt>Max</tt> or <tt>Count</tt>;
+ * <li><tt>Scope</tt> is one of <tt>Rack</tt>, <tt>Cluster</tt> or <tt>Datacenter</tt>;
+ * <li><tt>Index</tt> is the index of the rack, cluster or data-center in the cloud (see {@link Cloud#getRacks()},
+ * {@link Cloud#getClusters()} and {@link Cloud#getDatacenters()});
+ * <li><tt>HostProbeKey</tt> is the key of the aggregated host probe. It is omitted for <tt>Count</tt> aggregations.
+ * </ul>
+ * For instance, <tt>CpHostRollup-Sum-Rack0-HostMips</tt> is the mips consumption of the hosts in the first rack.
+ * Such keys can be used like any other probe key, for instance to declare traces in the configuration.
+ * Use {@link CpHostRollupProbe#getKey(AbstractAggregateProbe.Aggregation, Scope, int, String)} to build keys.
+ *
+ * <p>The rack, cluster or data-center must exist when the probe is created.
+ *
+ * @since 1.3
+ */
+public class CpHostRollupProbe extends AbstractAggregateProbe {
+	public static final String KEY_PREFIX = CpHostRollupProbe.class.getSimpleName().substring(0,
+									CpHostRollupProbe.class.getSimpleName().length() - 5) + "-";
+
+	/**
+	 * Defines which hosts are aggregated.
+	 */
+	public enum Scope {
+		/**
+		 * Hosts of a rack
+		 */
+		RACK("Rack"),
+		/**
+		 * Hosts of a cluster
+		 */
+		CLUSTER("Cluster"),
+		/**
+		 * Hosts of a data-center
+		 */
+		DATACENTER("Datacenter");
+
+		private final String label;
+
+		private Scope(String label) {
+			this.label = label;
+		}
+	}
+
+	private String key = null;
+	private Aggregation aggregation;
+	private Scope scope;
+	private int index;
+	private String hostProbeKey;
+	/**
+	 * The rack, cluster or data-center whose hosts are aggregated
+	 */
+	private Object target;
+
+	/**
+	 * Returns the key of the probe that aggregates the given host probe over the hosts of the
+	 * rack, cluster or data-center at the given index.
+	 *
+	 * @param aggregation
+	 * @param scope
+	 * @param index the index of the rack, cluster or data-center in the cloud
+	 * @param hostProbeKey the key of the aggregated host probe, ignored for {@link Aggregation#COUNT} aggregations
+	 * @return the key of the probe
+	 */
+	public static String getKey(Aggregation aggregation, Scope scope, int index, String hostProbeKey) {
+		final StringBuilder s = new StringBuilder(KEY_PREFIX);
+		s.append(aggregation.name().charAt(0)).append(aggregation.name().substring(1).toLowerCase());
+		s.append('-').append(scope.label).append(index);
+		if (aggregation != Aggregation.COUNT)
+			s.append('-').append(hostProbeKey);
+		return s.toString();
+	}
+
+	/**
+	 * Sets the key of this probe, which defines what this probe aggregates.
+	 *
+	 * @param key
+	 * @throws IllegalArgumentException if the key is not valid, or if this probe is in use
+	 */
+	public void setKey(String key) {
+		if (!this.isDiscarded())
+			throw new IllegalArgumentException("You cannot change this probe's key when it is in use.");
+		if (key == null || !key.startsWith(KEY_PREFIX))
+			throw new IllegalArgumentException("Illegal key: " + key);
+
+		final String[] parts = key.substring(KEY_PREFIX.length()).split("-", 3);
+		Aggregation aggregation = null;
+		for (Aggregation a: Aggregation.values())
+			if (a.name().equalsIgnoreCase(parts[0]))
+				aggregation = a;
+		Scope scope = null;
+		if (parts.length > 1)
+			for (Scope s: Scope.values())
+				if (parts[1].startsWith(s.label))
+					scope = s;
+		if (aggregation == null || scope == null ||
+				(aggregation == Aggregation.COUNT ? parts.length != 2 : parts.length != 3 || parts[2].isEmpty()))
+			throw new IllegalArgumentException("Illegal key: " + key);
+		try {
+			this.index = Integer.parseInt(parts[1].substring(scope.label.length()));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Illegal key: " + key);
+		}
+
+		this.key = key;
+		this.aggregation = aggregation;
+		this.scope = scope;
+		this.hostProbeKey = aggregation == Aggregation.COUNT ? null : parts[2];
+	}
+
+	@Override
+	public void setup(Probed parent) {
+		if (!(parent instanceof CloudProvider))
+			throw new IllegalArgumentException("Illegal Parent");
+		if (this.key == null)
+			throw new IllegalArgumentException("You need to set a key for this probe first, before using it.");
+
+		final Cloud cloud = ((CloudProvider) parent).getCloud();
+		final List<?> l = this.scope == Scope.RACK ? cloud.getRacks() :
+			(this.scope == Scope.CLUSTER ? cloud.getClusters() : cloud.getDatacenters());
+		if (this.index < 0 || this.index >= l.size())
+			throw new IllegalArgumentException("No " + this.scope.label + " at index " + this.index + " for the probe: " + this.key);
+		this.target = l.get(this.index);
+
+		super.setup(parent);
+	}
+
+	/**
+	 * Returns the scope of this probe.
+	 *
+	 * @return the scope of this probe
+	 */
+	public Scope getScope() {
+		return this.scope;
+	}
+
+	/**
+	 * Returns the index of the aggregated rack, cluster or data-center in the cloud.
+	 *
+	 * @return the index of the aggregated rack, cluster or data-center in the cloud
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	@Override
+	protected Aggregation getAggregation() {
+		return this.aggregation;
+	}
+
+	@Override
+	protected String getChildProbeKey() {
+		return this.hostProbeKey;
+	}
+
+	@Override
+	protected int getChildAddedNotificationCode() {
+		return NotificationCodes.ENTITY_ADDED;
+	}
+
+	@Override
+	protected int getChildRemovedNotificationCode() {
+		return NotificationCodes.ENTITY_REMOVED;
+	}
+
+	@Override
+	protected boolean isChild(Object entity) {
+		if (!(entity instanceof Host) || ((Host) entity).getParent() != getParent())
+			return false;
+		final Rack rack = ((Host) entity).getRack();
+		if (rack == null)
+			return false;
+		if (this.scope == Scope.RACK)
+			return rack == this.target;
+		final Cluster cluster = rack.getCluster();
+		if (cluster == null)
+			return false;
+		if (this.scope == Scope.CLUSTER)
+			return cluster == this.target;
+		return cluster.getDatacenter() == this.target;
+	}
+
+	@Override
+	protected Iterable<? extends Probed> getChildren() {
+		if (this.target == null)
+			return Collections.emptyList();
+		if (this.scope == Scope.RACK)
+			return ((Rack) this.target).getHosts();
+		if (this.scope == Scope.CLUSTER)
+			return ((Cluster) this.target).getHosts();
+		return ((Datacenter) this.target).getHosts();
+	}
+
+	@Override
+	public void discard() {
+		super.discard();
+		this.target = null;
+	}
+
+	@Override
+	public String getKey() {
+		return this.key;
+	}
+}
@@ -26,13 +26,10 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.tracing.host;
 
-import com.samysadi.acs.core.notifications.NotificationListener;
-import com.samysadi.acs.core.notifications.Notifier;
-import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.probetypes.DataRateProbe;
 import com.samysadi.acs.hardware.Host;
-import com.samysadi.acs.tracing.AbstractProbe;
+import com.samysadi.acs.tracing.AbstractAggregateProbe;
 import com.samysadi.acs.tracing.vm.VmDownBwCloudProbe;
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.virtualization.VirtualMachine;
@@ -41,7 +38,7 @@ import com.samysadi.acs.virtualization.VirtualMachine;
  *
  * @since 1.0
  */
-public class HostDownBwCloudProbe extends AbstractProbe<Long> implements DataRateProbe {
+public class HostDownBwCloudProbe extends AbstractAggregateProbe implements DataRateProbe {
 	public static final String KEY = HostDownBwCloudProbe.class.getSimpleName().substring(0,
 									HostDownBwCloudProbe.class.getSimpleName().length() - 5);
 
@@ -50,43 +47,31 @@ public class HostDownBwCloudProbe extends AbstractProbe<Long> implements DataRat
 		if (!(parent instanceof Host))
 			throw new IllegalArgumentException("Illegal Parent");
 		super.setup(parent);
+	}
 
-		//register listeners
-		{
-			NotificationListener l = new NotificationListener() {
-				@Override
-				protected void notificationPerformed(Notifier notifier,
-						int notification_code, Object data) {
-					if (notification_code == NotificationCodes.ENTITY_ADDED
-							&& data instanceof VirtualMachine) {
-						((Probed) data).getProbe(VmDownBwCloudProbe.KEY).addListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					} else if (notification_code == NotificationCodes.ENTITY_REMOVED
-							&& data instanceof VirtualMachine) {
-						((Probed) data).getProbe(VmDownBwCloudProbe.KEY).removeListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					}
-					HostDownBwCloudProbe.this.recomputeValue();
-				}
-			};
+	@Override
+	protected String getChildProbeKey() {
+		return VmDownBwCloudProbe.KEY;
+	}
+
+	@Override
+	protected int getChildAddedNotificationCode() {
+		return NotificationCodes.ENTITY_ADDED;
+	}
 
-			registeredListener(l);
+	@Override
+	protected int getChildRemovedNotificationCode() {
+		return NotificationCodes.ENTITY_REMOVED;
+	}
 
-			((Notifier) getParent()).addListener(NotificationCodes.ENTITY_ADDED, l);
-			((Notifier) getParent()).addListener(NotificationCodes.ENTITY_REMOVED, l);
-			for (VirtualMachine vm: ((Host)getParent()).getVirtualMachines()) {
-					Probe<?> p = vm.getProbe(VmDownBwCloudProbe.KEY);
-					p.addListener(NotificationCodes.PROBE_VALUE_CHANGED, l);
-				}
-			recomputeValue();
-		}
+	@Override
+	protected boolean isChild(Object entity) {
+		return (entity instanceof VirtualMachine) && ((VirtualMachine) entity).getParent() == getParent();
 	}
 
-	private void recomputeValue() {
-		long v = 0;
-		for (VirtualMachine vm: ((Host)getParent()).getVirtualMachines()) {
-				Probe<?> p = vm.getProbe(VmDownBwCloudProbe.KEY);
-				v+= ((Number) p.getValue()).longValue();
-			}
-		setValue(Long.valueOf(v));
+	@Override
+	protected Iterable<? extends Probed> getChildren() {
+		return ((Host) getParent()).getVirtualMachines();
 	}
 
 	@Override
@@ -26,13 +26,13 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.tracing.host;
 
+import com.samysadi.acs.core.Config;
 import com.samysadi.acs.core.Simulator;
 import com.samysadi.acs.core.entity.Entity;
 import com.samysadi.acs.core.entity.FailureProneEntity.FailureState;
 import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
 import com.samysadi.acs.core.notifications.NotificationListener;
 import com.samysadi.acs.core.notifications.Notifier;
-import com.samysadi.acs.core.tracing.ModifiableProbe;
 import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.probetypes.PowerProbe;
@@ -88,6 +88,28 @@ public class HostPowerProbe extends AbstractProbe<Long> implements PowerProbe {
 		}
 	}
 
+	/**
+	 * The power model of a host, as read from its configuration.
+	 */
+	private static final class PowerModel {
+		private static final Config.SnapshotFactory<PowerModel> FACTORY = new Config.SnapshotFactory<PowerModel>() {
+			@Override
+			public PowerModel newSnapshot(Config config) {
+				return new PowerModel(config);
+			}
+		};
+
+		//maximum power when host is fully used
+		private final long maxPower;
+		//idle power fraction
+		private final double idleFraction;
+
+		private PowerModel(Config config) {
+			this.maxPower = config.getLong("PowerConsumption", 250l) * Simulator.WATT;
+			this.idleFraction = config.getDouble("PowerPercentageWhenIdle", 0.7d);
+		}
+	}
+
 	private void recomputeValue() {
 		if (((Host)HostPowerProbe.this.getParent()).getPowerState() != PowerState.ON ||
 				((Host)HostPowerProbe.this.getParent()).getFailureState() != FailureState.OK) {
@@ -97,10 +119,11 @@ public class HostPowerProbe extends AbstractProbe<Long> implements PowerProbe {
 
 		Probe<?> p = ((Host)HostPowerProbe.this.getParent()).getProbe(HostMipsProbe.KEY);
 
+		final PowerModel model = ((Host)HostPowerProbe.this.getParent()).getConfig().getSnapshot(PowerModel.FACTORY);
 		//maximum power when host is fully used
-		long Pmax	= ((Host)HostPowerProbe.this.getParent()).getConfig().getLong("PowerConsumption", 250l) * Simulator.WATT;
+		long Pmax	= model.maxPower;
 		//idle power fraction
-		double k	= ((Host)HostPowerProbe.this.getParent()).getConfig().getDouble("PowerPercentageWhenIdle", 0.7d);
+		double k	= model.idleFraction;
 		//cpu usage
 		long uCurrent	= ((Long)p.getValue()).longValue();
 		long uTotal		= 0;
@@ -115,7 +138,6 @@ public class HostPowerProbe extends AbstractProbe<Long> implements PowerProbe {
 		setValue(Long.valueOf(power));
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	protected void setValue(Long value) {
 		if (value != null) {
@@ -128,11 +150,8 @@ public class HostPowerProbe extends AbstractProbe<Long> implements PowerProbe {
 
 			{ //update Cp probes if needed
 				Entity e = ((Host)this.getParent()).getCloudProvider();
-				if (e != null) {
-					Probe<?> cp = e.getProbe(CpHostsPowerProbe.KEY);
-					if (cp instanceof ModifiableProbe<?>)
-						((ModifiableProbe<Long>) cp).setValue(((ModifiableProbe<Long>) cp).getValue() + delta);
-				}
+				if (e != null)
+					addToProbe(e.getProbe(CpHostsPowerProbe.KEY), delta);
 			}
 		} else
 			super.setValue(null);
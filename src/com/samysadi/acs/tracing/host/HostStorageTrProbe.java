@@ -27,14 +27,11 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 package com.samysadi.acs.tracing.host;
 
 import com.samysadi.acs.core.entity.Entity;
-import com.samysadi.acs.core.notifications.NotificationListener;
-import com.samysadi.acs.core.notifications.Notifier;
-import com.samysadi.acs.core.tracing.ModifiableProbe;
 import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.probetypes.DataRateProbe;
 import com.samysadi.acs.hardware.Host;
-import com.samysadi.acs.tracing.AbstractProbe;
+import com.samysadi.acs.tracing.AbstractAggregateProbe;
 import com.samysadi.acs.tracing.cp.CpStorageTrProbe;
 import com.samysadi.acs.tracing.vm.VmStorageTrProbe;
 import com.samysadi.acs.utility.NotificationCodes;
@@ -44,7 +41,7 @@ import com.samysadi.acs.virtualization.VirtualMachine;
  *
  * @since 1.0
  */
-public class HostStorageTrProbe extends AbstractProbe<Long> implements DataRateProbe {
+public class HostStorageTrProbe extends AbstractAggregateProbe implements DataRateProbe {
 	public static final String KEY = HostStorageTrProbe.class.getSimpleName().substring(0,
 									HostStorageTrProbe.class.getSimpleName().length() - 5);
 
@@ -53,66 +50,37 @@ public class HostStorageTrProbe extends AbstractProbe<Long> implements DataRateP
 		if (!(parent instanceof Host))
 			throw new IllegalArgumentException("Illegal Parent");
 		super.setup(parent);
+	}
+
+	@Override
+	protected String getChildProbeKey() {
+		return VmStorageTrProbe.KEY;
+	}
+
+	@Override
+	protected int getChildAddedNotificationCode() {
+		return NotificationCodes.ENTITY_ADDED;
+	}
+
+	@Override
+	protected int getChildRemovedNotificationCode() {
+		return NotificationCodes.ENTITY_REMOVED;
+	}
 
-		//register listeners
-		{
-			NotificationListener l = new NotificationListener() {
-				@Override
-				protected void notificationPerformed(Notifier notifier,
-						int notification_code, Object data) {
-					if (notification_code == NotificationCodes.ENTITY_ADDED
-							&& data instanceof VirtualMachine) {
-						((Probed) data).getProbe(VmStorageTrProbe.KEY).addListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					} else if (notification_code == NotificationCodes.ENTITY_REMOVED
-							&& data instanceof VirtualMachine) {
-						((Probed) data).getProbe(VmStorageTrProbe.KEY).removeListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					}
-					HostStorageTrProbe.this.recomputeValue();
-				}
-			};
-
-			registeredListener(l);
-
-			((Notifier) getParent()).addListener(NotificationCodes.ENTITY_ADDED, l);
-			((Notifier) getParent()).addListener(NotificationCodes.ENTITY_REMOVED, l);
-			for (VirtualMachine vm: ((Host)getParent()).getVirtualMachines()) {
-					Probe<?> p = vm.getProbe(VmStorageTrProbe.KEY);
-					p.addListener(NotificationCodes.PROBE_VALUE_CHANGED, l);
-				}
-			recomputeValue();
-		}
+	@Override
+	protected boolean isChild(Object entity) {
+		return (entity instanceof VirtualMachine) && ((VirtualMachine) entity).getParent() == getParent();
 	}
 
-	private void recomputeValue() {
-		long v = 0;
-		for (VirtualMachine vm: ((Host)getParent()).getVirtualMachines()) {
-				Probe<?> p = vm.getProbe(VmStorageTrProbe.KEY);
-				v+= ((Number) p.getValue()).longValue();
-			}
-		setValue(Long.valueOf(v));
+	@Override
+	protected Iterable<? extends Probed> getChildren() {
+		return ((Host) getParent()).getVirtualMachines();
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	protected void setValue(Long value) {
-		if (value != null) {
-			if (value < 0l)
-				throw new IllegalStateException("Negative value");
-
-			long delta = value.longValue() - (getValue() == null ? 0l : getValue().longValue());
-
-			super.setValue(value);
-
-			{ //update Cp probes if needed
-				Entity e = ((Host)this.getParent()).getCloudProvider();
-				if (e != null) {
-					Probe<?> cp = e.getProbe(CpStorageTrProbe.KEY);
-					if (cp instanceof ModifiableProbe<?>)
-						((ModifiableProbe<Long>) cp).setValue(((ModifiableProbe<Long>) cp).getValue() + delta);
-				}
-			}
-		} else
-			super.setValue(null);
+	protected Probe<?> getRollupProbe() {
+		Entity e = ((Host) getParent()).getCloudProvider();
+		return e == null ? null : e.getProbe(CpStorageTrProbe.KEY);
 	}
 
 	@Override
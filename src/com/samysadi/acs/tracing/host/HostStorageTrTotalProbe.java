@@ -49,7 +49,7 @@ public class HostStorageTrTotalProbe extends AbstractLongIntegratorProbe impleme
 
 	@Override
 	protected Probe<?> getWatchedProbe() {
-		return ((Host)HostStorageTrTotalProbe.this.getParent()).getProbe(HostStorageTrTotalProbe.KEY);
+		return ((Host)HostStorageTrTotalProbe.this.getParent()).getProbe(HostStorageTrProbe.KEY);
 	}
 
 	@Override
@@ -26,23 +26,19 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.tracing.job;
 
-import com.samysadi.acs.core.notifications.NotificationListener;
-import com.samysadi.acs.core.notifications.Notifier;
-import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.probetypes.MipsProbe;
 import com.samysadi.acs.hardware.pu.operation.ComputingOperation;
-import com.samysadi.acs.tracing.AbstractProbe;
+import com.samysadi.acs.tracing.AbstractAggregateProbe;
 import com.samysadi.acs.tracing.op.OpMipsProbe;
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.virtualization.job.Job;
-import com.samysadi.acs.virtualization.job.operation.Operation;
 
 /**
  *
  * @since 1.0
  */
-public class JobMipsProbe extends AbstractProbe<Long> implements MipsProbe {
+public class JobMipsProbe extends AbstractAggregateProbe implements MipsProbe {
 	public static final String KEY = JobMipsProbe.class.getSimpleName().substring(0,
 									JobMipsProbe.class.getSimpleName().length() - 5);
 
@@ -51,46 +47,31 @@ public class JobMipsProbe extends AbstractProbe<Long> implements MipsProbe {
 		if (!(parent instanceof Job))
 			throw new IllegalArgumentException("Illegal Parent");
 		super.setup(parent);
+	}
 
-		//register listeners
-		{
-			NotificationListener l = new NotificationListener() {
-				@Override
-				protected void notificationPerformed(Notifier notifier,
-						int notification_code, Object data) {
-					if (notification_code == NotificationCodes.JOB_SRC_OPERATION_ADDED
-							&& data instanceof ComputingOperation) {
-						((Probed) data).getProbe(OpMipsProbe.KEY).addListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					} else if (notification_code == NotificationCodes.JOB_SRC_OPERATION_REMOVED
-							&& data instanceof ComputingOperation) {
-						((Probed) data).getProbe(OpMipsProbe.KEY).removeListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					}
-					JobMipsProbe.this.recomputeValue();
-				}
-			};
+	@Override
+	protected String getChildProbeKey() {
+		return OpMipsProbe.KEY;
+	}
 
-			registeredListener(l);
-			((Notifier) getParent()).addListener(NotificationCodes.JOB_SRC_OPERATION_ADDED, l);
-			((Notifier) getParent()).addListener(NotificationCodes.JOB_SRC_OPERATION_REMOVED, l);
+	@Override
+	protected int getChildAddedNotificationCode() {
+		return NotificationCodes.JOB_SRC_OPERATION_ADDED;
+	}
 
-			for (Operation<?> op: ((Job)getParent()).getOperations())
-				if (op instanceof ComputingOperation) {
-					Probe<?> p = op.getProbe(OpMipsProbe.KEY);
-					p.addListener(NotificationCodes.PROBE_VALUE_CHANGED, l);
-				}
+	@Override
+	protected int getChildRemovedNotificationCode() {
+		return NotificationCodes.JOB_SRC_OPERATION_REMOVED;
+	}
 
-			recomputeValue();
-		}
+	@Override
+	protected boolean isChild(Object entity) {
+		return (entity instanceof ComputingOperation) && ((ComputingOperation) entity).getParent() == getParent();
 	}
 
-	private void recomputeValue() {
-		long v = 0;
-		for (Operation<?> op: ((Job)getParent()).getOperations())
-			if (op instanceof ComputingOperation) {
-				Probe<?> p = op.getProbe(OpMipsProbe.KEY);
-				v+= ((Number) p.getValue()).longValue();
-			}
-		setValue(Long.valueOf(v));
+	@Override
+	protected Iterable<? extends Probed> getChildren() {
+		return ((Job) getParent()).getOperations();
 	}
 
 	@Override
@@ -26,23 +26,19 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.tracing.job;
 
-import com.samysadi.acs.core.notifications.NotificationListener;
-import com.samysadi.acs.core.notifications.Notifier;
-import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.probetypes.DataRateProbe;
 import com.samysadi.acs.hardware.storage.operation.StorageOperation;
-import com.samysadi.acs.tracing.AbstractProbe;
+import com.samysadi.acs.tracing.AbstractAggregateProbe;
 import com.samysadi.acs.tracing.op.OpStorageTrProbe;
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.virtualization.job.Job;
-import com.samysadi.acs.virtualization.job.operation.Operation;
 
 /**
  *
  * @since 1.0
  */
-public class JobStorageTrProbe extends AbstractProbe<Long> implements DataRateProbe {
+public class JobStorageTrProbe extends AbstractAggregateProbe implements DataRateProbe {
 	public static final String KEY = JobStorageTrProbe.class.getSimpleName().substring(0,
 									JobStorageTrProbe.class.getSimpleName().length() - 5);
 
@@ -51,46 +47,31 @@ public class JobStorageTrProbe extends AbstractProbe<Long> implements DataRatePr
 		if (!(parent instanceof Job))
 			throw new IllegalArgumentException("Illegal Parent");
 		super.setup(parent);
+	}
 
-		//register listeners
-		{
-			NotificationListener l = new NotificationListener() {
-				@Override
-				protected void notificationPerformed(Notifier notifier,
-						int notification_code, Object data) {
-					if (notification_code == NotificationCodes.JOB_SRC_OPERATION_ADDED
-							&& data instanceof StorageOperation) {
-						((Probed) data).getProbe(OpStorageTrProbe.KEY).addListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					} else if (notification_code == NotificationCodes.JOB_SRC_OPERATION_REMOVED
-							&& data instanceof StorageOperation) {
-						((Probed) data).getProbe(OpStorageTrProbe.KEY).removeListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					}
-					JobStorageTrProbe.this.recomputeValue();
-				}
-			};
+	@Override
+	protected String getChildProbeKey() {
+		return OpStorageTrProbe.KEY;
+	}
 
-			registeredListener(l);
-			((Notifier) getParent()).addListener(NotificationCodes.JOB_SRC_OPERATION_ADDED, l);
-			((Notifier) getParent()).addListener(NotificationCodes.JOB_SRC_OPERATION_REMOVED, l);
+	@Override
+	protected int getChildAddedNotificationCode() {
+		return NotificationCodes.JOB_SRC_OPERATION_ADDED;
+	}
 
-			for (Operation<?> op: ((Job)getParent()).getOperations())
-				if (op instanceof StorageOperation) {
-					Probe<?> p = op.getProbe(OpStorageTrProbe.KEY);
-					p.addListener(NotificationCodes.PROBE_VALUE_CHANGED, l);
-				}
+	@Override
+	protected int getChildRemovedNotificationCode() {
+		return NotificationCodes.JOB_SRC_OPERATION_REMOVED;
+	}
 
-			recomputeValue();
-		}
+	@Override
+	protected boolean isChild(Object entity) {
+		return (entity instanceof StorageOperation) && ((StorageOperation) entity).getParent() == getParent();
 	}
 
-	private void recomputeValue() {
-		long v = 0;
-		for (Operation<?> op: ((Job)getParent()).getOperations())
-			if (op instanceof StorageOperation) {
-				Probe<?> p = op.getProbe(OpStorageTrProbe.KEY);
-				v+= ((Number) p.getValue()).longValue();
-			}
-		setValue(Long.valueOf(v));
+	@Override
+	protected Iterable<? extends Probed> getChildren() {
+		return ((Job) getParent()).getOperations();
 	}
 
 	@Override
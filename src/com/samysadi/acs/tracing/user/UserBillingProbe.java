@@ -33,7 +33,6 @@ import com.samysadi.acs.core.Simulator;
 import com.samysadi.acs.core.entity.Entity;
 import com.samysadi.acs.core.notifications.NotificationListener;
 import com.samysadi.acs.core.notifications.Notifier;
-import com.samysadi.acs.core.tracing.ModifiableProbe;
 import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.probetypes.PriceProbe;
@@ -164,7 +163,6 @@ public class UserBillingProbe extends AbstractProbe<Long> implements PriceProbe
 		lastTime = null;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	protected void setValue(Long value) {
 		if (value != null) {
@@ -177,11 +175,8 @@ public class UserBillingProbe extends AbstractProbe<Long> implements PriceProbe
 
 			{ //update Cp probes if needed
 				Entity e = ((User)this.getParent()).getParent();
-				if (e != null) {
-					Probe<?> cp = e.getProbe(CpUserBillingProbe.KEY);
-					if (cp instanceof ModifiableProbe<?>)
-						((ModifiableProbe<Long>) cp).setValue(((ModifiableProbe<Long>) cp).getValue() + delta);
-				}
+				if (e != null)
+					addToProbe(e.getProbe(CpUserBillingProbe.KEY), delta);
 			}
 		} else
 			super.setValue(null);
@@ -26,12 +26,9 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.tracing.user;
 
-import com.samysadi.acs.core.notifications.NotificationListener;
-import com.samysadi.acs.core.notifications.Notifier;
-import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.probetypes.DataRateProbe;
-import com.samysadi.acs.tracing.AbstractProbe;
+import com.samysadi.acs.tracing.AbstractAggregateProbe;
 import com.samysadi.acs.tracing.vm.VmDownBwProbe;
 import com.samysadi.acs.user.User;
 import com.samysadi.acs.utility.NotificationCodes;
@@ -41,7 +38,7 @@ import com.samysadi.acs.virtualization.VirtualMachine;
  *
  * @since 1.0
  */
-public class UserDownBwProbe extends AbstractProbe<Long> implements DataRateProbe {
+public class UserDownBwProbe extends AbstractAggregateProbe implements DataRateProbe {
 	public static final String KEY = UserDownBwProbe.class.getSimpleName().substring(0,
 									UserDownBwProbe.class.getSimpleName().length() - 5);
 
@@ -50,41 +47,31 @@ public class UserDownBwProbe extends AbstractProbe<Long> implements DataRateProb
 		if (!(parent instanceof User))
 			throw new IllegalArgumentException("Illegal Parent");
 		super.setup(parent);
+	}
 
-		//register listeners
-		{
-			NotificationListener l = new NotificationListener() {
-				@Override
-				protected void notificationPerformed(Notifier notifier,
-						int notification_code, Object data) {
-					if (notification_code == NotificationCodes.USER_VM_ATTACHED) {
-						((Probed) data).getProbe(VmDownBwProbe.KEY).addListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					} else if (notification_code == NotificationCodes.USER_VM_DETACHED) {
-						((Probed) data).getProbe(VmDownBwProbe.KEY).removeListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					}
-					UserDownBwProbe.this.recomputeValue();
-				}
-			};
+	@Override
+	protected String getChildProbeKey() {
+		return VmDownBwProbe.KEY;
+	}
+
+	@Override
+	protected int getChildAddedNotificationCode() {
+		return NotificationCodes.USER_VM_ATTACHED;
+	}
 
-			registeredListener(l);
+	@Override
+	protected int getChildRemovedNotificationCode() {
+		return NotificationCodes.USER_VM_DETACHED;
+	}
 
-			((Notifier) getParent()).addListener(NotificationCodes.USER_VM_ATTACHED, l);
-			((Notifier) getParent()).addListener(NotificationCodes.USER_VM_DETACHED, l);
-			for (VirtualMachine vm: ((User)getParent()).getVirtualMachines()) {
-					Probe<?> p = vm.getProbe(VmDownBwProbe.KEY);
-					p.addListener(NotificationCodes.PROBE_VALUE_CHANGED, l);
-				}
-			recomputeValue();
-		}
+	@Override
+	protected boolean isChild(Object entity) {
+		return (entity instanceof VirtualMachine) && ((VirtualMachine) entity).getUser() == getParent();
 	}
 
-	private void recomputeValue() {
-		long v = 0;
-		for (VirtualMachine vm: ((User)getParent()).getVirtualMachines()) {
-				Probe<?> p = vm.getProbe(VmDownBwProbe.KEY);
-				v+= ((Number) p.getValue()).longValue();
-			}
-		setValue(Long.valueOf(v));
+	@Override
+	protected Iterable<? extends Probed> getChildren() {
+		return ((User) getParent()).getVirtualMachines();
 	}
 
 	@Override
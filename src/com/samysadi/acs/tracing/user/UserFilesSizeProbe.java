@@ -26,14 +26,11 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.tracing.user;
 
-import com.samysadi.acs.core.notifications.NotificationListener;
-import com.samysadi.acs.core.notifications.Notifier;
-import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.probetypes.DataSizeProbe;
 import com.samysadi.acs.hardware.storage.StorageFile;
 import com.samysadi.acs.hardware.storage.VirtualStorage;
-import com.samysadi.acs.tracing.AbstractProbe;
+import com.samysadi.acs.tracing.AbstractAggregateProbe;
 import com.samysadi.acs.tracing.mz.MzSizeProbe;
 import com.samysadi.acs.user.User;
 import com.samysadi.acs.utility.NotificationCodes;
@@ -43,7 +40,7 @@ import com.samysadi.acs.utility.NotificationCodes;
  *
  * @since 1.0
  */
-public class UserFilesSizeProbe extends AbstractProbe<Long> implements DataSizeProbe {
+public class UserFilesSizeProbe extends AbstractAggregateProbe implements DataSizeProbe {
 	public static final String KEY = UserFilesSizeProbe.class.getSimpleName().substring(0,
 									UserFilesSizeProbe.class.getSimpleName().length() - 5);
 
@@ -52,45 +49,32 @@ public class UserFilesSizeProbe extends AbstractProbe<Long> implements DataSizeP
 		if (!(parent instanceof User))
 			throw new IllegalArgumentException("Illegal Parent");
 		super.setup(parent);
+	}
 
-		//register listeners
-		{
-			NotificationListener l = new NotificationListener() {
-				@Override
-				protected void notificationPerformed(Notifier notifier,
-						int notification_code, Object data) {
-					if (data instanceof VirtualStorage)
-						return;
-					if (notification_code == NotificationCodes.USER_STORAGEFILE_ATTACHED) {
-						((Probed) data).getProbe(MzSizeProbe.KEY).addListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					} else if (notification_code == NotificationCodes.USER_STORAGEFILE_DETACHED) {
-						((Probed) data).getProbe(MzSizeProbe.KEY).removeListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					}
-					UserFilesSizeProbe.this.recomputeValue();
-				}
-			};
+	@Override
+	protected String getChildProbeKey() {
+		return MzSizeProbe.KEY;
+	}
+
+	@Override
+	protected int getChildAddedNotificationCode() {
+		return NotificationCodes.USER_STORAGEFILE_ATTACHED;
+	}
 
-			registeredListener(l);
+	@Override
+	protected int getChildRemovedNotificationCode() {
+		return NotificationCodes.USER_STORAGEFILE_DETACHED;
+	}
 
-			((Notifier) getParent()).addListener(NotificationCodes.USER_STORAGEFILE_ATTACHED, l);
-			((Notifier) getParent()).addListener(NotificationCodes.USER_STORAGEFILE_DETACHED, l);
-			for (StorageFile sf: ((User)getParent()).getStorageFiles()) {
-					Probe<?> p = sf.getProbe(MzSizeProbe.KEY);
-					p.addListener(NotificationCodes.PROBE_VALUE_CHANGED, l);
-				}
-			recomputeValue();
-		}
+	@Override
+	protected boolean isChild(Object entity) {
+		return (entity instanceof StorageFile) && !(entity instanceof VirtualStorage) &&
+				((StorageFile) entity).getUser() == getParent();
 	}
 
-	private void recomputeValue() {
-		long v = 0;
-		for (StorageFile sf: ((User)getParent()).getStorageFiles()) {
-				if (sf instanceof VirtualStorage)
-					continue;
-				Probe<?> p = sf.getProbe(MzSizeProbe.KEY);
-				v+= ((Number) p.getValue()).longValue();
-			}
-		setValue(Long.valueOf(v));
+	@Override
+	protected Iterable<? extends Probed> getChildren() {
+		return ((User) getParent()).getStorageFiles();
 	}
 
 	@Override
@@ -26,12 +26,9 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.tracing.vm;
 
-import com.samysadi.acs.core.notifications.NotificationListener;
-import com.samysadi.acs.core.notifications.Notifier;
-import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.probetypes.DataRateProbe;
-import com.samysadi.acs.tracing.AbstractProbe;
+import com.samysadi.acs.tracing.AbstractAggregateProbe;
 import com.samysadi.acs.tracing.job.JobDownBwInternetProbe;
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.virtualization.VirtualMachine;
@@ -41,7 +38,7 @@ import com.samysadi.acs.virtualization.job.Job;
  *
  * @since 1.0
  */
-public class VmDownBwInternetProbe extends AbstractProbe<Long> implements DataRateProbe {
+public class VmDownBwInternetProbe extends AbstractAggregateProbe implements DataRateProbe {
 	public static final String KEY = VmDownBwInternetProbe.class.getSimpleName().substring(0,
 									VmDownBwInternetProbe.class.getSimpleName().length() - 5);
 
@@ -50,43 +47,31 @@ public class VmDownBwInternetProbe extends AbstractProbe<Long> implements DataRa
 		if (!(parent instanceof VirtualMachine))
 			throw new IllegalArgumentException("Illegal Parent");
 		super.setup(parent);
+	}
 
-		//register listeners
-		{
-			NotificationListener l = new NotificationListener() {
-				@Override
-				protected void notificationPerformed(Notifier notifier,
-						int notification_code, Object data) {
-					if (notification_code == NotificationCodes.ENTITY_ADDED
-							&& data instanceof Job) {
-						((Probed) data).getProbe(JobDownBwInternetProbe.KEY).addListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					} else if (notification_code == NotificationCodes.ENTITY_REMOVED
-							&& data instanceof Job) {
-						((Probed) data).getProbe(JobDownBwInternetProbe.KEY).removeListener(NotificationCodes.PROBE_VALUE_CHANGED, this);
-					}
-					VmDownBwInternetProbe.this.recomputeValue();
-				}
-			};
+	@Override
+	protected String getChildProbeKey() {
+		return JobDownBwInternetProbe.KEY;
+	}
+
+	@Override
+	protected int getChildAddedNotificationCode() {
+		return NotificationCodes.ENTITY_ADDED;
+	}
 
-			registeredListener(l);
+	@Override
+	protected int getChildRemovedNotificationCode() {
+		return NotificationCodes.ENTITY_REMOVED;
+	}
 
-			((Notifier) getParent()).addListener(NotificationCodes.ENTITY_ADDED, l);
-			((Notifier) getParent()).addListener(NotificationCodes.ENTITY_REMOVED, l);
-			for (Job job: ((VirtualMachine)getParent()).getJobs()) {
-					Probe<?> p = job.getProbe(JobDownBwInternetProbe.KEY);
-					p.addListener(NotificationCodes.PROBE_VALUE_CHANGED, l);
-				}
-			recomputeValue();
-		}
+	@Override
+	protected boolean isChild(Object entity) {
+		return (entity instanceof Job) && ((Job) entity).getParent() == getParent();
 	}
 
-	private void recomputeValue() {
-		long v = 0;
-		for (Job job: ((VirtualMachine)getParent()).getJobs()) {
-				Probe<?> p = job.getProbe(JobDownBwInternetProbe.KEY);
-				v+= ((Number) p.getValue()).longValue();
-			}
-		setValue(Long.valueOf(v));
+	@Override
+	protected Iterable<? extends Probed> getChildren() {
+		return ((VirtualMachine) getParent()).getJobs();
 	}
 
 	@Override
@@ -26,6 +26,7 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.utility;
 
+import com.samysadi.acs.core.Simulator;
 import com.samysadi.acs.utility.collections.Bitmap;
 
 /**
@@ -36,8 +37,9 @@ import com.samysadi.acs.utility.collections.Bitmap;
  * @since 1.0
  */
 public class IpAddress {
-	private static final Bitmap usedIpAddresses = new Bitmap();
-	private static long ipAddressCounter = 1l;
+	private static final Object ADDRESS_SPACE_KEY = new Object();
+	//address space used outside of any simulation
+	private static final AddressSpace globalAddressSpace = new AddressSpace();
 	public static final IpAddress ipMin = new IpAddress(0l);
 	public static final IpAddress ipMax = new IpAddress(Bitmap.MAX_BITMAP_SIZE-1);
 	private Long ip;
@@ -45,7 +47,10 @@ public class IpAddress {
 	public IpAddress(Long ip) {
 		super();
 		this.ip = ip;
-		usedIpAddresses.mark(this.ip, 1l);
+		final AddressSpace space = getAddressSpace();
+		synchronized (space) {
+			space.used.mark(this.ip, 1l);
+		}
 	}
 
 	public IpAddress(IpAddress o) {
@@ -246,9 +251,37 @@ public class IpAddress {
 	 * @return a {@link IpAddress}
 	 */
 	public static IpAddress newIpAddress() {
-		while (usedIpAddresses.isMarked(ipAddressCounter))
-			ipAddressCounter++;
+		final AddressSpace space = getAddressSpace();
+		final long ip;
+		synchronized (space) {
+			while (space.used.isMarked(space.counter))
+				space.counter++;
+			ip = space.counter;
+		}
+
+		return new IpAddress(ip);
+	}
+
+	/**
+	 * Used addresses of a simulation.
+	 *
+	 * <p>Each simulator has its own address space, so that simulations running
+	 * concurrently in other threads get the same addresses as if they were run alone.
+	 */
+	private static final class AddressSpace {
+		private final Bitmap used = new Bitmap();
+		private long counter = 1l;
+	}
 
-		return new IpAddress(ipAddressCounter);
+	private static AddressSpace getAddressSpace() {
+		final Simulator simulator = Simulator.getSimulator();
+		if (simulator == null)
+			return globalAddressSpace;
+		AddressSpace space = (AddressSpace) simulator.getProperty(ADDRESS_SPACE_KEY);
+		if (space == null) {
+			space = new AddressSpace();
+			simulator.setProperty(ADDRESS_SPACE_KEY, space);
+		}
+		return space;
 	}
 }
@@ -0,0 +1,226 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.utility.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A list of distinct elements backed by an array, which offers constant time
+ * random access, insertion, removal and lookup of elements.
+ *
+ * <p>Each element's position is kept in an open addressing hash table (with linear probing), so
+ * adding or removing elements does not allocate any object. Elements are compared using their identity
+ * (<tt>==</tt>) and not using their {@link Object#equals(Object)} method, and <tt>null</tt> elements are not permitted.
+ *
+ * <p>Elements are always added at the end of the list, and a removed element is replaced by the last element of the list.
+ * So, the order of elements is not preserved when elements are removed.
+ *
+ * <p>Elements cannot be set or inserted at a given position. Adding an element
+ * that is already in the list does nothing and returns <tt>false</tt>.
+ *
+ * <p>This implementation is not synchronized.
+ *
+ * @param <E>
+ *
+ * @since 1.3
+ */
+public class ArraySet<E> extends AbstractList<E> implements RandomAccess {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Object[] elements;
+	private int size;
+
+	/**
+	 * Hash table of elements, its length is a power of two and it is at most half full
+	 */
+	private Object[] keys;
+	/**
+	 * The position in {@link ArraySet#elements} of each element in {@link ArraySet#keys}
+	 */
+	private int[] slots;
+
+	public ArraySet() {
+		super();
+		this.elements = new Object[INITIAL_CAPACITY];
+		this.size = 0;
+		this.keys = new Object[INITIAL_CAPACITY << 1];
+		this.slots = new int[INITIAL_CAPACITY << 1];
+	}
+
+	private static int hash(Object o, int mask) {
+		final int h = System.identityHashCode(o) * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Returns the position of the given element in the hash table, or <tt>-1</tt> if it is not in this list.
+	 */
+	private int find(Object o) {
+		if (o == null)
+			return -1;
+		final Object[] keys = this.keys;
+		final int mask = keys.length - 1;
+		int i = hash(o, mask);
+		Object k;
+		while ((k = keys[i]) != null) {
+			if (k == o)
+				return i;
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void insert(Object o, int slot) {
+		final Object[] keys = this.keys;
+		final int mask = keys.length - 1;
+		int i = hash(o, mask);
+		while (keys[i] != null)
+			i = (i + 1) & mask;
+		keys[i] = o;
+		this.slots[i] = slot;
+	}
+
+	/**
+	 * Removes the element at the given position of the hash table, and moves next elements of the same
+	 * cluster so that they can still be found.
+	 */
+	private void delete(int i) {
+		final Object[] keys = this.keys;
+		final int mask = keys.length - 1;
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			final Object k = keys[j];
+			if (k == null)
+				break;
+			final int h = hash(k, mask);
+			//move k to i if its home position is not in (i, j]
+			if (i <= j ? (h <= i || h > j) : (h <= i && h > j)) {
+				keys[i] = k;
+				this.slots[i] = this.slots[j];
+				i = j;
+			}
+		}
+		keys[i] = null;
+	}
+
+	private void grow() {
+		this.elements = Arrays.copyOf(this.elements, this.size << 1);
+		this.keys = new Object[this.elements.length << 1];
+		this.slots = new int[this.elements.length << 1];
+		for (int i = 0; i < this.size; i++)
+			insert(this.elements[i], i);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public E get(int index) {
+		if (index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		return (E) this.elements[index];
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return find(o) >= 0;
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		final int i = find(o);
+		return i < 0 ? -1 : this.slots[i];
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	/**
+	 * Adds the given element at the end of this list if it is not already in this list.
+	 *
+	 * @throws NullPointerException if the given element is <tt>null</tt>
+	 */
+	@Override
+	public boolean add(E e) {
+		if (e == null)
+			throw new NullPointerException();
+		if (find(e) >= 0)
+			return false;
+		if (this.size == this.elements.length)
+			grow();
+		insert(e, this.size);
+		this.elements[this.size++] = e;
+		this.modCount++;
+		return true;
+	}
+
+	/**
+	 * Removes the element at the given position and moves the last element of this list to that position.
+	 */
+	@Override
+	public E remove(int index) {
+		final E e = get(index);
+		delete(find(e));
+		final int last = --this.size;
+		if (index != last) {
+			final Object moved = this.elements[last];
+			this.elements[index] = moved;
+			this.slots[find(moved)] = index;
+		}
+		this.elements[last] = null;
+		this.modCount++;
+		return e;
+	}
+
+	/**
+	 * Removes the given element and moves the last element of this list to its position.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		final int index = indexOf(o);
+		if (index < 0)
+			return false;
+		remove(index);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.elements, 0, this.size, null);
+		Arrays.fill(this.keys, null);
+		this.size = 0;
+		this.modCount++;
+	}
+}
@@ -26,13 +26,9 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.utility.collections;
 
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map.Entry;
 import java.util.NoSuchElementException;
-import java.util.TreeMap;
-
-import com.samysadi.acs.utility.Pair;
 
 
 /**
@@ -41,7 +37,9 @@ import com.samysadi.acs.utility.Pair;
  * <p>It offers basic operations like marking (ie: setting to 1) and unmarking (ie: setting to 0) bits. It also,
  * offers bitwise operations (NOT, AND, OR, XOR).
  *
- * <p>This implementation uses a {@link TreeMap} to keep a cheap representation of the bitmap.
+ * <p>This implementation keeps the marked zones of the bitmap as a sorted set of disjoint intervals
+ * stored in primitive arrays. Lookups use a binary search and do not allocate, and the marked size
+ * is maintained incrementally.
  * It can contain a maximum of {@link Bitmap#MAX_BITMAP_SIZE} bits. So, if you try to mark
  * or unmark bits starting from an index that is beyond this limit you will get an exception.
  *
@@ -51,12 +49,29 @@ public class Bitmap implements Cloneable {
 
 	public static final long MAX_BITMAP_SIZE = Long.MAX_VALUE;
 
+	private static final int INITIAL_CAPACITY = 2;
+
+	/**
+	 * Start indexes of marked zones, in increasing order.<br/>
+	 * (starts[i], ends[i]) = (0, 9) means that bits number 0 until 9 (inclusive) are marked (or set to <tt>1</tt>).
+	 * Zones never overlap nor touch each other.
+	 */
+	private long[] starts = null;
+
 	/**
-	 * Keys are start indexes of marked zones,
-	 * values are end indexes of marked zones (inclusive).<br/>
-	 * (key, value) = (0, 9) means that bits number 0 until 9 (inclusive) are marked (or set to <tt>1</tt>)
+	 * End indexes of marked zones (inclusive).
 	 */
-	private TreeMap<Long, Long> map = null;
+	private long[] ends = null;
+
+	/**
+	 * Number of marked zones.
+	 */
+	private int count = 0;
+
+	/**
+	 * Total number of marked bits.
+	 */
+	private long markedSize = 0l;
 
 	/**
 	 * Checks that length and start parameters are valid and returns a valid length.
@@ -81,6 +96,53 @@ public class Bitmap implements Cloneable {
 		return length;
 	}
 
+	/**
+	 * Returns the index of the last zone whose start is lower than or equal to the given bit index,
+	 * or <tt>-1</tt> if there is no such zone.
+	 */
+	private int floorZone(long index) {
+		int lo = 0;
+		int hi = this.count - 1;
+		while (lo <= hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (this.starts[mid] <= index)
+				lo = mid + 1;
+			else
+				hi = mid - 1;
+		}
+		return hi;
+	}
+
+	/**
+	 * Replaces the <tt>removed</tt> zones starting at zone <tt>from</tt> by <tt>added</tt> zones
+	 * which content is left to the caller.
+	 */
+	private void splice(int from, int removed, int added) {
+		final int newCount = this.count - removed + added;
+		if (this.starts == null) {
+			this.starts = new long[Math.max(INITIAL_CAPACITY, newCount)];
+			this.ends = new long[this.starts.length];
+		} else if (newCount > this.starts.length) {
+			final int capacity = Math.max(this.starts.length << 1, newCount);
+			this.starts = Arrays.copyOf(this.starts, capacity);
+			this.ends = Arrays.copyOf(this.ends, capacity);
+		}
+
+		final int tail = this.count - from - removed;
+		if (tail > 0 && removed != added) {
+			System.arraycopy(this.starts, from + removed, this.starts, from + added, tail);
+			System.arraycopy(this.ends, from + removed, this.ends, from + added, tail);
+		}
+		this.count = newCount;
+	}
+
+	private long zonesSize(int from, int to) {
+		long t = 0;
+		for (int i = from; i <= to; i++)
+			t+= this.ends[i] - this.starts[i] + 1;
+		return t;
+	}
+
 	/**
 	 * Marks (ie: sets to <tt>1</tt>) all the bits starting from the bit indexed
 	 * with <b>{@code start}</b> (inclusive) to the bit indexed with <b>{@code start + length - 1}</b> (inclusive).
@@ -95,48 +157,29 @@ public class Bitmap implements Cloneable {
 		if (length == 0)
 			return;
 
-		if (map == null)
-			map = new TreeMap<Long, Long>();
-
-		boolean noPut = false;
 		long end = start + length - 1;
 
-		final Long old = map.get(start);
-
-		if (old == null) { //if there was not an old entry there before, then we have to check for the prev entry
-			final Entry<Long, Long> prev = map.lowerEntry(start);
-			if (prev != null) {
-				if (prev.getValue() + 1 >= start) {
-					noPut = true;
-					if (prev.getValue() < end)
-						map.put(prev.getKey(), end);
-					else
-						end = prev.getValue();
-					start = prev.getKey();
-				}
-			}
+		//first zone that overlaps or touches the new zone
+		int first = floorZone(start);
+		if (first < 0 || this.ends[first] + 1 < start)
+			first++;
+		//last zone that overlaps or touches the new zone
+		final int last = floorZone(end + 1);
+
+		if (first > last) {
+			splice(first, 0, 1);
 		} else {
-			if (old >= end)
+			if (first == last && this.starts[first] <= start && this.ends[first] >= end)
 				return;
+			start = Math.min(start, this.starts[first]);
+			end = Math.max(end, this.ends[last]);
+			this.markedSize-= zonesSize(first, last);
+			splice(first, last - first + 1, 1);
 		}
 
-		if (!noPut)
-			map.put(start, end);
-
-		boolean more = true;
-		while (more) {
-			more = false;
-			Entry<Long, Long> next = map.higherEntry(start);
-			if (next != null) {
-				if (end + 1 >= next.getKey()) {
-					if (end < next.getValue())
-						map.put(start, next.getValue());
-					else
-						more = true;
-					map.remove(next.getKey());
-				}
-			}
-		}
+		this.starts[first] = start;
+		this.ends[first] = end;
+		this.markedSize+= end - start + 1;
 	}
 
 	/**
@@ -164,33 +207,19 @@ public class Bitmap implements Cloneable {
 	 * @param length
 	 */
 	public void mark(long length) {
-		if (map == null)
-			map = new TreeMap<Long, Long>();
-		LinkedList<Pair<Long, Long>> toMark = new LinkedList<Pair<Long,Long>>();
 		long s = 0;
-		Iterator<Entry<Long, Long>> it = this.map.entrySet().iterator();
-		while (it.hasNext() && length >= 0) {
-			Entry<Long, Long> n = it.next();
-			long l = n.getKey() - s;
-			final long oldS = s;
-			s = n.getValue() + 1;
-			if (l<=0)
+		while (length > 0 && s < MAX_BITMAP_SIZE) {
+			final int i = floorZone(s);
+			if (i >= 0 && this.ends[i] >= s) {
+				s = this.ends[i] + 1;
 				continue;
-
-			if (l >= length) {
-				toMark.add(new Pair<Long, Long>(oldS, length));
-				length = 0;
-			} else {
-				length-= l;
-				toMark.add(new Pair<Long, Long>(oldS, l));
 			}
+			final long holeEnd = i + 1 < this.count ? this.starts[i + 1] : MAX_BITMAP_SIZE;
+			final long l = Math.min(holeEnd - s, length);
+			this.mark(s, l);
+			length-= l;
+			s+= l;
 		}
-
-		if (length > 0)
-			toMark.add(new Pair<Long, Long>(s, length));
-
-		for (Pair<Long, Long> p: toMark)
-			this.map.put(p.getValue1(), p.getValue1() + p.getValue2() - 1);
 	}
 
 	/**
@@ -199,9 +228,7 @@ public class Bitmap implements Cloneable {
 	 * @return {@link Bitmap} old bitmap, as it was before being fully marked.
 	 */
 	public Bitmap mark() {
-		Bitmap old = new Bitmap();
-		old.map = this.map;
-		this.map = null;
+		Bitmap old = this.unmark();
 		this.mark(0, MAX_BITMAP_SIZE);
 		return old;
 	}
@@ -220,36 +247,40 @@ public class Bitmap implements Cloneable {
 		if (length == 0)
 			return;
 
-		if (map == null || map.isEmpty())
+		if (this.count == 0)
 			return;
 
-		long end = start + length - 1;
+		final long end = start + length - 1;
 
-		Entry<Long, Long> prev = map.floorEntry(start);
-		if (prev != null && prev.getValue() >= start) {
-			if (start == prev.getKey()) {
-				map.remove(prev.getKey());
-			} else {
-				map.put(prev.getKey(), start-1);
-			}
+		//first zone that overlaps the unmarked zone
+		int first = floorZone(start);
+		if (first < 0 || this.ends[first] < start)
+			first++;
+		//last zone that overlaps the unmarked zone
+		final int last = floorZone(end);
 
-			if (end < prev.getValue()) {
-				map.put(end+1, prev.getValue());
-			} else if (end > prev.getValue()) {
-				unmark(prev.getValue() + 1, end - prev.getValue());
-			}
+		if (first > last)
 			return;
-		}
 
-		Entry<Long, Long> next = map.higherEntry(start);
-		if (next != null && next.getKey() <= end) {
-			map.remove(next.getKey());
-			if (next.getValue() > end) {
-				map.put(end+1, next.getValue());
-			} else {
-				unmark(next.getValue() + 1, end - next.getValue());
-			}
-			return;
+		final long firstStart = this.starts[first];
+		final long lastEnd = this.ends[last];
+		final boolean keepLeft = firstStart < start;
+		final boolean keepRight = lastEnd > end;
+
+		this.markedSize-= zonesSize(first, last);
+		splice(first, last - first + 1, (keepLeft ? 1 : 0) + (keepRight ? 1 : 0));
+
+		int i = first;
+		if (keepLeft) {
+			this.starts[i] = firstStart;
+			this.ends[i] = start - 1;
+			this.markedSize+= start - firstStart;
+			i++;
+		}
+		if (keepRight) {
+			this.starts[i] = end + 1;
+			this.ends[i] = lastEnd;
+			this.markedSize+= lastEnd - end;
 		}
 	}
 
@@ -262,10 +293,12 @@ public class Bitmap implements Cloneable {
 	 * @param m
 	 */
 	public void unmark(Bitmap m) {
-		if (m.map == null)
+		if (m == this) {
+			this.unmark();
 			return;
-		for (Entry<Long, Long> e: m.map.entrySet())
-			this.unmark(e.getKey(), e.getValue() - e.getKey() + 1);
+		}
+		for (int i = 0; i < m.count; i++)
+			this.unmark(m.starts[i], m.ends[i] - m.starts[i] + 1);
 	}
 
 	/**
@@ -283,20 +316,17 @@ public class Bitmap implements Cloneable {
 	 * @param length
 	 */
 	public void unmark(long length) {
-		if (map == null)
-			return;
-		Iterator<Entry<Long, Long>> it = this.map.descendingMap().entrySet().iterator();
-		while (it.hasNext() && length >= 0) {
-			Entry<Long, Long> n = it.next();
-			long l = n.getValue() - n.getKey() + 1;
-			if (length<l) {
-				it.remove();
-				this.map.put(n.getKey(), n.getValue() - length);
+		while (this.count > 0 && length > 0) {
+			final int last = this.count - 1;
+			final long l = this.ends[last] - this.starts[last] + 1;
+			if (length < l) {
+				this.ends[last]-= length;
+				this.markedSize-= length;
 				break;
-			} else {
-				it.remove();
-				length-=l;
 			}
+			this.count--;
+			this.markedSize-= l;
+			length-= l;
 		}
 	}
 
@@ -307,8 +337,14 @@ public class Bitmap implements Cloneable {
 	 */
 	public Bitmap unmark() {
 		Bitmap old = new Bitmap();
-		old.map = map;
-		map = null;
+		old.starts = this.starts;
+		old.ends = this.ends;
+		old.count = this.count;
+		old.markedSize = this.markedSize;
+		this.starts = null;
+		this.ends = null;
+		this.count = 0;
+		this.markedSize = 0l;
 		return old;
 	}
 
@@ -319,12 +355,8 @@ public class Bitmap implements Cloneable {
 	 * @return <tt>true</tt> if the bit at the given index is marked
 	 */
 	public boolean isMarked(long index) {
-		if (this.map == null || this.map.isEmpty())
-			return false;
-		Entry<Long, Long> e = this.map.floorEntry(index);
-		if (e == null)
-			return false;
-		return e.getValue() >= index;
+		final int i = floorZone(index);
+		return i >= 0 && this.ends[i] >= index;
 	}
 
 	/**
@@ -333,12 +365,7 @@ public class Bitmap implements Cloneable {
 	 * @return the total number of bits that are marked
 	 */
 	public long getMarkedSize() {
-		if (map == null)
-			return 0;
-		long t = 0;
-		for (Entry<Long, Long> e: map.entrySet())
-			t+=e.getValue() - e.getKey() + 1;
-		return t;
+		return this.markedSize;
 	}
 
 	/**
@@ -359,17 +386,17 @@ public class Bitmap implements Cloneable {
 	 * @return the marked size based on a page boundary
 	 */
 	public long getMarkedPagesSize(long pageSize) {
-		if (map == null)
+		if (this.count == 0)
 			return 0;
 		if (pageSize <= 0)
 			throw new IllegalArgumentException("Negative or null page size given");
 		long lastCountedPage = -1l;
 		long t = 0;
-		for (Entry<Long, Long> e: map.entrySet()) {
-			long lastPage = e.getValue() / pageSize;
+		for (int i = 0; i < this.count; i++) {
+			long lastPage = this.ends[i] / pageSize;
 			if (lastPage <= lastCountedPage)
 				continue;
-			long firstPage = e.getKey() / pageSize;
+			long firstPage = this.starts[i] / pageSize;
 			if (firstPage <= lastCountedPage)
 				firstPage = lastCountedPage + 1;
 			t+= (lastPage - firstPage + 1) * pageSize;
@@ -394,17 +421,27 @@ public class Bitmap implements Cloneable {
 	 * Performs a bitwise NOT on the current bitmap.
 	 */
 	public void bitwiseNot() {
+		final long[] newStarts = new long[Math.max(INITIAL_CAPACITY, this.count + 1)];
+		final long[] newEnds = new long[newStarts.length];
+		int c = 0;
 		long min = 0;
-		Bitmap m = new Bitmap();
-		if (this.map != null) {
-			for (Entry<Long, Long> e: this.map.entrySet()) {
-				m.mark(min, e.getKey() - min);
-				min = e.getValue() + 1;
+		for (int i = 0; i < this.count; i++) {
+			if (this.starts[i] > min) {
+				newStarts[c] = min;
+				newEnds[c] = this.starts[i] - 1;
+				c++;
 			}
+			min = this.ends[i] + 1;
 		}
-		if (min < MAX_BITMAP_SIZE)
-			m.mark(min, MAX_BITMAP_SIZE);
-		this.map = m.map;
+		if (min < MAX_BITMAP_SIZE) {
+			newStarts[c] = min;
+			newEnds[c] = MAX_BITMAP_SIZE - 1;
+			c++;
+		}
+		this.starts = newStarts;
+		this.ends = newEnds;
+		this.count = c;
+		this.markedSize = MAX_BITMAP_SIZE - this.markedSize;
 	}
 
 	/**
@@ -412,10 +449,10 @@ public class Bitmap implements Cloneable {
 	 * @param m
 	 */
 	public void bitwiseOr(Bitmap m) {
-		if (m.map == null)
+		if (m == this)
 			return;
-		for (Entry<Long, Long> e: m.map.entrySet())
-			this.mark(e.getKey(), e.getValue() - e.getKey() + 1);
+		for (int i = 0; i < m.count; i++)
+			this.mark(m.starts[i], m.ends[i] - m.starts[i] + 1);
 	}
 
 	/**
@@ -423,18 +460,17 @@ public class Bitmap implements Cloneable {
 	 * @param m
 	 */
 	public void bitwiseAnd(Bitmap m) {
-		if (this.map == null || this.map.isEmpty())
+		if (this.count == 0 || m == this)
 			return;
-		long min = this.map.firstKey();
-		if (m.map != null) {
-			for (Entry<Long, Long> e: m.map.entrySet()) {
-				final long l = e.getKey() - min;
-				if (l > 0)
-					this.unmark(min, l);
-				min = e.getValue() + 1;
-			}
+		long min = this.starts[0];
+		for (int i = 0; i < m.count; i++) {
+			final long l = m.starts[i] - min;
+			if (l > 0)
+				this.unmark(min, l);
+			min = m.ends[i] + 1;
 		}
-		this.unmark(min, MAX_BITMAP_SIZE);
+		if (min < MAX_BITMAP_SIZE)
+			this.unmark(min, MAX_BITMAP_SIZE);
 	}
 
 	/**
@@ -477,34 +513,39 @@ public class Bitmap implements Cloneable {
 	/**
 	 * Returns an iterator through all marked {@link SubBitmap}s of the current Bitmap.
 	 *
+	 * <p>The returned iterator is not valid anymore once this bitmap is modified.
+	 *
 	 * @return an iterator through all marked {@link SubBitmap}s
 	 */
 	public Iterator<SubBitmap> getMarkedSubBitmapsIterator() {
-		final TreeMap<Long, Long> map = this.map;
-		return new SubBitmapsIterator(map);
+		return new SubBitmapsIterator(this.starts, this.ends, this.count);
 	}
 
 	private static final class SubBitmapsIterator implements
 			Iterator<SubBitmap> {
-		Iterator<Entry<Long, Long>> it;
-
-		private SubBitmapsIterator(TreeMap<Long, Long> map) {
-			it = map == null ? null : map.entrySet().iterator();
+		private final long[] starts;
+		private final long[] ends;
+		private final int count;
+		private int next;
+
+		private SubBitmapsIterator(long[] starts, long[] ends, int count) {
+			this.starts = starts;
+			this.ends = ends;
+			this.count = count;
+			this.next = 0;
 		}
 
 		@Override
 		public boolean hasNext() {
-			if (it == null)
-				return false;
-			return it.hasNext();
+			return this.next < this.count;
 		}
 
 		@Override
 		public SubBitmap next() {
-			if (it == null)
+			if (this.next >= this.count)
 				throw new NoSuchElementException();
-			Entry<Long, Long> n = it.next();
-			return new SubBitmap(n.getKey(), n.getValue() - n.getKey() + 1);
+			final int i = this.next++;
+			return new SubBitmap(this.starts[i], this.ends[i] - this.starts[i] + 1);
 		}
 
 		@Override
@@ -515,28 +556,35 @@ public class Bitmap implements Cloneable {
 
 	@Override
 	public String toString() {
-		if (map == null)
-			return "";
 		StringBuilder b = new StringBuilder();
-		for (Entry<Long, Long> e: map.entrySet())
-			b.append("[" + e.getKey() + "," + e.getValue() + "]");
+		for (int i = 0; i < this.count; i++)
+			b.append("[" + this.starts[i] + "," + this.ends[i] + "]");
 		return b.toString();
 	}
 
 	@Override
 	public boolean equals(Object obj) {
+		if (obj == this)
+			return true;
 		if (!(obj instanceof Bitmap))
 			return false;
-		if (((Bitmap) obj).map == this.map)
-			return true;
-		if (this.map != null)
-			return this.map.equals(((Bitmap) obj).map);
-		return false;
+		final Bitmap m = (Bitmap) obj;
+		if (m.count != this.count || m.markedSize != this.markedSize)
+			return false;
+		for (int i = 0; i < this.count; i++)
+			if (m.starts[i] != this.starts[i] || m.ends[i] != this.ends[i])
+				return false;
+		return true;
 	}
 
 	@Override
 	public int hashCode() {
-		return this.map == null ? super.hashCode() : this.map.hashCode();
+		int h = 1;
+		for (int i = 0; i < this.count; i++) {
+			h = 31 * h + (int) (this.starts[i] ^ (this.starts[i] >>> 32));
+			h = 31 * h + (int) (this.ends[i] ^ (this.ends[i] >>> 32));
+		}
+		return h;
 	}
 
 	/**
@@ -546,7 +594,6 @@ public class Bitmap implements Cloneable {
 	 *
 	 * @return a deep clone of this {@link Bitmap}.
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public Bitmap clone() {
 		Bitmap clone = null;
@@ -556,8 +603,13 @@ public class Bitmap implements Cloneable {
 			throw new InternalError();
 		}
 
-		if (map != null)
-			clone.map = (TreeMap<Long, Long>) map.clone();
+		if (this.count == 0) {
+			clone.starts = null;
+			clone.ends = null;
+		} else {
+			clone.starts = Arrays.copyOf(this.starts, this.count);
+			clone.ends = Arrays.copyOf(this.ends, this.count);
+		}
 
 		return clone;
 	}
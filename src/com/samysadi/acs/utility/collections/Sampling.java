@@ -0,0 +1,144 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.utility.collections;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import com.samysadi.acs.core.Simulator;
+
+/**
+ * Utility methods to draw random samples of elements.
+ *
+ * <p>Methods that do not take a {@link Random} use the simulator's random generator.
+ *
+ * @since 1.3
+ */
+public final class Sampling {
+
+	private Sampling() {
+		super();
+	}
+
+	/**
+	 * Returns a random element of the given list, or <tt>null</tt> if the list is empty.
+	 *
+	 * <p>The returned element is the first element that a {@link ShuffledIterator} would return
+	 * for the same <tt>generator</tt>.
+	 *
+	 * @param list
+	 * @param generator
+	 * @return a random element of the given list, or <tt>null</tt> if the list is empty
+	 */
+	public static <T> T randomElement(List<T> list, Random generator) {
+		if (list.isEmpty())
+			return null;
+		return list.get(generator.nextInt(list.size()));
+	}
+
+	/**
+	 * @see Sampling#randomElement(List, Random)
+	 */
+	public static <T> T randomElement(List<T> list) {
+		return randomElement(list, Simulator.getSimulator().getRandomGenerator());
+	}
+
+	/**
+	 * Returns a list containing <tt>k</tt> distinct elements (by position) of the given list drawn at random
+	 * without replacement, or all the elements of the list (in a random order) if it contains less
+	 * than <tt>k</tt> elements.
+	 *
+	 * <p>The returned elements are the first <tt>k</tt> elements that a {@link ShuffledIterator} would return
+	 * for the same <tt>generator</tt>, and drawing them needs <i>O(k)</i> time and memory.
+	 *
+	 * @param list a list that offers a fast random access
+	 * @param k the maximum number of elements to draw
+	 * @param generator
+	 * @return a new list containing the drawn elements
+	 * @throws IllegalArgumentException if <tt>k</tt> is negative
+	 */
+	public static <T> List<T> sample(List<T> list, int k, Random generator) {
+		if (k < 0)
+			throw new IllegalArgumentException("Negative sample size");
+		final List<T> r = new ArrayList<T>(Math.min(k, list.size()));
+		final Iterator<T> it = new ShuffledIterator<T>(list, generator);
+		while (r.size() < k && it.hasNext())
+			r.add(it.next());
+		return r;
+	}
+
+	/**
+	 * @see Sampling#sample(List, int, Random)
+	 */
+	public static <T> List<T> sample(List<T> list, int k) {
+		return sample(list, k, Simulator.getSimulator().getRandomGenerator());
+	}
+
+	/**
+	 * Returns a list containing <tt>k</tt> elements drawn uniformly at random without replacement
+	 * from the elements returned by the given iterator, or all these elements if there are less
+	 * than <tt>k</tt> of them.
+	 *
+	 * <p>This method uses reservoir sampling, which iterates once through all elements but
+	 * only needs <i>O(k)</i> memory. Use it when the elements are not in a list with a fast random access,
+	 * or when their number is not known in advance.
+	 * The order of the returned elements is not random.
+	 *
+	 * @param iterator
+	 * @param k the maximum number of elements to draw
+	 * @param generator
+	 * @return a new list containing the drawn elements
+	 * @throws IllegalArgumentException if <tt>k</tt> is negative
+	 */
+	public static <T> List<T> reservoirSample(Iterator<? extends T> iterator, int k, Random generator) {
+		if (k < 0)
+			throw new IllegalArgumentException("Negative sample size");
+		final List<T> r = new ArrayList<T>(k);
+		long seen = 0;
+		while (iterator.hasNext()) {
+			final T e = iterator.next();
+			seen++;
+			if (r.size() < k)
+				r.add(e);
+			else {
+				final long j = (long) (generator.nextDouble() * seen);
+				if (j < k)
+					r.set((int) j, e);
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * @see Sampling#reservoirSample(Iterator, int, Random)
+	 */
+	public static <T> List<T> reservoirSample(Iterator<? extends T> iterator, int k) {
+		return reservoirSample(iterator, k, Simulator.getSimulator().getRandomGenerator());
+	}
+}
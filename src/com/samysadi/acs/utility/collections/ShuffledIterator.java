@@ -26,6 +26,7 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.utility.collections;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -37,6 +38,11 @@ import com.samysadi.acs.core.Simulator;
  * This iterator sets a shuffled order to the elements of the underlying list using
  * a supplied {@link Random}.
  *
+ * <p>The shuffle is computed lazily (sparse Fisher-Yates): only the positions that were swapped
+ * are remembered, so drawing <i>k</i> elements needs <i>O(k)</i> time and memory whatever
+ * the size of the list is.
+ * For a given {@link Random}, the elements are returned in the same order as a full Fisher-Yates shuffle.
+ *
  * <p>This implementation does not make any verification regarding if the underlying list is modified.
  *
  * @param <T>
@@ -44,11 +50,21 @@ import com.samysadi.acs.core.Simulator;
  * @since 1.0
  */
 public class ShuffledIterator<T> implements Iterator<T> {
-	private int[] indices;
+	private static final int INITIAL_CAPACITY = 16;
+	private static final int FREE = -1;
+
 	private int size;
 	private List<T> collection;
 	private Random generator;
 
+	/**
+	 * Open addressing hash table mapping a position to the index it was swapped with.
+	 * Positions that are not in the table hold their own index.
+	 */
+	private int[] keys;
+	private int[] values;
+	private int used;
+
 	public ShuffledIterator(List<T> collection) {
 		this(collection, Simulator.getSimulator().getRandomGenerator());
 	}
@@ -60,9 +76,53 @@ public class ShuffledIterator<T> implements Iterator<T> {
 		this.size = collection.size();
 		this.generator = generator;
 
-		this.indices = new int[this.size];
-		for (int i=0; i<this.size; i++)
-			this.indices[i] = i;
+		this.keys = null;
+		this.values = null;
+		this.used = 0;
+	}
+
+	private static int slotOf(int[] keys, int key) {
+		final int mask = keys.length - 1;
+		final int h = key * 0x9E3779B9;
+		int slot = (h ^ (h >>> 16)) & mask;
+		while (keys[slot] != FREE && keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private int get(int position) {
+		if (this.keys == null)
+			return position;
+		final int slot = slotOf(this.keys, position);
+		return this.keys[slot] == FREE ? position : this.values[slot];
+	}
+
+	private void put(int position, int index) {
+		if (this.keys == null) {
+			this.keys = new int[INITIAL_CAPACITY];
+			this.values = new int[INITIAL_CAPACITY];
+			Arrays.fill(this.keys, FREE);
+		} else if ((this.used + 1) << 1 > this.keys.length) {
+			final int[] oldKeys = this.keys;
+			final int[] oldValues = this.values;
+			this.keys = new int[oldKeys.length << 1];
+			this.values = new int[this.keys.length];
+			Arrays.fill(this.keys, FREE);
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] == FREE)
+					continue;
+				final int slot = slotOf(this.keys, oldKeys[i]);
+				this.keys[slot] = oldKeys[i];
+				this.values[slot] = oldValues[i];
+			}
+		}
+
+		final int slot = slotOf(this.keys, position);
+		if (this.keys[slot] == FREE) {
+			this.keys[slot] = position;
+			this.used++;
+		}
+		this.values[slot] = index;
 	}
 
 	@Override
@@ -76,8 +136,9 @@ public class ShuffledIterator<T> implements Iterator<T> {
 			throw new NoSuchElementException();
 		int n = this.generator.nextInt(this.size);
 		this.size--;
-		int z = this.indices[n];
-		this.indices[n] = this.indices[this.size];
+		int z = get(n);
+		if (n != this.size)
+			put(n, get(this.size));
 		return collection.get(z);
 	}
 
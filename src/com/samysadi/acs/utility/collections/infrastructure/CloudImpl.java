@@ -80,7 +80,7 @@ public class CloudImpl extends MyArrayList<DatacenterImpl> implements Cloud {
 			@Override
 			protected List<? extends List<RackImpl>> lists() {
 				//safe cast: CloudImpl implements DatacenterImpl, DatacenterImpl implements List<ClusterImpl>, ClusterImpl implements List<RackImpl>
-				return (List<? extends List<RackImpl>>) clusters;
+				return (List<? extends List<RackImpl>>) (List<?>) clusters;
 			}
 
 			@Override
@@ -99,7 +99,7 @@ public class CloudImpl extends MyArrayList<DatacenterImpl> implements Cloud {
 			@Override
 			protected List<? extends List<Host>> lists() {
 				//safe cast: CloudImpl implements DatacenterImpl, DatacenterImpl implements List<ClusterImpl>, ClusterImpl implements List<RackImpl> and RackImpl implements List<Host>
-				return (List<? extends List<Host>>) racks;
+				return (List<? extends List<Host>>) (List<?>) racks;
 			}
 
 			@Override
@@ -81,7 +81,7 @@ public class DatacenterImpl extends MyArrayList<ClusterImpl> implements Datacent
 			@Override
 			protected List<? extends List<Host>> lists() {
 				//safe cast: DatacenterImpl implements List<ClusterImpl>, ClusterImpl implements List<RackImpl> and RackImpl implements List<Host>
-				return (List<? extends List<Host>>) racks;
+				return (List<? extends List<Host>>) (List<?>) racks;
 			}
 
 			@Override
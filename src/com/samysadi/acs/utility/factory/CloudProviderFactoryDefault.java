@@ -49,7 +49,7 @@ public class CloudProviderFactoryDefault extends CloudProviderFactory {
 	private void _generate0(final CloudProvider cp) {
 		Config cfg = getConfig().addContext(FactoryUtils.Topology_CONTEXT);
 
-		getLogger().log(Level.FINER, "Using " + getFactory(cfg).getTopologyFactoryClass().getSimpleName());
+		getLogger().logf(Level.FINER, "Using {0}", getFactory(cfg).getTopologyFactoryClass().getSimpleName());
 
 		NotificationListener l = new NotificationListener() {
 			@Override
@@ -87,7 +87,7 @@ public class CloudProviderFactoryDefault extends CloudProviderFactory {
 	//users
 	private void _generate1(final CloudProvider cp) {
 		final int count = FactoryUtils.generateCount(getConfig().addContext(FactoryUtils.User_CONTEXT), 0);
-		getLogger().log(Level.FINE, "Going to generate: " + count + " users ...");
+		getLogger().logf(Level.FINE, "Going to generate: {0} users ...", count);
 		final int[] indexTab = {0};
 		NotificationListener l = new NotificationListener() {
 			@Override
@@ -32,6 +32,8 @@ import com.samysadi.acs.core.Config;
 import com.samysadi.acs.core.Logger;
 import com.samysadi.acs.core.Simulator;
 import com.samysadi.acs.core.entity.Entity;
+import com.samysadi.acs.core.event.EventQueue;
+import com.samysadi.acs.core.event.EventQueueHeap;
 import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.Trace;
@@ -100,6 +102,7 @@ import com.samysadi.acs.service.vmplacement.VmPlacementPolicy;
 import com.samysadi.acs.service.vmplacement.VmPlacementPolicyRandomFit;
 import com.samysadi.acs.tracing.AbstractProbe;
 import com.samysadi.acs.tracing.CustomProbe;
+import com.samysadi.acs.tracing.cp.CpHostRollupProbe;
 import com.samysadi.acs.user.ThinClient;
 import com.samysadi.acs.user.ThinClientDefault;
 import com.samysadi.acs.user.ThinClientVirtualMachine;
@@ -462,6 +465,24 @@ public class Factory  {
 		}
 	}
 
+	public Class<?> getEventQueueClass() {
+		return getConfig().getClassFromConfig("EventQueue_Class", EventQueueHeap.class, true);
+	}
+
+	public EventQueue newEventQueue(Class<?> clazz) {
+		if (clazz == null)
+			clazz = getEventQueueClass();
+
+		try {
+			return (EventQueue) clazz
+					.getConstructor()
+					.newInstance();
+		} catch (Exception e) {
+			getLogger().logInstantiationException(clazz, e);
+			return null;
+		}
+	}
+
 	public Class<?> getFailureFactoryClass() {
 		return getConfig().getClassFromConfig("FailureFactory_Class", FailuresFactoryDefault.class, true);
 	}
@@ -732,13 +753,15 @@ public class Factory  {
 			String className;
 			if (probeKey.startsWith(CustomProbe.CUSTOM_PROBE_PREFIX))
 				className = CustomProbe.class.getName();
+			else if (probeKey.startsWith(CpHostRollupProbe.KEY_PREFIX))
+				className = CpHostRollupProbe.class.getName();
 			else
 				className = AbstractProbe.class.getPackage().getName()
 						+ "." + getProbeKeySubPackage(probeKey) + probeKey + "Probe";
 			try {
 				clazz = Class.forName(className);
 			} catch (ClassNotFoundException e) {
-				getLogger().log(Level.SEVERE, "Class " + className + " not found. This also may lead to performance issues.");
+				getLogger().logf(Level.SEVERE, "Class {0} not found. This also may lead to performance issues.", className);
 			}
 		}
 		return clazz;
@@ -764,6 +787,8 @@ public class Factory  {
 		Probe<?> p = newProbe(getProbeClass(probeKey));
 		if (p instanceof CustomProbe)
 			((CustomProbe) p).setKey(probeKey);
+		else if (p instanceof CpHostRollupProbe)
+			((CpHostRollupProbe) p).setKey(probeKey);
 		return p;
 	}
 
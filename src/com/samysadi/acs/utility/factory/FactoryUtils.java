@@ -326,7 +326,7 @@ public final class FactoryUtils {
 		if (!Logger.getGlobal().isLoggable(Level.FINER))
 			return;
 		Logger.getGlobal().log(Level.FINER, "Total Number of " + s + " Generated: " + total + " ( " + percentFormat.format(percent) + "% )");
-		Logger.getGlobal().log(Level.FINER, "Memory used: " + ((Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20) + "MiB");
+		Logger.getGlobal().logf(Level.FINER, "Memory used: {0}MiB", (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20);
 	}
 
 	/*
@@ -779,9 +779,10 @@ public final class FactoryUtils {
 			}
 			workloads = null;
 
-			if (this == instance) {
-				Simulator.getSimulator().removeListener(NotificationCodes.FACTORY_SIMULATOR_GENERATED, instance);
-				instance = null;
+			final Simulator simulator = Simulator.getSimulator();
+			if (this == simulator.getProperty(INSTANCE_KEY)) {
+				simulator.removeListener(NotificationCodes.FACTORY_SIMULATOR_GENERATED, this);
+				simulator.unsetProperty(INSTANCE_KEY);
 			}
 		}
 
@@ -790,11 +791,15 @@ public final class FactoryUtils {
 				workloads.add(workload);
 		}
 
-		private static InitiateWorkloadNotificationListener instance = null;
+		//one instance per simulator
+		private static final Object INSTANCE_KEY = new Object();
 		private static InitiateWorkloadNotificationListener getInstance() {
+			final Simulator simulator = Simulator.getSimulator();
+			InitiateWorkloadNotificationListener instance = (InitiateWorkloadNotificationListener) simulator.getProperty(INSTANCE_KEY);
 			if (instance == null) {
 				instance = new InitiateWorkloadNotificationListener();
-				Simulator.getSimulator().addListener(NotificationCodes.FACTORY_SIMULATOR_GENERATED, instance);
+				simulator.setProperty(INSTANCE_KEY, instance);
+				simulator.addListener(NotificationCodes.FACTORY_SIMULATOR_GENERATED, instance);
 			}
 			return instance;
 		}
@@ -845,7 +850,7 @@ public final class FactoryUtils {
 		try {
 			return Class.forName(name);
 		} catch (ClassNotFoundException e) {
-			Logger.getGlobal().log(Level.SEVERE, "Class " + name + " not found. This also may lead to performance issues.");
+			Logger.getGlobal().logf(Level.SEVERE, "Class {0} not found. This also may lead to performance issues.", name);
 			return null;
 		}
 	}
@@ -880,7 +885,7 @@ public final class FactoryUtils {
 	public static Task generateWorkloadTask(Workload workload, Config config) {
 		Task t = newWorkloadTask(null, workload, config);
 		if (t == null)
-			Logger.getGlobal().log(Level.SEVERE, "Config task cannot be loaded. Context: " + config.getContext());
+			Logger.getGlobal().logf(Level.SEVERE, "Config task cannot be loaded. Context: {0}", config.getContext());
 		return t;
 	}
 
@@ -56,7 +56,7 @@ public class SimulatorFactoryDefault extends SimulatorFactory {
 			return;
 		}
 
-		getLogger().log(Level.FINER, "Generating CloudProvider " + index + "/" + count);
+		getLogger().logf(Level.FINER, "Generating CloudProvider {0}/{1}", index, count);
 		FactoryUtils.generateCloudProvider(g.next());
 	}
 
@@ -99,10 +99,8 @@ public class SimulatorFactoryDefault extends SimulatorFactory {
 	private void _generate2(long tick) {
 		FactoryUtils.generateTraces(getConfig(), Simulator.getSimulator());
 
-		getLogger().log(Level.INFO, "Simulator was initialized. Initialization took: " +
-				Simulator.formatTime((System.nanoTime()-tick) * Simulator.MILLISECOND / 1000000) +
-				"."
-			);
+		getLogger().logf(Level.INFO, "Simulator was initialized. Initialization took: {0}.",
+				Simulator.formatTime((System.nanoTime()-tick) * Simulator.MILLISECOND / 1000000));
 
 		Simulator.getSimulator().notify(NotificationCodes.FACTORY_SIMULATOR_GENERATED, null);
 	}
@@ -41,6 +41,13 @@ public abstract class TraceFactory extends Factory {
 	 */
 	public static final String Trace_Ext = ".trace";
 
+	/**
+	 * Extension for binary trace files created by this factory
+	 *
+	 * @since 1.3
+	 */
+	public static final String TraceBinary_Ext = ".btrace";
+
 	private Probed probed;
 
 	public TraceFactory(Config config, Probed probed) {
@@ -26,9 +26,7 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.utility.factory;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
@@ -46,7 +44,10 @@ import com.samysadi.acs.core.notifications.Notifier;
 import com.samysadi.acs.core.tracing.Probe;
 import com.samysadi.acs.core.tracing.Probed;
 import com.samysadi.acs.core.tracing.Trace;
+import com.samysadi.acs.core.tracing.TraceBinaryWriter;
+import com.samysadi.acs.core.tracing.TraceFileWriter;
 import com.samysadi.acs.core.tracing.TraceItem;
+import com.samysadi.acs.core.tracing.TraceStreaming;
 import com.samysadi.acs.tracing.CustomProbe;
 import com.samysadi.acs.utility.NotificationCodes;
 
@@ -61,6 +62,7 @@ public class TraceFactoryDefault extends TraceFactory {
 	}
 
 	private static final Object Simulator_Traces_Output_Key = new Object();
+	private static final Object Simulator_Traces_Binary_Output_Key = new Object();
 
 	/**
 	 * Returns a list containing traces filenames.
@@ -77,6 +79,7 @@ public class TraceFactoryDefault extends TraceFactory {
 			NotificationListener n = new TracingListener();
 
 			Simulator.getSimulator().addListener(NotificationCodes.SIMULATOR_STOPPED, n);
+			Simulator.getSimulator().addListener(NotificationCodes.SIMULATOR_MEMORY_LOW, n);
 		}
 
 		return h;
@@ -86,30 +89,49 @@ public class TraceFactoryDefault extends TraceFactory {
 		@Override
 		protected void notificationPerformed(Notifier notifier,
 				int notification_code, Object data) {
-			for (Entry<Trace<?>, String> e: getSimulatorTracesOutput().entrySet())
-				if (e.getValue() != null) {
-					try {
-						boolean console = e.getValue().equals("-");
-						Writer writer;
-						if (console) {
-							writer = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.ISO_8859_1));
-							writer.write("# Writing trace " + e.getKey().toString() + " to console\n");
-						} else {
-							File f = new File(e.getValue()).getCanonicalFile();
-							f.mkdirs();
-
-							int i = 0;
-							while (true) {
-								File ff =  new File(f, e.getKey().toString() + "." + (i++) + Trace_Ext);
-								if (!ff.exists()) {
-									f = ff;
-									break;
-								}
-							}
+			if (notification_code == NotificationCodes.SIMULATOR_MEMORY_LOW) {
+				for (Trace<?> trace: getSimulatorTracesOutput().keySet())
+					if (trace instanceof TraceStreaming)
+						((TraceStreaming<?>) trace).flush();
+				return;
+			}
+
+			final boolean ended = !Simulator.getSimulator().hasMoreEvents();
+			final TraceBinaryWriter binaryOutput = (TraceBinaryWriter) Simulator.getSimulator().getProperty(Simulator_Traces_Binary_Output_Key);
+			if (binaryOutput != null) {
+				try {
+					for (Trace<?> trace: getSimulatorTracesOutput().keySet()) {
+						if (trace instanceof TraceStreaming)
+							((TraceStreaming<?>) trace).flushAll();
+						else
+							binaryOutput.write(trace, trace.getValues());
+					}
+					if (ended) {
+						binaryOutput.close();
+						Simulator.getSimulator().unsetProperty(Simulator_Traces_Binary_Output_Key);
+					} else
+						binaryOutput.flush();
+				} catch (IOException e) {
+					Logger.getGlobal().log(Level.WARNING, "Cannot write traces binary file.", e);
+				}
+				return;
+			}
 
-							Logger.getGlobal().log(Level.FINER, "Writing trace file: " + f.getAbsolutePath());
-							writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f, false), StandardCharsets.ISO_8859_1));
+			for (Entry<Trace<?>, String> e: getSimulatorTracesOutput().entrySet())
+				if (e.getKey() instanceof TraceStreaming) {
+					final TraceStreaming<?> trace = (TraceStreaming<?>) e.getKey();
+					trace.flushAll();
+					if (ended && trace.getOutput() != null && !isConsole(e.getValue())) {
+						try {
+							trace.getOutput().close();
+							trace.setOutput((Writer) null);
+						} catch (IOException e1) {
 						}
+					}
+				} else if (e.getValue() != null) {
+					try {
+						boolean console = isConsole(e.getValue());
+						Writer writer = openOutput(e.getKey(), e.getValue());
 						try {
 							if (!e.getKey().getValues().isEmpty()) {
 								String unit = Simulator.probeValueUnit(e.getKey().getParent());
@@ -132,10 +154,104 @@ public class TraceFactoryDefault extends TraceFactory {
 					} catch (IOException e1) {
 					}
 				}
+
+			//do not keep trace files open while the simulation is stopped
+			try {
+				TraceFileWriter.releaseFiles();
+			} catch (IOException e) {
+				Logger.getGlobal().log(Level.WARNING, "Cannot write trace files.", e);
+			}
+		}
+	}
+
+	private static boolean isConsole(String filename) {
+		return "-".equals(filename);
+	}
+
+	/**
+	 * Opens a new writer for the given trace.
+	 *
+	 * <p>The console is used if the filename is <tt>"-"</tt>. Otherwise, the filename is a directory where
+	 * a new file is created for the trace.
+	 */
+	private static Writer openOutput(Trace<?> trace, String filename) throws IOException {
+		if (isConsole(filename)) {
+			Writer writer = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.ISO_8859_1));
+			writer.write("# Writing trace " + trace.toString() + " to console\n");
+			return writer;
+		}
+
+		File f = new File(filename).getCanonicalFile();
+		f.mkdirs();
+
+		int i = 0;
+		while (true) {
+			File ff =  new File(f, trace.toString() + "." + (i++) + Trace_Ext);
+			if (!ff.exists()) {
+				f = ff;
+				break;
+			}
+		}
+
+		Logger.getGlobal().logf(Level.FINER, "Writing trace file: {0}", f.getAbsolutePath());
+		//the file is only opened while pending items are written, so that many traces can be streamed at the same time
+		return new TraceFileWriter(f);
+	}
+
+	/**
+	 * Returns the binary file where all traces of the current run are written, or <tt>null</tt>
+	 * if traces are written using the text format.
+	 */
+	private TraceBinaryWriter getSimulatorBinaryOutput() {
+		TraceBinaryWriter w = (TraceBinaryWriter) Simulator.getSimulator().getProperty(Simulator_Traces_Binary_Output_Key);
+		if (w != null)
+			return w;
+
+		if (!"binary".equalsIgnoreCase(Simulator.getSimulator().getConfig().getString("TraceFormat", "text")))
+			return null;
+		final String var_directory = getVarDirectory();
+		if (isConsole(var_directory))
+			return null;
+
+		try {
+			File f = new File(var_directory).getCanonicalFile();
+			f.mkdirs();
+
+			int i = 0;
+			while (true) {
+				File ff =  new File(f, "traces." + (i++) + TraceBinary_Ext);
+				if (!ff.exists()) {
+					f = ff;
+					break;
+				}
+			}
+
+			Logger.getGlobal().logf(Level.FINER, "Writing traces binary file: {0}", f.getAbsolutePath());
+			w = new TraceBinaryWriter(f);
+		} catch (IOException e) {
+			getLogger().log(Level.WARNING, "Traces binary file cannot be created, using text format.", e);
+			Simulator.getSimulator().getConfig().setString("TraceFormat", "text");
+			return null;
 		}
+		Simulator.getSimulator().setProperty(Simulator_Traces_Binary_Output_Key, w);
+		return w;
 	}
 
 	protected void dumpToFile(Trace<?> trace, String filename) {
+		final TraceBinaryWriter binaryOutput = getSimulatorBinaryOutput();
+		if (binaryOutput != null) {
+			//all traces are written to the same binary file, the filename is ignored
+			if (trace instanceof TraceStreaming)
+				((TraceStreaming<?>) trace).setOutput(binaryOutput);
+		} else if (trace instanceof TraceStreaming) {
+			//streaming traces write their items while the simulation runs
+			try {
+				((TraceStreaming<?>) trace).setOutput(openOutput(trace, filename));
+			} catch (IOException e) {
+				getLogger().logf(Level.WARNING, null, "Trace output cannot be opened ({0}: {1}).", trace.getParent().getKey(), filename, e);
+				return;
+			}
+		}
 		getSimulatorTracesOutput().put(trace, filename);
 	}
 
@@ -155,7 +271,7 @@ public class TraceFactoryDefault extends TraceFactory {
 		try {
 			probe = getProbed().getProbe(probe_key);
 		} catch (Exception e) {
-			getLogger().log(Level.WARNING, "The probe: " + probe_key + " cannot be created", e);
+			getLogger().logf(Level.WARNING, null, "The probe: {0} cannot be created", probe_key, null, e);
 		}
 		if (probe == null)
 			return null;
@@ -165,6 +281,10 @@ public class TraceFactoryDefault extends TraceFactory {
 		if (delay != null)
 			trace.setDelay((long) (delay * Simulator.SECOND));
 
+		Double samplingInterval = getConfig().getDouble("SamplingInterval", null);
+		if (samplingInterval != null)
+			trace.setSamplingInterval((long) (samplingInterval * Simulator.SECOND));
+
 		Integer maxLength = getConfig().getInt("MaxLength", null);
 		if (maxLength != null)
 			trace.setMaxLength(maxLength);
@@ -186,7 +306,7 @@ public class TraceFactoryDefault extends TraceFactory {
 					ff = ff.getCanonicalFile();
 					filename = ff.getAbsolutePath();
 				} catch (IOException e) {
-					getLogger().log(Level.WARNING, "Trace output directory cannot be resolved (" + trace.getParent().getKey() + ": "+ filename + ").");
+					getLogger().logf(Level.WARNING, "Trace output directory cannot be resolved ({0}: {1}).", trace.getParent().getKey(), filename);
 					return null;
 				}
 			} else
@@ -86,7 +86,7 @@ public abstract class TaskImpl implements Task {
 	protected abstract boolean isExecuting();
 
 	protected void log(Level level, String message) {
-		Logger.getGlobal().log(level, this.getClass().getSimpleName() + ": " + message);
+		Logger.getGlobal().logf(level, "{0}: {1}", this.getClass().getSimpleName(), message);
 	}
 
 	protected void fail(String message) {
@@ -94,7 +94,7 @@ public abstract class TaskImpl implements Task {
 			this.interrupt();
 
 		if (message != null)
-			log(Level.INFO, "Failed: " + message);
+			Logger.getGlobal().logf(Level.INFO, "{0}: Failed: {1}", this.getClass().getSimpleName(), message);
 
 		getWorkload().notify(NotificationCodes.WORKLOAD_TASK_FAILED, this);
 	}
@@ -0,0 +1,265 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs.virtualization;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.entity.Entity;
+import com.samysadi.acs.core.event.DispensableEventImpl;
+import com.samysadi.acs.core.notifications.NotificationListener;
+import com.samysadi.acs.core.notifications.Notifier;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.user.User;
+import com.samysadi.acs.utility.NotificationCodes;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.virtualization.job.Job;
+import com.samysadi.acs.virtualization.job.operation.Operation;
+
+/**
+ * Shares {@link TemporaryVirtualMachine}s between the transfers that take place on a same host
+ * on behalf of a same user.
+ *
+ * <p>Remote transfers (storage operations on remote files, data sent to a host, migrations, consistency
+ * updates ...) need a job on the remote host. Instead of instantiating and discarding a whole virtual machine
+ * for each of these transfers, a running temporary VM is shared by all the transfers that are concurrently
+ * using the same host for the same user.
+ *
+ * <p>Each call to {@link #acquire(Entity, Host, User)} must be balanced with a call to {@link #release(VirtualMachine)}.
+ * The VM is terminated and unplaced as soon as the last reference to it is released.
+ * Transfers must only terminate and unplace their own jobs, and must not terminate the acquired VM themselves.
+ *
+ * @since 1.3
+ */
+public final class TemporaryVirtualMachinePool {
+	private static final Object PROP_VM_ENTRY = new Object();
+
+	private TemporaryVirtualMachinePool() {
+
+	}
+
+	private static final class Key {
+		private final User user;
+		private final Class<?> clazz;
+
+		public Key(User user, Class<?> clazz) {
+			super();
+			this.user = user;
+			this.clazz = clazz;
+		}
+
+		@Override
+		public int hashCode() {
+			return (user == null ? 0 : user.hashCode()) * 31 + clazz.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			final Key other = (Key) obj;
+			return this.user == other.user && this.clazz == other.clazz;
+		}
+	}
+
+	private static final class Entry {
+		private final Host host;
+		private final Key key;
+		private final VirtualMachine vm;
+		private int references;
+
+		public Entry(Host host, Key key, VirtualMachine vm) {
+			super();
+			this.host = host;
+			this.key = key;
+			this.vm = vm;
+			this.references = 0;
+		}
+
+		/**
+		 * Entries are stored in the host's properties which are copied when the host is cloned.
+		 * So we also make sure that the vm is still placed on the given host.
+		 */
+		public boolean isUsableOn(Host host) {
+			return this.vm.getParent() == host && this.vm.isRunning();
+		}
+	}
+
+	private static Entry getEntry(Host host, Key key) {
+		final Entry entry = (Entry) host.getProperty(key);
+		if (entry == null || !entry.isUsableOn(host))
+			return null;
+		return entry;
+	}
+
+	/**
+	 * Returns a running temporary VM placed on the given <tt>host</tt> and owned by the given <tt>user</tt>.
+	 *
+	 * <p>If such a VM was already acquired and is still running, then it is returned. Otherwise, a new temporary VM is
+	 * created using the factory of the given <tt>context</tt> entity and it is started.
+	 *
+	 * <p>The returned VM is not running if it cannot be started. You still have to release it in that case.
+	 *
+	 * @param context the entity whose configuration is used to create the VM
+	 * @param host the parent host of the VM
+	 * @param user the owner of the VM
+	 * @return a temporary VM placed on the given <tt>host</tt>
+	 */
+	public static VirtualMachine acquire(Entity context, Host host, User user) {
+		final Factory factory = Factory.getFactory(context);
+		final Key key = new Key(user, factory.getTemporaryVirtualMachineClass());
+
+		Entry entry = getEntry(host, key);
+		if (entry == null) {
+			final VirtualMachine vm = factory.newTemporaryVirtualMachine(key.clazz);
+			vm.setParent(host);
+			vm.setUser(user);
+			if (!vm.canStart())
+				return vm;
+			vm.doStart();
+			if (!vm.isRunning())
+				return vm;
+
+			entry = new Entry(host, key, vm);
+			vm.setProperty(PROP_VM_ENTRY, entry);
+			host.setProperty(key, entry);
+		}
+
+		entry.references++;
+		return entry.vm;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if {@link #acquire(Entity, Host, User)} would return a running VM.
+	 *
+	 * <p>Unlike {@link #acquire(Entity, Host, User)}, this method does not instantiate any entity.
+	 * When there is no shared VM, it assumes that a new temporary VM can be started if the host
+	 * is connected to the simulation (i.e. the host and all its ancestors have a parent).
+	 *
+	 * @param context the entity whose configuration is used to create the VM
+	 * @param host the parent host of the VM
+	 * @param user the owner of the VM
+	 * @return <tt>true</tt> if a running temporary VM can be acquired
+	 */
+	public static boolean canAcquire(Entity context, Host host, User user) {
+		if (host == null)
+			return false;
+		final Key key = new Key(user, Factory.getFactory(context).getTemporaryVirtualMachineClass());
+		if (getEntry(host, key) != null)
+			return true;
+		return host.hasParentRec();
+	}
+
+	/**
+	 * Releases a VM that was returned by {@link #acquire(Entity, Host, User)}.
+	 *
+	 * <p>The VM is terminated and unplaced after its last reference is released.
+	 *
+	 * @param vm the VM to release
+	 */
+	public static void release(VirtualMachine vm) {
+		final Entry entry = (Entry) vm.getProperty(PROP_VM_ENTRY);
+		if (entry != null) {
+			if (--entry.references > 0)
+				return;
+			vm.unsetProperty(PROP_VM_ENTRY);
+			if (entry.host.getProperty(entry.key) == entry)
+				entry.host.unsetProperty(entry.key);
+		}
+
+		vm.doTerminate();
+		vm.setUser(null);
+		vm.unplace();
+	}
+
+	/**
+	 * Terminates and unplaces the given <tt>job</tt>, then releases its parent VM.
+	 *
+	 * <p>The job's parent must have been returned by {@link #acquire(Entity, Host, User)}.
+	 *
+	 * @param job the job to remove
+	 */
+	public static void releaseJob(Job job) {
+		final VirtualMachine vm = job.getParent();
+		job.doTerminate();
+		job.unplace();
+		if (vm != null)
+			release(vm);
+	}
+
+	/**
+	 * Same as {@link #releaseJob(Job)}, but waits until all the operations of the given <tt>job</tt>
+	 * (including its remote operations) are terminated.
+	 *
+	 * <p>The release is always scheduled for a later event, so that all listeners
+	 * are invoked before the job is discarded.
+	 *
+	 * @param job the job to remove
+	 */
+	public static void scheduleReleaseJob(final Job job) {
+		Simulator.getSimulator().schedule(1l, new DispensableEventImpl() {
+			@Override
+			public void process() {
+				if (job.hasParentRec() && !job.isTerminated()) {
+					final Operation<?> toWait = getRunningOperation(job);
+					if (toWait != null) {
+						scheduleReleaseJob(job, toWait);
+						return;
+					}
+				}
+
+				releaseJob(job);
+			}
+		});
+	}
+
+	private static void scheduleReleaseJob(final Job job, Operation<?> o) {
+		NotificationListener n = new NotificationListener() {
+			@Override
+			protected void notificationPerformed(Notifier notifier,
+					int notification_code, Object data) {
+				final Operation<?> o = (Operation<?>) notifier;
+				if (o.getParent() == null || o.isTerminated()) {
+					scheduleReleaseJob(job);
+					this.discard();
+				}
+			}
+		};
+		o.addListener(NotificationCodes.RUNNABLE_STATE_CHANGED, n);
+		o.addListener(NotificationCodes.ENTITY_PARENT_CHANGED, n);
+	}
+
+	private static Operation<?> getRunningOperation(Job job) {
+		for (Operation<?> o: job.getOperations())
+			if (!o.isTerminated())
+				return o;
+		for (Operation<?> o: job.getRemoteOperations())
+			if (!o.isTerminated())
+				return o;
+		return null;
+	}
+}
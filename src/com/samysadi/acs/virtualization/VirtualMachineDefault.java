@@ -691,14 +691,14 @@ public class VirtualMachineDefault extends RunnableEntityImpl implements Virtual
 				int notification_code, Object data) {
 			FailureProneEntity e = (FailureProneEntity) notifier;
 			if (e.getFailureState() != FailureState.OK) {
-				getLogger().log(Level.FINEST, VirtualMachineDefault.this, "Failed because a device (" + e + ") has stopped.");
+				getLogger().logf(Level.FINEST, VirtualMachineDefault.this, "Failed because a device ({0}) has stopped.", e);
 				VirtualMachineDefault.this.doFail();
 			}
 		}
 
 		public boolean addFailureDependency(FailureProneEntity e) {
 			if (e.getFailureState() != FailureState.OK) {
-				getLogger().log(Level.FINEST, VirtualMachineDefault.this, "Failed because a device (" + e + ") has stopped.");
+				getLogger().logf(Level.FINEST, VirtualMachineDefault.this, "Failed because a device ({0}) has stopped.", e);
 				return false;
 			}
 
@@ -716,14 +716,14 @@ public class VirtualMachineDefault extends RunnableEntityImpl implements Virtual
 				int notification_code, Object data) {
 			PoweredEntity e = (PoweredEntity) notifier;
 			if (e.getPowerState() != PowerState.ON) {
-				getLogger().log(Level.FINEST, VirtualMachineDefault.this, "Failed because a device (" + e + ") is powered-off.");
+				getLogger().logf(Level.FINEST, VirtualMachineDefault.this, "Failed because a device ({0}) is powered-off.", e);
 				VirtualMachineDefault.this.doFail();
 			}
 		}
 
 		public boolean addPowerDependency(PoweredEntity e) {
 			if (e.getPowerState() != PowerState.ON) {
-				getLogger().log(Level.FINEST, VirtualMachineDefault.this, "Failed because a device (" + e + ") is powered-off.");
+				getLogger().logf(Level.FINEST, VirtualMachineDefault.this, "Failed because a device ({0}) is powered-off.", e);
 				return false;
 			}
 
@@ -29,11 +29,9 @@ package com.samysadi.acs.virtualization.job;
 import java.util.Collections;
 import java.util.List;
 
-import com.samysadi.acs.core.Simulator;
 import com.samysadi.acs.core.entity.Entity;
 import com.samysadi.acs.core.entity.RunnableEntity;
 import com.samysadi.acs.core.entity.RunnableEntityImpl;
-import com.samysadi.acs.core.event.DispensableEventImpl;
 import com.samysadi.acs.core.notifications.InstantNotificationListener;
 import com.samysadi.acs.core.notifications.NotificationListener;
 import com.samysadi.acs.core.notifications.Notifier;
@@ -46,10 +44,10 @@ import com.samysadi.acs.hardware.storage.StorageFile;
 import com.samysadi.acs.hardware.storage.VirtualStorage;
 import com.samysadi.acs.hardware.storage.operation.StorageOperation;
 import com.samysadi.acs.hardware.storage.operation.StorageOperation.StorageOperationType;
-import com.samysadi.acs.user.User;
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.utility.collections.MultiListView;
 import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.virtualization.TemporaryVirtualMachinePool;
 import com.samysadi.acs.virtualization.VirtualMachine;
 import com.samysadi.acs.virtualization.job.operation.Operation;
 import com.samysadi.acs.virtualization.job.operation.RemoteOperation;
@@ -400,60 +398,15 @@ public class JobDefault extends RunnableEntityImpl implements Job {
 		return o;
 	}
 
-	private VirtualMachine newTemporaryVm(Host host, User user) {
-		final VirtualMachine remoteVm = Factory.getFactory(this).newTemporaryVirtualMachine(null);
-		remoteVm.setParent(host);
-		remoteVm.setUser(user);
-		return remoteVm;
-	}
-
-	private static void removeTemporaryVm(VirtualMachine vm) {
-		vm.doTerminate();
-		vm.setUser(null);
-		vm.unplace();
-	}
-
-	private static void scheduleRemoveTemporaryVm(final VirtualMachine vm, Operation<?> o) {
+	private static void scheduleReleaseTemporaryJob(final Job job, Operation<?> o) {
 		NotificationListener n = new NotificationListener() {
 			@Override
 			protected void notificationPerformed(Notifier notifier,
 					int notification_code, Object data) {
 				final NetworkOperation o = (NetworkOperation) notifier;
 				if (o.getParent() == null || o.isTerminated()) {
-					//make sure all listeners are invoked before discarding temporary vm
-					Simulator.getSimulator().schedule(1l, new DispensableEventImpl() {
-						@Override
-						public void process() {
-							if (vm.hasParentRec()) {
-								Operation<?> toWait = null;
-								for (Job j: vm.getJobs()) {
-									if (j.isTerminated())
-										continue;
-									for (Operation<?> o: j.getOperations())
-										if (!o.isTerminated()) {
-											toWait = o;
-											break;
-										}
-									if (toWait != null)
-										break;
-									for (Operation<?> o: j.getRemoteOperations())
-										if (!o.isTerminated()) {
-											toWait = o;
-											break;
-										}
-									if (toWait != null)
-										break;
-								}
-
-								if (toWait != null) {
-									scheduleRemoveTemporaryVm(vm, toWait);
-									return;
-								}
-							}
-
-							removeTemporaryVm(vm);
-						}
-					});
+					//make sure all listeners are invoked before discarding the temporary job
+					TemporaryVirtualMachinePool.scheduleReleaseJob(job);
 					this.discard();
 				}
 			}
@@ -467,23 +420,21 @@ public class JobDefault extends RunnableEntityImpl implements Job {
 			final NotificationListener listener) {
 		if (getParent() == null)
 			return null;
-		VirtualMachine destinationVm = newTemporaryVm(destinationHost, getParent().getUser());
-		if (destinationVm.canStart())
-			destinationVm.doStart();
+		VirtualMachine destinationVm = TemporaryVirtualMachinePool.acquire(this, destinationHost, getParent().getUser());
 		Job destinationJob = Factory.getFactory(this).newJob(null, destinationVm);
 		if (destinationJob.canStart())
 			destinationJob.doStart();
 
 		NetworkOperation o = Factory.getFactory(this).newNetworkOperation(null, this, destinationJob, dataSize);
 		if (!o.canStart()) {
-			removeTemporaryVm(destinationVm);
 			o.unplace();
+			TemporaryVirtualMachinePool.releaseJob(destinationJob);
 			return null;
 		}
 		if (listener != null)
 			o.addListener(NotificationCodes.RUNNABLE_STATE_CHANGED, listener);
 
-		scheduleRemoveTemporaryVm(destinationVm, o);
+		scheduleReleaseTemporaryJob(destinationJob, o);
 
 		o.doStart();
 
@@ -501,23 +452,21 @@ public class JobDefault extends RunnableEntityImpl implements Job {
 			NotificationListener listener) {
 		if (getParent() == null)
 			return null;
-		VirtualMachine srcVm = newTemporaryVm(srcHost, getParent().getUser());
-		if (srcVm.canStart())
-			srcVm.doStart();
+		VirtualMachine srcVm = TemporaryVirtualMachinePool.acquire(this, srcHost, getParent().getUser());
 		Job srcJob = Factory.getFactory(this).newJob(null, srcVm);
 		if (srcJob.canStart())
 			srcJob.doStart();
 
 		NetworkOperation o = Factory.getFactory(this).newNetworkOperation(null, srcJob, this, dataSize);
 		if (!o.canStart()) {
-			removeTemporaryVm(srcVm);
 			o.unplace();
+			TemporaryVirtualMachinePool.releaseJob(srcJob);
 			return null;
 		}
 		if (listener != null)
 			o.addListener(NotificationCodes.RUNNABLE_STATE_CHANGED, listener);
 
-		scheduleRemoveTemporaryVm(srcVm, o);
+		scheduleReleaseTemporaryJob(srcJob, o);
 
 		o.doStart();
 
@@ -29,7 +29,6 @@ package com.samysadi.acs.virtualization.job.operation;
 import java.util.List;
 import java.util.logging.Level;
 
-import com.samysadi.acs.core.Simulator;
 import com.samysadi.acs.core.entity.Entity;
 import com.samysadi.acs.core.entity.FailureProneEntity;
 import com.samysadi.acs.core.entity.FailureProneEntity.FailureState;
@@ -167,7 +166,7 @@ public abstract class LongOperationImpl<Resource extends LongResource> extends O
 	public long getTotalRunningTime() {
 		long r = this.oldTotalRunningTime;
 		if (isRunning())
-			r+= Simulator.getSimulator().getTime() - getLastActivated();
+			r+= getEntitySimulator().getTime() - getLastActivated();
 		return r;
 	}
 
@@ -236,7 +235,7 @@ public abstract class LongOperationImpl<Resource extends LongResource> extends O
 		total += this.getSynchronizationTimeAdjust();
 
 		if (isRunning()) {
-			total -= Simulator.getSimulator().getTime() - this.getLastActivated();
+			total -= getEntitySimulator().getTime() - this.getLastActivated();
 			if (total <= 0l)
 				return 0l;
 		}
@@ -368,7 +367,7 @@ public abstract class LongOperationImpl<Resource extends LongResource> extends O
 						int notification_code, Object data) {
 					FailureProneEntity e = (FailureProneEntity) notifier;
 					if (e.getFailureState() != FailureState.OK) {
-						getLogger().log(Level.FINEST, LongOperationImpl.this, "Failed because a device (" + e + ") has failed.");
+						getLogger().logf(Level.FINEST, LongOperationImpl.this, "Failed because a device ({0}) has failed.", e);
 						LongOperationImpl.this.doFail();
 					}
 				}
@@ -384,7 +383,7 @@ public abstract class LongOperationImpl<Resource extends LongResource> extends O
 						int notification_code, Object data) {
 					PoweredEntity e = (PoweredEntity) notifier;
 					if (e.getPowerState() != PowerState.ON) {
-						getLogger().log(Level.FINEST, LongOperationImpl.this, "Failed because a device (" + e + ") is powered-off.");
+						getLogger().logf(Level.FINEST, LongOperationImpl.this, "Failed because a device ({0}) is powered-off.", e);
 						LongOperationImpl.this.doFail();
 					}
 				}
@@ -420,7 +419,7 @@ public abstract class LongOperationImpl<Resource extends LongResource> extends O
 	 */
 	protected boolean addFailureDependency(FailureProneEntity e) {
 		if (e.getFailureState() != FailureState.OK) {
-			getLogger().log(Level.FINEST, LongOperationImpl.this, "Failed because a device (" + e + ") has failed.");
+			getLogger().logf(Level.FINEST, LongOperationImpl.this, "Failed because a device ({0}) has failed.", e);
 			return false;
 		}
 
@@ -444,7 +443,7 @@ public abstract class LongOperationImpl<Resource extends LongResource> extends O
 	 */
 	protected boolean addPowerDependency(PoweredEntity e) {
 		if (e.getPowerState() != PowerState.ON) {
-			getLogger().log(Level.FINEST, LongOperationImpl.this, "Failed because a device (" + e + ") is powered-off.");
+			getLogger().logf(Level.FINEST, LongOperationImpl.this, "Failed because a device ({0}) is powered-off.", e);
 			return false;
 		}
 
@@ -538,7 +537,7 @@ public abstract class LongOperationImpl<Resource extends LongResource> extends O
 			}
 
 			//notify the operation start before scheduling endOfOperationEvent!
-			this.lastActivated = Simulator.getSimulator().getTime();
+			this.lastActivated = getEntitySimulator().getTime();
 			setRunnableState(RunnableState.RUNNING);
 
 			//schedule an event for the end of the operation, or for the delaying
@@ -554,13 +553,13 @@ public abstract class LongOperationImpl<Resource extends LongResource> extends O
 							LongOperationImpl.this.doStart();
 					}
 				};
-				Simulator.getSimulator().schedule(remainingDelay, endOfOperationEvent);
+				getEntitySimulator().schedule(remainingDelay, endOfOperationEvent);
 			}
 		} else {
 			setAllocatedResource(null);
 			endOfOperationEvent = null;
 
-			this.lastActivated = Simulator.getSimulator().getTime();
+			this.lastActivated = getEntitySimulator().getTime();
 			setRunnableState(RunnableState.RUNNING);
 		}
 
@@ -572,7 +571,7 @@ public abstract class LongOperationImpl<Resource extends LongResource> extends O
 					//dummy event
 				}
 			};
-			Simulator.getSimulator().schedule(Simulator.getSimulator().getMaximumScheduleDelay(), endOfOperationEvent);
+			getEntitySimulator().schedule(getEntitySimulator().getMaximumScheduleDelay(), endOfOperationEvent);
 		}
 
 		return true;
@@ -586,7 +585,7 @@ public abstract class LongOperationImpl<Resource extends LongResource> extends O
 	 * and <tt>false</tt> if the operation was not deactivated
 	 */
 	protected boolean deactivate0() {
-		long delay = Simulator.getSimulator().getTime() - this.getLastActivated();
+		long delay = getEntitySimulator().getTime() - this.getLastActivated();
 		this.lastActivated = Long.MAX_VALUE;
 
 		unregisterListeners();
@@ -26,10 +26,14 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.virtualization.job.operation.provisioner;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.virtualization.job.operation.LongResource;
@@ -48,6 +52,14 @@ import com.samysadi.acs.virtualization.job.operation.Operation;
  * <p>Note that this provisioner is more accurate and all available capacity is usable,
  * unlike {@link FastFairProvisioner} which may not in some use cases.
  *
+ * <p>When rebalancing is batched (see {@link LongProvisionerImpl#isRebalancingBatched()}), running operations
+ * are not notified each time resources are granted or revoked. Instead, the new fair shares are computed
+ * once per simulation time and only operations of which share has changed are notified.
+ *
+ * <p>Running operations are kept grouped by allocated resource, so that promises are computed by walking
+ * the distinct allocated resources instead of sorting all operations. When resources are granted (or revoked),
+ * only operations that use more than the new fair share (or at least the old fair share) are notified.
+ *
  * @param <OperationType>
  * @param <Resource>
  *
@@ -70,6 +82,10 @@ public abstract class FairProvisioner<OperationType extends Operation<Resource>,
 	}
 
 	protected HashSet<OperationType> operations;
+	//running operations grouped by their allocated resource, in ascending order
+	private TreeMap<Long, HashSet<OperationType>> levels;
+	//allocated resource of each running operation when it was granted, which is its key in levels
+	private HashMap<OperationType, Long> grantedLevels;
 //	private long grantedCapacity;
 
 	public FairProvisioner() {
@@ -89,12 +105,17 @@ public abstract class FairProvisioner<OperationType extends Operation<Resource>,
 		super.initializeEntity();
 
 		this.operations = null;
+		this.levels = null;
+		this.grantedLevels = null;
 //		this.grantedCapacity = 0;
 	}
 
 	protected Iterator<OperationType> getOrderIterator() {
-		final Object[] opa = operations.toArray();
-		Arrays.sort(opa, new OperationComparator<OperationType>());
+		final Object[] opa = new Object[operations.size()];
+		int i = 0;
+		for (HashSet<OperationType> level: levels.values())
+			for (OperationType op: level)
+				opa[i++] = op;
 		return new OrderedOperationIterator<OperationType>(opa);
 	}
 
@@ -126,6 +147,69 @@ public abstract class FairProvisioner<OperationType extends Operation<Resource>,
 		}
 	}
 
+	private void addToLevels(OperationType operation) {
+		final Long key = Long.valueOf(operation.getAllocatedResource().getLong());
+		grantedLevels.put(operation, key);
+		HashSet<OperationType> level = levels.get(key);
+		if (level == null) {
+			level = new HashSet<OperationType>();
+			levels.put(key, level);
+		}
+		level.add(operation);
+	}
+
+	private void removeFromLevels(OperationType operation) {
+		final Long key = grantedLevels.remove(operation);
+		if (key == null)
+			return;
+		final HashSet<OperationType> level = levels.get(key);
+		level.remove(operation);
+		if (level.isEmpty())
+			levels.remove(key);
+	}
+
+	/**
+	 * Walks running operations by ascending allocated resource, and returns the average capacity
+	 * at the first operation that uses at least that average.
+	 * If there is no such operation, then <tt>-1</tt> is returned.
+	 *
+	 * <p>Operations that use the same resource are skipped at once: if the first of them uses less than the average,
+	 * then removing it raises the average of the remaining capacity, and so do the next ones.
+	 *
+	 * @param c the capacity to distribute
+	 * @param count the number of operations sharing the capacity
+	 * @param excludedLevel the allocated resource of one operation to exclude from the walk, or <tt>-1</tt>
+	 * @param remaining where the capacity that is left after the walk is put
+	 */
+	private long walkLevels(long c, int count, long excludedLevel, long[] remaining) {
+		if (levels != null)
+			for (Entry<Long, HashSet<OperationType>> e: levels.entrySet()) {
+				final long v = e.getKey().longValue();
+				int k = e.getValue().size();
+				if (v == excludedLevel)
+					k--;
+				if (k == 0)
+					continue;
+				final long avg = Math.round(Math.floor((double)c/count));
+				if (v >= avg)
+					return avg;
+				c-= v * k;
+				count-= k;
+			}
+		if (remaining != null)
+			remaining[0] = c;
+		return -1l;
+	}
+
+	/**
+	 * Returns the max-min fair share of the capacity among running operations, or {@link Long#MAX_VALUE}
+	 * if all running operations use less than their share.
+	 */
+	private long computeShare() {
+		final long share = walkLevels(getCapacity(), operations.size(), -1l, null);
+		return share < 0 ? Long.MAX_VALUE : share;
+	}
+
 	@Override
 	public Resource getResourcePromise(OperationType operation) {
 		long c = getCapacity();
@@ -134,22 +218,26 @@ public abstract class FairProvisioner<OperationType extends Operation<Resource>,
 			return makeResource(c);
 
 		int count = operations.size();
+		long excludedLevel = -1l;
 		if (!operations.contains(operation))
 			count++;
-		Iterator<OperationType> it = getOrderIterator();
-		while (it.hasNext()) {
-			OperationType op = it.next();
-			if (op.equals(operation))
-				continue;
-			long avg = Math.round(Math.floor((double)c/count));
-			if (op.getAllocatedResource().getLong() < avg) {
-				c-=op.getAllocatedResource().getLong();
-			} else {
-				return makeResource(avg);
-			}
-			count--;
-		}
-		return makeResource(c);
+		else
+			excludedLevel = grantedLevels.get(operation).longValue();
+
+		final long[] remaining = new long[1];
+		final long avg = walkLevels(c, count, excludedLevel, remaining);
+		return makeResource(avg < 0 ? remaining[0] : avg);
+	}
+
+	/**
+	 * Returns running operations of which allocated resource is greater than (or equal to, if <tt>inclusive</tt>)
+	 * the given <tt>share</tt>, by descending allocated resource.
+	 */
+	private List<OperationType> getOperationsAbove(long share, boolean inclusive) {
+		final List<OperationType> l = new ArrayList<OperationType>();
+		for (HashSet<OperationType> level: levels.tailMap(Long.valueOf(share), inclusive).descendingMap().values())
+			l.addAll(level);
+		return l;
 	}
 
 	@Override
@@ -157,19 +245,28 @@ public abstract class FairProvisioner<OperationType extends Operation<Resource>,
 		if (operation.getAllocatedResource() == null)
 			throw new NullPointerException();
 
-		if (operations == null)
+		if (operations == null) {
 			operations = new HashSet<OperationType>();
+			levels = new TreeMap<Long, HashSet<OperationType>>();
+			grantedLevels = new HashMap<OperationType, Long>();
+		}
 
-		if (operation.getAllocatedResource().getLong() > getResourcePromise(operation).getLong())
+		final long promise = getResourcePromise(operation).getLong();
+		if (operation.getAllocatedResource().getLong() > promise)
 			throw new IllegalArgumentException("We cannot allocate the resource.");
 
-		operations.add(operation);
+		if (!operations.add(operation))
+			removeFromLevels(operation);
+		addToLevels(operation);
+
+		if (isRebalancingBatched()) {
+			setGrantedPromise(operation, promise);
+			scheduleRebalancing(operation);
+			return;
+		}
 
-//		this.grantedCapacity = 0l;
-		Iterator<OperationType> it = operations.iterator();
-		while (it.hasNext()) {
-			OperationType op = it.next();
-//			grantedCapacity+= op.getAllocatedResource().getLong();
+		//the share can only decrease, so only operations that use more than the new share are notified
+		for (OperationType op: getOperationsAbove(computeShare(), false)) {
 			if (op.equals(operation))
 				continue;
 			op.notify(NotificationCodes.OPERATION_RESOURCE_INVALIDATED, null);
@@ -181,19 +278,53 @@ public abstract class FairProvisioner<OperationType extends Operation<Resource>,
 		if (operations == null)
 			return;
 
-		if (!operations.remove(operation))
+		if (!operations.contains(operation))
 			return;
 
 		if (operation.getAllocatedResource() == null)
 			throw new NullPointerException();
 
-//		this.grantedCapacity = 0l;
-		Iterator<OperationType> it = operations.iterator();
-		while (it.hasNext()) {
-			OperationType op = it.next();
-//			grantedCapacity+= op.getAllocatedResource().getLong();
-			op.notify(NotificationCodes.OPERATION_RESOURCE_INVALIDATED, null);
+		//operations that use at least the old share may use the released capacity,
+		//other operations use less because of other provisioners
+		final long share = computeShare();
+		operations.remove(operation);
+		removeFromLevels(operation);
+
+		if (isRebalancingBatched()) {
+			setGrantedPromise(operation, -1l);
+			scheduleRebalancing(operation);
+			return;
 		}
+
+		for (OperationType op: getOperationsAbove(share, true))
+			op.notify(NotificationCodes.OPERATION_RESOURCE_INVALIDATED, null);
+	}
+
+	/**
+	 * Computes the max-min fair share (water-filling) given current allocations, then invalidates
+	 * resources of operations that use more than that share (so that they release resources first),
+	 * and then of operations that use less than that share and that can use more (so that they can use the released resources).
+	 */
+	@Override
+	protected void rebalance() {
+		if (operations == null || operations.isEmpty())
+			return;
+
+		for (OperationType op: getOperationsAbove(computeShare(), false))
+			rebalanceOperation(op);
+
+		if (operations.isEmpty())
+			return;
+
+		//by ascending allocated resource
+		final List<OperationType> l = new ArrayList<OperationType>();
+		for (HashSet<OperationType> level: levels.headMap(Long.valueOf(computeShare()), false).values())
+			for (OperationType op: level)
+				if (canUseMore(op))
+					l.add(op);
+
+		for (OperationType op: l)
+			rebalanceOperation(op);
 	}
 
 //	@Override
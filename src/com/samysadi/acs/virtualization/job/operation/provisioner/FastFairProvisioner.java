@@ -26,8 +26,10 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.virtualization.job.operation.provisioner;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 
 import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.virtualization.job.operation.LongResource;
@@ -46,6 +48,10 @@ import com.samysadi.acs.virtualization.job.operation.Operation;
  * If you need such level of accuracy you can use {@link FairProvisioner} which may be a bit slower
  * than this provisioner.
  *
+ * <p>When rebalancing is batched (see {@link LongProvisionerImpl#isRebalancingBatched()}), running operations
+ * are not notified each time resources are granted or revoked. Instead, the new average is computed
+ * once per simulation time and only operations of which share has changed are notified.
+ *
  * @param <OperationType>
  * @param <Resource>
  *
@@ -106,6 +112,12 @@ public abstract class FastFairProvisioner<OperationType extends Operation<Resour
 
 		operations.add(operation);
 
+		if (isRebalancingBatched()) {
+			setGrantedPromise(operation, avg);
+			scheduleRebalancing(operation);
+			return;
+		}
+
 //		this.grantedCapacity = 0l;
 		Iterator<OperationType> it = operations.iterator();
 		while (it.hasNext()) {
@@ -130,10 +142,18 @@ public abstract class FastFairProvisioner<OperationType extends Operation<Resour
 		if (operation.getAllocatedResource() == null)
 			throw new NullPointerException();
 
+		if (isRebalancingBatched())
+			setGrantedPromise(operation, -1l);
+
 //		this.grantedCapacity = 0l;
 		if (operations.isEmpty())
 			return;
 
+		if (isRebalancingBatched()) {
+			scheduleRebalancing(operation);
+			return;
+		}
+
 		long avg = Math.round(Math.floor((double)getCapacity()/operations.size()));
 
 		Iterator<OperationType> it = operations.iterator();
@@ -146,6 +166,34 @@ public abstract class FastFairProvisioner<OperationType extends Operation<Resour
 		}
 	}
 
+	/**
+	 * Invalidates resources of operations that use more than the average capacity (so that they release resources first),
+	 * and then of operations that use less than the average capacity and that can use more.
+	 */
+	@Override
+	protected void rebalance() {
+		if (operations == null || operations.isEmpty())
+			return;
+
+		final long avg = Math.round(Math.floor((double)getCapacity()/operations.size()));
+
+		final List<OperationType> above = new ArrayList<OperationType>();
+		final List<OperationType> below = new ArrayList<OperationType>();
+		for (OperationType op: operations) {
+			final long allocated = op.getAllocatedResource() == null ? 0l : op.getAllocatedResource().getLong();
+			if (allocated > avg)
+				above.add(op);
+			else if (allocated < avg && canUseMore(op))
+				below.add(op);
+		}
+
+		for (OperationType op: above)
+			rebalanceOperation(op);
+
+		for (OperationType op: below)
+			rebalanceOperation(op);
+	}
+
 //	@Override
 //	public Resource getTotalGrantedResource() {
 //		return makeResource(grantedCapacity);
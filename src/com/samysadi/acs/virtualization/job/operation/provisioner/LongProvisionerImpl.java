@@ -26,11 +26,21 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs.virtualization.job.operation.provisioner;
 
+import java.util.HashMap;
+
+import com.samysadi.acs.core.entity.Entity;
 import com.samysadi.acs.core.entity.EntityImpl;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.utility.NotificationCodes;
 import com.samysadi.acs.virtualization.job.operation.LongResource;
 import com.samysadi.acs.virtualization.job.operation.Operation;
 
 /**
+ *
+ * <p>When the <tt>Provisioner.BatchRebalancing</tt> configuration is set to <tt>true</tt>, subclasses
+ * that support it do not notify running operations each time resources are granted or revoked.
+ * Instead, they call {@link LongProvisionerImpl#scheduleRebalancing(Operation)} and compute
+ * the new distribution of the resources once per simulation time (see {@link LongProvisionerImpl#isRebalancingBatched()}).
  *
  * @param <OperationType>
  * @param <Resource>
@@ -40,6 +50,12 @@ import com.samysadi.acs.virtualization.job.operation.Operation;
 public abstract class LongProvisionerImpl<OperationType extends Operation<Resource>, Resource extends LongResource>
 		extends EntityImpl implements Provisioner<OperationType, Resource> {
 
+	private Boolean rebalancingBatched;
+	private EventImpl rebalancingEvent;
+	private Operation<?> invalidatedOperation;
+	//the promise given to each running operation when it was last granted resources, only kept when rebalancing is batched
+	private HashMap<Operation<?>, Long> grantedPromises;
+
 	public LongProvisionerImpl() {
 		super();
 	}
@@ -51,6 +67,173 @@ public abstract class LongProvisionerImpl<OperationType extends Operation<Resour
 		return clone;
 	}
 
+	@Override
+	protected void initializeEntity() {
+		super.initializeEntity();
+
+		this.rebalancingBatched = null;
+		this.rebalancingEvent = null;
+		this.invalidatedOperation = null;
+		this.grantedPromises = null;
+	}
+
+	@Override
+	protected void afterSetParent(Entity oldParent) {
+		super.afterSetParent(oldParent);
+
+		//the configuration may have changed
+		this.rebalancingBatched = null;
+	}
+
+	/**
+	 * Returns <tt>true</tt> if resource invalidations are batched.
+	 *
+	 * <p>When <tt>true</tt> is returned, granting or revoking resources does not notify other operations.
+	 * Instead, a rebalancing is scheduled at the current simulation time (see {@link LongProvisionerImpl#rebalance()}).
+	 *
+	 * <p>The default implementation returns the value of the <tt>Provisioner.BatchRebalancing</tt> configuration,
+	 * which is <tt>false</tt> if not set.
+	 *
+	 * @return <tt>true</tt> if resource invalidations are batched
+	 * @since 1.3
+	 */
+	protected boolean isRebalancingBatched() {
+		if (this.rebalancingBatched == null)
+			this.rebalancingBatched = getConfigRec() == null ? Boolean.FALSE :
+				getConfigRec().getBoolean("Provisioner.BatchRebalancing", Boolean.FALSE, true);
+		return this.rebalancingBatched.booleanValue();
+	}
+
+	/**
+	 * Schedules a call to {@link LongProvisionerImpl#rebalance()} at the current simulation time.
+	 *
+	 * <p>Multiple calls to this method during the same simulation time result in only one call to
+	 * {@link LongProvisionerImpl#rebalance()}, which is made after the events that are already
+	 * scheduled at the current simulation time are processed.
+	 *
+	 * <p>Nothing happens if the given <tt>cause</tt> is the operation that is being invalidated by
+	 * {@link LongProvisionerImpl#invalidateResource(Operation)}, because its new allocated resource
+	 * is already taken into account by the running rebalancing.
+	 *
+	 * @param cause the operation that was granted or revoked resources
+	 * @since 1.3
+	 */
+	protected final void scheduleRebalancing(Operation<?> cause) {
+		if (cause != null && cause == this.invalidatedOperation)
+			return;
+		if (this.rebalancingEvent != null)
+			return;
+		this.rebalancingEvent = new EventImpl() {
+			@Override
+			public void process() {
+				LongProvisionerImpl.this.rebalancingEvent = null;
+				LongProvisionerImpl.this.rebalance();
+			}
+		};
+		getEntitySimulator().schedule(this.rebalancingEvent);
+	}
+
+	/**
+	 * Computes the new resource distribution after some resources were granted or revoked, and
+	 * invalidates resources of each operation of which share has changed using
+	 * {@link LongProvisionerImpl#invalidateResource(Operation)}.
+	 *
+	 * <p>This method is called after {@link LongProvisionerImpl#scheduleRebalancing(Operation)}.
+	 * The default implementation does nothing.
+	 *
+	 * @since 1.3
+	 */
+	protected void rebalance() {
+		//nothing
+	}
+
+	/**
+	 * Immediately notifies the given <tt>operation</tt> that its allocated resource is not valid anymore
+	 * (see {@link NotificationCodes#OPERATION_RESOURCE_INVALIDATED}).
+	 *
+	 * <p>Resources that are granted or revoked by the given <tt>operation</tt> while it is notified do not
+	 * trigger a new rebalancing.
+	 *
+	 * @param operation
+	 * @since 1.3
+	 */
+	protected final void invalidateResource(Operation<?> operation) {
+		final Operation<?> old = this.invalidatedOperation;
+		this.invalidatedOperation = operation;
+		try {
+			operation.notifyNow(NotificationCodes.OPERATION_RESOURCE_INVALIDATED, null);
+		} finally {
+			this.invalidatedOperation = old;
+		}
+	}
+
+	/**
+	 * Remembers the promise against which resources were granted to the given running <tt>operation</tt>,
+	 * or forgets it if <tt>promise</tt> is negative (ie: when resources are revoked from the <tt>operation</tt>).
+	 *
+	 * <p>Subclasses call this method when rebalancing is batched, so that rebalancing only invalidates
+	 * operations that may use more resources (see {@link LongProvisionerImpl#canUseMore(Operation)}).
+	 *
+	 * @param operation
+	 * @param promise
+	 * @since 1.3
+	 */
+	protected final void setGrantedPromise(Operation<?> operation, long promise) {
+		if (promise < 0) {
+			if (this.grantedPromises != null)
+				this.grantedPromises.remove(operation);
+			return;
+		}
+		if (this.grantedPromises == null)
+			this.grantedPromises = new HashMap<Operation<?>, Long>();
+		this.grantedPromises.put(operation, Long.valueOf(promise));
+	}
+
+	/**
+	 * Returns <tt>true</tt> if the given running <tt>operation</tt> was granted all the resources it was promised
+	 * (ie: it is not limited by another provisioner), and if its promise has gone up since then.
+	 *
+	 * <p>Operations that use less than they were promised cannot use more resources from this provisioner, so there is
+	 * no need to invalidate their resources when their promise goes up.
+	 *
+	 * @param operation
+	 * @return <tt>true</tt> if the given <tt>operation</tt> may use more resources if its resource is invalidated
+	 * @since 1.3
+	 */
+	protected final boolean canUseMore(OperationType operation) {
+		if (this.grantedPromises == null)
+			return false;
+		final Long granted = this.grantedPromises.get(operation);
+		if (granted == null || getAllocatedLong(operation) < granted.longValue())
+			return false;
+		return getResourcePromise(operation).getLong() > granted.longValue();
+	}
+
+	private static long getAllocatedLong(Operation<?> operation) {
+		final Object r = operation.getAllocatedResource();
+		return r == null ? 0l : ((LongResource) r).getLong();
+	}
+
+	/**
+	 * Invalidates the resource of the given <tt>operation</tt> during a rebalancing (see {@link LongProvisionerImpl#rebalance()}),
+	 * if it is still running.
+	 *
+	 * <p>If the <tt>operation</tt> is removed or is granted a different resource (ie: it is limited by another provisioner),
+	 * then a new rebalancing is scheduled so that the new distribution of the resources is computed again,
+	 * as it is done when resources are not batched.
+	 *
+	 * @param operation
+	 * @since 1.3
+	 */
+	protected final void rebalanceOperation(Operation<?> operation) {
+		if (this.grantedPromises == null || !this.grantedPromises.containsKey(operation))
+			return;
+		final long old = getAllocatedLong(operation);
+		invalidateResource(operation);
+		if (!this.grantedPromises.containsKey(operation) || getAllocatedLong(operation) != old)
+			scheduleRebalancing(null);
+	}
+
 	/**
 	 * Returns the total capacity of this provisioner.
 	 *
@@ -0,0 +1,103 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Config;
+
+/**
+ *
+ * @since 1.3
+ */
+public class ConfigTest {
+
+	private static final class Counter {
+		private final long value;
+		private Counter(long value) {
+			this.value = value;
+		}
+	}
+
+	private static int created = 0;
+
+	private static final Config.SnapshotFactory<Counter> FACTORY = new Config.SnapshotFactory<Counter>() {
+		@Override
+		public Counter newSnapshot(Config config) {
+			created++;
+			return new Counter(config.getLong("Value", 0l, true));
+		}
+	};
+
+	@Test
+	public void testLookup() {
+		final Config root = new Config();
+		final Config c = root.addContext("A").addContext("B", 1).addContext("C");
+
+		Assert.assertEquals("A.B#1.C", c.getContext());
+		Assert.assertNull(c.getLong("Value", null, true));
+
+		root.setLong("Value", 1l);
+		Assert.assertNull(c.getLong("Value", null));
+		Assert.assertEquals(1l, c.getLong("Value", null, true).longValue());
+
+		root.addContext("A").setLong("Value", 2l);
+		Assert.assertEquals(2l, c.getLong("Value", null, true).longValue());
+
+		c.setLong("Value", 3l);
+		Assert.assertEquals(3l, c.getLong("Value", null).longValue());
+		Assert.assertEquals(3l, root.getLong("A.B#1.C.Value", null).longValue());
+
+		c.setLong("Value", null);
+		Assert.assertEquals(2l, c.getLong("Value", null, true).longValue());
+	}
+
+	@Test
+	public void testSnapshot() {
+		final Config root = new Config();
+		final Config c = root.addContext("A");
+		root.setLong("Value", 1l);
+
+		created = 0;
+		Assert.assertEquals(1l, c.getSnapshot(FACTORY).value);
+		Assert.assertSame(c.getSnapshot(FACTORY), c.getSnapshot(FACTORY));
+		Assert.assertEquals(1, created);
+
+		//modifications in any context invalidate snapshots
+		root.setLong("Value", 2l);
+		Assert.assertEquals(2l, c.getSnapshot(FACTORY).value);
+		Assert.assertEquals(2, created);
+
+		root.addContext("Other").setString("Name", "x");
+		c.getSnapshot(FACTORY);
+		Assert.assertEquals(3, created);
+
+		c.getSnapshot(FACTORY);
+		Assert.assertEquals(3, created);
+	}
+}
@@ -0,0 +1,105 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+
+package com.samysadi.acs_test.core;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Logger;
+
+/**
+ *
+ * @since 1.3
+ */
+public class LoggerTest {
+
+	private static List<String> log(Level level, LogAction action) throws Exception {
+		final File f = File.createTempFile("acs-log", ".log");
+		final Logger logger = new Logger(level);
+		logger.disableConsole();
+		logger.enableOutputToFile(f.getAbsolutePath());
+		try {
+			action.run(logger);
+		} finally {
+			logger.close();
+		}
+		final List<String> lines = Files.readAllLines(f.toPath(), Charset.defaultCharset());
+		f.delete();
+		return lines;
+	}
+
+	private interface LogAction {
+		public void run(Logger logger);
+	}
+
+	@Test
+	public void testFormat() throws Exception {
+		final List<String> lines = log(Level.INFO, new LogAction() {
+			@Override
+			public void run(Logger logger) {
+				logger.logf(Level.INFO, "a {0} b {1} c {2} {", Integer.valueOf(1), "x");
+				logger.logf(Level.INFO, "null {0}", null);
+				logger.log(Level.INFO, "plain {0}", (Throwable) null);
+				//must not be ambiguous
+				logger.log(Level.INFO, "no throwable", null);
+			}
+		});
+		Assert.assertEquals(4, lines.size());
+		Assert.assertTrue(lines.get(0).endsWith("a 1 b x c {2} {"));
+		Assert.assertTrue(lines.get(1).endsWith("null null"));
+		Assert.assertTrue(lines.get(2).endsWith("plain {0}"));
+		Assert.assertTrue(lines.get(3).endsWith("no throwable"));
+	}
+
+	@Test
+	public void testLazy() throws Exception {
+		final int[] calls = new int[1];
+		final List<String> lines = log(Level.INFO, new LogAction() {
+			@Override
+			public void run(Logger logger) {
+				logger.logLazily(Level.FINE, () -> {
+					calls[0]++;
+					return "fine";
+				});
+				logger.logLazily(Level.INFO, () -> {
+					calls[0]++;
+					return "info";
+				});
+			}
+		});
+		Assert.assertEquals(1, calls[0]);
+		Assert.assertEquals(1, lines.size());
+		Assert.assertTrue(lines.get(0).endsWith("info"));
+	}
+}
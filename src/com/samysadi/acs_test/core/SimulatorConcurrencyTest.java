@@ -0,0 +1,134 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Config;
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.hardware.network.NetworkInterface;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.utility.factory.FactoryUtils;
+import com.samysadi.acs.utility.factory.TopologyFactoryHierarchical;
+
+/**
+ *
+ * @since 1.3
+ */
+public class SimulatorConcurrencyTest {
+	private static final int THREADS = 4;
+	private static final int RUNS = 4;
+
+	/**
+	 * Generates a topology and returns a description of its hosts ids and addresses.
+	 */
+	private static String simulate() {
+		final Config config = new Config();
+		config.setInt("Trace.Count", 0);
+		final Simulator simulator = new Simulator(config);
+		try {
+			final CloudProvider cloudProvider = Factory.getFactory(simulator).newCloudProvider(null, simulator);
+
+			final Config topology = config.addContext(FactoryUtils.Topology_CONTEXT);
+			topology.setString(TopologyFactoryHierarchical.CONTEXT + Config.CONTEXT_ARRAY_SEPARATOR + 0, "");
+			topology.addContext(TopologyFactoryHierarchical.CONTEXT, 0).addContext("Nodes").setInt("Count", 8);
+			topology.setString(TopologyFactoryHierarchical.CONTEXT + Config.CONTEXT_ARRAY_SEPARATOR + 1, "");
+			topology.addContext(TopologyFactoryHierarchical.CONTEXT, 1).addContext("Nodes").setInt("Count", 4);
+			new TopologyFactoryHierarchical(topology, cloudProvider).generate();
+
+			final StringBuilder sb = new StringBuilder();
+			for (Host h: cloudProvider.getHosts()) {
+				sb.append(h.getId());
+				for (NetworkInterface ni: h.getInterfaces())
+					sb.append('/').append(ni.getIp());
+				sb.append(' ');
+			}
+			return sb.toString();
+		} finally {
+			simulator.stop();
+			simulator.free();
+		}
+	}
+
+	@Test
+	public void testCurrentSimulator() throws Exception {
+		Assert.assertNull(Simulator.getSimulator());
+		final Simulator simulator = new Simulator(new Config());
+		try {
+			Assert.assertSame(simulator, Simulator.getSimulator());
+
+			final ExecutorService executor = Executors.newSingleThreadExecutor();
+			try {
+				Assert.assertNull("Simulator visible in another thread.", executor.submit(new Callable<Simulator>() {
+					@Override
+					public Simulator call() throws Exception {
+						return Simulator.getSimulator();
+					}
+				}).get());
+			} finally {
+				executor.shutdown();
+			}
+		} finally {
+			simulator.stop();
+			simulator.free();
+		}
+		Assert.assertNull(Simulator.getSimulator());
+	}
+
+	@Test
+	public void testIsolation() throws Exception {
+		final String expected = simulate();
+		Assert.assertEquals("Sequential simulations are not identical.", expected, simulate());
+
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < THREADS * RUNS; i++)
+				results.add(executor.submit(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						return simulate();
+					}
+				}));
+
+			for (Future<String> f: results)
+				Assert.assertEquals("Concurrent simulations are not identical.", expected, f.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.core.event;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.event.Event;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.core.event.EventQueue;
+import com.samysadi.acs.core.event.EventQueueCalendar;
+import com.samysadi.acs.core.event.EventQueueHeap;
+
+/**
+ *
+ * @since 1.3
+ */
+public class EventQueueTest {
+
+	private static final class TestEvent extends EventImpl {
+		@Override
+		public void process() {
+		}
+	}
+
+	private static void test(EventQueue q, boolean dense) {
+		final String m = q.getClass().getSimpleName() + " behaviour is invalid.";
+
+		//the reference implementation is the old simulator's agenda
+		final TreeMap<Long, LinkedList<Event>> r = new TreeMap<Long, LinkedList<Event>>();
+		final List<Event> scheduled = new ArrayList<Event>();
+		final Random random = new Random(0);
+
+		long now = 0;
+		for (int i = 0; i < 100000; i++) {
+			final int op = random.nextInt(10);
+			if (op < 5) {
+				final long t = now + (dense ? random.nextInt(8) : (long) (random.nextDouble() * 1000000000l));
+				final Event e = new TestEvent();
+				q.add(t, e);
+				e.scheduledAt(t);
+				LinkedList<Event> l = r.get(t);
+				if (l == null) {
+					l = new LinkedList<Event>();
+					r.put(t, l);
+				}
+				l.add(e);
+				scheduled.add(e);
+			} else if (op < 7) {
+				if (scheduled.isEmpty())
+					continue;
+				final Event e = scheduled.remove(random.nextInt(scheduled.size()));
+				Assert.assertTrue(m, q.remove(e));
+				Assert.assertFalse(m, q.remove(e));
+				final LinkedList<Event> l = r.get(e.getScheduledAt());
+				l.remove(e);
+				if (l.isEmpty())
+					r.remove(e.getScheduledAt());
+				e.scheduledAt(null);
+			} else {
+				final Entry<Long, LinkedList<Event>> first = r.firstEntry();
+				if (first == null) {
+					Assert.assertTrue(m, q.isEmpty());
+					Assert.assertNull(m, q.poll());
+					continue;
+				}
+				Assert.assertEquals(m, first.getKey().longValue(), q.peekTime());
+				final Event e = q.poll();
+				Assert.assertSame(m, first.getValue().pollFirst(), e);
+				if (first.getValue().isEmpty())
+					r.remove(first.getKey());
+				scheduled.remove(e);
+				now = e.getScheduledAt();
+				e.scheduledAt(null);
+			}
+			Assert.assertEquals(m, scheduled.size(), q.size());
+		}
+
+		while (!r.isEmpty()) {
+			final Entry<Long, LinkedList<Event>> first = r.firstEntry();
+			Assert.assertSame(m, first.getValue().pollFirst(), q.poll());
+			if (first.getValue().isEmpty())
+				r.remove(first.getKey());
+		}
+		Assert.assertTrue(m, q.isEmpty());
+		Assert.assertEquals(m, Long.MAX_VALUE, q.peekTime());
+	}
+
+	@Test
+	public void testHeap() {
+		test(new EventQueueHeap(), false);
+		test(new EventQueueHeap(), true);
+	}
+
+	@Test
+	public void testCalendar() {
+		test(new EventQueueCalendar(), false);
+		test(new EventQueueCalendar(), true);
+	}
+}
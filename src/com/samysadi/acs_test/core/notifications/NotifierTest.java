@@ -179,4 +179,112 @@ public class NotifierTest {
 
 	}
 
+	@Test
+	public void testListeners() {
+		final NotifierImpl n = new NotifierImpl();
+		final int[] count = new int[1];
+		final NotificationListener[] l = new NotificationListener[40];
+		for (int i = 0; i < l.length; i++)
+			l[i] = new InstantNotificationListener() {
+				@Override
+				protected void notificationPerformed(Notifier notifier,
+						int notification_code, Object data) {
+					count[0]++;
+				}
+			};
+
+		//many codes, and many listeners on one code
+		for (int code = 1; code <= 20; code++)
+			n.addListener(code, l[code]);
+		for (int i = 0; i < l.length; i++)
+			n.addListener(100, l[i]);
+		n.addListener(100, l[0]);
+		for (int code = 1; code <= 20; code++)
+			Assert.assertEquals(1, n.getListeners(code).size());
+		Assert.assertEquals(l.length, n.getListeners(100).size());
+
+		for (int code = 1; code <= 20; code += 2)
+			Assert.assertTrue(n.removeListener(code, l[code]));
+		Assert.assertFalse(n.removeListener(1, l[1]));
+		for (int code = 1; code <= 20; code++)
+			Assert.assertEquals(code % 2 == 0 ? 1 : 0, n.getListeners(code).size());
+
+		for (int i = 0; i < l.length; i += 2)
+			l[i].discard();
+		n.cleanupListeners();
+		Assert.assertEquals(l.length / 2, n.getListeners(100).size());
+		Assert.assertTrue(n.getListeners(2).isEmpty());
+
+		count[0] = 0;
+		n.notifyNow(100, null);
+		Assert.assertEquals(l.length / 2, count[0]);
+
+		//listeners added while notifying are not notified, and removed listeners are not notified anymore
+		final NotificationListener added = new InstantNotificationListener() {
+			@Override
+			protected void notificationPerformed(Notifier notifier,
+					int notification_code, Object data) {
+				count[0] += 1000;
+			}
+		};
+		n.addListener(200, new InstantNotificationListener() {
+			@Override
+			protected void notificationPerformed(Notifier notifier,
+					int notification_code, Object data) {
+				n.addListener(200, added);
+				n.removeListener(200, l[1]);
+			}
+		});
+		n.addListener(200, l[1]);
+		count[0] = 0;
+		n.notifyNow(200, null);
+		Assert.assertEquals(0, count[0]);
+		n.notifyNow(200, null);
+		Assert.assertEquals(1000, count[0]);
+
+		Assert.assertEquals(l.length / 2 + 2, n.removeAllListeners().size());
+		Assert.assertTrue(n.getListeners(100).isEmpty());
+	}
+
+	@Test
+	public void testDeferredOrder() {
+		final StringBuilder sb = new StringBuilder();
+		final NotifierImpl n = new NotifierImpl();
+		final NotifierImpl cancelled = new NotifierImpl();
+		final NotificationListener listener = new NotificationListener() {
+			@Override
+			protected void notificationPerformed(Notifier notifier,
+					int notification_code, Object data) {
+				sb.append(data);
+			}
+		};
+		n.addListener(1, listener);
+		cancelled.addListener(1, listener);
+
+		simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				n.notify(1, "a");
+				n.notify(1, "a");
+				cancelled.notify(1, "-");
+				simulator.schedule(new EventImpl() {
+					@Override
+					public void process() {
+						sb.append("X");
+						n.notify(1, "c");
+					}
+				});
+				n.notify(1, "b");
+				n.notify(1, "a");
+				cancelled.cancelNotifications();
+			}
+		});
+
+		simulator.start();
+
+		//equal pending notifications are merged, and notifications are delivered in order with other events
+		Assert.assertEquals("aXbc", sb.toString());
+		Assert.assertEquals(0, simulator.getNotificationQueue().size());
+	}
+
 }
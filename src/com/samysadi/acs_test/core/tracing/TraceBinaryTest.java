@@ -0,0 +1,175 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.core.tracing;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.core.tracing.TraceBinaryReader;
+import com.samysadi.acs.core.tracing.TraceBinaryWriter;
+import com.samysadi.acs.core.tracing.TraceDefault;
+import com.samysadi.acs.core.tracing.TraceItem;
+import com.samysadi.acs.core.tracing.TraceStreaming;
+import com.samysadi.acs.tracing.sim.SimRouteCacheHitsCountProbe;
+import com.samysadi.acs.tracing.sim.SimRouteCacheMissesCountProbe;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class TraceBinaryTest {
+
+	@Test
+	public void test0() throws Exception {
+		Simulator simulator = Utils.newSimulator();
+		final SimRouteCacheHitsCountProbe p = (SimRouteCacheHitsCountProbe) simulator.getProbe(SimRouteCacheHitsCountProbe.KEY);
+		final SimRouteCacheMissesCountProbe p2 = (SimRouteCacheMissesCountProbe) simulator.getProbe(SimRouteCacheMissesCountProbe.KEY);
+
+		final File file = File.createTempFile("acs", ".btrace");
+		file.deleteOnExit();
+		final TraceBinaryWriter writer = new TraceBinaryWriter(file);
+
+		final int count = 50;
+		final TraceStreaming<Long> trace = new TraceStreaming<Long>(p);
+		trace.setMaxLength(8);
+		trace.setDelay(0l);
+		trace.setOutput(writer);
+		trace.setEnabled(true);
+
+		final TraceDefault<Long> trace2 = new TraceDefault<Long>(p2);
+		trace2.setMaxLength(count * 2);
+		trace2.setDelay(0l);
+		trace2.setEnabled(true);
+
+		for (int i = 1; i <= count; i++) {
+			final long v = i;
+			simulator.schedule(i * Simulator.SECOND, new EventImpl() {
+				@Override
+				public void process() {
+					p.setValue(Long.valueOf(v * v - 1000));
+					p2.setValue(Long.valueOf(-v));
+				}
+			});
+		}
+
+		simulator.start();
+		trace.flushAll();
+		//twice, the second snapshot replaces the first one
+		writer.write(trace2, trace2.getValues());
+		writer.write(trace2, trace2.getValues());
+		writer.flush();
+		final long unindexedLength = file.length();
+		writer.close();
+
+		for (int k = 0; k < 2; k++) {
+			if (k == 1) {
+				//remove the index, the reader must scan the file
+				RandomAccessFile f = new RandomAccessFile(file, "rw");
+				f.setLength(unindexedLength);
+				f.close();
+			}
+
+			TraceBinaryReader reader = new TraceBinaryReader(file);
+			Assert.assertEquals(2, reader.getTraceCount());
+			Assert.assertEquals(trace.toString(), reader.getTraceName(0));
+			Assert.assertEquals(trace2.toString(), reader.getTraceName(1));
+
+			List<TraceItem<Object>> items = reader.getItems(0);
+			Assert.assertEquals(count, items.size());
+			for (int i = 1; i <= count; i++) {
+				Assert.assertEquals(i * Simulator.SECOND, items.get(i - 1).getTime());
+				Assert.assertEquals(Long.valueOf(i * i - 1000), items.get(i - 1).getValue());
+			}
+
+			items = reader.getItems(1);
+			Assert.assertEquals(trace2.getValues().size(), items.size());
+			for (int i = 0; i < items.size(); i++) {
+				Assert.assertEquals(trace2.getValues().get(i).getTime(), items.get(i).getTime());
+				Assert.assertEquals(trace2.getValues().get(i).getValue(), items.get(i).getValue());
+			}
+
+			//the export gives the same output as the text format
+			StringWriter expected = new StringWriter();
+			expected.write("# data format is: time_in_seconds\tprobe_value\n");
+			for (TraceItem<Long> item: trace2.getValues())
+				expected.write(Simulator.formatTime(item.getTime(), false, false) + "\t" + item.getValue() + "\n");
+			StringWriter w = new StringWriter();
+			reader.export(1, w, false);
+			Assert.assertEquals(expected.toString(), w.toString());
+
+			reader.close();
+		}
+
+		simulator.stop();
+		simulator.free();
+	}
+
+	@Test
+	public void test1() throws Exception {
+		Simulator simulator = Utils.newSimulator();
+		final SimRouteCacheHitsCountProbe p = (SimRouteCacheHitsCountProbe) simulator.getProbe(SimRouteCacheHitsCountProbe.KEY);
+
+		final File file = File.createTempFile("acs", ".btrace");
+		file.deleteOnExit();
+		final TraceBinaryWriter writer = new TraceBinaryWriter(file);
+
+		//values of other types are written as strings
+		final TraceDefault<Long> trace = new TraceDefault<Long>(p);
+		final List<TraceItem<?>> items = new ArrayList<TraceItem<?>>();
+		items.add(new TraceItem<Double>(0l, Double.valueOf(1.5d)));
+		items.add(new TraceItem<Double>(Simulator.SECOND, Double.valueOf(-3d)));
+		writer.write(trace, items);
+		items.add(new TraceItem<String>(2 * Simulator.SECOND, "a,b"));
+		items.add(new TraceItem<Object>(3 * Simulator.SECOND, null));
+		writer.append(trace, items);
+		writer.close();
+
+		TraceBinaryReader reader = new TraceBinaryReader(file);
+		List<TraceItem<Object>> r = reader.getItems(0);
+		Assert.assertEquals(6, r.size());
+		Assert.assertEquals(Double.valueOf(-3d), r.get(1).getValue());
+		Assert.assertEquals("1.5", r.get(2).getValue());
+		Assert.assertEquals("null", r.get(5).getValue());
+
+		StringWriter w = new StringWriter();
+		reader.export(0, w, true);
+		Assert.assertTrue(w.toString().contains(",\"a,b\"\n"));
+		reader.close();
+
+		simulator.stop();
+		simulator.free();
+	}
+}
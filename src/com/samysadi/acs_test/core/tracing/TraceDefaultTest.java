@@ -0,0 +1,197 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.core.tracing;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.tracing.Probe;
+import com.samysadi.acs.core.tracing.TraceDefault;
+import com.samysadi.acs.core.tracing.TraceItem;
+import com.samysadi.acs.tracing.sim.SimRouteCacheHitsCountProbe;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class TraceDefaultTest {
+
+	private static final class TestTrace extends TraceDefault<Object> {
+		public TestTrace(Probe<Object> parent) {
+			super(parent);
+		}
+
+		@Override
+		public boolean addValue(long time, Object value) {
+			return super.addValue(time, value);
+		}
+	}
+
+	/**
+	 * Reference implementation, this is the LinkedList based implementation of TraceDefault 1.2.
+	 */
+	private static final class ReferenceTrace {
+		private final int maxLength;
+		private long delay;
+		private final LinkedList<TraceItem<Object>> values = new LinkedList<TraceItem<Object>>();
+
+		public ReferenceTrace(int maxLength, long delay) {
+			super();
+			this.maxLength = maxLength;
+			this.delay = delay;
+		}
+
+		private void shrink() {
+			long m = this.delay;
+			while (this.values.size() > this.maxLength) {
+				long d = m >> 1;
+				if (d == 0l)
+					d = 1l;
+				m = removeExtraValues(m + d);
+			}
+
+			if (m > this.delay) {
+				removeExtraValues(m);
+				this.delay = m;
+			}
+		}
+
+		private long removeExtraValues(long delay) {
+			if (delay <= this.delay)
+				return 1l;
+
+			long min = delay;
+			long lastTime = -delay-1;
+			Iterator<TraceItem<Object>> it = this.values.iterator();
+			boolean hasNext = it.hasNext();
+			while (hasNext) {
+				TraceItem<Object> v = it.next();
+				hasNext = it.hasNext();
+				if (!hasNext)
+					break;
+				long d = v.getTime() - lastTime;
+				if (d < delay)
+					it.remove();
+				else {
+					lastTime = v.getTime();
+					if (d < min)
+						min = d;
+				}
+			}
+
+			return min;
+		}
+
+		public boolean addValue(long time, Object value) {
+			TraceItem<Object> item = new TraceItem<Object>(time, value);
+
+			if (this.values.isEmpty()) {
+				this.values.add(item);
+				return true;
+			}
+
+			TraceItem<Object> last = this.values.getLast();
+			long deltaTime = time - last.getTime();
+
+			if (deltaTime == 0) {
+				this.values.removeLast();
+				this.values.add(item);
+				return true;
+			}
+
+			if (value == last.getValue()
+					|| (value != null && value.equals(last.getValue())))
+				return false;
+
+			boolean dontRetain = this.values.size() != 1;
+			if (dontRetain) {
+				TraceItem<Object> beforeLast = this.values.get(this.values.size()-2);
+				if (last.getTime() - beforeLast.getTime() >= this.delay)
+					dontRetain = false;
+			}
+
+			if (dontRetain)
+				this.values.removeLast();
+
+			this.values.add(item);
+			shrink();
+			return true;
+		}
+	}
+
+	private static Object nextValue(Random random, int type) {
+		final int v = random.nextInt(4);
+		switch (type) {
+		case 0:
+			return Long.valueOf(v);
+		case 1:
+			return Double.valueOf(v / 2d);
+		default:
+			//mixed values
+			return random.nextBoolean() ? Long.valueOf(v) : (v == 0 ? null : String.valueOf(v));
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void test0() {
+		Simulator simulator = Utils.newSimulator();
+		final Probe p = simulator.getProbe(SimRouteCacheHitsCountProbe.KEY);
+		final Random random = new Random(0);
+
+		for (int type = 0; type < 3; type++) {
+			final TestTrace trace = new TestTrace(p);
+			trace.setMaxLength(50);
+			final ReferenceTrace r = new ReferenceTrace(trace.getMaxLength(), trace.getDelay());
+
+			long time = 0;
+			for (int i = 0; i < 20000; i++) {
+				time += random.nextInt(3) == 0 ? 0 : random.nextInt(1 + (int) Simulator.SECOND);
+				final Object v = nextValue(random, type);
+				Assert.assertEquals(r.addValue(time, v), trace.addValue(time, v));
+			}
+
+			Assert.assertEquals(r.delay, trace.getDelay());
+			final List<TraceItem<Object>> values = trace.getValues();
+			Assert.assertEquals(r.values.size(), values.size());
+			for (int i = 0; i < values.size(); i++) {
+				Assert.assertEquals(r.values.get(i).getTime(), values.get(i).getTime());
+				Assert.assertEquals(r.values.get(i).getValue(), values.get(i).getValue());
+			}
+		}
+
+		simulator.stop();
+		simulator.free();
+	}
+}
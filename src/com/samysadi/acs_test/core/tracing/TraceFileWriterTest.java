@@ -0,0 +1,119 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+
+package com.samysadi.acs_test.core.tracing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.tracing.TraceFileWriter;
+
+/**
+ *
+ * @since 1.3
+ */
+public class TraceFileWriterTest {
+
+	private static void delete(File f) {
+		final File[] children = f.listFiles();
+		if (children != null)
+			for (File c: children)
+				delete(c);
+		f.delete();
+	}
+
+	private static String read(File f) throws IOException {
+		return new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testUtf8() throws Exception {
+		final File dir = Files.createTempDirectory("acs-traces").toFile();
+		try {
+			final File f = new File(dir, "0.trace");
+			final TraceFileWriter w = new TraceFileWriter(f);
+			w.write("# probe_value_in_µs\n");
+			w.flush();
+			w.write("1\t✓\n");
+			w.close();
+			Assert.assertEquals("# probe_value_in_µs\n1\t✓\n", read(f));
+
+			try {
+				w.write("2");
+				Assert.fail();
+			} catch (IOException e) {
+				//writer closed
+			}
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	public void testManyWriters() throws Exception {
+		final File dir = Files.createTempDirectory("acs-traces").toFile();
+		try {
+			//more writers than files that are kept open
+			final int writersCount = TraceFileWriter.MAX_OPEN_FILES * 3;
+			final int count = 50;
+			final List<TraceFileWriter> writers = new ArrayList<TraceFileWriter>(writersCount);
+			final StringBuilder[] expected = new StringBuilder[writersCount];
+			for (int t = 0; t < writersCount; t++) {
+				writers.add(new TraceFileWriter(new File(dir, t + ".trace")));
+				expected[t] = new StringBuilder();
+			}
+
+			for (int i = 0; i < count; i++) {
+				for (int t = 0; t < writersCount; t++) {
+					//big lines, so that some writers open their file before being flushed
+					final String line = i + "\t" + new String(new char[t * 40]).replace('\0', 'x') + "\n";
+					writers.get(t).write(line);
+					expected[t].append(line);
+					if ((i + t) % 7 == 0)
+						writers.get(t).flush();
+				}
+				if (i == count / 2)
+					TraceFileWriter.releaseFiles();
+			}
+
+			for (TraceFileWriter w: writers)
+				w.close();
+
+			for (int t = 0; t < writersCount; t++)
+				Assert.assertEquals(expected[t].toString(), read(writers.get(t).getFile()));
+		} finally {
+			delete(dir);
+		}
+	}
+}
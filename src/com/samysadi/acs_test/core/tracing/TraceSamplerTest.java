@@ -0,0 +1,106 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.core.tracing;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.core.notifications.CoreNotificationCodes;
+import com.samysadi.acs.core.tracing.TraceDefault;
+import com.samysadi.acs.core.tracing.TraceItem;
+import com.samysadi.acs.tracing.sim.SimRouteCacheHitsCountProbe;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class TraceSamplerTest {
+
+	@Test
+	public void test0() {
+		Simulator simulator = Utils.newSimulator();
+		final SimRouteCacheHitsCountProbe p = (SimRouteCacheHitsCountProbe) simulator.getProbe(SimRouteCacheHitsCountProbe.KEY);
+
+		final int count = 10;
+		final TraceDefault<Long> changes = new TraceDefault<Long>(p);
+		changes.setMaxLength(100);
+		changes.setEnabled(true);
+
+		final TraceDefault<Long> sampled = new TraceDefault<Long>(p);
+		sampled.setMaxLength(100);
+		sampled.setSamplingInterval(3 * Simulator.SECOND);
+		sampled.setEnabled(true);
+		Assert.assertEquals(3 * Simulator.SECOND, sampled.getSamplingInterval());
+
+		for (int i = 1; i <= count; i++) {
+			final long v = i;
+			simulator.schedule(i * Simulator.SECOND, new EventImpl() {
+				@Override
+				public void process() {
+					//only the last value of each simulation time is recorded
+					p.setValue(Long.valueOf(-v));
+					p.setValue(Long.valueOf(v));
+				}
+			});
+		}
+
+		simulator.start();
+
+		//traces do not register tick listeners
+		Assert.assertTrue(simulator.getListeners(CoreNotificationCodes.SIMULATOR_TICK_PASSED).isEmpty());
+
+		List<TraceItem<Long>> values = changes.getValues();
+		Assert.assertEquals(count, values.size());
+		for (int i = 1; i <= count; i++) {
+			Assert.assertEquals(i * Simulator.SECOND, values.get(i - 1).getTime());
+			Assert.assertEquals(Long.valueOf(i), values.get(i - 1).getValue());
+		}
+
+		//first value is recorded when the trace is enabled, then every 3 seconds, and when the simulation stops
+		values = sampled.getValues();
+		Assert.assertEquals(2 + count / 3, values.size());
+		Assert.assertEquals(Simulator.SECOND, values.get(0).getTime());
+		for (int i = 1; i < values.size() - 1; i++) {
+			Assert.assertEquals(3 * i * Simulator.SECOND, values.get(i).getTime());
+			Assert.assertEquals(Long.valueOf(3 * i), values.get(i).getValue());
+		}
+		Assert.assertEquals(count * Simulator.SECOND, values.get(values.size() - 1).getTime());
+		Assert.assertEquals(Long.valueOf(count), values.get(values.size() - 1).getValue());
+
+		changes.discard();
+		sampled.discard();
+		Assert.assertFalse(simulator.hasMoreEvents());
+
+		simulator.stop();
+		simulator.free();
+	}
+}
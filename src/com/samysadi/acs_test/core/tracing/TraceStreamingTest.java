@@ -0,0 +1,161 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.core.tracing;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.core.tracing.TraceFileWriter;
+import com.samysadi.acs.core.tracing.TraceStreaming;
+import com.samysadi.acs.tracing.sim.SimRouteCacheHitsCountProbe;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class TraceStreamingTest {
+
+	@Test
+	public void test0() throws Exception {
+		Simulator simulator = Utils.newSimulator();
+		final SimRouteCacheHitsCountProbe p = (SimRouteCacheHitsCountProbe) simulator.getProbe(SimRouteCacheHitsCountProbe.KEY);
+
+		final int count = 20;
+		final TraceStreaming<Long> trace = new TraceStreaming<Long>(p);
+		trace.setMaxLength(4);
+		trace.setDelay(0l);
+		final StringWriter w = new StringWriter();
+		trace.setOutput(w);
+		trace.setEnabled(true);
+
+		for (int i = 1; i <= count; i++) {
+			final long v = i;
+			simulator.schedule(i * Simulator.SECOND, new EventImpl() {
+				@Override
+				public void process() {
+					p.setValue(Long.valueOf(v));
+					Assert.assertTrue(trace.getValues().size() <= trace.getMaxLength());
+				}
+			});
+		}
+
+		simulator.start();
+		trace.flushAll();
+		Assert.assertTrue(trace.getValues().isEmpty());
+
+		String[] lines = w.toString().split("\n");
+		Assert.assertTrue(lines[0].startsWith("#"));
+		Assert.assertEquals(count + 1, lines.length);
+		for (int i = 1; i <= count; i++) {
+			String[] l = lines[i].split("\t");
+			Assert.assertEquals(i * Simulator.SECOND, Math.round(Double.parseDouble(l[0]) * Simulator.SECOND));
+			Assert.assertEquals(i, Long.parseLong(l[1]));
+		}
+
+		simulator.stop();
+		simulator.free();
+	}
+
+	private static int openFilesCount() {
+		final String[] fds = new File("/proc/self/fd").list();
+		return fds == null ? -1 : fds.length;
+	}
+
+	private static void delete(File f) {
+		final File[] children = f.listFiles();
+		if (children != null)
+			for (File c: children)
+				delete(c);
+		f.delete();
+	}
+
+	@Test
+	public void testManyFileOutputs() throws Exception {
+		Simulator simulator = Utils.newSimulator();
+		final SimRouteCacheHitsCountProbe p = (SimRouteCacheHitsCountProbe) simulator.getProbe(SimRouteCacheHitsCountProbe.KEY);
+		final File dir = Files.createTempDirectory("acs-traces").toFile();
+
+		//more traces than the usual limit of open files
+		final int tracesCount = 2000;
+		final int count = 20;
+		final List<TraceStreaming<Long>> traces = new ArrayList<TraceStreaming<Long>>(tracesCount);
+		final int openFiles = openFilesCount();
+		try {
+			for (int t = 0; t < tracesCount; t++) {
+				final TraceStreaming<Long> trace = new TraceStreaming<Long>(p);
+				trace.setMaxLength(4);
+				trace.setDelay(0l);
+				trace.setOutput(new TraceFileWriter(new File(dir, t + ".trace")));
+				trace.setEnabled(true);
+				traces.add(trace);
+			}
+
+			final int[] maxOpenFiles = new int[] {openFiles};
+			for (int i = 1; i <= count; i++) {
+				final long v = i;
+				simulator.schedule(i * Simulator.SECOND, new EventImpl() {
+					@Override
+					public void process() {
+						p.setValue(Long.valueOf(v));
+						maxOpenFiles[0] = Math.max(maxOpenFiles[0], openFilesCount());
+					}
+				});
+			}
+
+			simulator.start();
+			if (openFiles >= 0)
+				Assert.assertTrue(maxOpenFiles[0] - openFiles < 16);
+
+			for (TraceStreaming<Long> trace: traces) {
+				trace.flushAll();
+				trace.getOutput().close();
+			}
+
+			for (int t = 0; t < tracesCount; t++) {
+				final List<String> lines = Files.readAllLines(new File(dir, t + ".trace").toPath(), StandardCharsets.UTF_8);
+				Assert.assertEquals(count + 1, lines.size());
+				Assert.assertTrue(lines.get(0).startsWith("#"));
+				for (int i = 1; i <= count; i++)
+					Assert.assertEquals(i, Long.parseLong(lines.get(i).split("\t")[1]));
+			}
+		} finally {
+			delete(dir);
+			simulator.stop();
+			simulator.free();
+		}
+	}
+}
@@ -0,0 +1,282 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.hardware.network.operation.provisioner;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.hardware.network.NetworkLink;
+import com.samysadi.acs.hardware.network.operation.NetworkOperation;
+import com.samysadi.acs.hardware.network.operation.provisioner.FairNetworkProvisioner;
+import com.samysadi.acs.hardware.network.operation.provisioner.MaxMinNetworkProvisioner;
+import com.samysadi.acs.hardware.network.operation.provisioner.NetworkProvisioner;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.virtualization.job.Job;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class MaxMinNetworkProvisionerTest {
+	Simulator simulator;
+	Host h0, h1, h2;
+	Job j0, j1, j2;
+
+	private static final long LINK_BW = 100 * Simulator.MEBIBYTE;
+	private static final long OP_DATA_LENGTH = 1000 * Simulator.MEBIBYTE;
+
+	private volatile AssertionError exc;
+
+	@After
+	public void afterTest() {
+		simulator.stop();
+		simulator.free();
+	}
+
+	@Before
+	public void beforeTest() {
+		simulator = Utils.newSimulator();
+		simulator.getConfig().setString("NetworkProvisioner_Class", MaxMinNetworkProvisioner.class.getName());
+		CloudProvider cloudProvider = simulator.getCloudProviders().get(0);
+		Utils.generateTopology0(simulator);
+
+		h0 = cloudProvider.getHosts().get(0);
+		h1 = cloudProvider.getHosts().get(1);
+		h2 = cloudProvider.getHosts().get(2);
+		j0 = newJob(h0);
+		j1 = newJob(h1);
+		j2 = newJob(h2);
+	}
+
+	/**
+	 * Returns the link from the given host to the switch.
+	 */
+	private static NetworkLink upLink(Host h) {
+		return h.getInterfaces().get(0).getUpLink();
+	}
+
+	/**
+	 * Returns the link from the switch to the given host.
+	 */
+	private static NetworkLink downLink(Host h) {
+		return h.getInterfaces().get(0).getDownLink();
+	}
+
+	private static Job newJob(Host h) {
+		Job j = Factory.getFactory(Simulator.getSimulator()).newJob(null, null);
+		j.setParent(Utils.getVmFor(h));
+		j.doStart();
+		return j;
+	}
+
+	private void assertLEquals(long max, long v) {
+		if (max == v + 1)
+			return;
+		Assert.assertEquals(max, v);
+	}
+
+	@Test
+	public void test0() {
+		simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				//the link to h1 is shared by three flows
+				final NetworkOperation a = j0.sendData(j1, OP_DATA_LENGTH, null);
+				final NetworkOperation c = j2.sendData(j1, OP_DATA_LENGTH, null);
+				final NetworkOperation d = j2.sendData(j1, OP_DATA_LENGTH, null);
+				//the link from h0 is shared by a and b, b can use the bandwidth that a cannot use
+				final NetworkOperation b = j0.sendData(j2, OP_DATA_LENGTH, null);
+
+				Simulator.getSimulator().schedule(1, new EventImpl() {
+					@Override
+					public void process() {
+						try {
+							Assert.assertEquals(LINK_BW / 3, a.getAllocatedResource().getBw());
+							Assert.assertEquals(LINK_BW / 3, c.getAllocatedResource().getBw());
+							Assert.assertEquals(LINK_BW / 3, d.getAllocatedResource().getBw());
+							assertLEquals(LINK_BW, a.getAllocatedResource().getBw() + b.getAllocatedResource().getBw());
+						} catch (AssertionError e) {
+							exc = e;
+						}
+						Simulator.getSimulator().stop();
+					}
+				});
+			}
+		});
+
+		simulator.start();
+		if (exc != null)
+			throw exc;
+	}
+
+	@Test
+	public void test1() {
+		simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				final NetworkOperation a = j0.sendData(j1, OP_DATA_LENGTH, null);
+				final NetworkOperation b = j0.sendData(j2, OP_DATA_LENGTH, null);
+				final NetworkOperation c = j2.sendData(j1, OP_DATA_LENGTH / 2, null);
+
+				Simulator.getSimulator().schedule(1, new EventImpl() {
+					@Override
+					public void process() {
+						try {
+							Assert.assertEquals(LINK_BW / 2, a.getAllocatedResource().getBw());
+							Assert.assertEquals(LINK_BW / 2, b.getAllocatedResource().getBw());
+							Assert.assertEquals(LINK_BW / 2, c.getAllocatedResource().getBw());
+						} catch (AssertionError e) {
+							exc = e;
+						}
+					}
+				});
+			}
+		});
+
+		simulator.start();
+		if (exc != null)
+			throw exc;
+
+		//c ends after 5 seconds, then a and b still share the link from h0
+		Assert.assertEquals((long) Math.ceil((double) OP_DATA_LENGTH * Simulator.SECOND / (LINK_BW / 2)), simulator.getTime());
+	}
+
+	@Test
+	public void testMultiLinkBottleneck() {
+		simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				//the link from h2 is shared by b, c and d
+				//the link to h1 is shared by a, b and c
+				final NetworkOperation a = j0.sendData(j1, OP_DATA_LENGTH, null);
+				final NetworkOperation b = j2.sendData(j1, OP_DATA_LENGTH, null);
+				final NetworkOperation c = j2.sendData(j1, OP_DATA_LENGTH, null);
+				final NetworkOperation d = j2.sendData(j0, OP_DATA_LENGTH, null);
+				//the link to h0 is shared by d and e, per-link fair shares would give them the same bandwidth.
+				//but d is limited to a third of the link from h2, so e can use the remaining bandwidth
+				final NetworkOperation e = j1.sendData(j0, OP_DATA_LENGTH, null);
+
+				Simulator.getSimulator().schedule(1, new EventImpl() {
+					@Override
+					public void process() {
+						try {
+							Assert.assertEquals(LINK_BW / 3, a.getAllocatedResource().getBw());
+							Assert.assertEquals(LINK_BW / 3, b.getAllocatedResource().getBw());
+							Assert.assertEquals(LINK_BW / 3, c.getAllocatedResource().getBw());
+							Assert.assertEquals(LINK_BW / 3, d.getAllocatedResource().getBw());
+							Assert.assertEquals(LINK_BW - LINK_BW / 3, e.getAllocatedResource().getBw());
+						} catch (AssertionError e) {
+							exc = e;
+						}
+						Simulator.getSimulator().stop();
+					}
+				});
+			}
+		});
+
+		simulator.start();
+		if (exc != null)
+			throw exc;
+	}
+
+	@Test
+	public void testMixedRoute() {
+		//the link from h0 does not use the max-min allocator, and gives a quarter of the bandwidth
+		Factory.getFactory(simulator).newNetworkProvisioner(FairNetworkProvisioner.class, upLink(h0), LINK_BW / 4, 0, 0);
+		Assert.assertTrue(upLink(h0).getNetworkProvisioner() instanceof FairNetworkProvisioner);
+
+		simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				//the link to h1 is shared by a and b, b can use the bandwidth that a cannot use
+				final NetworkOperation a = j0.sendData(j1, OP_DATA_LENGTH, null);
+				final NetworkOperation b = j2.sendData(j1, OP_DATA_LENGTH, null);
+
+				Simulator.getSimulator().schedule(1, new EventImpl() {
+					@Override
+					public void process() {
+						try {
+							Assert.assertEquals(LINK_BW / 4, a.getAllocatedResource().getBw());
+							Assert.assertEquals(LINK_BW - LINK_BW / 4, b.getAllocatedResource().getBw());
+						} catch (AssertionError e) {
+							exc = e;
+						}
+						Simulator.getSimulator().stop();
+					}
+				});
+			}
+		});
+
+		simulator.start();
+		if (exc != null)
+			throw exc;
+	}
+
+	@Test
+	public void testPromiseBeforeStart() {
+		simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				final NetworkOperation a = j0.sendData(j1, OP_DATA_LENGTH, null);
+
+				Simulator.getSimulator().schedule(1, new EventImpl() {
+					@Override
+					public void process() {
+						try {
+							final NetworkProvisioner p = downLink(h1).getNetworkProvisioner();
+							Assert.assertEquals(LINK_BW, a.getAllocatedResource().getBw());
+							Assert.assertEquals(LINK_BW, p.getResourcePromise(a).getBw());
+
+							//an operation that is not started shares the link with a
+							final NetworkOperation b = Factory.getFactory(simulator).newNetworkOperation(null, j2, j1, OP_DATA_LENGTH);
+							Assert.assertEquals(LINK_BW / 2, p.getResourcePromise(b).getBw());
+
+							//but a can still use all the bandwidth, as long as b is not started
+							Assert.assertEquals(LINK_BW, p.getResourcePromise(a).getBw());
+							b.unplace();
+						} catch (AssertionError e) {
+							exc = e;
+						}
+					}
+				});
+			}
+		});
+
+		simulator.start();
+		if (exc != null)
+			throw exc;
+
+		Assert.assertEquals((long) Math.ceil((double) OP_DATA_LENGTH * Simulator.SECOND / LINK_BW), simulator.getTime());
+	}
+}
@@ -0,0 +1,361 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.hardware.network.routingprotocol;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.entity.FailureProneEntity.FailureState;
+import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
+import com.samysadi.acs.core.tracing.Probe;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.hardware.network.NetworkInterface;
+import com.samysadi.acs.hardware.network.Switch;
+import com.samysadi.acs.hardware.network.routingprotocol.RoutingProtocol.RouteConstraints;
+import com.samysadi.acs.hardware.network.routingprotocol.RoutingProtocol.RouteInfo;
+import com.samysadi.acs.hardware.network.routingprotocol.RoutingProtocolDefault;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.tracing.sim.SimRouteCacheHitsCountProbe;
+import com.samysadi.acs.tracing.sim.SimRouteCacheMissesCountProbe;
+import com.samysadi.acs.utility.IpAddress;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.utility.factory.FactoryUtils;
+import com.samysadi.acs_test.Utils;
+
+/**
+ * Tests the route cache of {@link RoutingProtocolDefault}.
+ *
+ * @since 1.3
+ */
+public class RoutingProtocolCacheTest {
+
+	private Simulator simulator;
+	private CloudProvider cloudProvider;
+	private Host h0;
+	private Host h1;
+	private Host hl;
+	private Switch s0;
+	private Switch s1;
+	private Switch sl;
+	private NetworkInterface interfaceToS0;
+	private NetworkInterface interfaceToS1;
+	private Probe<?> hits;
+	private Probe<?> misses;
+	private long expectedHits;
+	private long expectedMisses;
+
+	private void setUp(int routeCacheCapacity) {
+		simulator = Utils.newSimulator();
+		cloudProvider = simulator.getCloudProviders().get(0);
+		Utils.generateTopology2(simulator);
+
+		//hosts do not share the simulator's configuration
+		simulator.getConfig().setInt("RoutingProtocol.RouteCacheCapacity", routeCacheCapacity);
+		for (Host h: cloudProvider.getHosts())
+			h.getConfigRec().setInt("RoutingProtocol.RouteCacheCapacity", routeCacheCapacity);
+
+		final Factory f = Factory.getFactory(cloudProvider);
+		for (Host h: cloudProvider.getHosts())
+			f.newRoutingProtocol(RoutingProtocolDefault.class, h);
+		for (Switch s: cloudProvider.getSwitches())
+			f.newRoutingProtocol(RoutingProtocolDefault.class, s);
+
+		h0 = cloudProvider.getHosts().get(0);
+		h1 = cloudProvider.getHosts().get(1);
+		hl = cloudProvider.getHosts().get(cloudProvider.getHosts().size()-1);
+		s0 = cloudProvider.getSwitches().get(0);
+		s1 = cloudProvider.getSwitches().get(1);
+		sl = (Switch) hl.getInterfaces().get(0).getRemoteNetworkInterface().getParent();
+		for (NetworkInterface ni: h0.getInterfaces()) {
+			if (ni.getRemoteNetworkInterface().getParent() == s0)
+				interfaceToS0 = ni;
+			else if (ni.getRemoteNetworkInterface().getParent() == s1)
+				interfaceToS1 = ni;
+		}
+		Assert.assertNotNull(interfaceToS0);
+		Assert.assertNotNull(interfaceToS1);
+
+		hits = simulator.getProbe(SimRouteCacheHitsCountProbe.KEY);
+		misses = simulator.getProbe(SimRouteCacheMissesCountProbe.KEY);
+		expectedHits = 0;
+		expectedMisses = 0;
+	}
+
+	@After
+	public void tearDown() {
+		if (simulator == null)
+			return;
+		simulator.stop();
+		simulator.free();
+		simulator = null;
+	}
+
+	/**
+	 * Runs the simulation shortly, so that pending notifications (ie: failure and power state changes) are
+	 * delivered to routing protocols.
+	 */
+	private void deliverNotifications() {
+		simulator.start(1);
+	}
+
+	private void assertCounters() {
+		Assert.assertEquals("hits", Long.valueOf(expectedHits), hits.getValue());
+		Assert.assertEquals("misses", Long.valueOf(expectedMisses), misses.getValue());
+	}
+
+	private RouteInfo findRoute(Host destination, boolean hit) {
+		final RouteInfo r = h0.getRoutingProtocol().findRoute(destination, null);
+		if (hit)
+			expectedHits++;
+		else
+			expectedMisses++;
+		assertCounters();
+		return r;
+	}
+
+	/**
+	 * Caches a route to h1, which is not affected by the changes made in the tests, and which is used to check
+	 * whether caches are flushed.
+	 */
+	private void cacheWitness() {
+		Assert.assertNotNull(findRoute(h1, false));
+	}
+
+	private void assertFlushed(boolean flushed) {
+		Assert.assertNotNull(findRoute(h1, !flushed));
+	}
+
+	private void assertRoute(RouteInfo r, NetworkInterface first, int size) {
+		Assert.assertNotNull(r);
+		Assert.assertEquals(size, r.getRoute().size());
+		NetworkInterface last = null;
+		for (NetworkInterface ni: r.getRoute()) {
+			if (last == null)
+				Assert.assertEquals(first, ni);
+			last = ni;
+		}
+		Assert.assertEquals(hl, last.getRemoteNetworkInterface().getParent());
+	}
+
+	private static boolean uses(RouteInfo r, NetworkInterface ni) {
+		for (NetworkInterface n: r.getRoute())
+			if (n == ni)
+				return true;
+		return false;
+	}
+
+	@Test
+	public void testHitsAndMisses() {
+		setUp(16);
+
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+		assertRoute(findRoute(hl, true), interfaceToS0, 3);
+
+		//the caller may modify the returned route without altering the cached one
+		RouteInfo r = findRoute(hl, true);
+		Assert.assertTrue(r.getRoute().prepend(interfaceToS0.getRemoteNetworkInterface()));
+		Assert.assertEquals(4, r.getRoute().size());
+		assertRoute(findRoute(hl, true), interfaceToS0, 3);
+
+		//loopback routes and routes with constraints are not cached
+		Assert.assertNotNull(h0.getRoutingProtocol().findRoute(h0, null));
+		Assert.assertNotNull(h0.getRoutingProtocol().findRoute(hl, new RouteConstraints()));
+		assertCounters();
+	}
+
+	@Test
+	public void testEviction() {
+		setUp(2);
+		final Host d1 = h1;
+		final Host d2 = cloudProvider.getHosts().get(2);
+		final Host d3 = hl;
+
+		findRoute(d1, false);
+		findRoute(d2, false);
+		findRoute(d1, true);
+		//d2 is the least recently used destination
+		findRoute(d3, false);
+		findRoute(d1, true);
+		findRoute(d3, true);
+		findRoute(d2, false);
+		//d1 is now the least recently used destination
+		findRoute(d3, true);
+		findRoute(d1, false);
+		findRoute(d2, false);
+	}
+
+	@Test
+	public void testLinkFailure() {
+		setUp(16);
+
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+		assertRoute(findRoute(hl, true), interfaceToS0, 3);
+
+		//failures do not flush caches, but the cached route is no longer usable
+		cacheWitness();
+		interfaceToS0.setFailureState(FailureState.FAILED);
+		deliverNotifications();
+		assertFlushed(false);
+
+		RouteInfo r = findRoute(hl, false);
+		assertRoute(r, interfaceToS1, 4);
+		Assert.assertFalse(uses(r, interfaceToS0));
+		assertRoute(findRoute(hl, true), interfaceToS1, 4);
+
+		//the remote end of the link also makes the route unusable
+		interfaceToS0.setFailureState(FailureState.OK);
+		deliverNotifications();
+		assertFlushed(true);
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+		interfaceToS0.getRemoteNetworkInterface().setFailureState(FailureState.FAILED);
+		deliverNotifications();
+		r = findRoute(hl, false);
+		assertRoute(r, interfaceToS1, 4);
+		Assert.assertFalse(uses(r, interfaceToS0));
+	}
+
+	@Test
+	public void testDeviceFailure() {
+		setUp(16);
+
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+
+		sl.setFailureState(FailureState.FAILED);
+		deliverNotifications();
+		Assert.assertNull(findRoute(hl, false));
+		//unreachable destinations are cached too
+		Assert.assertNull(findRoute(hl, true));
+
+		//repairs flush caches
+		cacheWitness();
+		sl.setFailureState(FailureState.OK);
+		deliverNotifications();
+		assertFlushed(true);
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+		assertRoute(findRoute(hl, true), interfaceToS0, 3);
+	}
+
+	@Test
+	public void testPowerState() {
+		setUp(16);
+
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+
+		//all routes to hl go through s0
+		cacheWitness();
+		s0.setPowerState(PowerState.OFF);
+		deliverNotifications();
+		assertFlushed(false);
+		Assert.assertNull(findRoute(hl, false));
+		Assert.assertNull(findRoute(hl, true));
+
+		//powering on devices flushes caches
+		s0.setPowerState(PowerState.ON);
+		deliverNotifications();
+		assertFlushed(true);
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+
+		//the destination itself
+		hl.setPowerState(PowerState.OFF);
+		deliverNotifications();
+		assertFlushed(false);
+		Assert.assertNull(findRoute(hl, false));
+
+		hl.setPowerState(PowerState.ON);
+		deliverNotifications();
+		assertFlushed(true);
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+		assertRoute(findRoute(hl, true), interfaceToS0, 3);
+	}
+
+	@Test
+	public void testRoutingUpdate() {
+		setUp(16);
+
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+		assertRoute(findRoute(hl, true), interfaceToS0, 3);
+
+		cacheWitness();
+		final IpAddress hlIp = IpAddress.newIpAddress();
+		hl.getInterfaces().get(0).setIp(hlIp);
+		h0.getRoutingProtocol().addRoutingHint(hlIp, hlIp, interfaceToS1);
+		assertFlushed(true);
+		assertRoute(findRoute(hl, false), interfaceToS1, 4);
+		assertRoute(findRoute(hl, true), interfaceToS1, 4);
+
+		h0.getRoutingProtocol().clearRoutingHints();
+		assertFlushed(true);
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+
+		//a routing update on another device flushes this cache too
+		Factory.getFactory(cloudProvider).newRoutingProtocol(RoutingProtocolDefault.class, s1);
+		assertFlushed(true);
+		assertRoute(findRoute(hl, false), interfaceToS0, 3);
+	}
+
+	@Test
+	public void testEqualCostRoutes() {
+		setUp(16);
+
+		//a second link between h0 and s0 gives two routes to hl that have the same metric
+		final NetworkInterface secondInterfaceToS0 = FactoryUtils.linkDevices(simulator.getConfig(), h0, s0,
+				100 * Simulator.MEBIBYTE, 100 * Simulator.MEBIBYTE, 0, 0)[0];
+
+		boolean first = false;
+		boolean second = false;
+		for (int i = 0; i < 64; i++) {
+			final RouteInfo r = findRoute(hl, i != 0);
+			Assert.assertEquals(3, r.getRoute().size());
+			if (uses(r, interfaceToS0))
+				first = true;
+			else if (uses(r, secondInterfaceToS0))
+				second = true;
+		}
+		//cached routes are still chosen randomly
+		Assert.assertTrue(first);
+		Assert.assertTrue(second);
+
+		//the other route is used when one of them fails
+		secondInterfaceToS0.setFailureState(FailureState.FAILED);
+		deliverNotifications();
+		for (int i = 0; i < 16; i++) {
+			final RouteInfo r = h0.getRoutingProtocol().findRoute(hl, null);
+			assertRoute(r, interfaceToS0, 3);
+		}
+	}
+
+	@Test
+	public void testDisabledCache() {
+		setUp(0);
+
+		assertRoute(h0.getRoutingProtocol().findRoute(hl, null), interfaceToS0, 3);
+		assertRoute(h0.getRoutingProtocol().findRoute(hl, null), interfaceToS0, 3);
+		assertCounters();
+	}
+}
@@ -0,0 +1,146 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.hardware.network.routingprotocol;
+
+import java.util.Iterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.entity.FailureProneEntity.FailureState;
+import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.hardware.network.NetworkInterface;
+import com.samysadi.acs.hardware.network.Switch;
+import com.samysadi.acs.hardware.network.routingprotocol.RoutingProtocol.RouteInfo;
+import com.samysadi.acs.hardware.network.routingprotocol.RoutingProtocolShortestPath;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.utility.factory.FactoryUtils;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class RoutingProtocolShortestPathTest {
+
+	private static void setRoutingProtocols(CloudProvider cloudProvider) {
+		final Factory f = Factory.getFactory(cloudProvider);
+		for (Host h: cloudProvider.getHosts())
+			f.newRoutingProtocol(RoutingProtocolShortestPath.class, h);
+		for (Switch s: cloudProvider.getSwitches())
+			f.newRoutingProtocol(RoutingProtocolShortestPath.class, s);
+	}
+
+	@Test
+	public void test0() {
+		Simulator simulator = Utils.newSimulator();
+		CloudProvider cloudProvider = simulator.getCloudProviders().get(0);
+		Utils.generateTopology2(simulator);
+		setRoutingProtocols(cloudProvider);
+		Host h0 = cloudProvider.getHosts().get(0);
+		Host hl = cloudProvider.getHosts().get(cloudProvider.getHosts().size()-1);
+		Switch s0 = cloudProvider.getSwitches().get(0);
+		Switch sl = (Switch) hl.getInterfaces().get(0).getRemoteNetworkInterface().getParent();
+
+		Assert.assertTrue(h0.getRoutingProtocol() instanceof RoutingProtocolShortestPath);
+
+		//twice, the second lookup uses the computed table
+		for (int i = 0; i < 2; i++) {
+			RouteInfo r = h0.getRoutingProtocol().findRoute(hl, null);
+
+			Assert.assertNotNull(r);
+			Assert.assertEquals(3, r.getRoute().size());
+			Iterator<NetworkInterface> it = r.getRoute().iterator(); NetworkInterface n;
+			n = it.next(); Assert.assertEquals(h0, n.getParent());
+			n = it.next(); Assert.assertEquals(s0, n.getParent());
+			n = it.next(); Assert.assertEquals(sl, n.getParent());
+			Assert.assertEquals(hl, n.getRemoteNetworkInterface().getParent());
+		}
+
+		//the table is outdated, and the new one has no route
+		sl.setFailureState(FailureState.FAILED);
+		Assert.assertNull(h0.getRoutingProtocol().findRoute(hl, null));
+
+		//tables are flushed when the switch is repaired
+		sl.setFailureState(FailureState.OK);
+		simulator.start(1);
+		Assert.assertNotNull(h0.getRoutingProtocol().findRoute(hl, null));
+
+		s0.setPowerState(PowerState.OFF);
+		Assert.assertNull(h0.getRoutingProtocol().findRoute(hl, null));
+
+		simulator.stop();
+		simulator.free();
+	}
+
+	@Test
+	public void testEqualCostNextHops() {
+		Simulator simulator = Utils.newSimulator();
+		CloudProvider cloudProvider = simulator.getCloudProviders().get(0);
+		Utils.generateTopology2(simulator);
+		setRoutingProtocols(cloudProvider);
+		Host h0 = cloudProvider.getHosts().get(0);
+		Host hl = cloudProvider.getHosts().get(cloudProvider.getHosts().size()-1);
+		Switch s0 = cloudProvider.getSwitches().get(0);
+
+		NetworkInterface first = null;
+		for (NetworkInterface ni: h0.getInterfaces())
+			if (ni.getRemoteNetworkInterface().getParent() == s0)
+				first = ni;
+		//a second link between h0 and s0 gives two next hops that have the same cost
+		NetworkInterface second = FactoryUtils.linkDevices(simulator.getConfig(), h0, s0,
+				100 * Simulator.MEBIBYTE, 100 * Simulator.MEBIBYTE, 0, 0)[0];
+
+		boolean usedFirst = false;
+		boolean usedSecond = false;
+		for (int i = 0; i < 64; i++) {
+			RouteInfo r = h0.getRoutingProtocol().findRoute(hl, null);
+			Assert.assertEquals(3, r.getRoute().size());
+			NetworkInterface n = r.getRoute().iterator().next();
+			if (n == first)
+				usedFirst = true;
+			else if (n == second)
+				usedSecond = true;
+		}
+		Assert.assertTrue(usedFirst);
+		Assert.assertTrue(usedSecond);
+
+		//the table is outdated when one of the next hops fails
+		second.setFailureState(FailureState.FAILED);
+		for (int i = 0; i < 16; i++) {
+			RouteInfo r = h0.getRoutingProtocol().findRoute(hl, null);
+			Assert.assertEquals(3, r.getRoute().size());
+			Assert.assertEquals(first, r.getRoute().iterator().next());
+		}
+
+		simulator.stop();
+		simulator.free();
+	}
+}
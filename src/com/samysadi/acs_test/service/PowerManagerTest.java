@@ -0,0 +1,125 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.service;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.entity.FailureProneEntity.FailureState;
+import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.service.power.PowerManager;
+import com.samysadi.acs.tracing.cp.CpActiveHostsCountProbe;
+import com.samysadi.acs.tracing.cp.CpBootingHostsCountProbe;
+import com.samysadi.acs.tracing.cp.CpFailedHostsCountProbe;
+import com.samysadi.acs.tracing.cp.CpPoweredOffHostsCountProbe;
+import com.samysadi.acs.tracing.cp.CpShuttingDownHostsCountProbe;
+import com.samysadi.acs.utility.factory.FactoryUtils;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class PowerManagerTest {
+	Simulator simulator;
+	CloudProvider cloudProvider;
+	PowerManager powerManager;
+
+	@After
+	public void afterTest() {
+		simulator.stop();
+		simulator.free();
+	}
+
+	@Before
+	public void beforeTest() {
+		simulator = Utils.newSimulator();
+		simulator.getConfig().setInt("Trace.Count", 0);
+		cloudProvider = FactoryUtils.generateCloudProvider(simulator.getConfig());
+		powerManager = cloudProvider.getPowerManager();
+	}
+
+	private long value(String probeKey) {
+		return ((Long) cloudProvider.getProbe(probeKey).getValue()).longValue();
+	}
+
+	@Test
+	public void test() {
+		final List<Host> hosts = cloudProvider.getHosts();
+		final int n = hosts.size();
+		Assert.assertTrue(n >= 4);
+
+		for (Host h: hosts)
+			h.setPowerState(PowerState.OFF);
+
+		Assert.assertEquals(0, value(CpActiveHostsCountProbe.KEY));
+		Assert.assertEquals(n, value(CpPoweredOffHostsCountProbe.KEY));
+		Assert.assertEquals(0, value(CpBootingHostsCountProbe.KEY));
+
+		for (int i = 0; i < n; i++)
+			powerManager.powerOn(hosts.get(i));
+
+		simulator.schedule(Simulator.SECOND, new EventImpl() {
+			@Override
+			public void process() {
+				Assert.assertEquals(n, value(CpActiveHostsCountProbe.KEY));
+				Assert.assertEquals(0, value(CpBootingHostsCountProbe.KEY));
+				Assert.assertEquals(0, value(CpPoweredOffHostsCountProbe.KEY));
+				Assert.assertEquals(n, powerManager.getPoweredOnHosts().size());
+
+				powerManager.powerOff(hosts.get(0));
+				powerManager.powerOff(hosts.get(n - 1));
+				hosts.get(1).setPowerState(PowerState.SHUTTING_DOWN);
+				hosts.get(2).setFailureState(FailureState.FAILED);
+			}
+		});
+
+		simulator.start();
+
+		final List<Host> on = powerManager.getPoweredOnHosts();
+		Assert.assertEquals(n - 2, on.size());
+		Assert.assertFalse(on.contains(hosts.get(0)));
+		Assert.assertFalse(on.contains(hosts.get(n - 1)));
+		for (int i = 1; i < n - 1; i++)
+			Assert.assertTrue(on.contains(hosts.get(i)));
+		for (int i = 0; i < on.size(); i++)
+			Assert.assertEquals(i, on.indexOf(on.get(i)));
+
+		Assert.assertEquals(n - 4, value(CpActiveHostsCountProbe.KEY));
+		Assert.assertEquals(2, value(CpPoweredOffHostsCountProbe.KEY));
+		Assert.assertEquals(1, value(CpShuttingDownHostsCountProbe.KEY));
+		Assert.assertEquals(1, value(CpFailedHostsCountProbe.KEY));
+	}
+}
@@ -0,0 +1,131 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.service;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.entity.PoweredEntity.PowerState;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.service.vmplacement.VmPlacementPolicy;
+import com.samysadi.acs.service.vmplacement.VmPlacementPolicyIndexedBestFit;
+import com.samysadi.acs.service.vmplacement.VmPlacementPolicyIndexedWorstFit;
+import com.samysadi.acs.utility.factory.FactoryUtils;
+import com.samysadi.acs.virtualization.VirtualMachine;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class VmPlacementPolicyIndexedTest {
+	Simulator simulator;
+	CloudProvider cloudProvider;
+
+	@After
+	public void afterTest() {
+		simulator.stop();
+		simulator.free();
+	}
+
+	@Before
+	public void beforeTest() {
+		simulator = Utils.newSimulator();
+		simulator.getConfig().setInt("Trace.Count", 0);
+		cloudProvider = FactoryUtils.generateCloudProvider(simulator.getConfig());
+	}
+
+	private void test(final VmPlacementPolicy policy, final boolean best) {
+		policy.setParent(cloudProvider);
+		Assert.assertSame(policy, cloudProvider.getVmPlacementPolicy());
+
+		final List<Host> hosts = cloudProvider.getHosts();
+		for (Host h: hosts) {
+			h.setPowerState(PowerState.OFF);
+			cloudProvider.getPowerManager().powerOn(h);
+		}
+
+		simulator.schedule(Simulator.SECOND, new EventImpl() {
+			@Override
+			public void process() {
+				final Random random = new Random(0);
+				for (int i = 0; i < 200; i++) {
+					final Host h = hosts.get(random.nextInt(hosts.size()));
+					final long free = h.getRam().getFreeCapacity();
+					if (random.nextBoolean())
+						h.getRam().allocate((long) (random.nextDouble() * free));
+					else
+						h.getRam().free((long) (random.nextDouble() * (h.getRam().getCapacity() - free)));
+
+					final VirtualMachine vm = FactoryUtils.generateVirtualMachine(simulator.getConfig(), null);
+
+					Host expected = null;
+					for (Host c: cloudProvider.getPowerManager().getPoweredOnHosts()) {
+						if (!policy.canPlaceVm(vm, c))
+							continue;
+						if (expected == null)
+							expected = c;
+						else {
+							final long d = c.getRam().getFreeCapacity() - expected.getRam().getFreeCapacity();
+							if (best ? d < 0 : d > 0)
+								expected = c;
+						}
+					}
+
+					final Host selected = policy.selectHost(vm);
+					if (expected == null)
+						Assert.assertTrue(selected == null || selected.getPowerState() != PowerState.ON);
+					else {
+						//hosts with the same free ram capacity are equally good
+						Assert.assertTrue(policy.canPlaceVm(vm, selected));
+						Assert.assertEquals(expected.getRam().getFreeCapacity(), selected.getRam().getFreeCapacity());
+					}
+				}
+			}
+		});
+
+		simulator.start();
+	}
+
+	@Test
+	public void testBestFit() {
+		test(new VmPlacementPolicyIndexedBestFit(), true);
+	}
+
+	@Test
+	public void testWorstFit() {
+		test(new VmPlacementPolicyIndexedWorstFit(), false);
+	}
+}
@@ -0,0 +1,283 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.tracing;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.core.tracing.Probe;
+import com.samysadi.acs.core.tracing.Probed;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.tracing.AbstractAggregateProbe;
+import com.samysadi.acs.tracing.AbstractAggregateProbe.Aggregation;
+import com.samysadi.acs.tracing.HostProbeAggregator;
+import com.samysadi.acs.tracing.cp.CpHostRollupProbe;
+import com.samysadi.acs.tracing.cp.CpHostRollupProbe.Scope;
+import com.samysadi.acs.tracing.cp.CpMipsProbe;
+import com.samysadi.acs.tracing.host.HostMipsProbe;
+import com.samysadi.acs.tracing.job.JobMipsProbe;
+import com.samysadi.acs.tracing.vm.VmMipsProbe;
+import com.samysadi.acs.utility.NotificationCodes;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.utility.factory.FactoryUtils;
+import com.samysadi.acs.virtualization.VirtualMachine;
+import com.samysadi.acs.virtualization.job.Job;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class AbstractAggregateProbeTest {
+	private Simulator simulator;
+	private CloudProvider cloudProvider;
+
+	@After
+	public void afterTest() {
+		simulator.stop();
+		simulator.free();
+	}
+
+	@Before
+	public void prepareTest() {
+		simulator = Utils.newSimulator();
+		cloudProvider = simulator.getCloudProviders().get(0);
+		Utils.generateTopology0(simulator);
+	}
+
+	private static class HostVmMaxMipsProbe extends AbstractAggregateProbe {
+		@Override
+		protected Aggregation getAggregation() {
+			return Aggregation.MAX;
+		}
+
+		@Override
+		protected String getChildProbeKey() {
+			return VmMipsProbe.KEY;
+		}
+
+		@Override
+		protected int getChildAddedNotificationCode() {
+			return NotificationCodes.ENTITY_ADDED;
+		}
+
+		@Override
+		protected int getChildRemovedNotificationCode() {
+			return NotificationCodes.ENTITY_REMOVED;
+		}
+
+		@Override
+		protected boolean isChild(Object entity) {
+			return (entity instanceof VirtualMachine) && ((VirtualMachine) entity).getParent() == getParent();
+		}
+
+		@Override
+		protected Iterable<? extends Probed> getChildren() {
+			return ((Host) getParent()).getVirtualMachines();
+		}
+
+		@Override
+		public String getKey() {
+			return "HostVmMaxMips";
+		}
+	}
+
+	private static class HostVmCountProbe extends HostVmMaxMipsProbe {
+		@Override
+		protected Aggregation getAggregation() {
+			return Aggregation.COUNT;
+		}
+	}
+
+	private static long value(Probed probed, String key) {
+		return ((Long) probed.getProbe(key).getValue()).longValue();
+	}
+
+	private Job newJob(VirtualMachine vm) {
+		Job j = Factory.getFactory(simulator).newJob(null, null);
+		j.setParent(vm);
+		j.doStart();
+		return j;
+	}
+
+	@Test
+	public void test0() {
+		final Host h0 = cloudProvider.getHosts().get(0);
+		final VirtualMachine vm0 = Utils.getVmFor(h0);
+		final VirtualMachine vm1 = FactoryUtils.generateVirtualMachine(h0.getConfigRec(), null);
+		vm1.setParent(h0);
+		vm1.doStart();
+
+		final Probe<?> max = new HostVmMaxMipsProbe();
+		max.setup(h0);
+		final Probe<?> count = new HostVmCountProbe();
+		count.setup(h0);
+		Assert.assertEquals(Long.valueOf(2l), count.getValue());
+		Assert.assertEquals(Long.valueOf(0l), max.getValue());
+
+		final HostProbeAggregator aggregator = new HostProbeAggregator(cloudProvider, HostMipsProbe.KEY);
+		final AssertionError[] exc = new AssertionError[1];
+		final Job[] jobs = new Job[2];
+
+		simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				jobs[0] = newJob(vm0);
+				jobs[0].compute(1000 * Simulator.MI, null);
+				jobs[0].compute(3000 * Simulator.MI, null);
+				jobs[1] = newJob(vm1);
+				jobs[1].compute(1000 * Simulator.MI, null);
+			}
+		});
+
+		simulator.schedule(Simulator.MILLISECOND, new EventImpl() {
+			@Override
+			public void process() {
+				try {
+					final long j0 = value(jobs[0], JobMipsProbe.KEY);
+					final long j1 = value(jobs[1], JobMipsProbe.KEY);
+					Assert.assertTrue(j0 > 0 && j1 > 0);
+					Assert.assertEquals(j0, value(vm0, VmMipsProbe.KEY));
+					Assert.assertEquals(j1, value(vm1, VmMipsProbe.KEY));
+
+					final long h = value(h0, HostMipsProbe.KEY);
+					Assert.assertEquals(j0 + j1, h);
+					Assert.assertEquals(h, value(cloudProvider, CpMipsProbe.KEY));
+					Assert.assertEquals(Long.valueOf(Math.max(j0, j1)), max.getValue());
+
+					Assert.assertEquals(h, aggregator.getValue(h0.getRack()));
+					Assert.assertEquals(h, aggregator.getValue(h0.getRack().getCluster()));
+					Assert.assertEquals(h, aggregator.getValue(h0.getRack().getCluster().getDatacenter()));
+					Assert.assertEquals(h, aggregator.getValue(cloudProvider.getCloud().getDatacenters().get(0)));
+
+					vm1.unplace();
+				} catch (AssertionError e) {
+					exc[0] = e;
+				}
+			}
+		});
+
+		simulator.schedule(2 * Simulator.MILLISECOND, new EventImpl() {
+			@Override
+			public void process() {
+				try {
+					Assert.assertEquals(Long.valueOf(1l), count.getValue());
+					Assert.assertEquals(Long.valueOf(value(vm0, VmMipsProbe.KEY)), max.getValue());
+					Assert.assertEquals(value(vm0, VmMipsProbe.KEY), value(h0, HostMipsProbe.KEY));
+					Assert.assertEquals(value(h0, HostMipsProbe.KEY), aggregator.getValue(h0.getRack()));
+				} catch (AssertionError e) {
+					exc[0] = e;
+				}
+			}
+		});
+
+		simulator.start();
+		if (exc[0] != null)
+			throw exc[0];
+
+		Assert.assertEquals(0l, value(h0, HostMipsProbe.KEY));
+		Assert.assertEquals(0l, value(cloudProvider, CpMipsProbe.KEY));
+		Assert.assertEquals(Long.valueOf(0l), max.getValue());
+		Assert.assertEquals(0l, aggregator.getValue(h0.getRack()));
+
+		cloudProvider.addRack();
+		Assert.assertEquals(0l, aggregator.getValue(cloudProvider.getDefaultRack()));
+
+		aggregator.discard();
+		max.discard();
+		count.discard();
+	}
+
+	@Test
+	public void testHostRollupProbes() {
+		final Host h0 = cloudProvider.getHosts().get(0);
+		final Host h1 = cloudProvider.getHosts().get(1);
+		Assert.assertSame(h0.getRack(), h1.getRack());
+		final int rack = cloudProvider.getCloud().getRacks().indexOf(h0.getRack());
+
+		final String sumKey = CpHostRollupProbe.getKey(Aggregation.SUM, Scope.RACK, rack, HostMipsProbe.KEY);
+		Assert.assertEquals("CpHostRollup-Sum-Rack" + rack + "-HostMips", sumKey);
+		final String countKey = CpHostRollupProbe.getKey(Aggregation.COUNT, Scope.DATACENTER, 0, null);
+		Assert.assertEquals("CpHostRollup-Count-Datacenter0", countKey);
+
+		//probes are created by the factory using their key, like the probes of traces
+		final Probe<?> sum = cloudProvider.getProbe(sumKey);
+		Assert.assertTrue(sum instanceof CpHostRollupProbe);
+		Assert.assertEquals(sumKey, sum.getKey());
+		final Probe<?> max = cloudProvider.getProbe("CpHostRollup-Max-Cluster0-HostMips");
+		final Probe<?> count = cloudProvider.getProbe(countKey);
+		Assert.assertEquals(Long.valueOf(cloudProvider.getHosts().size()), count.getValue());
+		Assert.assertEquals(Long.valueOf(0l), sum.getValue());
+
+		for (String key: new String[] {"CpHostRollup-Avg-Rack0-HostMips", "CpHostRollup-Sum-Rack0",
+				"CpHostRollup-Sum-Row0-HostMips", "CpHostRollup-Sum-Rack-HostMips", "CpHostRollup-Sum-Rack100-HostMips"}) {
+			try {
+				cloudProvider.getProbe(key);
+				Assert.fail(key);
+			} catch (IllegalArgumentException e) {
+				//illegal key
+			}
+		}
+
+		final AssertionError[] exc = new AssertionError[1];
+		simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				newJob(Utils.getVmFor(h0)).compute(1000 * Simulator.MI, null);
+				newJob(Utils.getVmFor(h0)).compute(1000 * Simulator.MI, null);
+				newJob(Utils.getVmFor(h1)).compute(1000 * Simulator.MI, null);
+			}
+		});
+
+		simulator.schedule(Simulator.MILLISECOND, new EventImpl() {
+			@Override
+			public void process() {
+				try {
+					final long v0 = value(h0, HostMipsProbe.KEY);
+					final long v1 = value(h1, HostMipsProbe.KEY);
+					Assert.assertTrue(v0 > 0 && v1 > 0);
+					Assert.assertEquals(Long.valueOf(v0 + v1), sum.getValue());
+					Assert.assertEquals(Long.valueOf(Math.max(v0, v1)), max.getValue());
+				} catch (AssertionError e) {
+					exc[0] = e;
+				}
+			}
+		});
+
+		simulator.start();
+		if (exc[0] != null)
+			throw exc[0];
+
+		Assert.assertEquals(Long.valueOf(0l), sum.getValue());
+		Assert.assertEquals(Long.valueOf(0l), max.getValue());
+	}
+}
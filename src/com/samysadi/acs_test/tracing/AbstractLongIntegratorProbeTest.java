@@ -0,0 +1,137 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.tracing;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.core.notifications.NotificationListener;
+import com.samysadi.acs.core.notifications.Notifier;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.tracing.AbstractLongIntegratorProbe;
+import com.samysadi.acs.tracing.host.HostMipsTotalProbe;
+import com.samysadi.acs.tracing.job.JobMipsTotalProbe;
+import com.samysadi.acs.utility.NotificationCodes;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.virtualization.job.Job;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class AbstractLongIntegratorProbeTest {
+	private Simulator simulator;
+	private CloudProvider cloudProvider;
+
+	@After
+	public void afterTest() {
+		simulator.stop();
+		simulator.free();
+	}
+
+	@Before
+	public void prepareTest() {
+		simulator = Utils.newSimulator();
+		cloudProvider = simulator.getCloudProviders().get(0);
+		Utils.generateTopology0(simulator);
+	}
+
+	private int tickListenersCount() {
+		int c = 0;
+		for (NotificationListener l: simulator.getListeners(NotificationCodes.SIMULATOR_TICK))
+			if (l.canBeNotified())
+				c++;
+		return c;
+	}
+
+	@Test
+	public void test0() {
+		final Host h0 = cloudProvider.getHosts().get(0);
+		final Job job = Factory.getFactory(simulator).newJob(null, null);
+		job.setParent(Utils.getVmFor(h0));
+		job.doStart();
+
+		final long length = 1000 * Simulator.MI;
+		final AbstractLongIntegratorProbe jobTotal = (AbstractLongIntegratorProbe) job.getProbe(JobMipsTotalProbe.KEY);
+		final AbstractLongIntegratorProbe hostTotal = (AbstractLongIntegratorProbe) h0.getProbe(HostMipsTotalProbe.KEY);
+		final NotificationListener l = new NotificationListener() {
+			@Override
+			protected void notificationPerformed(Notifier notifier,
+					int notification_code, Object data) {
+				//nothing
+			}
+		};
+		final int ticks = tickListenersCount();
+		final AssertionError[] exc = new AssertionError[1];
+
+		simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				job.compute(length, null);
+			}
+		});
+
+		simulator.schedule(Simulator.MILLISECOND, new EventImpl() {
+			@Override
+			public void process() {
+				try {
+					//running, but not listened
+					Assert.assertEquals(ticks, tickListenersCount());
+					final long v = jobTotal.getValue().longValue();
+					Assert.assertTrue(v > 0 && v < length);
+					Assert.assertTrue(jobTotal.getValueAt(simulator.getTime() + Simulator.MILLISECOND) > v);
+					Assert.assertEquals(v, hostTotal.getValue().longValue());
+
+					hostTotal.addListener(NotificationCodes.PROBE_VALUE_CHANGED, l);
+					Assert.assertEquals(ticks + 1, tickListenersCount());
+				} catch (AssertionError e) {
+					exc[0] = e;
+				}
+			}
+		});
+
+		simulator.start();
+		if (exc[0] != null)
+			throw exc[0];
+
+		//not running anymore
+		Assert.assertEquals(ticks, tickListenersCount());
+		Assert.assertEquals(length, jobTotal.getValue().longValue(), 10d);
+		Assert.assertEquals(length, hostTotal.getValue().longValue(), 10d);
+		Assert.assertEquals(hostTotal.getValue(), Long.valueOf(hostTotal.getValueAt(simulator.getTime() + Simulator.SECOND)));
+
+		hostTotal.removeListener(NotificationCodes.PROBE_VALUE_CHANGED, l);
+		hostTotal.discard();
+		jobTotal.discard();
+	}
+}
@@ -0,0 +1,108 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+
+package com.samysadi.acs_test.utility.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.utility.collections.ArraySet;
+
+/**
+ *
+ * @since 1.3
+ */
+public class ArraySetTest {
+
+	private static void assertSame(List<Object> expected, ArraySet<Object> actual, List<Object> all) {
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+			Assert.assertSame(expected.get(i), actual.get(i));
+		for (Object o: all)
+			Assert.assertEquals(expected.indexOf(o), actual.indexOf(o));
+	}
+
+	@Test
+	public void test() {
+		final Random random = new Random(0);
+		final List<Object> all = new ArrayList<Object>();
+		for (int i = 0; i < 500; i++)
+			all.add(new Object());
+
+		final ArraySet<Object> set = new ArraySet<Object>();
+		final List<Object> expected = new ArrayList<Object>();
+		for (int step = 0; step < 20000; step++) {
+			final int op = random.nextInt(10);
+			if (op < 6) {
+				final Object o = all.get(random.nextInt(all.size()));
+				final boolean added = !expected.contains(o);
+				if (added)
+					expected.add(o);
+				Assert.assertEquals(added, set.add(o));
+			} else if (op < 8) {
+				final Object o = all.get(random.nextInt(all.size()));
+				final int index = expected.indexOf(o);
+				if (index >= 0) {
+					//the last element takes the place of the removed one
+					final Object last = expected.remove(expected.size() - 1);
+					if (last != o)
+						expected.set(index, last);
+				}
+				Assert.assertEquals(index >= 0, set.remove(o));
+			} else if (op < 9 && !expected.isEmpty()) {
+				final int index = random.nextInt(expected.size());
+				final Object last = expected.remove(expected.size() - 1);
+				final Object o = index == expected.size() ? last : expected.set(index, last);
+				Assert.assertSame(o, set.remove(index));
+			} else if (random.nextInt(100) == 0) {
+				expected.clear();
+				set.clear();
+			}
+			if (step % 100 == 0)
+				assertSame(expected, set, all);
+		}
+		assertSame(expected, set, all);
+	}
+
+	@Test
+	public void testIdentity() {
+		final ArraySet<Object> set = new ArraySet<Object>();
+		final String a = new String("a");
+		final String b = new String("a");
+		Assert.assertTrue(set.add(a));
+		Assert.assertTrue(set.add(b));
+		Assert.assertEquals(2, set.size());
+		Assert.assertFalse(set.contains(new String("a")));
+		Assert.assertFalse(set.contains(null));
+		Assert.assertTrue(set.remove(b));
+		Assert.assertSame(a, set.get(0));
+	}
+}
@@ -26,10 +26,15 @@ along with ACS. If not, see <http://www.gnu.org/licenses/>.
 
 package com.samysadi.acs_test.utility.structure;
 
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.samysadi.acs.utility.collections.Bitmap;
+import com.samysadi.acs.utility.collections.Bitmap.SubBitmap;
 
 
 /**
@@ -157,4 +162,91 @@ public class BitmapTest {
 		System.out.println(m.toString());
 	}
 
+	private static void assertSame(BitSet r, Bitmap m, int domain) {
+		Assert.assertEquals(r.cardinality(), m.getMarkedSize());
+		for (int i = 0; i < domain; i++)
+			Assert.assertEquals(r.get(i), m.isMarked(i));
+
+		//zones must be disjoint and must not touch each other
+		final BitSet z = new BitSet();
+		long lastEnd = -2;
+		Iterator<SubBitmap> it = m.getMarkedSubBitmapsIterator();
+		while (it.hasNext()) {
+			final SubBitmap s = it.next();
+			Assert.assertTrue(s.getLength() > 0);
+			Assert.assertTrue(s.getStartIndex() > lastEnd + 1);
+			lastEnd = s.getStartIndex() + s.getLength() - 1;
+			z.set((int) s.getStartIndex(), (int) (lastEnd + 1));
+		}
+		Assert.assertEquals(r, z);
+	}
+
+	@Test
+	public void testRandom() {
+		final int domain = 512;
+		final Random random = new Random(0);
+
+		//the reference implementation is a plain bitset
+		BitSet r = new BitSet();
+		Bitmap m = new Bitmap();
+
+		for (int i = 0; i < 20000; i++) {
+			final int op = random.nextInt(10);
+			final int start = random.nextInt(domain);
+			final int length = random.nextInt(Math.min(64, domain - start) + 1);
+			if (op < 4) {
+				m.mark(start, length);
+				r.set(start, start + length);
+			} else if (op < 8) {
+				m.unmark(start, length);
+				r.clear(start, start + length);
+			} else if (op < 9) {
+				m.mark((long) length);
+				for (int k = 0; k < length; k++)
+					r.set(r.nextClearBit(0));
+			} else {
+				m.unmark((long) length);
+				for (int k = 0; k < length && !r.isEmpty(); k++)
+					r.clear(r.length() - 1);
+			}
+			assertSame(r, m, domain);
+
+			final Bitmap c = m.clone();
+			Assert.assertEquals(m, c);
+			Assert.assertEquals(m.hashCode(), c.hashCode());
+		}
+
+		final Bitmap m2 = new Bitmap();
+		final BitSet r2 = new BitSet();
+		for (int i = 0; i < 50; i++) {
+			final int start = random.nextInt(domain);
+			final int length = random.nextInt(domain - start);
+			m2.mark(start, length);
+			r2.set(start, start + length);
+		}
+
+		Bitmap t = m.clone();
+		t.bitwiseAnd(m2);
+		BitSet rt = (BitSet) r.clone();
+		rt.and(r2);
+		assertSame(rt, t, domain);
+
+		t = m.clone();
+		t.bitwiseOr(m2);
+		rt = (BitSet) r.clone();
+		rt.or(r2);
+		assertSame(rt, t, domain);
+
+		t = m.clone();
+		t.bitwiseXor(m2);
+		rt = (BitSet) r.clone();
+		rt.xor(r2);
+		assertSame(rt, t, domain);
+
+		t = m.clone();
+		t.bitwiseNot();
+		Assert.assertEquals(Bitmap.MAX_BITMAP_SIZE - m.getMarkedSize(), t.getMarkedSize());
+		t.bitwiseNot();
+		Assert.assertEquals(m, t);
+	}
 }
@@ -0,0 +1,122 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.utility.structure;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.utility.collections.Sampling;
+import com.samysadi.acs.utility.collections.ShuffledIterator;
+
+/**
+ *
+ * @since 1.3
+ */
+public class ShuffledIteratorTest {
+
+	@Test
+	public void test() {
+		for (int size: new int[] {0, 1, 2, 10, 1000, 100000}) {
+			final List<Integer> l = new ArrayList<Integer>(size);
+			for (int i = 0; i < size; i++)
+				l.add(i);
+
+			//the reference implementation is a full Fisher-Yates shuffle
+			final Random random = new Random(size);
+			final int[] indices = new int[size];
+			for (int i = 0; i < size; i++)
+				indices[i] = i;
+
+			final ShuffledIterator<Integer> it = new ShuffledIterator<Integer>(l, new Random(size));
+			for (int s = size; s > 0; s--) {
+				Assert.assertTrue(it.hasNext());
+				final int n = random.nextInt(s);
+				final int z = indices[n];
+				indices[n] = indices[s - 1];
+				Assert.assertEquals(z, it.next().intValue());
+			}
+			Assert.assertFalse(it.hasNext());
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testLarge() {
+		//tables larger than 65536 slots must not degrade into long probe sequences
+		final int size = 1 << 19;
+		final List<Integer> l = new ArrayList<Integer>(size);
+		for (int i = 0; i < size; i++)
+			l.add(i);
+
+		final boolean[] seen = new boolean[size];
+		final ShuffledIterator<Integer> it = new ShuffledIterator<Integer>(l, new Random(0));
+		int count = 0;
+		while (it.hasNext()) {
+			final int v = it.next().intValue();
+			Assert.assertFalse(seen[v]);
+			seen[v] = true;
+			count++;
+		}
+		Assert.assertEquals(size, count);
+	}
+
+	@Test
+	public void testSampling() {
+		final List<Integer> l = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++)
+			l.add(i);
+
+		Assert.assertNull(Sampling.randomElement(new ArrayList<Integer>(), new Random(0)));
+		Assert.assertEquals(new ShuffledIterator<Integer>(l, new Random(1)).next(),
+				Sampling.randomElement(l, new Random(1)));
+
+		final List<Integer> s = Sampling.sample(l, 20, new Random(2));
+		final ShuffledIterator<Integer> it = new ShuffledIterator<Integer>(l, new Random(2));
+		for (Integer e: s)
+			Assert.assertEquals(it.next(), e);
+		Assert.assertEquals(20, s.size());
+		Assert.assertEquals(l.size(), Sampling.sample(l, 2000, new Random(2)).size());
+
+		final List<Integer> r = Sampling.reservoirSample(l.iterator(), 20, new Random(3));
+		Assert.assertEquals(20, r.size());
+		Assert.assertEquals(20, new HashSet<Integer>(r).size());
+		Assert.assertEquals(10, Sampling.reservoirSample(l.subList(0, 10).iterator(), 20, new Random(3)).size());
+
+		//each element should be drawn with the same probability
+		final int[] counts = new int[10];
+		final Random random = new Random(4);
+		for (int i = 0; i < 10000; i++)
+			for (Integer e: Sampling.reservoirSample(l.subList(0, 10).iterator(), 3, random))
+				counts[e]++;
+		for (int c: counts)
+			Assert.assertEquals(3000, c, 300);
+	}
+}
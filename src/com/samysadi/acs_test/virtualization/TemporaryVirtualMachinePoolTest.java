@@ -0,0 +1,136 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.virtualization;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.hardware.network.operation.NetworkOperation;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.virtualization.TemporaryVirtualMachine;
+import com.samysadi.acs.virtualization.TemporaryVirtualMachinePool;
+import com.samysadi.acs.virtualization.VirtualMachine;
+import com.samysadi.acs.virtualization.job.Job;
+import com.samysadi.acs_test.Utils;
+
+/**
+ *
+ * @since 1.3
+ */
+public class TemporaryVirtualMachinePoolTest {
+	private Simulator simulator;
+	private CloudProvider cloudProvider;
+
+	@After
+	public void afterTest() {
+		simulator.stop();
+		simulator.free();
+	}
+
+	@Before
+	public void prepareTest() {
+		simulator = Utils.newSimulator();
+		cloudProvider = simulator.getCloudProviders().get(0);
+		Utils.generateTopology0(simulator);
+	}
+
+	@Test
+	public void testAcquire() {
+		final Host host = cloudProvider.getHosts().get(0);
+
+		Assert.assertTrue(TemporaryVirtualMachinePool.canAcquire(simulator, host, null));
+
+		final VirtualMachine vm0 = TemporaryVirtualMachinePool.acquire(simulator, host, null);
+		final VirtualMachine vm1 = TemporaryVirtualMachinePool.acquire(simulator, host, null);
+		Assert.assertTrue(vm0 instanceof TemporaryVirtualMachine);
+		Assert.assertTrue(vm0.isRunning());
+		Assert.assertSame(vm0, vm1);
+		Assert.assertEquals(1, host.getVirtualMachines().size());
+
+		TemporaryVirtualMachinePool.release(vm0);
+		Assert.assertTrue(vm0.isRunning());
+		Assert.assertSame(host, vm0.getParent());
+
+		TemporaryVirtualMachinePool.release(vm1);
+		Assert.assertTrue(vm0.isTerminated());
+		Assert.assertNull(vm0.getParent());
+
+		final VirtualMachine vm2 = TemporaryVirtualMachinePool.acquire(simulator, host, null);
+		Assert.assertNotSame(vm0, vm2);
+		Assert.assertTrue(vm2.isRunning());
+		TemporaryVirtualMachinePool.release(vm2);
+		Assert.assertEquals(0, host.getVirtualMachines().size());
+	}
+
+	@Test
+	public void testTransfers() {
+		final Host host = cloudProvider.getHosts().get(0);
+		final Job[] remoteJobs = new Job[2];
+		final VirtualMachine[] remoteVms = new VirtualMachine[2];
+
+		simulator.schedule(new EventImpl() {
+			@Override
+			public void process() {
+				Job j = Factory.getFactory(simulator).newJob(null, null);
+				j.setParent(Utils.getVmFor(cloudProvider.getHosts().get(1)));
+				j.doStart();
+
+				NetworkOperation o0 = j.sendData(host, 1000l, null);
+				NetworkOperation o1 = j.sendData(host, 2000l, null);
+				remoteJobs[0] = o0.getDestinationJob();
+				remoteJobs[1] = o1.getDestinationJob();
+				remoteVms[0] = remoteJobs[0].getParent();
+				remoteVms[1] = remoteJobs[1].getParent();
+			}
+		});
+
+		//temporary jobs are released using dispensable events, keep the simulation running
+		simulator.schedule(Simulator.SECOND, new EventImpl() {
+			@Override
+			public void process() {
+				//nothing
+			}
+		});
+
+		simulator.start();
+
+		Assert.assertNotNull(remoteJobs[0]);
+		Assert.assertNotSame(remoteJobs[0], remoteJobs[1]);
+		Assert.assertSame("Concurrent transfers did not share the temporary vm", remoteVms[0], remoteVms[1]);
+		Assert.assertTrue(remoteVms[0].isTerminated());
+		Assert.assertNull("Temporary jobs were not removed", remoteJobs[0].getParent());
+		Assert.assertNull("Temporary jobs were not removed", remoteJobs[1].getParent());
+		for (VirtualMachine vm: host.getVirtualMachines())
+			Assert.assertFalse("Temporary vm was not removed", vm instanceof TemporaryVirtualMachine);
+	}
+}
@@ -0,0 +1,145 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.virtualization.job.operation.provisioner;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.core.entity.RunnableEntity;
+import com.samysadi.acs.core.entity.RunnableEntity.RunnableState;
+import com.samysadi.acs.core.event.EventImpl;
+import com.samysadi.acs.core.notifications.NotificationListener;
+import com.samysadi.acs.core.notifications.Notifier;
+import com.samysadi.acs.hardware.Host;
+import com.samysadi.acs.hardware.network.operation.provisioner.FairNetworkProvisioner;
+import com.samysadi.acs.hardware.network.operation.provisioner.FastFairNetworkProvisioner;
+import com.samysadi.acs.hardware.pu.operation.provisioner.FairComputingProvisioner;
+import com.samysadi.acs.hardware.pu.operation.provisioner.FastFairComputingProvisioner;
+import com.samysadi.acs.service.CloudProvider;
+import com.samysadi.acs.utility.factory.Factory;
+import com.samysadi.acs.virtualization.job.Job;
+import com.samysadi.acs_test.Utils;
+
+/**
+ * Checks that batched rebalancing gives the same completion times as immediate invalidations,
+ * for concurrent computing and network operations.
+ *
+ * @since 1.3
+ */
+public class BatchProvisionerTest {
+	private static final int STEPS = 10;
+	private static final int COMPUTING_PER_STEP = 4;
+	private static final int NETWORK_PER_STEP = 3;
+
+	private static Job newJob(Host h) {
+		Job j = Factory.getFactory(Simulator.getSimulator()).newJob(null, null);
+		j.setParent(Utils.getVmFor(h));
+		j.doStart();
+		return j;
+	}
+
+	/**
+	 * Runs the same operations using the given provisioners, and returns the completion time of each operation.
+	 */
+	private static long[] run(Class<?> computingProvisioner, Class<?> networkProvisioner, boolean batched) {
+		final Simulator simulator = Utils.newSimulator();
+		simulator.getConfig().setString("ComputingProvisioner_Class", computingProvisioner.getName());
+		simulator.getConfig().setString("NetworkProvisioner_Class", networkProvisioner.getName());
+		simulator.getConfig().setBoolean("Provisioner.BatchRebalancing", batched);
+		final CloudProvider cloudProvider = simulator.getCloudProviders().get(0);
+		Utils.generateTopology0(simulator);
+		//hosts do not share the simulator's configuration
+		for (Host h: cloudProvider.getHosts())
+			h.getConfigRec().setBoolean("Provisioner.BatchRebalancing", batched);
+
+		final int opsPerStep = COMPUTING_PER_STEP + NETWORK_PER_STEP;
+		final long[] completion = new long[STEPS * opsPerStep];
+		final Random random = new Random(0);
+
+		for (int step = 0; step < STEPS; step++) {
+			final int first = step * opsPerStep;
+			final long[] lengths = new long[opsPerStep];
+			final int[] hosts = new int[opsPerStep * 2];
+			for (int i = 0; i < opsPerStep; i++) {
+				lengths[i] = (1 + random.nextInt(100)) * (i < COMPUTING_PER_STEP ? 100 * Simulator.MI : Simulator.MEBIBYTE);
+				hosts[2 * i] = random.nextInt(cloudProvider.getHosts().size());
+				hosts[2 * i + 1] = random.nextInt(cloudProvider.getHosts().size() - 1);
+				if (hosts[2 * i + 1] >= hosts[2 * i])
+					hosts[2 * i + 1]++;
+			}
+
+			simulator.schedule(step * 500 * Simulator.MILLISECOND, new EventImpl() {
+				@Override
+				public void process() {
+					for (int i = 0; i < opsPerStep; i++) {
+						final int index = first + i;
+						final NotificationListener l = new NotificationListener() {
+							@Override
+							protected void notificationPerformed(Notifier notifier,
+									int notification_code, Object data) {
+								if (((RunnableEntity) notifier).getRunnableState() == RunnableState.COMPLETED)
+									completion[index] = Simulator.getSimulator().getTime();
+							}
+						};
+						final Job src = newJob(cloudProvider.getHosts().get(hosts[2 * i]));
+						if (i < COMPUTING_PER_STEP)
+							src.compute(lengths[i], l);
+						else
+							src.sendData(newJob(cloudProvider.getHosts().get(hosts[2 * i + 1])), lengths[i], l);
+					}
+				}
+			});
+		}
+
+		simulator.start();
+		simulator.stop();
+		simulator.free();
+		return completion;
+	}
+
+	private static void assertSameCompletions(long[] expected, long[] actual) {
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertTrue("Operation " + i + " did not complete", expected[i] > 0);
+			Assert.assertEquals("Operation " + i, expected[i], actual[i]);
+		}
+	}
+
+	@Test
+	public void testFair() {
+		assertSameCompletions(run(FairComputingProvisioner.class, FairNetworkProvisioner.class, false),
+				run(FairComputingProvisioner.class, FairNetworkProvisioner.class, true));
+	}
+
+	@Test
+	public void testFastFair() {
+		assertSameCompletions(run(FastFairComputingProvisioner.class, FastFairNetworkProvisioner.class, false),
+				run(FastFairComputingProvisioner.class, FastFairNetworkProvisioner.class, true));
+	}
+}
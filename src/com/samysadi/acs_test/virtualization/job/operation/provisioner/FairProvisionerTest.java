@@ -0,0 +1,240 @@
+/*
+===============================================================================
+Copyright (c) 2014-2015, Samy Sadi. All rights reserved.
+DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+
+This file is part of ACS - Advanced Cloud Simulator.
+
+ACS is part of a research project undertaken by
+Samy Sadi (samy.sadi.contact@gmail.com) and supervised by
+Belabbas Yagoubi (byagoubi@gmail.com) in the
+University of Oran1 Ahmed Benbella, Algeria.
+
+ACS is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License version 3
+as published by the Free Software Foundation.
+
+ACS is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with ACS. If not, see <http://www.gnu.org/licenses/>.
+===============================================================================
+*/
+
+package com.samysadi.acs_test.virtualization.job.operation.provisioner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.samysadi.acs.core.Simulator;
+import com.samysadi.acs.hardware.pu.operation.ComputingOperationDefault;
+import com.samysadi.acs.hardware.pu.operation.ComputingResource;
+import com.samysadi.acs.hardware.pu.operation.provisioner.FairComputingProvisioner;
+import com.samysadi.acs.utility.NotificationCodes;
+import com.samysadi.acs_test.Utils;
+
+/**
+ * Compares {@link FairComputingProvisioner} promises and invalidations with the
+ * sort-based computation that was used before operations were grouped by allocated resource.
+ *
+ * @since 1.3
+ */
+public class FairProvisionerTest {
+	private Simulator simulator;
+
+	@After
+	public void afterTest() {
+		simulator.stop();
+		simulator.free();
+	}
+
+	@Before
+	public void beforeTest() {
+		simulator = Utils.newSimulator();
+	}
+
+	private static final HashSet<TestOperation> invalidated = new HashSet<TestOperation>();
+
+	/**
+	 * An operation of which allocated resource is set by the test, and that records invalidations.
+	 */
+	private static final class TestOperation extends ComputingOperationDefault {
+		private ComputingResource resource;
+
+		public TestOperation() {
+			super(Simulator.MI);
+			this.resource = null;
+		}
+
+		@Override
+		public ComputingResource getAllocatedResource() {
+			return this.resource;
+		}
+
+		@Override
+		public void notify(int notification_code, Object data) {
+			if (notification_code == NotificationCodes.OPERATION_RESOURCE_INVALIDATED)
+				invalidated.add(this);
+			else
+				super.notify(notification_code, data);
+		}
+	}
+
+	private static long[] sortedAllocations(List<TestOperation> running, TestOperation excluded) {
+		final long[] a = new long[running.size()];
+		int n = 0;
+		for (TestOperation op: running)
+			if (op != excluded)
+				a[n++] = op.getAllocatedResource().getLong();
+		final long[] r = Arrays.copyOf(a, n);
+		Arrays.sort(r);
+		return r;
+	}
+
+	/**
+	 * Sort-based promise computation
+	 */
+	private static long referencePromise(List<TestOperation> running, TestOperation operation, long capacity) {
+		long c = capacity;
+		int count = running.size();
+		if (!running.contains(operation))
+			count++;
+		for (long v: sortedAllocations(running, operation)) {
+			final long avg = Math.round(Math.floor((double)c/count));
+			if (v < avg)
+				c-= v;
+			else
+				return avg;
+			count--;
+		}
+		return c;
+	}
+
+	/**
+	 * Sort-based fair share computation
+	 */
+	private static long referenceShare(List<TestOperation> running, long capacity) {
+		long c = capacity;
+		int count = running.size();
+		for (long v: sortedAllocations(running, null)) {
+			final long avg = Math.round(Math.floor((double)c/count));
+			if (v < avg)
+				c-= v;
+			else
+				return avg;
+			count--;
+		}
+		return Long.MAX_VALUE;
+	}
+
+	private static void checkPromises(FairComputingProvisioner p, List<TestOperation> running, long capacity) {
+		for (TestOperation op: running)
+			Assert.assertEquals(referencePromise(running, op, capacity), p.getResourcePromise(op).getLong());
+		final TestOperation op = new TestOperation();
+		Assert.assertEquals(referencePromise(running, op, capacity), p.getResourcePromise(op).getLong());
+	}
+
+	/**
+	 * Returns an allocation that is not greater than the given <tt>promise</tt>, and that is
+	 * often equal to the fair share or to the allocation of another operation.
+	 */
+	private static long nextAllocation(Random random, List<TestOperation> running, long promise, long share) {
+		switch (random.nextInt(4)) {
+		case 0:
+			return promise;
+		case 1:
+			if (share <= promise)
+				return share;
+			//$FALL-THROUGH$
+		case 2:
+			if (!running.isEmpty()) {
+				final long v = running.get(random.nextInt(running.size())).getAllocatedResource().getLong();
+				if (v <= promise)
+					return v;
+			}
+			//$FALL-THROUGH$
+		default:
+			return promise == 0 ? 0 : (long) (random.nextDouble() * promise);
+		}
+	}
+
+	@Test
+	public void testRandom() {
+		final Random random = new Random(0);
+		int grants = 0;
+		int revokes = 0;
+		int ties = 0;
+		for (int round = 0; round < 20; round++) {
+			final long capacity = 1 + random.nextInt(round % 2 == 0 ? 100 : 100000);
+			final FairComputingProvisioner p = new FairComputingProvisioner(capacity);
+			final List<TestOperation> running = new ArrayList<TestOperation>();
+
+			for (int step = 0; step < 300; step++) {
+				checkPromises(p, running, capacity);
+
+				final int action = running.isEmpty() ? 0 : random.nextInt(3);
+				invalidated.clear();
+				if (action == 2) {
+					//revoke, operations that use at least the old share are notified
+					final TestOperation op = running.get(random.nextInt(running.size()));
+					final long share = referenceShare(running, capacity);
+					final HashSet<TestOperation> expected = new HashSet<TestOperation>();
+					for (TestOperation o: running)
+						if (o != op && o.getAllocatedResource().getLong() >= share) {
+							expected.add(o);
+							if (o.getAllocatedResource().getLong() == share)
+								ties++;
+						}
+					//other operations use less than their promise already
+					for (TestOperation o: running)
+						if (o != op && !expected.contains(o))
+							Assert.assertTrue(o.getAllocatedResource().getLong() < referencePromise(running, o, capacity));
+
+					p.revokeAllocatedResource(op);
+					running.remove(op);
+					Assert.assertEquals(expected, invalidated);
+					revokes++;
+				} else {
+					//grant a new operation, or grant again a running operation with a new allocation
+					final TestOperation op = action == 0 ? new TestOperation() : running.get(random.nextInt(running.size()));
+					final long promise = referencePromise(running, op, capacity);
+					op.resource = new ComputingResource(
+							nextAllocation(random, running, promise, referenceShare(running, capacity)));
+					p.grantAllocatedResource(op);
+					if (!running.contains(op))
+						running.add(op);
+
+					//operations that use more than the new share are notified
+					final long share = referenceShare(running, capacity);
+					final HashSet<TestOperation> expected = new HashSet<TestOperation>();
+					for (TestOperation o: running)
+						if (o != op) {
+							if (o.getAllocatedResource().getLong() > share)
+								expected.add(o);
+							else if (o.getAllocatedResource().getLong() == share)
+								ties++;
+						}
+					//other operations do not need to release resources
+					for (TestOperation o: running)
+						if (o != op && !expected.contains(o))
+							Assert.assertTrue(o.getAllocatedResource().getLong() <= referencePromise(running, o, capacity));
+
+					Assert.assertEquals(expected, invalidated);
+					grants++;
+				}
+			}
+		}
+		Assert.assertTrue(grants > 0 && revokes > 0 && ties > 0);
+	}
+}